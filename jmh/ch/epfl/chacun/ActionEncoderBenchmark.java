@@ -0,0 +1,42 @@
+package ch.epfl.chacun;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the decoding and application of the actions of a recorded game
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ActionEncoderBenchmark {
+
+    @Param({"2024"})
+    public long seed;
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private GameState state;
+    private String action;
+
+    @Setup
+    public void setup() {
+        RecordedGame game = RecordedGame.record(seed);
+        int index = game.actionIndex(stage, GameState.Action.PLACE_TILE);
+        state = game.stateBefore(index);
+        action = game.action(index);
+    }
+
+    @Benchmark
+    public ActionEncoder.StateAction decodeAndApply() {
+        return ActionEncoder.decodeAndApply(state, action);
+    }
+}
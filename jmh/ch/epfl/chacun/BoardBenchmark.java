@@ -0,0 +1,61 @@
+package ch.epfl.chacun;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the operations of the board, on the boards of a recorded game
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class BoardBenchmark {
+
+    @Param({"2024"})
+    public long seed;
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private Board board;
+    private PlacedTile nextTile;
+
+    @Setup
+    public void setup() {
+        RecordedGame game = RecordedGame.record(seed);
+        int index = game.actionIndex(stage, GameState.Action.PLACE_TILE);
+        board = game.stateBefore(index).board();
+        nextTile = game.stateAfter(index).board().lastPlacedTile();
+    }
+
+    @Benchmark
+    public Board withNewTile() {
+        return board.withNewTile(nextTile);
+    }
+
+    /**
+     * Measures the sorting of the insertion positions of a board on which they were never listed,
+     * as the list is kept by the board once computed: the time of {@link #withNewTile()} is to be subtracted
+     */
+    @Benchmark
+    public List<Pos> sortedInsertionPositions() {
+        return board.withNewTile(nextTile).sortedInsertionPositions();
+    }
+
+    /**
+     * Measures whether the next tile could be placed on a board on which no tile was tested yet,
+     * the fringe of the board being checked once per board and then kept
+     */
+    @Benchmark
+    public boolean couldPlaceTile() {
+        return new PlacementChecker(board).couldPlace(nextTile.tile());
+    }
+}
@@ -0,0 +1,33 @@
+package ch.epfl.chacun;
+
+/**
+ * Represents the stage of a recorded game at which an operation is benchmarked
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public enum GameStage {
+    EARLY(0.1),
+    MID(0.5),
+    LATE(0.9);
+
+    private final double progress;
+
+    /**
+     * Creates a new stage
+     *
+     * @param progress the fraction of the actions of the game played before the stage
+     */
+    GameStage(double progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Returns the fraction of the actions of the game played before the stage
+     *
+     * @return the fraction of the actions of the game played before the stage
+     */
+    double progress() {
+        return progress;
+    }
+}
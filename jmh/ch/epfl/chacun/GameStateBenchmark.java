@@ -0,0 +1,73 @@
+package ch.epfl.chacun;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the actions of the players, on the states of a recorded game
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class GameStateBenchmark {
+
+    @Param({"2024"})
+    public long seed;
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private GameState placeTileState;
+    private PlacedTile nextTile;
+    private GameState occupyTileState;
+    private Occupant nextOccupant;
+    private GameState lastTurnState;
+
+    @Setup
+    public void setup() {
+        RecordedGame game = RecordedGame.record(seed);
+
+        int placeTileIndex = game.actionIndex(stage, GameState.Action.PLACE_TILE);
+        placeTileState = game.stateBefore(placeTileIndex);
+        nextTile = game.stateAfter(placeTileIndex).board().lastPlacedTile();
+
+        int occupyTileIndex = game.actionIndex(stage, GameState.Action.OCCUPY_TILE);
+        occupyTileState = game.stateBefore(occupyTileIndex);
+        // the occupant placed by the recorded action, if any
+        Set<Occupant> newOccupants = new HashSet<>(game.stateAfter(occupyTileIndex).board().occupants());
+        newOccupants.removeAll(occupyTileState.board().occupants());
+        nextOccupant = newOccupants.stream().findFirst().orElse(null);
+
+        // the same state without any tile left, so that the game ends after the turn
+        lastTurnState = new GameState(occupyTileState.players(), new TileDecks(List.of(), List.of(), List.of()),
+                null, occupyTileState.board(), GameState.Action.OCCUPY_TILE, occupyTileState.messageBoard());
+    }
+
+    @Benchmark
+    public GameState withPlacedTile() {
+        return placeTileState.withPlacedTile(nextTile);
+    }
+
+    @Benchmark
+    public GameState withNewOccupant() {
+        return occupyTileState.withNewOccupant(nextOccupant);
+    }
+
+    /**
+     * Measures the last turn of a game, which is dominated by the final scoring of the meadows and river systems
+     */
+    @Benchmark
+    public GameState withFinalPointsCounted() {
+        return lastTurnState.withNewOccupant(null);
+    }
+}
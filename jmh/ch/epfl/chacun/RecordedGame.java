@@ -0,0 +1,120 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.Policy;
+import ch.epfl.chacun.sim.RandomPolicy;
+import ch.epfl.chacun.sim.Simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a game recorded by the simulator from a seed, and replayed to keep all its states,
+ * so that the benchmarks, including the ones of the other packages, work on boards of the sizes reached in real games
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class RecordedGame {
+
+    /**
+     * The players of the recorded games
+     */
+    private static final List<PlayerColor> PLAYERS = PlayerColor.ALL.subList(0, 4);
+
+    // states.get(i + 1) is the state resulting from the action actions.get(i) applied to states.get(i)
+    private final List<GameState> states;
+    private final List<String> actions;
+
+    /**
+     * Creates a new recorded game
+     *
+     * @param states  the states of the game, from the one after the starting tile was placed to the final one
+     * @param actions the Base32-encoded actions leading from each state to the next one
+     */
+    private RecordedGame(List<GameState> states, List<String> actions) {
+        this.states = states;
+        this.actions = actions;
+    }
+
+    /**
+     * Records the random game of the given seed, played by four players
+     *
+     * @param seed the seed of the game
+     * @return the recorded game
+     */
+    public static RecordedGame record(long seed) {
+        Policy policy = new RandomPolicy();
+        Map<PlayerColor, Policy> policies = PLAYERS.stream()
+                .collect(Collectors.toMap(color -> color, color -> policy));
+        Simulator.GameResult result = new Simulator(policies, 1).play(seed);
+
+        GameState state = GameState.initial(PLAYERS, TileDecks.shuffled(seed),
+                result.finalState().messageBoard().textMaker()).withStartingTilePlaced();
+        List<GameState> states = new ArrayList<>(List.of(state));
+        for (String action : result.actions()) {
+            state = ActionEncoder.decodeAndApply(state, action).gameState();
+            states.add(state);
+        }
+        return new RecordedGame(List.copyOf(states), result.actions());
+    }
+
+    /**
+     * Returns the number of actions of the game
+     *
+     * @return the number of actions of the game
+     */
+    public int actionCount() {
+        return actions.size();
+    }
+
+    /**
+     * Returns the index of the first action played at the given stage or later
+     * whose state has the given next action, or the last one before if there is none
+     *
+     * @param stage      the stage of the game
+     * @param nextAction the next action of the state
+     * @return the index of the action
+     */
+    public int actionIndex(GameStage stage, GameState.Action nextAction) {
+        int start = (int) (stage.progress() * actions.size());
+        for (int i = start; i < actions.size(); i++) {
+            if (states.get(i).nextAction() == nextAction) return i;
+        }
+        for (int i = start - 1; i >= 0; i--) {
+            if (states.get(i).nextAction() == nextAction) return i;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Returns the state before the action of the given index
+     *
+     * @param index the index of the action
+     * @return the state before the action of the given index
+     */
+    public GameState stateBefore(int index) {
+        return states.get(index);
+    }
+
+    /**
+     * Returns the state after the action of the given index
+     *
+     * @param index the index of the action
+     * @return the state after the action of the given index
+     */
+    public GameState stateAfter(int index) {
+        return states.get(index + 1);
+    }
+
+    /**
+     * Returns the Base32-encoded action of the given index
+     *
+     * @param index the index of the action
+     * @return the Base32-encoded action of the given index
+     */
+    public String action(int index) {
+        return actions.get(index);
+    }
+}
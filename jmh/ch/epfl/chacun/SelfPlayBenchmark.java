@@ -0,0 +1,55 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark of whole self-played games, from the placement of the starting tile to the final scoring,
+ * which is the work of the simulator and of the playouts of the bots, all the transitions being
+ * those of the immutable game states
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class SelfPlayBenchmark {
+
+    @Param({"2", "4"})
+    public int playerCount;
+
+    private GameState initialState;
+    private RandomPolicy policy;
+    private RandomGenerator generator;
+
+    @Setup
+    public void setup() {
+        List<PlayerColor> players = PlayerColor.ALL.subList(0, playerCount);
+        Map<PlayerColor, String> names = players.stream()
+                .collect(Collectors.toMap(color -> color, PlayerColor::toString));
+        initialState = GameState.initial(players, TileDecks.shuffled(2024), new TextMakerFr(names));
+        policy = new RandomPolicy();
+        generator = RandomGeneratorFactory.getDefault().create(2024);
+    }
+
+    /**
+     * Plays a whole game with random players, a different one at each invocation
+     */
+    @Benchmark
+    public GameState randomGame() {
+        GameState state = initialState.withStartingTilePlaced();
+        while (state.nextAction() != GameState.Action.END_GAME) state = policy.play(state, generator).gameState();
+        return state;
+    }
+}
@@ -0,0 +1,55 @@
+package ch.epfl.chacun;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the union of two areas of the meadows of a recorded game
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class ZonePartitionBenchmark {
+
+    @Param({"2024"})
+    public long seed;
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    private ZonePartition<Zone.Meadow> meadows;
+    private Zone.Meadow zone1;
+    private Zone.Meadow zone2;
+
+    @Setup
+    public void setup() {
+        RecordedGame game = RecordedGame.record(seed);
+        Board board = game.stateBefore(game.actionIndex(stage, GameState.Action.PLACE_TILE)).board();
+        meadows = new ZonePartition<>(board.meadowAreas());
+        // the zones of two different open areas, as when a tile connects them
+        Iterator<Area<Zone.Meadow>> openAreas = meadows.areas().stream()
+                .filter(area -> area.openConnections() > 0)
+                .iterator();
+        zone1 = openAreas.next().zones().iterator().next();
+        zone2 = openAreas.next().zones().iterator().next();
+    }
+
+    /**
+     * Measures the union of two areas by a builder of the partition, as done once per connection
+     * when a tile is placed, including the copy of the partition by the builder on its first modification
+     */
+    @Benchmark
+    public ZonePartition.Builder<Zone.Meadow> union() {
+        ZonePartition.Builder<Zone.Meadow> builder = new ZonePartition.Builder<>(meadows);
+        builder.union(zone1, zone2);
+        return builder;
+    }
+}
@@ -0,0 +1,111 @@
+package ch.epfl.chacun.ai;
+
+import ch.epfl.chacun.GameStage;
+import ch.epfl.chacun.GameState;
+import ch.epfl.chacun.RecordedGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Benchmark of the searches of the Monte Carlo tree search on consecutive states of a recorded game,
+ * the transposition table being either kept during the game (as in a bot) or cleared before every search
+ * (only shared by its threads). The hit rate of the table is the ratio of the hits to the probes counted.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Benchmark)
+public class TranspositionTableBenchmark {
+
+    /**
+     * The number of consecutive states searched by every invocation
+     */
+    private static final int SEARCH_COUNT = 8;
+
+    /**
+     * The number of trees searched in parallel, and the number of iterations of every tree
+     */
+    private static final int THREAD_COUNT = 2;
+    private static final int ITERATIONS = 50;
+
+    @Param({"2024"})
+    public long seed;
+
+    @Param({"EARLY", "MID", "LATE"})
+    public GameStage stage;
+
+    @Param({"true", "false"})
+    public boolean isTableKept;
+
+    private List<GameState> states;
+    private TranspositionTable table;
+    private MctsPolicy policy;
+    private RandomGenerator generator;
+
+    /**
+     * The probes and the hits of the transposition table, summed over the invocations of an iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class TableCounters {
+        public long probes;
+        public long hits;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            probes = 0;
+            hits = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        RecordedGame game = RecordedGame.record(seed);
+        int firstIndex = game.actionIndex(stage, GameState.Action.PLACE_TILE);
+        states = new ArrayList<>();
+        for (int i = firstIndex; i < Math.min(firstIndex + SEARCH_COUNT, game.actionCount()); i++) {
+            states.add(game.stateBefore(i));
+        }
+        table = new TranspositionTable(1 << 18);
+        policy = new MctsPolicy(Duration.ofHours(1), THREAD_COUNT, ITERATIONS, Math.sqrt(2), table);
+        generator = RandomGeneratorFactory.getDefault().create(seed);
+    }
+
+    /**
+     * Searches the states in turn, from an empty table
+     */
+    @Benchmark
+    public int searches(TableCounters counters) {
+        table.clear();
+        int bestMoves = 0;
+        for (GameState state : states) {
+            bestMoves += policy.play(state, generator).action().length();
+            if (!isTableKept) countAndClear(counters);
+        }
+        if (isTableKept) countAndClear(counters);
+        return bestMoves;
+    }
+
+    /**
+     * Adds the probes and the hits of the table to the given counters, and clears it
+     *
+     * @param counters the counters of the table
+     */
+    private void countAndClear(TableCounters counters) {
+        long probes = table.probeCount();
+        counters.probes += probes;
+        counters.hits += Math.round(table.hitRate() * probes);
+        table.clear();
+    }
+}
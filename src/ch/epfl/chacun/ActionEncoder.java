@@ -1,6 +1,5 @@
 package ch.epfl.chacun;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
@@ -20,39 +19,39 @@ public final class ActionEncoder {
     /**
      * The Base32-encoded action signaling that no occupant is to be placed.
      */
-    private static final String WITH_NO_OCCUPANT = Base32.encodeBits5(WITH_NO_OCCUPANT_BITS);
+    static final String WITH_NO_OCCUPANT = Base32.encodeBits5(WITH_NO_OCCUPANT_BITS);
 
     // format: K-O-O-O
     /**
      * The length of a Base32-encoded action where an occupant is placed.
      */
-    private static final int WITH_NEW_OCCUPANT_ACTION_LENGTH = 1;
+    static final int WITH_NEW_OCCUPANT_ACTION_LENGTH = 1;
     /**
      * The number of bits used to encode the id of the zone where the occupant is placed, used to shift its kind.
      */
-    private static final int WITH_NEW_OCCUPANT_KIND_SHIFT = 4;
+    static final int WITH_NEW_OCCUPANT_KIND_SHIFT = 4;
     /**
      * The mask to extract the zone id from the encoded action where an occupant is placed.
      */
-    private static final int WITH_NEW_OCCUPANT_ZONE_MASK = (1 << WITH_NEW_OCCUPANT_KIND_SHIFT) - 1;
+    static final int WITH_NEW_OCCUPANT_ZONE_MASK = (1 << WITH_NEW_OCCUPANT_KIND_SHIFT) - 1;
     // format: P-P-P-P-P-P-P-P-R-R
     /**
      * The length of a Base32-encoded action where a tile is placed.
      */
-    private static final int WITH_PLACED_TILE_ACTION_LENGTH = 2;
+    static final int WITH_PLACED_TILE_ACTION_LENGTH = 2;
     /**
      * The number of bits of the rotation to encode, used to shift the index in the fringe of the tile to place.
      */
-    private static final int WITH_PLACED_TILE_IDX_SHIFT = 2;
+    static final int WITH_PLACED_TILE_IDX_SHIFT = 2;
     /**
      * The mask to extract the rotation from the encoded action where a tile is placed.
      */
-    private static final int WITH_PLACED_TILE_ROTATION_MASK = (1 << WITH_PLACED_TILE_ACTION_LENGTH) - 1;
+    static final int WITH_PLACED_TILE_ROTATION_MASK = (1 << WITH_PLACED_TILE_ACTION_LENGTH) - 1;
     // format: O-O-O-O
     /**
      * The length of a Base32-encoded action where an occupant is removed.
      */
-    private static final int WITH_OCCUPANT_REMOVED_ACTION_LENGTH = 1;
+    static final int WITH_OCCUPANT_REMOVED_ACTION_LENGTH = 1;
 
     /**
      * This class can not be instantiated.
@@ -67,10 +66,8 @@ public final class ActionEncoder {
      * @return the list of ordered (x-precedence) fringe indexes of the game state
      */
     private static List<Pos> fringeIndexes(GameState gameState) {
-        Board board = gameState.board();
-        return board.insertionPositions().stream()
-                .sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y))
-                .toList();
+        // the board keeps its fringe already sorted
+        return gameState.board().sortedInsertionPositions();
     }
 
     /**
@@ -80,8 +77,7 @@ public final class ActionEncoder {
      * @return the list of occupants sorted by their zone ID
      */
     private static List<Occupant> sortedOccupants(GameState gameState) {
-        return gameState.board().occupants().stream()
-                .sorted(Comparator.comparingInt(Occupant::zoneId)).toList();
+        return gameState.board().sortedOccupants();
     }
 
     /**
@@ -134,7 +130,7 @@ public final class ActionEncoder {
     }
 
     private static <T> T getIndexOrThrows(List<T> list, int index) throws IllegalActionException {
-        if (list.size() < index) throw new IllegalActionException();
+        if (index >= list.size()) throw new IllegalActionException();
         return list.get(index);
     }
 
@@ -5,6 +5,12 @@ import java.util.stream.Collectors;
 
 /**
  * Represents an area in the game.
+ * <p>
+ * The zones of an area are stored in a ZoneSet (a bitset over the zone ids) and its occupants
+ * in an OccupantCounts (the number of occupants of each color), so that connecting two areas,
+ * comparing them and finding their majority occupants work on whole words rather than on collections.
+ * The zone set also carries the summary of the zones needed by the scoring (mushrooms, menhirs, fishes,
+ * lakes, tiles and animals), which connectTo merges, so that the scoring helpers run in constant time.
  *
  * @param zones           the zones forming the area
  * @param occupants       the players having put an occupant in one of the area's zones
@@ -26,26 +32,10 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      */
     public Area {
         Preconditions.checkArgument(openConnections >= 0);
-        zones = Set.copyOf(zones);
-        // occupants = List.copyOf(copyAndSortOccupants(occupants));
-        // we use unmodifiableList rather than copyOf as we know
-        // that sortOccupants won't modify the list nor give
-        // access to the object to external users. We avoid this
-        // way copying our list because it is not necessary
-        occupants = Collections.unmodifiableList(copyAndSortOccupants(occupants));
-    }
-
-    /**
-     * Sorts the given list of players basing on the order of their colours and
-     * returns a new list containing the same players, but sorted.
-     *
-     * @param occupants the list of players to sort
-     */
-    private List<PlayerColor> copyAndSortOccupants(List<PlayerColor> occupants) {
-        // a player color is an immutable object
-        List<PlayerColor> sortedOccupants = new ArrayList<>(occupants);
-        Collections.sort(sortedOccupants);
-        return sortedOccupants;
+        // both are immutable, and returned as is if they already are in their compact form
+        zones = ZoneSet.copyOf(zones);
+        // the occupant counts are always sorted by color
+        occupants = OccupantCounts.copyOf(occupants);
     }
 
     /**
@@ -55,12 +45,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return whether the given area has a menhir
      */
     public static boolean hasMenhir(Area<Zone.Forest> forest) {
-        // creates a stream containing the zones in the Forest area and checks whether one of them has a menhir
-        return forest.zones()
-                .stream()
-                // we return whether in the given area
-                // there is a forest zone containing a menhir or not
-                .anyMatch(zone -> zone.kind() == Zone.Forest.Kind.WITH_MENHIR);
+        return summaryOf(forest).hasMenhir();
     }
 
     /**
@@ -70,13 +55,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the number of mushroom groups in the given area
      */
     public static int mushroomGroupCount(Area<Zone.Forest> forest) {
-        // by default, Stream.count() returns a long value
-        return (int) forest.zones()
-                .stream()
-                //we count the number of zones containing mushroom groups
-                //in the given area
-                .filter(zone -> zone.kind() == Zone.Forest.Kind.WITH_MUSHROOMS)
-                .count();
+        return summaryOf(forest).mushroomGroupCount();
     }
 
     /**
@@ -114,24 +93,8 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the number of fishes in the given river area and in the lakes connected to it
      */
     public static int riverFishCount(Area<Zone.River> river) {
-        // at max, there will be river.zones().size() lakes
-        // that's useful to prevent set extensions
-        Set<Zone.Lake> addedLakes = new HashSet<>();
-        return river.zones()
-                .stream()
-                // we map every zone to the number of fishes we will add
-                // because of it
-                .mapToInt(zone -> {
-                    // we sum the fishes in the river...
-                    int fishCount = zone.fishCount();
-                    // ...and the fishes in the neighbouring lakes (only once!)
-                    if (zone.hasLake() && addedLakes.add(zone.lake()))
-                        fishCount += zone.lake().fishCount();
-
-                    return fishCount;
-                })
-                // we sum the number of fishes we got in every zone
-                .sum();
+        // the lakes of the rivers are counted once, even if several rivers of the area share them
+        return summaryOf(river).riverFishCount();
     }
 
     /**
@@ -141,7 +104,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the number of lakes in the given river system
      */
     public static int lakeCount(Area<Zone.Water> riverSystem) {
-        return (int) riverSystem.zones().stream().filter(zone -> zone instanceof Zone.Lake).count();
+        return summaryOf(riverSystem).lakeCount();
     }
 
     /**
@@ -151,7 +114,28 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the number of fishes in the given river system
      */
     public static int riverSystemFishCount(Area<Zone.Water> riverSystem) {
-        return riverSystem.zones().stream().mapToInt(Zone.Water::fishCount).sum();
+        return summaryOf(riverSystem).waterFishCount();
+    }
+
+    /**
+     * Counts the number of animals of the given kind in a certain meadow area, including the cancelled ones.
+     *
+     * @param meadow the meadow area to check
+     * @param kind   the kind of the animals to count
+     * @return the number of animals of the given kind in the given area
+     */
+    public static int animalCount(Area<Zone.Meadow> meadow, Animal.Kind kind) {
+        return summaryOf(meadow).animalCount(kind);
+    }
+
+    /**
+     * Returns the summary of the zones of the given area, which is merged when areas are connected
+     *
+     * @param area the area
+     * @return the summary of the zones of the given area
+     */
+    private static ZoneSummary summaryOf(Area<?> area) {
+        return ((ZoneSet<?>) area.zones).summary();
     }
 
     /**
@@ -176,13 +160,20 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * Returns the set of players having the majority of occupants
      * in the current instance of area.
      *
-     * @return the set of players having the majority of occupants in this area
+     * @return the unmodifiable set of players having the majority of occupants in this area
      */
     public Set<PlayerColor> majorityOccupants() {
-        Map<PlayerColor, Long> playerPoints = occupants.stream()
-                .collect(Collectors.groupingBy(color -> color, Collectors.counting()));
-        long maxCount = playerPoints.values().stream().mapToLong(points -> points).max().orElse(0);
-        return playerPoints.keySet().stream().filter(c -> playerPoints.get(c) == maxCount).collect(Collectors.toSet());
+        return ((OccupantCounts) occupants).majority();
+    }
+
+    /**
+     * Returns the bitmask of the players having the majority of occupants in the current instance of area,
+     * the bit of a player being 1 << the ordinal of his color, for the callers that do not need a set.
+     *
+     * @return the bitmask of the players having the majority of occupants in this area, 0 if it is not occupied
+     */
+    public int majorityOccupantsMask() {
+        return ((OccupantCounts) occupants).majorityMask();
     }
 
     /**
@@ -191,13 +182,15 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @param that the area to connect the current instance of area to
      * @return the area obtained by connecting the current instance of area to the given one
      */
+    @SuppressWarnings("unchecked")
     public Area<Z> connectTo(Area<Z> that) {
-        //we create a new set containing all the zones in the two areas
-        Set<Z> connectedZones = new HashSet<>(zones);
-        connectedZones.addAll(that.zones);
-        //we create a new list containing all the occupants in the two areas
-        List<PlayerColor> connectedOccupants = new ArrayList<>(occupants);
-        if (!this.equals(that)) connectedOccupants.addAll(that.occupants);
+        //we unite the bitsets of the zones in the two areas, which also merges their summaries
+        Set<Z> connectedZones = ((ZoneSet<Z>) zones).union((ZoneSet<Z>) that.zones);
+        //we add the occupant counts of the two areas
+        OccupantCounts occupantCounts = (OccupantCounts) occupants;
+        List<PlayerColor> connectedOccupants = this.equals(that)
+                ? occupantCounts
+                : occupantCounts.plus((OccupantCounts) that.occupants);
         //we calculate the number of open connections in the new area
         //by subtracting 2 from the sum of the open connections in the two areas if they are different,
         //or by subtracting 2 from the open connections in the current area if it is the same area
@@ -231,7 +224,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      */
     public Area<Z> withInitialOccupant(PlayerColor occupant) {
         Preconditions.checkArgument(!isOccupied());
-        return new Area<>(zones, List.of(occupant), openConnections);
+        return new Area<>(zones, OccupantCounts.of(occupant), openConnections);
     }
 
     /**
@@ -243,10 +236,8 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the new area obtained by removing the given occupant from the current instance of area
      */
     public Area<Z> withoutOccupant(PlayerColor occupant) {
-        Preconditions.checkArgument(occupants.contains(occupant));
-        List<PlayerColor> newOccupants = new ArrayList<>(occupants);
-        newOccupants.remove(occupant);
-        return new Area<>(zones, newOccupants, openConnections);
+        // throws an IllegalArgumentException if there is no such occupant
+        return new Area<>(zones, ((OccupantCounts) occupants).minus(occupant), openConnections);
     }
 
     /**
@@ -256,7 +247,7 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the new area obtained by removing all the occupants from the current instance of area
      */
     public Area<Z> withoutOccupants() {
-        return new Area<>(zones, List.of(), openConnections);
+        return new Area<>(zones, OccupantCounts.of(), openConnections);
     }
 
     /**
@@ -265,9 +256,19 @@ public record Area<Z extends Zone>(Set<Z> zones, List<PlayerColor> occupants, in
      * @return the set of tile ids of all the zones in the current instance of area
      */
     public Set<Integer> tileIds() {
-        // we create a stream containing the tile ids of all the zones in the area,
-        // mapping every zone to its tile id and collecting the results in a set
-        return zones.stream().map(Zone::tileId).collect(Collectors.toSet());
+        ZoneSummary summary = summaryOf(this);
+        Set<Integer> tileIds = new HashSet<>();
+        for (int i = 0; i < summary.tileCount(); i++) tileIds.add(summary.tileId(i));
+        return tileIds;
+    }
+
+    /**
+     * Returns the number of different tiles of the zones in the current instance of area.
+     *
+     * @return the number of different tiles of the zones in the current instance of area
+     */
+    public int tileCount() {
+        return summaryOf(this).tileCount();
     }
 
 }
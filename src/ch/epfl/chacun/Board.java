@@ -2,6 +2,8 @@ package ch.epfl.chacun;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Represents the board of the game,
@@ -12,10 +14,31 @@ import java.util.stream.Collectors;
  */
 public final class Board {
 
-    private final PlacedTile[] placedTiles;
-    private final int[] orderedTileIndexes;
+    // the placed tiles, indexed by their row-major index on the board,
+    // stored in a persistent array so that a new board shares most of it with the former one
+    private final ChunkedArray<PlacedTile> placedTiles;
+    // the indexes of the placed tiles in the order they were placed, only the first tileCount are used
+    private final ChunkedIntArray orderedTileIndexes;
+    private final int tileCount;
+    // the index on the board of the tile having each id of the game, -1 if it has not been placed
+    private final ChunkedIntArray tileIndexesById;
+    // the fringe of the board, updated every time a tile is placed
+    private final PosSet insertionPositions;
+    // the occupants of the placed tiles, updated every time an occupant is placed or removed
+    private final OccupantSet occupants;
+    // occupantCounts[occupantCountIndex(player, kind)] is the number of occupants
+    // of the given kind placed by the given player, the array is never modified
+    private final int[] occupantCounts;
     private final ZonePartitions zonePartitions;
     private final Set<Animal> cancelledAnimals;
+    // the exclusive or of the Zobrist keys of the placed tiles, of their occupants and of the cancelled animals
+    private final long zobristKey;
+    // the constraints of the fringe are only computed when a tile is first checked against it
+    private PlacementChecker placementChecker;
+    // the projection of the end-game points is only computed when first asked for, from the last projection
+    // computed for one of the boards this one was derived from (null if there is none), which is then dropped
+    private ScoreProjection scoreProjection;
+    private ScoreProjection previousScoreProjection;
     /**
      * The maximum distance from the origin
      */
@@ -24,30 +47,102 @@ public final class Board {
     // there are REACH numbers at the left and REACH numbers at the right
     // of the origin, and the matrix is a square
     private static final int WIDTH = REACH * 2 + 1;
+    // the number of tile ids indexed by tileIndexesById, the ids of the game ranging from 0 to 94
+    private static final int TILE_ID_COUNT = Tiles.TILES.size();
     /**
      * Represents an empty board, with no placed tiles, no ordered tile indexes,
      * no zone partitions and no cancelled animals
      */
     public static final Board EMPTY = new Board(
-            new PlacedTile[WIDTH * WIDTH],
-            new int[0],
+            ChunkedArray.ofLength(WIDTH * WIDTH),
+            ChunkedIntArray.filled(WIDTH * WIDTH, -1),
+            0,
+            ChunkedIntArray.filled(TILE_ID_COUNT, -1),
+            PosSet.EMPTY,
+            OccupantSet.EMPTY,
+            new int[PlayerColor.ALL.size() * Occupant.Kind.ALL.size()],
             ZonePartitions.EMPTY,
-            Set.of()
+            Set.of(),
+            0,
+            null
     );
 
     /**
-     * Creates a new board with the given placed tiles, ordered tile indexes,
-     * zone partitions and cancelled animals.
+     * Creates a new board with the given placed tiles, ordered tile indexes, tile indexes by id,
+     * insertion positions, occupants, occupant counts, zone partitions, cancelled animals and Zobrist key,
+     * the last score projection of the boards it is derived from being kept to compute its own one incrementally.
      * Copies the set of cancelled animals to prevent external modification
      */
     private Board(
-            PlacedTile[] placedTiles, int[] orderedTileIndexes,
-            ZonePartitions zonePartitions, Set<Animal> cancelledAnimals
+            ChunkedArray<PlacedTile> placedTiles, ChunkedIntArray orderedTileIndexes, int tileCount,
+            ChunkedIntArray tileIndexesById, PosSet insertionPositions, OccupantSet occupants, int[] occupantCounts,
+            ZonePartitions zonePartitions, Set<Animal> cancelledAnimals, long zobristKey,
+            ScoreProjection previousScoreProjection
     ) {
         this.placedTiles = placedTiles;
         this.orderedTileIndexes = orderedTileIndexes;
+        this.tileCount = tileCount;
+        this.tileIndexesById = tileIndexesById;
+        this.insertionPositions = insertionPositions;
+        this.occupants = occupants;
+        this.occupantCounts = occupantCounts;
         this.zonePartitions = zonePartitions;
         this.cancelledAnimals = cancelledAnimals;
+        this.zobristKey = zobristKey;
+        this.previousScoreProjection = previousScoreProjection;
+    }
+
+    /**
+     * Creates a board from the given placed tiles and zone partitions, its fringe, occupants and Zobrist key
+     * being computed from its tiles, as needed to export a board built by other means than its transitions
+     *
+     * @param placedTilesInOrder the placed tiles, in the order they were placed, with their current occupants
+     * @param zonePartitions     the zone partitions of the placed tiles
+     * @param cancelledAnimals   the cancelled animals, which are copied
+     * @return the board having the given tiles, zone partitions and cancelled animals
+     */
+    static Board of(
+            List<PlacedTile> placedTilesInOrder, ZonePartitions zonePartitions, Set<Animal> cancelledAnimals
+    ) {
+        ChunkedArray.Builder<PlacedTile> placedTiles = new ChunkedArray.Builder<>(EMPTY.placedTiles);
+        ChunkedIntArray.Builder orderedTileIndexes = new ChunkedIntArray.Builder(EMPTY.orderedTileIndexes);
+        ChunkedIntArray.Builder tileIndexesById = new ChunkedIntArray.Builder(EMPTY.tileIndexesById);
+        OccupantSet occupants = OccupantSet.EMPTY;
+        int[] occupantCounts = new int[EMPTY.occupantCounts.length];
+        long zobristKey = 0;
+        for (int order = 0; order < placedTilesInOrder.size(); order++) {
+            PlacedTile tile = placedTilesInOrder.get(order);
+            int index = getTileIndexFromPos(tile.pos());
+            placedTiles.set(index, tile);
+            orderedTileIndexes.set(order, index);
+            int tileId = tile.id();
+            if (tileId >= 0 && tileId < TILE_ID_COUNT && tileIndexesById.get(tileId) < 0)
+                tileIndexesById.set(tileId, index);
+            zobristKey ^= Zobrist.tileKey(tile);
+            if (tile.occupant() != null) {
+                occupants = occupants.with(tile.occupant());
+                zobristKey ^= Zobrist.occupantKey(tile.occupant());
+                if (tile.placer() != null) occupantCounts[occupantCountIndex(tile.placer(), tile.occupant().kind())]++;
+            }
+        }
+
+        // the fringe is made of the free positions of the board next to some placed tile
+        PosSet insertionPositions = PosSet.EMPTY;
+        for (PlacedTile tile : placedTilesInOrder) {
+            for (Direction direction : Direction.ALL) {
+                Pos neighbouringPosition = tile.pos().neighbor(direction);
+                if (isPosInBoard(neighbouringPosition)
+                        && placedTiles.get(getTileIndexFromPos(neighbouringPosition)) == null)
+                    insertionPositions = insertionPositions.with(neighbouringPosition);
+            }
+        }
+        for (Animal animal : cancelledAnimals) zobristKey ^= Zobrist.cancelledAnimalKey(animal);
+
+        return new Board(
+                placedTiles.build(), orderedTileIndexes.build(), placedTilesInOrder.size(), tileIndexesById.build(),
+                insertionPositions, occupants, occupantCounts, zonePartitions,
+                Collections.unmodifiableSet(new HashSet<>(cancelledAnimals)), zobristKey, null
+        );
     }
 
     /**
@@ -56,11 +151,30 @@ public final class Board {
      * @param pos the position of the tile
      * @return the index of the tile at the given position
      */
-    private int getTileIndexFromPos(Pos pos) {
+    private static int getTileIndexFromPos(Pos pos) {
         // we get the index using the row-major index
         return (pos.y() + REACH) * WIDTH + (pos.x() + REACH);
     }
 
+    /**
+     * Returns the tile that has been placed at the given turn
+     *
+     * @param order the number of tiles placed before the tile to get
+     * @return the tile that has been placed at the given turn
+     */
+    private PlacedTile placedTileInOrder(int order) {
+        return placedTiles.get(orderedTileIndexes.get(order));
+    }
+
+    /**
+     * Returns the stream of the placed tiles, in the order they were placed
+     *
+     * @return the stream of the placed tiles, in the order they were placed
+     */
+    private Stream<PlacedTile> placedTilesInOrder() {
+        return IntStream.range(0, tileCount).mapToObj(this::placedTileInOrder);
+    }
+
     /**
      * Returns whether the given index is in the range of the board
      *
@@ -79,7 +193,7 @@ public final class Board {
      * @param pos the position to check
      * @return whether the given position is in the board
      */
-    private boolean isPosInBoard(Pos pos) {
+    private static boolean isPosInBoard(Pos pos) {
         return Math.abs(pos.x()) <= REACH && Math.abs(pos.y()) <= REACH;
     }
 
@@ -94,26 +208,39 @@ public final class Board {
      */
     public PlacedTile tileAt(Pos pos) {
         int index = getTileIndexFromPos(pos);
-        return isIndexInRange(index) ? placedTiles[index] : null;
+        return isIndexInRange(index) ? placedTiles.get(index) : null;
     }
 
     /**
-     * Returns the placed tile with the given id,
-     * with a linear search over the tiles that
-     * have already been placed
+     * Returns the index on the board of the placed tile with the given id,
+     * which takes constant time for the ids of the tiles of the game
+     *
+     * @param tileId the id of the tile to get the index of
+     * @return the index on the board of the placed tile with the given id
+     * @throws IllegalArgumentException if there is no tile with the given id
+     */
+    private int tileIndexWithId(int tileId) {
+        if (tileId >= 0 && tileId < TILE_ID_COUNT) {
+            int index = tileIndexesById.get(tileId);
+            Preconditions.checkArgument(index >= 0);
+            return index;
+        }
+        // the ids that are not those of the game are not indexed
+        for (int order = 0; order < tileCount; order++) {
+            if (placedTileInOrder(order).id() == tileId) return orderedTileIndexes.get(order);
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Returns the placed tile with the given id
      *
      * @param tileId the id of the tile to get
      * @return the placed tile with the given id
      * @throws IllegalArgumentException if there is no tile with the given id
      */
     public PlacedTile tileWithId(int tileId) {
-        int tileIndex = Arrays.stream(orderedTileIndexes)
-                // we use a drop while rather than a filter because there is only one tile with the given id,
-                // and we want to avoid iterating over the whole list
-                .dropWhile(idx -> placedTiles[idx].id() != tileId)
-                .findFirst()
-                .orElseThrow(IllegalArgumentException::new);
-        return placedTiles[tileIndex];
+        return placedTiles.get(tileIndexWithId(tileId));
     }
 
     /**
@@ -131,10 +258,16 @@ public final class Board {
      * @return the set of all occupants on the board
      */
     public Set<Occupant> occupants() {
-        return Arrays.stream(orderedTileIndexes)
-                .mapToObj(idx -> placedTiles[idx].occupant())
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        return occupants;
+    }
+
+    /**
+     * Returns the unmodifiable list of all occupants on the board, sorted by zone id
+     *
+     * @return the unmodifiable list of all occupants on the board, sorted by zone id
+     */
+    public List<Occupant> sortedOccupants() {
+        return occupants.sortedList();
     }
 
     /**
@@ -241,31 +374,54 @@ public final class Board {
      * @return the number of occupants of the given kind and the given player present on the board
      */
     public int occupantCount(PlayerColor player, Occupant.Kind occupantKind) {
-        return (int) Arrays.stream(orderedTileIndexes)
-                .mapToObj(idx -> placedTiles[idx])
-                .filter((tile) ->
-                        tile.occupant() != null
-                                && tile.occupant().kind() == occupantKind
-                                && tile.placer() == player
-                )
-                .count();
+        return occupantCounts[occupantCountIndex(player, occupantKind)];
+    }
+
+    /**
+     * Returns the index of the number of occupants of the given kind and the given player in occupantCounts
+     *
+     * @param player       the player owning the occupants
+     * @param occupantKind the kind of the occupants
+     * @return the index of the number of occupants of the given kind and the given player
+     */
+    private static int occupantCountIndex(PlayerColor player, Occupant.Kind occupantKind) {
+        return player.ordinal() * Occupant.Kind.ALL.size() + occupantKind.ordinal();
+    }
+
+    /**
+     * Returns the occupant counts of the board, updated for the given occupant of a tile
+     * placed by the given player, which is either added or removed
+     *
+     * @param placer   the placer of the tile of the occupant, possibly null
+     * @param occupant the occupant added or removed, possibly null
+     * @param delta    1 if the occupant is added, -1 if it is removed
+     * @return the updated occupant counts, which are the current ones if there is nothing to count
+     */
+    private int[] occupantCountsWith(PlayerColor placer, Occupant occupant, int delta) {
+        if (placer == null || occupant == null) return occupantCounts;
+        int[] newOccupantCounts = occupantCounts.clone();
+        newOccupantCounts[occupantCountIndex(placer, occupant.kind())] += delta;
+        return newOccupantCounts;
     }
 
     /**
-     * Returns the set of positions where the next tile may be placed
+     * Returns the unmodifiable set of positions where the next tile may be placed,
+     * which is maintained every time a tile is placed and therefore costs nothing to get
      *
-     * @return the set of positions where the next tile may be placed
+     * @return the unmodifiable set of positions where the next tile may be placed
      */
     public Set<Pos> insertionPositions() {
-        return Arrays.stream(orderedTileIndexes)
-                // we loop over the tiles that we have already placed
-                .mapToObj(idx -> placedTiles[idx].pos())
-                // loop over N, E, S, W and get the new position in the direction we want to test
-                // we use two different consecutive maps for readability and code clarity
-                .flatMap(pos -> Direction.ALL.stream().map(pos::neighbor))
-                // check if the position belongs to the board and nothing is placed there
-                .filter(pos -> isPosInBoard(pos) && tileAt(pos) == null)
-                .collect(Collectors.toSet());
+        return insertionPositions;
+    }
+
+    /**
+     * Returns the unmodifiable list of positions where the next tile may be placed,
+     * sorted by x and then by y, which is only built once per board
+     *
+     * @return the unmodifiable list of positions where the next tile may be placed, sorted by x and then by y
+     */
+    public List<Pos> sortedInsertionPositions() {
+        return insertionPositions.sortedList();
     }
 
     /**
@@ -275,7 +431,7 @@ public final class Board {
      * @return the last placed tile on the board, null if no tile has been placed yet
      */
     public PlacedTile lastPlacedTile() {
-        return isEmpty() ? null : placedTiles[orderedTileIndexes[orderedTileIndexes.length - 1]];
+        return isEmpty() ? null : placedTileInOrder(tileCount - 1);
     }
 
     /**
@@ -336,12 +492,62 @@ public final class Board {
      * @return whether the given tile can be placed on the board at any position and rotation
      */
     public boolean couldPlaceTile(Tile tile) {
-        return insertionPositions()
-                .stream()
-                .anyMatch(pos ->
-                        Rotation.ALL.stream()
-                                .anyMatch(rotation -> canAddTile(new PlacedTile(tile, null, rotation, pos)))
-                );
+        return placementChecker().couldPlace(tile);
+    }
+
+    /**
+     * Returns the index of the first of the given tiles that can be placed on the board
+     * at any position and rotation, the fringe of the board being only checked once for all of them
+     *
+     * @param tiles the tiles to test, in order
+     * @return the index of the first of the given tiles that can be placed on the board,
+     * or the number of tiles if none of them can be placed
+     */
+    public int firstPlaceableTileIndex(List<Tile> tiles) {
+        PlacementChecker placementChecker = placementChecker();
+        for (int i = 0; i < tiles.size(); i++) {
+            if (placementChecker.couldPlace(tiles.get(i))) return i;
+        }
+        return tiles.size();
+    }
+
+    /**
+     * Returns the placement checker of the fringe of the board, which is only built once per board
+     *
+     * @return the placement checker of the fringe of the board
+     */
+    PlacementChecker placementChecker() {
+        if (placementChecker == null) placementChecker = new PlacementChecker(this);
+        return placementChecker;
+    }
+
+    /**
+     * Returns the projection of the points the players would get from the meadows and the river systems
+     * of the board if the game ended now. It is only computed once per board, and only evaluates the areas
+     * changed since the last board it was derived from whose projection was computed
+     *
+     * @return the projection of the end-game points of the board
+     */
+    public ScoreProjection scoreProjection() {
+        if (scoreProjection == null) {
+            ScoreProjection previous = previousScoreProjection;
+            scoreProjection = (previous == null ? ScoreProjection.EMPTY : previous).withBoard(this);
+            previousScoreProjection = null;
+        }
+        return scoreProjection;
+    }
+
+    /**
+     * Returns the projection of the end-game points of the board if it was already computed,
+     * otherwise the last one computed for the boards it was derived from, or null if there is none,
+     * so that the boards built by a move from a board whose projection is computed keep computing theirs
+     * incrementally, even if the projections of the intermediate boards of the move are never asked for
+     *
+     * @return the last score projection known to the board, or null
+     */
+    private ScoreProjection knownScoreProjection() {
+        ScoreProjection projection = scoreProjection;
+        return projection != null ? projection : previousScoreProjection;
     }
 
     /**
@@ -351,7 +557,7 @@ public final class Board {
      * @return whether the board has at least one tile
      */
     private boolean isEmpty() {
-        return orderedTileIndexes.length == 0;
+        return tileCount == 0;
     }
 
     /**
@@ -365,15 +571,21 @@ public final class Board {
         Preconditions.checkArgument(isEmpty() || canAddTile(tile));
         int indexOfNewTile = getTileIndexFromPos(tile.pos());
 
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-        newPlacedTiles[indexOfNewTile] = tile;
-
-        int[] newOrderedTileIndexes = Arrays.copyOf(orderedTileIndexes, orderedTileIndexes.length + 1);
-        newOrderedTileIndexes[newOrderedTileIndexes.length - 1] = indexOfNewTile;
+        // only the chunks containing the new tile and its index are copied
+        ChunkedArray<PlacedTile> newPlacedTiles = placedTiles.with(indexOfNewTile, tile);
+        ChunkedIntArray newOrderedTileIndexes = orderedTileIndexes.with(tileCount, indexOfNewTile);
+        // if a tile with the same id has already been placed, tileWithId keeps returning the first one
+        int tileId = tile.id();
+        ChunkedIntArray newTileIndexesById = tileId >= 0 && tileId < TILE_ID_COUNT
+                && tileIndexesById.get(tileId) < 0
+                ? tileIndexesById.with(tileId, indexOfNewTile)
+                : tileIndexesById;
 
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
         zonePartitionsBuilder.addTile(tile.tile());
 
+        // the position of the new tile leaves the fringe, and its free neighbours join it
+        PosSet newInsertionPositions = insertionPositions.without(tile.pos());
         for (Direction direction : Direction.ALL) {
             Pos neighbouringPosition = tile.pos().neighbor(direction);
             PlacedTile neighbouringTile = tileAt(neighbouringPosition);
@@ -382,10 +594,22 @@ public final class Board {
                 TileSide sideOfNeighbour = neighbouringTile.side(direction.opposite());
                 TileSide sideOfTile = tile.side(direction);
                 zonePartitionsBuilder.connectSides(sideOfNeighbour, sideOfTile);
+            } else if (isPosInBoard(neighbouringPosition)) {
+                newInsertionPositions = newInsertionPositions.with(neighbouringPosition);
             }
         }
 
-        return new Board(newPlacedTiles, newOrderedTileIndexes, zonePartitionsBuilder.build(), cancelledAnimals);
+        // the tile may already be occupied when it is placed
+        OccupantSet newOccupants = tile.occupant() == null ? occupants : occupants.with(tile.occupant());
+        int[] newOccupantCounts = occupantCountsWith(tile.placer(), tile.occupant(), 1);
+        long newZobristKey = zobristKey ^ Zobrist.tileKey(tile);
+        if (tile.occupant() != null) newZobristKey ^= Zobrist.occupantKey(tile.occupant());
+
+        return new Board(
+                newPlacedTiles, newOrderedTileIndexes, tileCount + 1, newTileIndexesById, newInsertionPositions,
+                newOccupants, newOccupantCounts, zonePartitionsBuilder.build(), cancelledAnimals, newZobristKey,
+                knownScoreProjection()
+        );
     }
 
     /**
@@ -402,8 +626,7 @@ public final class Board {
         PlacedTile tile = tileWithId(tileId);
         // throws an IllegalArgumentException if the tile is already occupied
         PlacedTile occupiedTile = tile.withOccupant(occupant);
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-        newPlacedTiles[getTileIndexFromPos(tile.pos())] = occupiedTile;
+        ChunkedArray<PlacedTile> newPlacedTiles = placedTiles.with(getTileIndexFromPos(tile.pos()), occupiedTile);
 
         Zone zone = tile.zoneWithId(zoneId);
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
@@ -411,7 +634,12 @@ public final class Board {
         // if we had already connected the tile, this would erase previous occupants
         zonePartitionsBuilder.addInitialOccupant(tile.placer(), occupant.kind(), zone);
 
-        return new Board(newPlacedTiles, orderedTileIndexes, zonePartitionsBuilder.build(), cancelledAnimals);
+        return new Board(
+                newPlacedTiles, orderedTileIndexes, tileCount, tileIndexesById, insertionPositions,
+                occupants.with(occupant), occupantCountsWith(tile.placer(), occupant, 1),
+                zonePartitionsBuilder.build(), cancelledAnimals, zobristKey ^ Zobrist.occupantKey(occupant),
+                knownScoreProjection()
+        );
     }
 
     /**
@@ -426,14 +654,22 @@ public final class Board {
 
         PlacedTile tile = tileWithId(tileId);
         PlacedTile clearedTile = tile.withNoOccupant();
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-        newPlacedTiles[getTileIndexFromPos(tile.pos())] = clearedTile;
+        ChunkedArray<PlacedTile> newPlacedTiles = placedTiles.with(getTileIndexFromPos(tile.pos()), clearedTile);
 
         Zone zone = tile.zoneWithId(zoneId);
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
         zonePartitionsBuilder.removePawn(tile.placer(), zone);
 
-        return new Board(newPlacedTiles, orderedTileIndexes, zonePartitionsBuilder.build(), cancelledAnimals);
+        // the occupant actually removed is the one of the tile
+        Occupant removedOccupant = tile.occupant();
+        OccupantSet newOccupants = removedOccupant == null ? occupants : occupants.without(removedOccupant);
+        long newZobristKey = removedOccupant == null ? zobristKey : zobristKey ^ Zobrist.occupantKey(removedOccupant);
+
+        return new Board(
+                newPlacedTiles, orderedTileIndexes, tileCount, tileIndexesById, insertionPositions,
+                newOccupants, occupantCountsWith(tile.placer(), removedOccupant, -1),
+                zonePartitionsBuilder.build(), cancelledAnimals, newZobristKey, knownScoreProjection()
+        );
     }
 
     /**
@@ -446,24 +682,35 @@ public final class Board {
      */
     public Board withoutGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
         ZonePartitions.Builder zonePartitionsBuilder = new ZonePartitions.Builder(zonePartitions);
-        PlacedTile[] newPlacedTiles = placedTiles.clone();
-
-        for (int index : orderedTileIndexes) {
-            PlacedTile placedTile = placedTiles[index];
-            if (placedTile.occupant() != null && placedTile.occupant().kind() == Occupant.Kind.PAWN) {
-                Occupant occupant = placedTile.occupant();
-                Zone occupiedZone = placedTile.zoneWithId(occupant.zoneId());
-                if (occupiedZone instanceof Zone.Forest forest && forests.contains(forestArea(forest)))
-                    newPlacedTiles[index] = placedTile.withNoOccupant();
-                else if (occupiedZone instanceof Zone.River river && rivers.contains(riverArea(river)))
-                    newPlacedTiles[index] = placedTile.withNoOccupant();
-
+        ChunkedArray<PlacedTile> newPlacedTiles = placedTiles;
+        OccupantSet newOccupants = occupants;
+        int[] newOccupantCounts = occupantCounts.clone();
+        long newZobristKey = zobristKey;
+
+        // only the occupied tiles can be affected, and they are found directly from their occupants
+        for (Occupant occupant : occupants) {
+            if (occupant.kind() != Occupant.Kind.PAWN) continue;
+            int index = tileIndexWithId(Zone.tileId(occupant.zoneId()));
+            PlacedTile placedTile = placedTiles.get(index);
+            Zone occupiedZone = placedTile.zoneWithId(occupant.zoneId());
+            boolean isCleared = occupiedZone instanceof Zone.Forest forest && forests.contains(forestArea(forest))
+                    || occupiedZone instanceof Zone.River river && rivers.contains(riverArea(river));
+            if (isCleared) {
+                newPlacedTiles = newPlacedTiles.with(index, placedTile.withNoOccupant());
+                newOccupants = newOccupants.without(occupant);
+                newZobristKey ^= Zobrist.occupantKey(occupant);
+                if (placedTile.placer() != null)
+                    newOccupantCounts[occupantCountIndex(placedTile.placer(), occupant.kind())] -= 1;
             }
         }
         rivers.forEach(zonePartitionsBuilder::clearFishers);
         forests.forEach(zonePartitionsBuilder::clearGatherers);
 
-        return new Board(newPlacedTiles, orderedTileIndexes, zonePartitionsBuilder.build(), cancelledAnimals);
+        return new Board(
+                newPlacedTiles, orderedTileIndexes, tileCount, tileIndexesById, insertionPositions,
+                newOccupants, newOccupantCounts, zonePartitionsBuilder.build(), cancelledAnimals, newZobristKey,
+                knownScoreProjection()
+        );
     }
 
     /**
@@ -475,9 +722,15 @@ public final class Board {
      */
     public Board withMoreCancelledAnimals(Set<Animal> newlyCancelledAnimals) {
         Set<Animal> newCancelledAnimals = new HashSet<>(cancelledAnimals);
-        newCancelledAnimals.addAll(newlyCancelledAnimals);
+        long newZobristKey = zobristKey;
+        for (Animal animal : newlyCancelledAnimals) {
+            // an animal which was already cancelled keeps its key in the board
+            if (newCancelledAnimals.add(animal)) newZobristKey ^= Zobrist.cancelledAnimalKey(animal);
+        }
         return new Board(
-                placedTiles, orderedTileIndexes, zonePartitions, Collections.unmodifiableSet(newCancelledAnimals)
+                placedTiles, orderedTileIndexes, tileCount, tileIndexesById, insertionPositions,
+                occupants, occupantCounts, zonePartitions, Collections.unmodifiableSet(newCancelledAnimals),
+                newZobristKey, knownScoreProjection()
         );
     }
 
@@ -500,22 +753,39 @@ public final class Board {
             return false;
         } else {
             Board thatBoard = (Board) that;
-            return Arrays.equals(thatBoard.orderedTileIndexes, orderedTileIndexes)
-                    && Arrays.equals(thatBoard.placedTiles, placedTiles)
-                    && cancelledAnimals.equals(thatBoard.cancelledAnimals)
+            // equal boards have equal keys, so that most different boards are told apart without comparing them
+            if (thatBoard.zobristKey != zobristKey || thatBoard.tileCount != tileCount) return false;
+            for (int order = 0; order < tileCount; order++) {
+                // the tiles have been placed at the same positions in the same order,
+                // so that comparing them is enough to compare the whole boards
+                if (thatBoard.orderedTileIndexes.get(order) != orderedTileIndexes.get(order)
+                        || !thatBoard.placedTileInOrder(order).equals(placedTileInOrder(order)))
+                    return false;
+            }
+            return cancelledAnimals.equals(thatBoard.cancelledAnimals)
                     && zonePartitions.equals(thatBoard.zonePartitions);
         }
     }
 
     /**
-     * Returns the hash code of the board
+     * Returns the hash code of the board, derived from its Zobrist key
      *
      * @return the hash code of the board
      */
     @Override
     public int hashCode() {
-        int placedTilesHash = Arrays.hashCode(placedTiles);
-        int orderedTileIndexesHash = Arrays.hashCode(orderedTileIndexes);
-        return Objects.hash(placedTilesHash, orderedTileIndexesHash, zonePartitions, cancelledAnimals);
+        return Long.hashCode(zobristKey);
+    }
+
+    /**
+     * Returns the Zobrist key of the board, the exclusive or of the keys of its placed tiles
+     * (with their rotation, position and placer), of their occupants and of the cancelled animals.
+     * It is updated by every transition of the board, and is the same in every process,
+     * so that it may be used as the key of a transposition table or to check that two boards are the same
+     *
+     * @return the Zobrist key of the board
+     */
+    public long zobristKey() {
+        return zobristKey;
     }
 }
@@ -0,0 +1,209 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents an immutable array of fixed length, stored as a two-level trie:
+ * a root array referencing chunks of CHUNK_SIZE elements.
+ * Updating an element only copies the root and the chunk containing it,
+ * every other chunk being shared with the former array.
+ *
+ * @param <E> the type of the elements of the array
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class ChunkedArray<E> {
+
+    /**
+     * The number of bits of an index used to find its position in a chunk
+     */
+    private static final int CHUNK_BITS = 5;
+    /**
+     * The number of elements in a chunk
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /**
+     * The mask to extract the position in a chunk from an index
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // a null chunk only contains null elements, so that an empty array does not hold any chunk
+    private final Object[][] chunks;
+    private final int length;
+
+    /**
+     * Creates a new array with the given chunks and length
+     *
+     * @param chunks the chunks of the array, which are never modified afterward
+     * @param length the length of the array
+     */
+    private ChunkedArray(Object[][] chunks, int length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    /**
+     * Creates a new array of the given length, containing only null elements
+     *
+     * @param length the non-negative length of the array
+     * @param <E>    the type of the elements of the array
+     * @return a new array of the given length, containing only null elements
+     * @throws IllegalArgumentException if the length is negative
+     */
+    static <E> ChunkedArray<E> ofLength(int length) {
+        Preconditions.checkArgument(length >= 0);
+        return new ChunkedArray<>(new Object[(length + CHUNK_MASK) >> CHUNK_BITS][], length);
+    }
+
+    /**
+     * Returns the length of the array
+     *
+     * @return the length of the array
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the element at the given index
+     *
+     * @param index the index of the element, between 0 (inclusive) and the length of the array (exclusive)
+     * @return the element at the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    @SuppressWarnings("unchecked")
+    E get(int index) {
+        Object[] chunk = chunks[chunkIndex(index)];
+        return chunk == null ? null : (E) chunk[index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns a new array, identical to this one but with the given element at the given index
+     *
+     * @param index the index of the element to replace
+     * @param value the new element
+     * @return a new array with the given element at the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    ChunkedArray<E> with(int index, E value) {
+        int chunkIndex = chunkIndex(index);
+        Object[] chunk = chunks[chunkIndex];
+        Object[] newChunk = chunk == null ? new Object[CHUNK_SIZE] : chunk.clone();
+        newChunk[index & CHUNK_MASK] = value;
+        Object[][] newChunks = chunks.clone();
+        newChunks[chunkIndex] = newChunk;
+        return new ChunkedArray<>(newChunks, length);
+    }
+
+    /**
+     * Returns the index of the chunk containing the given index, checking that the latter is in bounds
+     *
+     * @param index the index to find the chunk of
+     * @return the index of the chunk containing the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    private int chunkIndex(int index) {
+        return Objects.checkIndex(index, length) >> CHUNK_BITS;
+    }
+
+    /**
+     * A builder of arrays, sharing the chunks of the array it starts from,
+     * a chunk being only copied the first time one of its elements is set
+     *
+     * @param <E> the type of the elements of the array
+     */
+    static final class Builder<E> {
+
+        private Object[][] chunks;
+        // ownedChunks[i] is whether the chunk of index i was copied by this builder and can be modified,
+        // null if the root is still shared with the last array built (or the initial one)
+        private boolean[] ownedChunks;
+        private int length;
+
+        /**
+         * Creates a new builder of arrays identical to the given one, which is not modified
+         *
+         * @param array the array to start from
+         */
+        Builder(ChunkedArray<E> array) {
+            chunks = array.chunks;
+            length = array.length;
+        }
+
+        /**
+         * Returns the length of the array being built
+         *
+         * @return the length of the array being built
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Returns the element at the given index
+         *
+         * @param index the index of the element, between 0 (inclusive) and the length of the array (exclusive)
+         * @return the element at the given index
+         * @throws IndexOutOfBoundsException if the index is out of bounds
+         */
+        @SuppressWarnings("unchecked")
+        E get(int index) {
+            Object[] chunk = chunks[Objects.checkIndex(index, length) >> CHUNK_BITS];
+            return chunk == null ? null : (E) chunk[index & CHUNK_MASK];
+        }
+
+        /**
+         * Sets the element at the given index
+         *
+         * @param index the index of the element to replace
+         * @param value the new element
+         * @throws IndexOutOfBoundsException if the index is out of bounds
+         */
+        void set(int index, E value) {
+            int chunkIndex = Objects.checkIndex(index, length) >> CHUNK_BITS;
+            if (ownedChunks == null) ownRoot();
+            if (!ownedChunks[chunkIndex]) {
+                Object[] chunk = chunks[chunkIndex];
+                chunks[chunkIndex] = chunk == null ? new Object[CHUNK_SIZE] : chunk.clone();
+                ownedChunks[chunkIndex] = true;
+            }
+            chunks[chunkIndex][index & CHUNK_MASK] = value;
+        }
+
+        /**
+         * Grows the array being built to the given length, if it is shorter, the new elements being null
+         *
+         * @param length the minimal length of the array
+         */
+        void grow(int length) {
+            if (length <= this.length) return;
+            int chunkCount = (length + CHUNK_MASK) >> CHUNK_BITS;
+            if (chunkCount > chunks.length) {
+                if (ownedChunks == null) ownRoot();
+                chunks = Arrays.copyOf(chunks, chunkCount);
+                ownedChunks = Arrays.copyOf(ownedChunks, chunkCount);
+            }
+            this.length = length;
+        }
+
+        /**
+         * Builds the array, whose chunks are never modified afterward by this builder
+         *
+         * @return the array built
+         */
+        ChunkedArray<E> build() {
+            ChunkedArray<E> array = new ChunkedArray<>(chunks, length);
+            ownedChunks = null;
+            return array;
+        }
+
+        /**
+         * Copies the root shared with the last array built, the chunks themselves being still shared
+         */
+        private void ownRoot() {
+            chunks = chunks.clone();
+            ownedChunks = new boolean[chunks.length];
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents an immutable array of integers of fixed length, stored as a two-level trie:
+ * a root array referencing chunks of CHUNK_SIZE integers.
+ * Updating an integer only copies the root and the chunk containing it,
+ * every other chunk being shared with the former array.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class ChunkedIntArray {
+
+    /**
+     * The number of bits of an index used to find its position in a chunk
+     */
+    private static final int CHUNK_BITS = 5;
+    /**
+     * The number of integers in a chunk
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /**
+     * The mask to extract the position in a chunk from an index
+     */
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // a null chunk only contains the default value, so that a new array does not hold any chunk
+    private final int[][] chunks;
+    private final int length;
+    private final int defaultValue;
+
+    /**
+     * Creates a new array with the given chunks, length and default value
+     *
+     * @param chunks       the chunks of the array, which are never modified afterward
+     * @param length       the length of the array
+     * @param defaultValue the value of the integers of the null chunks
+     */
+    private ChunkedIntArray(int[][] chunks, int length, int defaultValue) {
+        this.chunks = chunks;
+        this.length = length;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Creates a new array of the given length, filled with the given value
+     *
+     * @param length       the non-negative length of the array
+     * @param defaultValue the value of all the integers of the array
+     * @return a new array of the given length, filled with the given value
+     * @throws IllegalArgumentException if the length is negative
+     */
+    static ChunkedIntArray filled(int length, int defaultValue) {
+        Preconditions.checkArgument(length >= 0);
+        return new ChunkedIntArray(new int[(length + CHUNK_MASK) >> CHUNK_BITS][], length, defaultValue);
+    }
+
+    /**
+     * Returns the length of the array
+     *
+     * @return the length of the array
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the integer at the given index
+     *
+     * @param index the index of the integer, between 0 (inclusive) and the length of the array (exclusive)
+     * @return the integer at the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    int get(int index) {
+        int[] chunk = chunks[chunkIndex(index)];
+        return chunk == null ? defaultValue : chunk[index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns a new array, identical to this one but with the given integer at the given index
+     *
+     * @param index the index of the integer to replace
+     * @param value the new integer
+     * @return a new array with the given integer at the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    ChunkedIntArray with(int index, int value) {
+        int chunkIndex = chunkIndex(index);
+        int[] chunk = chunks[chunkIndex];
+        int[] newChunk;
+        if (chunk == null) {
+            newChunk = new int[CHUNK_SIZE];
+            Arrays.fill(newChunk, defaultValue);
+        } else newChunk = chunk.clone();
+        newChunk[index & CHUNK_MASK] = value;
+        int[][] newChunks = chunks.clone();
+        newChunks[chunkIndex] = newChunk;
+        return new ChunkedIntArray(newChunks, length, defaultValue);
+    }
+
+    /**
+     * Returns the index of the chunk containing the given index, checking that the latter is in bounds
+     *
+     * @param index the index to find the chunk of
+     * @return the index of the chunk containing the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    private int chunkIndex(int index) {
+        return Objects.checkIndex(index, length) >> CHUNK_BITS;
+    }
+
+    /**
+     * A builder of arrays of integers, sharing the chunks of the array it starts from,
+     * a chunk being only copied the first time one of its integers is set
+     */
+    static final class Builder {
+
+        private int[][] chunks;
+        // ownedChunks[i] is whether the chunk of index i was copied by this builder and can be modified,
+        // null if the root is still shared with the last array built (or the initial one)
+        private boolean[] ownedChunks;
+        private int length;
+        private final int defaultValue;
+
+        /**
+         * Creates a new builder of arrays identical to the given one, which is not modified
+         *
+         * @param array the array to start from
+         */
+        Builder(ChunkedIntArray array) {
+            chunks = array.chunks;
+            length = array.length;
+            defaultValue = array.defaultValue;
+        }
+
+        /**
+         * Returns the length of the array being built
+         *
+         * @return the length of the array being built
+         */
+        int length() {
+            return length;
+        }
+
+        /**
+         * Returns the integer at the given index
+         *
+         * @param index the index of the integer, between 0 (inclusive) and the length of the array (exclusive)
+         * @return the integer at the given index
+         * @throws IndexOutOfBoundsException if the index is out of bounds
+         */
+        int get(int index) {
+            int[] chunk = chunks[Objects.checkIndex(index, length) >> CHUNK_BITS];
+            return chunk == null ? defaultValue : chunk[index & CHUNK_MASK];
+        }
+
+        /**
+         * Sets the integer at the given index
+         *
+         * @param index the index of the integer to replace
+         * @param value the new integer
+         * @throws IndexOutOfBoundsException if the index is out of bounds
+         */
+        void set(int index, int value) {
+            int chunkIndex = Objects.checkIndex(index, length) >> CHUNK_BITS;
+            if (ownedChunks == null) ownRoot();
+            if (!ownedChunks[chunkIndex]) {
+                int[] chunk = chunks[chunkIndex];
+                int[] newChunk;
+                if (chunk == null) {
+                    newChunk = new int[CHUNK_SIZE];
+                    Arrays.fill(newChunk, defaultValue);
+                } else newChunk = chunk.clone();
+                chunks[chunkIndex] = newChunk;
+                ownedChunks[chunkIndex] = true;
+            }
+            chunks[chunkIndex][index & CHUNK_MASK] = value;
+        }
+
+        /**
+         * Grows the array being built to the given length, if it is shorter,
+         * the new integers being the default value
+         *
+         * @param length the minimal length of the array
+         */
+        void grow(int length) {
+            if (length <= this.length) return;
+            int chunkCount = (length + CHUNK_MASK) >> CHUNK_BITS;
+            if (chunkCount > chunks.length) {
+                if (ownedChunks == null) ownRoot();
+                chunks = Arrays.copyOf(chunks, chunkCount);
+                ownedChunks = Arrays.copyOf(ownedChunks, chunkCount);
+            }
+            this.length = length;
+        }
+
+        /**
+         * Builds the array, whose chunks are never modified afterward by this builder
+         *
+         * @return the array built
+         */
+        ChunkedIntArray build() {
+            ChunkedIntArray array = new ChunkedIntArray(chunks, length, defaultValue);
+            ownedChunks = null;
+            return array;
+        }
+
+        /**
+         * Copies the root shared with the last array built, the chunks themselves being still shared
+         */
+        private void ownRoot() {
+            chunks = chunks.clone();
+            ownedChunks = new boolean[chunks.length];
+        }
+    }
+}
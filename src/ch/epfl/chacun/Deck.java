@@ -0,0 +1,80 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents an immutable deck of tiles, stored as an array of tiles shared by all the decks
+ * obtained by drawing tiles from each other, and the index of the top tile of the deck in this array,
+ * so that drawing tiles only moves this index.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class Deck extends AbstractList<Tile> implements RandomAccess {
+
+    private final Tile[] tiles;
+    // the index of the top tile of the deck in tiles, the tiles before it having been drawn
+    private final int top;
+
+    /**
+     * Creates a new deck containing the tiles of the given array from the given index,
+     * the array being never modified afterward
+     *
+     * @param tiles the tiles of the deck, and the tiles drawn before the top tile
+     * @param top   the index of the top tile of the deck in the array
+     */
+    private Deck(Tile[] tiles, int top) {
+        this.tiles = tiles;
+        this.top = top;
+    }
+
+    /**
+     * Returns an immutable deck containing the given tiles, or the given list itself if it already is a deck
+     *
+     * @param tiles the tiles of the deck, from the top one to the bottom one, which must not be null
+     * @return an immutable deck containing the given tiles
+     * @throws NullPointerException if one of the tiles is null
+     */
+    static Deck copyOf(List<Tile> tiles) {
+        if (tiles instanceof Deck deck) return deck;
+        Tile[] tilesArray = tiles.toArray(new Tile[0]);
+        for (Tile tile : tilesArray) Objects.requireNonNull(tile);
+        return new Deck(tilesArray, 0);
+    }
+
+    /**
+     * Returns a new deck containing the tiles of this one, except the given number of tiles at the top
+     *
+     * @param count the number of tiles to draw
+     * @return a new deck without the given number of tiles at the top, or this one if the count is zero
+     * @throws IllegalArgumentException if the count is negative or greater than the size of the deck
+     */
+    Deck withTopTilesDrawn(int count) {
+        Preconditions.checkArgument(count >= 0 && count <= size());
+        return count == 0 ? this : new Deck(tiles, top + count);
+    }
+
+    @Override
+    public Tile get(int index) {
+        Objects.checkIndex(index, size());
+        return tiles[top + index];
+    }
+
+    @Override
+    public int size() {
+        return tiles.length - top;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // two decks sharing an array and a top tile have the same tiles
+        if (o instanceof Deck that && that.tiles == tiles && that.top == top) return true;
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with equals, as the hash code of a list only depends on its tiles
+        return super.hashCode();
+    }
+}
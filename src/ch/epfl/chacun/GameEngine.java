@@ -0,0 +1,1187 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.audio.SoundManager;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a mutable game of ChaCuN, to which actions are applied in place and then undone,
+ * as needed by simulations exploring many continuations of the same game.
+ * <p>
+ * The engine follows exactly the rules of {@link GameState}, but keeps the board in plain arrays
+ * and the zone partitions in mutable disjoint-set forests, which are modified in place.
+ * Every modification pushes the way to revert it on a trail, and every action remembers
+ * the length the trail had before it, so that undoing an action only reverts what it modified.
+ * The immutable {@link GameState} of the game is only built when asked for.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class GameEngine {
+
+    // the board has WIDTH * WIDTH cells, indexed in row-major order like the ones of Board
+    private static final int WIDTH = Board.REACH * 2 + 1;
+    // the number of tile ids indexed by tileIndexesById, the ids of the game ranging from 0 to 94
+    private static final int TILE_ID_COUNT = Tiles.TILES.size();
+
+    private final TextMaker textMaker;
+    // the players in the order they had at the start of the game, the current one being at currentPlayerIndex
+    private final List<PlayerColor> players;
+    private final TileDecks tileDecks;
+    // drawnTileCounts[kind.ordinal()] is the number of tiles of the given kind drawn from tileDecks
+    private final int[] drawnTileCounts = new int[Tile.Kind.values().length];
+    private int currentPlayerIndex;
+    private Tile tileToPlace;
+    private GameState.Action nextAction = GameState.Action.START_GAME;
+    private SoundManager.Sound nextSound = SoundManager.Sound.SILENT;
+
+    private final PlacedTile[] placedTiles = new PlacedTile[WIDTH * WIDTH];
+    // the indexes of the placed tiles in the order they were placed, only the first tileCount are used
+    private final int[] orderedTileIndexes = new int[WIDTH * WIDTH];
+    private int tileCount;
+    // the index on the board of the tile having each id of the game, -1 if it has not been placed
+    private final int[] tileIndexesById = new int[TILE_ID_COUNT];
+    private final boolean[] insertionPositions = new boolean[WIDTH * WIDTH];
+    // the constraints that the placed tiles put on the free cells next to them, see PlacementChecker
+    private final int[] fringeMasks = new int[WIDTH * WIDTH];
+    private final int[] fringeKinds = new int[WIDTH * WIDTH];
+    // the sorted fringe and its placement checker, only built when asked for, null if the fringe changed since
+    private List<Pos> sortedInsertionPositions;
+    private PlacementChecker placementChecker;
+    // occupantCounts[player.ordinal() * kinds + kind.ordinal()] is the number of occupants placed by the player
+    private final int[] occupantCounts = new int[PlayerColor.ALL.size() * Occupant.Kind.ALL.size()];
+    private final Set<Animal> cancelledAnimals = new HashSet<>();
+    // the Zobrist key of the board, see Board#zobristKey
+    private long boardZobristKey;
+
+    private final Partition<Zone.Forest> forests;
+    private final Partition<Zone.Meadow> meadows;
+    private final Partition<Zone.River> rivers;
+    private final Partition<Zone.Water> riverSystems;
+
+    private final List<MessageBoard.Message> messages = new ArrayList<>();
+    // the total points of every player color, and the mask of the colors scoring in some message
+    private final int[] points = new int[PlayerColor.ALL.size()];
+    private int scorersMask;
+
+    // the ways to revert the modifications of the arrays and of the partitions, the last one being on top
+    private final List<Runnable> trail = new ArrayList<>();
+    // the frames of the actions applied and not undone, the last one being on top of the stack
+    private final Deque<Frame> history = new ArrayDeque<>();
+    // the current state of the game, only built when asked for, null if it was not since the last action
+    private GameState state;
+
+    /**
+     * Creates a new engine starting from the initial state of a game, see {@link GameState#initial}
+     *
+     * @param players   the ordered list of the game players
+     * @param tileDecks the tile decks of the game, containing the cards to place
+     * @param textMaker the text maker to generate the messages
+     */
+    public GameEngine(List<PlayerColor> players, TileDecks tileDecks, TextMaker textMaker) {
+        this.players = List.copyOf(players);
+        this.tileDecks = Objects.requireNonNull(tileDecks);
+        this.textMaker = Objects.requireNonNull(textMaker);
+        Arrays.fill(tileIndexesById, -1);
+        forests = new Partition<>(trail);
+        meadows = new Partition<>(trail);
+        rivers = new Partition<>(trail);
+        riverSystems = new Partition<>(trail);
+    }
+
+    /**
+     * The values of the fields of the engine that are saved before an action, to be restored when it is undone,
+     * the other modifications of the action being reverted from the trail
+     *
+     * @param trailSize          the size of the trail before the action
+     * @param currentPlayerIndex the index of the current player before the action
+     * @param tileToPlace        the tile to place before the action
+     * @param nextAction         the next action before the action
+     * @param nextSound          the next sound before the action
+     * @param drawnTileCounts    the numbers of tiles drawn before the action
+     * @param tileCount          the number of placed tiles before the action
+     * @param boardZobristKey    the Zobrist key of the board before the action
+     * @param messageCount       the number of messages before the action
+     * @param points             the points of the players before the action
+     * @param scorersMask        the mask of the scorers before the action
+     * @param state              the state built before the action, or null if there is none
+     */
+    private record Frame(
+            int trailSize, int currentPlayerIndex, Tile tileToPlace, GameState.Action nextAction,
+            SoundManager.Sound nextSound, int[] drawnTileCounts, int tileCount, long boardZobristKey,
+            int messageCount, int[] points, int scorersMask, GameState state
+    ) {
+    }
+
+    /**
+     * Returns the immutable current state of the game, which is built once after every action
+     * and is not affected by the following ones
+     *
+     * @return the current state of the game
+     */
+    public GameState state() {
+        if (state == null) {
+            List<PlayerColor> currentPlayers = new ArrayList<>(players.subList(currentPlayerIndex, players.size()));
+            currentPlayers.addAll(players.subList(0, currentPlayerIndex));
+            List<PlacedTile> placedTilesInOrder = new ArrayList<>(tileCount);
+            for (int order = 0; order < tileCount; order++) placedTilesInOrder.add(placedTileInOrder(order));
+            ZonePartitions zonePartitions = new ZonePartitions(
+                    forests.toZonePartition(), meadows.toZonePartition(),
+                    rivers.toZonePartition(), riverSystems.toZonePartition()
+            );
+            state = new GameState(
+                    currentPlayers,
+                    new TileDecks(remainingTiles(Tile.Kind.START), remainingTiles(Tile.Kind.NORMAL),
+                            remainingTiles(Tile.Kind.MENHIR)),
+                    tileToPlace,
+                    Board.of(placedTilesInOrder, zonePartitions, cancelledAnimals),
+                    nextAction,
+                    new MessageBoard(textMaker, messages),
+                    nextSound
+            );
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of actions that can be undone
+     *
+     * @return the number of actions applied since the initial state and not undone
+     */
+    public int historySize() {
+        return history.size();
+    }
+
+    /**
+     * Returns whether there is an action to undo
+     *
+     * @return true if there is an action to undo, false otherwise
+     */
+    public boolean canUndo() {
+        return !history.isEmpty();
+    }
+
+    /**
+     * Returns the next action to be performed
+     *
+     * @return the next action to be performed
+     */
+    public GameState.Action nextAction() {
+        return nextAction;
+    }
+
+    /**
+     * Returns the tile to place, see {@link GameState#tileToPlace()}
+     *
+     * @return the tile to place, or null if the next action is not to place a tile
+     */
+    public Tile tileToPlace() {
+        return tileToPlace;
+    }
+
+    /**
+     * Returns the color of the player who is currently playing, see {@link GameState#currentPlayer()}
+     *
+     * @return the color of the player who is currently playing, or null if the game is not started or ended
+     */
+    public PlayerColor currentPlayer() {
+        boolean isGameRunning = nextAction != GameState.Action.START_GAME && nextAction != GameState.Action.END_GAME;
+        return isGameRunning ? players.get(currentPlayerIndex) : null;
+    }
+
+    /**
+     * Returns the list of positions where the next tile may be placed, sorted by x and then by y,
+     * see {@link Board#sortedInsertionPositions()}
+     *
+     * @return the unmodifiable list of positions where the next tile may be placed, sorted by x and then by y
+     */
+    public List<Pos> sortedInsertionPositions() {
+        if (sortedInsertionPositions == null) {
+            List<Pos> positions = new ArrayList<>();
+            for (int x = -Board.REACH; x <= Board.REACH; x++) {
+                for (int y = -Board.REACH; y <= Board.REACH; y++) {
+                    if (insertionPositions[(y + Board.REACH) * WIDTH + (x + Board.REACH)]) positions.add(new Pos(x, y));
+                }
+            }
+            sortedInsertionPositions = List.copyOf(positions);
+        }
+        return sortedInsertionPositions;
+    }
+
+    /**
+     * Returns the placement checker of the current fringe, which is only built once after the fringe changed
+     *
+     * @return the placement checker of the current fringe
+     */
+    private PlacementChecker placementChecker() {
+        if (placementChecker == null) {
+            List<Pos> positions = sortedInsertionPositions();
+            int[] masks = new int[positions.size()];
+            int[] kinds = new int[positions.size()];
+            for (int i = 0; i < positions.size(); i++) {
+                masks[i] = fringeMasks[indexOf(positions.get(i))];
+                kinds[i] = fringeKinds[indexOf(positions.get(i))];
+            }
+            placementChecker = new PlacementChecker(masks, kinds);
+        }
+        return placementChecker;
+    }
+
+    /**
+     * Returns the list of the occupants of the board, sorted by zone id, see {@link Board#sortedOccupants()}
+     *
+     * @return the list of the occupants of the board, sorted by zone id
+     */
+    public List<Occupant> sortedOccupants() {
+        OccupantSet occupants = OccupantSet.EMPTY;
+        for (int order = 0; order < tileCount; order++) {
+            Occupant occupant = placedTileInOrder(order).occupant();
+            if (occupant != null) occupants = occupants.with(occupant);
+        }
+        return occupants.sortedList();
+    }
+
+    /**
+     * Returns the set of occupants that the current player may place on the last placed tile,
+     * see {@link GameState#lastTilePotentialOccupants()}
+     *
+     * @return the set of occupants that may be placed on the last placed tile by the player
+     * @throws IllegalArgumentException if no tile has been placed yet
+     */
+    public Set<Occupant> lastTilePotentialOccupants() {
+        Preconditions.checkArgument(tileCount > 0);
+        PlacedTile tile = lastPlacedTile();
+        return tile.potentialOccupants()
+                .stream()
+                .filter(occupant ->
+                        Occupant.occupantsCount(occupant.kind()) > occupantCount(currentPlayer(), occupant.kind())
+                                && !switch (tile.zoneWithId(occupant.zoneId())) {
+                            case Zone.Forest forestZone -> forests.area(forestZone).isOccupied();
+                            case Zone.Meadow meadowZone -> meadows.area(meadowZone).isOccupied();
+                            case Zone.River riverZone when occupant.kind() == Occupant.Kind.PAWN ->
+                                    rivers.area(riverZone).isOccupied();
+                            // here we handle the case when the occupant is a hut
+                            case Zone.Water waterZone -> riverSystems.area(waterZone).isOccupied();
+                        }
+                )
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Places the starting tile and draws the first tile to place, see {@link GameState#withStartingTilePlaced()}
+     *
+     * @throws IllegalArgumentException if the next action is not to start the game
+     */
+    public void startGame() {
+        Preconditions.checkArgument(nextAction == GameState.Action.START_GAME);
+        perform(() -> {
+            addTile(new PlacedTile(drawTile(Tile.Kind.START), null, Rotation.NONE, Pos.ORIGIN));
+            tileToPlace = drawTile(Tile.Kind.NORMAL);
+            nextAction = GameState.Action.PLACE_TILE;
+            nextSound = SoundManager.Sound.SILENT;
+        });
+    }
+
+    /**
+     * Places the given tile and handles its special power, see {@link GameState#withPlacedTile(PlacedTile)}
+     *
+     * @param tile the tile to place
+     * @throws IllegalArgumentException if the next action is not to place a tile,
+     *                                  if the tile is already occupied or if it can not be placed
+     */
+    public void placeTile(PlacedTile tile) {
+        Preconditions.checkArgument(nextAction == GameState.Action.PLACE_TILE && tile.occupant() == null);
+        perform(() -> {
+            addTile(tile);
+            tileToPlace = null;
+            switch (tile.specialPowerZone()) {
+                case Zone.Lake lake when lake.specialPower() == Zone.SpecialPower.LOGBOAT -> addMessage(
+                        MessageBoard.scoredLogboatMessage(textMaker, currentPlayer(), riverSystems.area(lake))
+                );
+                case Zone zone when zone.specialPower() == Zone.SpecialPower.SHAMAN -> {
+                    if (occupantCount(currentPlayer(), Occupant.Kind.PAWN) > 0) {
+                        nextAction = GameState.Action.RETAKE_PAWN;
+                        nextSound = SoundManager.Sound.SILENT;
+                        return;
+                    }
+                }
+                case Zone.Meadow meadow when meadow.specialPower() == Zone.SpecialPower.HUNTING_TRAP -> {
+                    Area<Zone.Meadow> adjacentMeadow = adjacentMeadow(tile.pos(), meadow);
+                    Set<Animal> cancelledDeers = GameState.deersToCancel(adjacentMeadow, cancelledAnimals);
+                    addMessage(MessageBoard.scoredHuntingTrapMessage(
+                            textMaker, currentPlayer(), adjacentMeadow, cancelledDeers
+                    ));
+                    // then cancel all other animals
+                    cancelAnimals(Area.animals(adjacentMeadow, cancelledAnimals));
+                }
+                case null, default -> {
+                }
+            }
+            nextAction = GameState.Action.OCCUPY_TILE;
+            nextSound = SoundManager.Sound.PLACED_TILE;
+            finishTurnIfOccupationImpossible();
+        });
+    }
+
+    /**
+     * Places the given occupant and finishes the turn of the player, see {@link GameState#withNewOccupant(Occupant)}
+     *
+     * @param occupant the occupant to place, null if the player chose to place none
+     * @throws IllegalArgumentException if the next action is not to occupy a tile
+     */
+    public void placeOccupant(Occupant occupant) {
+        Preconditions.checkArgument(nextAction == GameState.Action.OCCUPY_TILE && tileCount > 0);
+        perform(() -> {
+            if (occupant != null) addOccupant(occupant);
+            nextSound = SoundManager.Sound.SILENT;
+            finishTurn();
+        });
+    }
+
+    /**
+     * Removes the given pawn from the board, see {@link GameState#withOccupantRemoved(Occupant)}
+     *
+     * @param occupant the pawn to retake, null if the player chose to retake none
+     * @throws IllegalArgumentException if the next action is not to retake a pawn
+     *                                  or if the occupant is neither a pawn nor null
+     */
+    public void retakePawn(Occupant occupant) {
+        Preconditions.checkArgument(nextAction == GameState.Action.RETAKE_PAWN);
+        Preconditions.checkArgument(occupant == null || occupant.kind() == Occupant.Kind.PAWN);
+        perform(() -> {
+            if (occupant != null) removeOccupant(occupant);
+            nextAction = GameState.Action.OCCUPY_TILE;
+            nextSound = SoundManager.Sound.SILENT;
+            finishTurnIfOccupationImpossible();
+        });
+    }
+
+    /**
+     * Decodes and applies the given Base32-encoded action, following the rules of
+     * {@link ActionEncoder#decodeAndApply(GameState, String)}
+     *
+     * @param action the Base32-encoded action to apply
+     * @return true if the action was valid and has been applied, false if it was invalid,
+     * the engine being then left unchanged
+     */
+    public boolean apply(String action) {
+        if (!Base32.isValid(action)) return false;
+        switch (nextAction) {
+            case PLACE_TILE -> {
+                if (action.length() != ActionEncoder.WITH_PLACED_TILE_ACTION_LENGTH) return false;
+                int decoded = Base32.decode(action);
+                int fringeIndex = decoded >> ActionEncoder.WITH_PLACED_TILE_IDX_SHIFT;
+                int rotationIndex = decoded & ActionEncoder.WITH_PLACED_TILE_ROTATION_MASK;
+                List<Pos> positions = sortedInsertionPositions();
+                if (fringeIndex >= positions.size()) return false;
+                PlacedTile placedTile = new PlacedTile(
+                        tileToPlace, currentPlayer(), Rotation.ALL.get(rotationIndex), positions.get(fringeIndex)
+                );
+                if (!canAddTile(placedTile)) return false;
+                placeTile(placedTile);
+            }
+            case OCCUPY_TILE -> {
+                if (action.length() != ActionEncoder.WITH_NEW_OCCUPANT_ACTION_LENGTH) return false;
+                if (action.equals(ActionEncoder.WITH_NO_OCCUPANT)) {
+                    placeOccupant(null);
+                    return true;
+                }
+                int decoded = Base32.decode(action);
+                Occupant.Kind kind = Occupant.Kind.ALL.get(decoded >> ActionEncoder.WITH_NEW_OCCUPANT_KIND_SHIFT);
+                int localId = decoded & ActionEncoder.WITH_NEW_OCCUPANT_ZONE_MASK;
+                Occupant occupant = lastTilePotentialOccupants().stream()
+                        .filter(occ -> occ.kind() == kind && Zone.localId(occ.zoneId()) == localId)
+                        .findFirst()
+                        .orElse(null);
+                if (occupant == null) return false;
+                placeOccupant(occupant);
+            }
+            case RETAKE_PAWN -> {
+                if (action.length() != ActionEncoder.WITH_OCCUPANT_REMOVED_ACTION_LENGTH) return false;
+                if (action.equals(ActionEncoder.WITH_NO_OCCUPANT)) {
+                    retakePawn(null);
+                    return true;
+                }
+                int decoded = Base32.decode(action);
+                List<Occupant> occupants = sortedOccupants();
+                if (decoded >= occupants.size()) return false;
+                Occupant occupant = occupants.get(decoded);
+                if (occupant.kind() != Occupant.Kind.PAWN) return false;
+                if (tileWithId(Zone.tileId(occupant.zoneId())).placer() != currentPlayer()) return false;
+                retakePawn(occupant);
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Undoes the last applied action
+     *
+     * @throws IllegalArgumentException if there is no action to undo
+     */
+    public void undo() {
+        Preconditions.checkArgument(canUndo());
+        Frame frame = history.pop();
+        // the modifications are reverted from the most recent one
+        for (int i = trail.size() - 1; i >= frame.trailSize(); i--) trail.remove(i).run();
+        currentPlayerIndex = frame.currentPlayerIndex();
+        tileToPlace = frame.tileToPlace();
+        nextAction = frame.nextAction();
+        nextSound = frame.nextSound();
+        System.arraycopy(frame.drawnTileCounts(), 0, drawnTileCounts, 0, drawnTileCounts.length);
+        tileCount = frame.tileCount();
+        boardZobristKey = frame.boardZobristKey();
+        messages.subList(frame.messageCount(), messages.size()).clear();
+        System.arraycopy(frame.points(), 0, points, 0, points.length);
+        scorersMask = frame.scorersMask();
+        state = frame.state();
+    }
+
+    /**
+     * Undoes the given number of the last applied actions
+     *
+     * @param count the number of actions to undo
+     * @throws IllegalArgumentException if the count is negative or greater than the number of actions to undo
+     */
+    public void undo(int count) {
+        Preconditions.checkArgument(count >= 0 && count <= history.size());
+        for (int i = 0; i < count; i++) undo();
+    }
+
+    /**
+     * Applies the given action in place, after having saved the frame needed to undo it.
+     * If the action fails, what it already modified is undone before the exception is rethrown
+     *
+     * @param action the action modifying the engine
+     */
+    private void perform(Runnable action) {
+        history.push(new Frame(
+                trail.size(), currentPlayerIndex, tileToPlace, nextAction, nextSound, drawnTileCounts.clone(),
+                tileCount, boardZobristKey, messages.size(), points.clone(), scorersMask, state
+        ));
+        state = null;
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            undo();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the index on the board of the given position, see Board#getTileIndexFromPos
+     *
+     * @param pos the position
+     * @return the index on the board of the given position
+     */
+    private static int indexOf(Pos pos) {
+        return (pos.y() + Board.REACH) * WIDTH + (pos.x() + Board.REACH);
+    }
+
+    /**
+     * Returns whether the given position is in the board
+     *
+     * @param pos the position to check
+     * @return whether the given position is in the board
+     */
+    private static boolean isPosInBoard(Pos pos) {
+        return Math.abs(pos.x()) <= Board.REACH && Math.abs(pos.y()) <= Board.REACH;
+    }
+
+    /**
+     * Returns the tile placed at the given position, null if there is none or if the position is out of the board
+     *
+     * @param pos the position of the tile to get
+     * @return the tile placed at the given position, null if there is none
+     */
+    private PlacedTile tileAt(Pos pos) {
+        return isPosInBoard(pos) ? placedTiles[indexOf(pos)] : null;
+    }
+
+    /**
+     * Returns the tile that has been placed at the given turn
+     *
+     * @param order the number of tiles placed before the tile to get
+     * @return the tile that has been placed at the given turn
+     */
+    private PlacedTile placedTileInOrder(int order) {
+        return placedTiles[orderedTileIndexes[order]];
+    }
+
+    /**
+     * Returns the last placed tile
+     *
+     * @return the last placed tile
+     */
+    private PlacedTile lastPlacedTile() {
+        return placedTileInOrder(tileCount - 1);
+    }
+
+    /**
+     * Returns the index on the board of the placed tile with the given id
+     *
+     * @param tileId the id of the tile
+     * @return the index on the board of the placed tile with the given id
+     * @throws IllegalArgumentException if there is no tile with the given id
+     */
+    private int tileIndexWithId(int tileId) {
+        if (tileId >= 0 && tileId < TILE_ID_COUNT) {
+            int index = tileIndexesById[tileId];
+            Preconditions.checkArgument(index >= 0);
+            return index;
+        }
+        // the ids that are not those of the game are not indexed
+        for (int order = 0; order < tileCount; order++) {
+            if (placedTileInOrder(order).id() == tileId) return orderedTileIndexes[order];
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Returns the placed tile with the given id
+     *
+     * @param tileId the id of the tile
+     * @return the placed tile with the given id
+     * @throws IllegalArgumentException if there is no tile with the given id
+     */
+    private PlacedTile tileWithId(int tileId) {
+        return placedTiles[tileIndexWithId(tileId)];
+    }
+
+    /**
+     * Returns the number of occupants of the given kind placed by the given player
+     *
+     * @param player       the player owning the occupants
+     * @param occupantKind the kind of the occupants
+     * @return the number of occupants of the given kind placed by the given player
+     */
+    private int occupantCount(PlayerColor player, Occupant.Kind occupantKind) {
+        return occupantCounts[player.ordinal() * Occupant.Kind.ALL.size() + occupantKind.ordinal()];
+    }
+
+    /**
+     * Returns the deck of the given kind, as it is at the start of the game
+     *
+     * @param kind the kind of the deck
+     * @return the deck of the given kind, as it is at the start of the game
+     */
+    private Deck initialDeck(Tile.Kind kind) {
+        return (Deck) switch (kind) {
+            case START -> tileDecks.startTiles();
+            case NORMAL -> tileDecks.normalTiles();
+            case MENHIR -> tileDecks.menhirTiles();
+        };
+    }
+
+    /**
+     * Returns the tiles of the given kind that have not been drawn yet
+     *
+     * @param kind the kind of the tiles
+     * @return the tiles of the given kind that have not been drawn yet, the top one first
+     */
+    private Deck remainingTiles(Tile.Kind kind) {
+        return initialDeck(kind).withTopTilesDrawn(drawnTileCounts[kind.ordinal()]);
+    }
+
+    /**
+     * Draws the top tile of the deck of the given kind
+     *
+     * @param kind the kind of the tile to draw
+     * @return the drawn tile, or null if the deck is empty
+     */
+    private Tile drawTile(Tile.Kind kind) {
+        Deck deck = remainingTiles(kind);
+        if (deck.isEmpty()) return null;
+        drawnTileCounts[kind.ordinal()]++;
+        return deck.getFirst();
+    }
+
+    /**
+     * Replaces the tile at the given index of the board
+     *
+     * @param index the index on the board
+     * @param tile  the new tile, or null to free the cell
+     */
+    private void setPlacedTile(int index, PlacedTile tile) {
+        PlacedTile former = placedTiles[index];
+        trail.add(() -> placedTiles[index] = former);
+        placedTiles[index] = tile;
+    }
+
+    /**
+     * Changes the number of occupants of the kind of the given occupant placed by the given player
+     *
+     * @param placer   the placer of the tile of the occupant, possibly null
+     * @param occupant the occupant added or removed
+     * @param delta    1 if the occupant is added, -1 if it is removed
+     */
+    private void countOccupant(PlayerColor placer, Occupant occupant, int delta) {
+        if (placer == null) return;
+        int index = placer.ordinal() * Occupant.Kind.ALL.size() + occupant.kind().ordinal();
+        occupantCounts[index] += delta;
+        trail.add(() -> occupantCounts[index] -= delta);
+    }
+
+    /**
+     * Sets whether the given position is in the fringe
+     *
+     * @param pos         the position
+     * @param isInsertion whether the position is in the fringe
+     */
+    private void setInsertionPosition(Pos pos, boolean isInsertion) {
+        int index = indexOf(pos);
+        boolean former = insertionPositions[index];
+        if (former == isInsertion) return;
+        insertionPositions[index] = isInsertion;
+        clearFringeCaches();
+        trail.add(() -> {
+            insertionPositions[index] = former;
+            clearFringeCaches();
+        });
+    }
+
+    /**
+     * Adds the constraint that the given side of a placed tile puts on the free cell facing it
+     *
+     * @param pos       the position of the free cell
+     * @param side      the side of the placed tile facing the cell
+     * @param direction the direction of the placed tile, seen from the cell
+     */
+    private void addFringeConstraint(Pos pos, TileSide side, Direction direction) {
+        int index = indexOf(pos);
+        int formerMask = fringeMasks[index];
+        int formerKind = fringeKinds[index];
+        fringeMasks[index] |= PlacementChecker.maskOf(direction);
+        fringeKinds[index] |= PlacementChecker.kindOf(side, direction);
+        clearFringeCaches();
+        trail.add(() -> {
+            fringeMasks[index] = formerMask;
+            fringeKinds[index] = formerKind;
+            clearFringeCaches();
+        });
+    }
+
+    /**
+     * Forgets the sorted fringe and its placement checker, after the fringe changed
+     */
+    private void clearFringeCaches() {
+        sortedInsertionPositions = null;
+        placementChecker = null;
+    }
+
+    /**
+     * Returns whether the given placed tile can be put on the board, see {@link Board#canAddTile(PlacedTile)}
+     *
+     * @param tile the tile to test
+     * @return whether the given placed tile can be put on the board at its position and rotation
+     */
+    private boolean canAddTile(PlacedTile tile) {
+        if (!isPosInBoard(tile.pos())) return false;
+        int index = indexOf(tile.pos());
+        // the constraints of the cell are those of the neighbouring sides, see PlacementChecker#fits
+        int signature = PlacementChecker.signatures(tile.tile())[tile.rotation().ordinal()];
+        return insertionPositions[index] && (signature & fringeMasks[index]) == fringeKinds[index];
+    }
+
+    /**
+     * Places the given tile on the board, see {@link Board#withNewTile(PlacedTile)}
+     *
+     * @param tile the tile to place
+     * @throws IllegalArgumentException if the board is not empty and the tile can not be added
+     */
+    private void addTile(PlacedTile tile) {
+        Preconditions.checkArgument(tileCount == 0 || canAddTile(tile));
+        int index = indexOf(tile.pos());
+        setPlacedTile(index, tile);
+        orderedTileIndexes[tileCount] = index;
+        tileCount += 1;
+        int tileId = tile.id();
+        if (tileId >= 0 && tileId < TILE_ID_COUNT && tileIndexesById[tileId] < 0) {
+            tileIndexesById[tileId] = index;
+            trail.add(() -> tileIndexesById[tileId] = -1);
+        }
+
+        addZones(tile.tile());
+        setInsertionPosition(tile.pos(), false);
+        for (Direction direction : Direction.ALL) {
+            Pos neighbouringPosition = tile.pos().neighbor(direction);
+            PlacedTile neighbouringTile = tileAt(neighbouringPosition);
+            if (neighbouringTile != null) {
+                connectSides(neighbouringTile.side(direction.opposite()), tile.side(direction));
+            } else if (isPosInBoard(neighbouringPosition)) {
+                setInsertionPosition(neighbouringPosition, true);
+                addFringeConstraint(neighbouringPosition, tile.side(direction), direction.opposite());
+            }
+        }
+
+        boardZobristKey ^= Zobrist.tileKey(tile);
+        if (tile.occupant() != null) {
+            countOccupant(tile.placer(), tile.occupant(), 1);
+            boardZobristKey ^= Zobrist.occupantKey(tile.occupant());
+        }
+    }
+
+    /**
+     * Adds the zones of the given tile to the partitions, see {@link ZonePartitions.Builder#addTile(Tile)}
+     *
+     * @param tile the tile whose zones are added
+     */
+    private void addZones(Tile tile) {
+        // indexed by local zone id
+        int[] openConnectionsPerZone = new int[10];
+        for (TileSide side : tile.sides()) {
+            for (Zone zone : side.zones()) {
+                openConnectionsPerZone[zone.localId()]++;
+                // a river and its lake are connected to each other
+                if (zone instanceof Zone.River river && river.hasLake()) {
+                    openConnectionsPerZone[river.lake().localId()]++;
+                    openConnectionsPerZone[zone.localId()]++;
+                }
+            }
+        }
+        for (Zone zone : tile.zones()) {
+            int openConnectionCount = openConnectionsPerZone[zone.localId()];
+            switch (zone) {
+                case Zone.Forest forest -> forests.addSingleton(forest, openConnectionCount);
+                case Zone.Meadow meadow -> meadows.addSingleton(meadow, openConnectionCount);
+                case Zone.River river -> {
+                    rivers.addSingleton(river, river.hasLake() ? openConnectionCount - 1 : openConnectionCount);
+                    riverSystems.addSingleton(river, openConnectionCount);
+                }
+                case Zone.Lake lake -> riverSystems.addSingleton(lake, openConnectionCount);
+            }
+        }
+        for (Zone zone : tile.zones()) {
+            if (zone instanceof Zone.River river && river.hasLake()) riverSystems.union(river, river.lake());
+        }
+    }
+
+    /**
+     * Connects the given sides, see {@link ZonePartitions.Builder#connectSides(TileSide, TileSide)}
+     *
+     * @param s1 the first side to connect
+     * @param s2 the second side to connect
+     * @throws IllegalArgumentException if the sides are not of the same kind
+     */
+    private void connectSides(TileSide s1, TileSide s2) {
+        switch (s1) {
+            case TileSide.Meadow(Zone.Meadow m1)
+                    when s2 instanceof TileSide.Meadow(Zone.Meadow m2) -> meadows.union(m1, m2);
+            case TileSide.Forest(Zone.Forest f1)
+                    when s2 instanceof TileSide.Forest(Zone.Forest f2) -> forests.union(f1, f2);
+            case TileSide.River(Zone.Meadow m1, Zone.River r1, Zone.Meadow m2)
+                    when s2 instanceof TileSide.River(Zone.Meadow m3, Zone.River r2, Zone.Meadow m4) -> {
+                rivers.union(r1, r2);
+                riverSystems.union(r1, r2);
+                meadows.union(m1, m4);
+                meadows.union(m2, m3);
+            }
+            default -> throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Places the given occupant on its tile, see {@link Board#withOccupant(Occupant)}
+     *
+     * @param occupant the occupant to place
+     * @throws IllegalArgumentException if the tile is already occupied or if the occupant does not fit its zone
+     */
+    private void addOccupant(Occupant occupant) {
+        int index = tileIndexWithId(Zone.tileId(occupant.zoneId()));
+        PlacedTile tile = placedTiles[index];
+        // throws an IllegalArgumentException if the tile is already occupied
+        setPlacedTile(index, tile.withOccupant(occupant));
+        switch (tile.zoneWithId(occupant.zoneId())) {
+            case Zone.Meadow meadow when occupant.kind() == Occupant.Kind.PAWN ->
+                    meadows.addInitialOccupant(meadow, tile.placer());
+            case Zone.Forest forest when occupant.kind() == Occupant.Kind.PAWN ->
+                    forests.addInitialOccupant(forest, tile.placer());
+            case Zone.River river when occupant.kind() == Occupant.Kind.PAWN ->
+                    rivers.addInitialOccupant(river, tile.placer());
+            case Zone.Water water when occupant.kind() == Occupant.Kind.HUT ->
+                    riverSystems.addInitialOccupant(water, tile.placer());
+            default -> throw new IllegalArgumentException();
+        }
+        countOccupant(tile.placer(), occupant, 1);
+        boardZobristKey ^= Zobrist.occupantKey(occupant);
+    }
+
+    /**
+     * Removes the pawn of the zone of the given occupant, see {@link Board#withoutOccupant(Occupant)}
+     *
+     * @param occupant the occupant to remove
+     * @throws IllegalArgumentException if the zone can not contain a pawn of the placer of its tile
+     */
+    private void removeOccupant(Occupant occupant) {
+        int index = tileIndexWithId(Zone.tileId(occupant.zoneId()));
+        PlacedTile tile = placedTiles[index];
+        setPlacedTile(index, tile.withNoOccupant());
+        switch (tile.zoneWithId(occupant.zoneId())) {
+            case Zone.Meadow meadow -> meadows.removeOccupant(meadow, tile.placer());
+            case Zone.Forest forest -> forests.removeOccupant(forest, tile.placer());
+            case Zone.River river -> rivers.removeOccupant(river, tile.placer());
+            default -> throw new IllegalArgumentException();
+        }
+        // the occupant actually removed is the one of the tile
+        Occupant removedOccupant = tile.occupant();
+        if (removedOccupant != null) {
+            countOccupant(tile.placer(), removedOccupant, -1);
+            boardZobristKey ^= Zobrist.occupantKey(removedOccupant);
+        }
+    }
+
+    /**
+     * Cancels the given animals, see {@link Board#withMoreCancelledAnimals(Set)}
+     *
+     * @param newlyCancelledAnimals the animals to cancel
+     */
+    private void cancelAnimals(Set<Animal> newlyCancelledAnimals) {
+        for (Animal animal : newlyCancelledAnimals) {
+            // an animal which was already cancelled keeps its key in the board
+            if (cancelledAnimals.add(animal)) {
+                boardZobristKey ^= Zobrist.cancelledAnimalKey(animal);
+                trail.add(() -> cancelledAnimals.remove(animal));
+            }
+        }
+    }
+
+    /**
+     * Returns the meadow area made of the zones of the given meadow surrounding the given position,
+     * see {@link Board#adjacentMeadow(Pos, Zone.Meadow)}
+     *
+     * @param pos        the position of the tile containing the meadow zone
+     * @param meadowZone the meadow zone
+     * @return the area made of the surrounding zones of the meadow, with all its occupants and 0 open connections
+     */
+    private Area<Zone.Meadow> adjacentMeadow(Pos pos, Zone.Meadow meadowZone) {
+        Area<Zone.Meadow> area = meadows.area(meadowZone);
+        return area.zones().stream()
+                .filter(zone -> {
+                    Pos zonePos = tileWithId(zone.tileId()).pos();
+                    return Math.abs(pos.x() - zonePos.x()) <= 1 && Math.abs(pos.y() - zonePos.y()) <= 1;
+                })
+                .collect(Collectors.collectingAndThen(
+                        Collectors.toSet(), zones -> new Area<>(zones, area.occupants(), 0)));
+    }
+
+    /**
+     * Adds the given message, if there is one
+     *
+     * @param message the message to add, null if the event did not trigger any message
+     */
+    private void addMessage(MessageBoard.Message message) {
+        if (message == null) return;
+        messages.add(message);
+        for (PlayerColor scorer : message.scorers()) {
+            points[scorer.ordinal()] += message.points();
+            scorersMask |= 1 << scorer.ordinal();
+        }
+    }
+
+    /**
+     * Returns the map matching the scorers of the messages to their total points, see {@link MessageBoard#points()}
+     *
+     * @return the map matching the scorers of the messages to their total points
+     */
+    private Map<PlayerColor, Integer> pointsMap() {
+        Map<PlayerColor, Integer> pointsMap = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor color : PlayerColor.ALL) {
+            if ((scorersMask & (1 << color.ordinal())) != 0) pointsMap.put(color, points[color.ordinal()]);
+        }
+        return pointsMap;
+    }
+
+    /**
+     * Finishes the turn of the player if he can not occupy the last placed tile
+     */
+    private void finishTurnIfOccupationImpossible() {
+        if (lastTilePotentialOccupants().isEmpty()) finishTurn();
+    }
+
+    /**
+     * Scores the forests and rivers closed by the last placed tile, then lets the player place a menhir tile,
+     * lets the next player place a normal tile or ends the game, see GameState#withTurnFinished
+     */
+    private void finishTurn() {
+        int[] formerPoints = points.clone();
+        int formerScorersMask = scorersMask;
+        PlacedTile lastPlacedTile = lastPlacedTile();
+
+        Set<Area<Zone.Forest>> closedForests = lastPlacedTile.forestZones().stream()
+                .map(forests::area)
+                .filter(Area::isClosed)
+                .collect(Collectors.toSet());
+        Area<Zone.Forest> forestClosedMenhir = null;
+        for (Area<Zone.Forest> forest : closedForests) {
+            if (Area.hasMenhir(forest)) forestClosedMenhir = forest;
+            addMessage(MessageBoard.scoredForestMessage(textMaker, forest));
+        }
+        Set<Area<Zone.River>> closedRivers = lastPlacedTile.riverZones().stream()
+                .map(rivers::area)
+                .filter(Area::isClosed)
+                .collect(Collectors.toSet());
+        for (Area<Zone.River> river : closedRivers) addMessage(MessageBoard.scoredRiverMessage(textMaker, river));
+        removeGatherersOrFishersIn(closedForests, closedRivers);
+
+        PlacementChecker placementChecker = placementChecker();
+        if (forestClosedMenhir != null && lastPlacedTile.kind() == Tile.Kind.NORMAL) {
+            skipUnplaceableTiles(Tile.Kind.MENHIR, placementChecker);
+            if (!remainingTiles(Tile.Kind.MENHIR).isEmpty()) {
+                addMessage(MessageBoard.closedForestWithMenhirMessage(textMaker, currentPlayer(), forestClosedMenhir));
+                tileToPlace = drawTile(Tile.Kind.MENHIR);
+                nextAction = GameState.Action.PLACE_TILE;
+                nextSound = SoundManager.Sound.SILENT;
+                return;
+            }
+        }
+        skipUnplaceableTiles(Tile.Kind.NORMAL, placementChecker);
+        if (!remainingTiles(Tile.Kind.NORMAL).isEmpty()) {
+            currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
+            boolean hasGainedPoints = scorersMask != formerScorersMask || !Arrays.equals(points, formerPoints);
+            if (hasGainedPoints) nextSound = SoundManager.Sound.GAINED_POINTS;
+            tileToPlace = drawTile(Tile.Kind.NORMAL);
+            nextAction = GameState.Action.PLACE_TILE;
+        } else {
+            nextAction = GameState.Action.END_GAME;
+            nextSound = SoundManager.Sound.SILENT;
+            countFinalPoints();
+        }
+    }
+
+    /**
+     * Draws the tiles of the given kind until the top one can be placed on the board or the deck is empty
+     *
+     * @param kind             the kind of the tiles
+     * @param placementChecker the placement checker of the current fringe
+     */
+    private void skipUnplaceableTiles(Tile.Kind kind, PlacementChecker placementChecker) {
+        Deck deck = remainingTiles(kind);
+        int skippedCount = 0;
+        while (skippedCount < deck.size() && !placementChecker.couldPlace(deck.get(skippedCount))) skippedCount++;
+        drawnTileCounts[kind.ordinal()] += skippedCount;
+    }
+
+    /**
+     * Removes the pawns of the given forests and rivers, see
+     * {@link Board#withoutGatherersOrFishersIn(Set, Set)}
+     *
+     * @param forests the forests to clear of gatherers
+     * @param rivers  the rivers to clear of fishers
+     */
+    private void removeGatherersOrFishersIn(Set<Area<Zone.Forest>> forests, Set<Area<Zone.River>> rivers) {
+        if (forests.isEmpty() && rivers.isEmpty()) return;
+        for (int order = 0; order < tileCount; order++) {
+            int index = orderedTileIndexes[order];
+            PlacedTile placedTile = placedTiles[index];
+            Occupant occupant = placedTile.occupant();
+            if (occupant == null || occupant.kind() != Occupant.Kind.PAWN) continue;
+            Zone occupiedZone = placedTile.zoneWithId(occupant.zoneId());
+            boolean isCleared = occupiedZone instanceof Zone.Forest forest && forests.contains(this.forests.area(forest))
+                    || occupiedZone instanceof Zone.River river && rivers.contains(this.rivers.area(river));
+            if (isCleared) {
+                setPlacedTile(index, placedTile.withNoOccupant());
+                boardZobristKey ^= Zobrist.occupantKey(occupant);
+                countOccupant(placedTile.placer(), occupant, -1);
+            }
+        }
+        rivers.forEach(this.rivers::removeAllOccupantsOf);
+        forests.forEach(this.forests::removeAllOccupantsOf);
+    }
+
+    /**
+     * Scores the meadows and the river systems and determines the winners,
+     * see GameState#withFinalPointsCounted
+     */
+    private void countFinalPoints() {
+        // the deers to cancel are chosen among the animals which were not cancelled at the end of the game
+        Set<Animal> finalCancelledAnimals = Set.copyOf(cancelledAnimals);
+        for (Area<Zone.Meadow> meadowArea : meadows.areas()) {
+            boolean hasWildFireZone = meadowArea.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
+            Zone.Meadow pitTrapZone = (Zone.Meadow) meadowArea.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
+            if (pitTrapZone != null) {
+                Pos pitTrapPosition = tileWithId(pitTrapZone.tileId()).pos();
+                Area<Zone.Meadow> adjacentMeadow = adjacentMeadow(pitTrapPosition, pitTrapZone);
+                if (!hasWildFireZone) cancelAnimals(GameState.deersToCancelWithPitTrap(
+                        meadows.area(pitTrapZone), adjacentMeadow, finalCancelledAnimals
+                ));
+                addMessage(MessageBoard.scoredPitTrapMessage(textMaker, adjacentMeadow, cancelledAnimals));
+            } else if (!hasWildFireZone) {
+                cancelAnimals(GameState.deersToCancel(meadowArea, finalCancelledAnimals));
+            }
+            addMessage(MessageBoard.scoredMeadowMessage(textMaker, meadowArea, cancelledAnimals));
+        }
+
+        for (Area<Zone.Water> waterArea : riverSystems.areas()) {
+            addMessage(MessageBoard.scoredRiverSystemMessage(textMaker, waterArea));
+            if (waterArea.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null)
+                addMessage(MessageBoard.scoredRaftMessage(textMaker, waterArea));
+        }
+
+        Map<PlayerColor, Integer> pointsMap = pointsMap();
+        int maxCount = pointsMap.values().stream().max(Integer::compareTo).orElse(0);
+        Set<PlayerColor> winners = players.stream()
+                .filter(color -> pointsMap.getOrDefault(color, 0) == maxCount)
+                .collect(Collectors.toSet());
+        addMessage(MessageBoard.winnersMessage(textMaker, winners, maxCount));
+    }
+
+    /**
+     * A zone partition modified in place, whose modifications are reverted from the trail of the engine.
+     * It is a flat disjoint-set forest indexed by zone id, updated exactly like the one of
+     * {@link ZonePartition.Builder}, so that the areas have the same roots in both
+     *
+     * @param <Z> the type of the zones forming the areas
+     */
+    private static final class Partition<Z extends Zone> {
+
+        private static final int NO_PARENT = -1;
+
+        private final List<Runnable> trail;
+        // parents[id] is the id of the root of the area of the zone having this id, or NO_PARENT
+        private int[] parents = new int[0];
+        // rootAreas[id] is the area represented by the root zone having this id, null if the zone is not a root
+        private Area<Z>[] rootAreas = newAreaArray(0);
+
+        /**
+         * Creates an empty partition, whose modifications are pushed on the given trail
+         *
+         * @param trail the trail of the engine
+         */
+        private Partition(List<Runnable> trail) {
+            this.trail = trail;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <Z extends Zone> Area<Z>[] newAreaArray(int length) {
+            return (Area<Z>[]) new Area<?>[length];
+        }
+
+        /**
+         * Returns the id of the root of the area containing the given zone
+         *
+         * @param zone the zone
+         * @return the id of the root of the area containing the zone
+         * @throws IllegalArgumentException if the zone is not in any area
+         */
+        private int rootOf(Z zone) {
+            int id = zone.id();
+            Preconditions.checkArgument(id >= 0 && id < parents.length && parents[id] != NO_PARENT);
+            return parents[id];
+        }
+
+        /**
+         * Returns the area containing the given zone
+         *
+         * @param zone the zone
+         * @return the area containing the zone
+         * @throws IllegalArgumentException if the zone is not in any area
+         */
+        private Area<Z> area(Z zone) {
+            return rootAreas[rootOf(zone)];
+        }
+
+        /**
+         * Returns the set of areas of the partition, built like {@link ZonePartition#areas()}
+         * so that it is iterated in the same order
+         *
+         * @return the set of areas of the partition
+         */
+        private Set<Area<Z>> areas() {
+            List<Area<Z>> rootAreasList = new ArrayList<>();
+            for (Area<Z> area : rootAreas) {
+                if (area != null) rootAreasList.add(area);
+            }
+            return Set.copyOf(rootAreasList);
+        }
+
+        private void setParent(int id, int parent) {
+            int former = parents[id];
+            parents[id] = parent;
+            trail.add(() -> parents[id] = former);
+        }
+
+        private void setRootArea(int root, Area<Z> area) {
+            Area<Z> former = rootAreas[root];
+            rootAreas[root] = area;
+            trail.add(() -> rootAreas[root] = former);
+        }
+
+        /**
+         * See {@link ZonePartition.Builder#addSingleton(Zone, int)}
+         */
+        private void addSingleton(Z zone, int openConnections) {
+            int id = zone.id();
+            int length = (Zone.tileId(id) + 1) * 10;
+            // the arrays only grow, the zones they may contain afterward being absent
+            if (parents.length < length) {
+                int formerLength = parents.length;
+                parents = Arrays.copyOf(parents, length);
+                Arrays.fill(parents, formerLength, length, NO_PARENT);
+                rootAreas = Arrays.copyOf(rootAreas, length);
+            }
+            setParent(id, id);
+            setRootArea(id, new Area<>(ZoneSet.of(zone), OccupantCounts.of(), openConnections));
+        }
+
+        /**
+         * See {@link ZonePartition.Builder#addInitialOccupant(Zone, PlayerColor)}
+         */
+        private void addInitialOccupant(Z zone, PlayerColor color) {
+            int root = rootOf(zone);
+            setRootArea(root, rootAreas[root].withInitialOccupant(color));
+        }
+
+        /**
+         * See {@link ZonePartition.Builder#removeOccupant(Zone, PlayerColor)}
+         */
+        private void removeOccupant(Z zone, PlayerColor color) {
+            int root = rootOf(zone);
+            setRootArea(root, rootAreas[root].withoutOccupant(color));
+        }
+
+        /**
+         * See {@link ZonePartition.Builder#removeAllOccupantsOf(Area)}
+         */
+        private void removeAllOccupantsOf(Area<Z> area) {
+            Preconditions.checkArgument(!area.zones().isEmpty());
+            int root = rootOf(area.zones().iterator().next());
+            Preconditions.checkArgument(area.equals(rootAreas[root]));
+            setRootArea(root, area.withoutOccupants());
+        }
+
+        /**
+         * See {@link ZonePartition.Builder#union(Zone, Zone)}
+         */
+        private void union(Z zone1, Z zone2) {
+            int root1 = rootOf(zone1);
+            int root2 = rootOf(zone2);
+            Area<Z> area1 = rootAreas[root1];
+            Area<Z> area2 = rootAreas[root2];
+            Area<Z> newBiggerArea = area1.connectTo(area2);
+            if (root1 != root2) {
+                if (area1.zones().size() < area2.zones().size()) {
+                    int smallerRoot = root1;
+                    root1 = root2;
+                    root2 = smallerRoot;
+                    area2 = area1;
+                }
+                for (Z zone : area2.zones()) setParent(zone.id(), root1);
+                setRootArea(root2, null);
+            }
+            setRootArea(root1, newBiggerArea);
+        }
+
+        /**
+         * Returns the immutable zone partition having the same areas, with the same roots
+         *
+         * @return the immutable zone partition having the same areas
+         */
+        private ZonePartition<Z> toZonePartition() {
+            return ZonePartition.ofFlatForest(parents, rootAreas);
+        }
+    }
+}
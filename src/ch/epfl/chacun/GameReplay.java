@@ -0,0 +1,176 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents the replay of a game from its Base32-encoded actions, in which one can move to any action
+ * and step forward or backward, to follow a game as a spectator or to review it after its end.
+ * <p>
+ * The state reached every given number of actions is kept as a checkpoint, so that moving to any action
+ * only applies the actions following the checkpoint preceding it. The states between this checkpoint
+ * and the current action are also kept, so that stepping backward costs nothing until the checkpoint.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class GameReplay {
+
+    private final int checkpointInterval;
+    private final List<String> actions = new ArrayList<>();
+    // checkpoints.get(i) is the state after the first i * checkpointInterval actions
+    private final List<GameState> checkpoints = new ArrayList<>();
+    // the state after all the actions, to which the new actions are applied
+    private GameState lastState;
+
+    // segment[i] is the state after the first segmentStart + i actions, for i < decodedCount
+    private final GameState[] segment;
+    private int segmentStart;
+    private int decodedCount;
+    private int position;
+
+    /**
+     * Creates a new replay of the given actions, applied from the given state
+     *
+     * @param startState         the state before the first action
+     * @param actions            the Base32-encoded actions of the game, in the order they were played
+     * @param checkpointInterval the number of actions between two checkpoints
+     * @throws IllegalArgumentException if the interval is not positive or if one of the actions is invalid
+     */
+    public GameReplay(GameState startState, List<String> actions, int checkpointInterval) {
+        Preconditions.checkArgument(checkpointInterval > 0);
+        this.checkpointInterval = checkpointInterval;
+        this.lastState = Objects.requireNonNull(startState);
+        checkpoints.add(startState);
+        segment = new GameState[checkpointInterval];
+        segment[0] = startState;
+        decodedCount = 1;
+        for (String action : actions) Preconditions.checkArgument(append(action));
+    }
+
+    /**
+     * Creates a new replay of the given actions, applied from the state where the starting tile is placed
+     * on the game of the given seed, whose tile decks are shuffled as by {@link TileDecks#shuffled(long)}
+     *
+     * @param seed               the seed of the game
+     * @param players            the players of the game, in the order they play
+     * @param textMaker          the text maker of the messages of the game
+     * @param actions            the Base32-encoded actions of the game, in the order they were played
+     * @param checkpointInterval the number of actions between two checkpoints
+     * @return the replay of the given actions
+     * @throws IllegalArgumentException if the interval is not positive or if one of the actions is invalid
+     */
+    public static GameReplay of(long seed, List<PlayerColor> players, TextMaker textMaker,
+                                List<String> actions, int checkpointInterval) {
+        GameState startState = GameState.initial(players, TileDecks.shuffled(seed), textMaker)
+                .withStartingTilePlaced();
+        return new GameReplay(startState, actions, checkpointInterval);
+    }
+
+    /**
+     * Applies the given action to the state after all the actions, keeping it as a checkpoint if needed,
+     * the current action being unchanged
+     *
+     * @param action the Base32-encoded action to append
+     * @return true if the action was valid and has been appended, false otherwise
+     */
+    public boolean append(String action) {
+        ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(lastState, action);
+        if (stateAction == null) return false;
+        actions.add(action);
+        lastState = stateAction.gameState();
+        if (actions.size() % checkpointInterval == 0) checkpoints.add(lastState);
+        return true;
+    }
+
+    /**
+     * Returns the unmodifiable list of the Base32-encoded actions of the replay
+     *
+     * @return the unmodifiable list of the actions of the replay
+     */
+    public List<String> actions() {
+        return Collections.unmodifiableList(actions);
+    }
+
+    /**
+     * Returns the number of actions of the replay
+     *
+     * @return the number of actions of the replay
+     */
+    public int size() {
+        return actions.size();
+    }
+
+    /**
+     * Returns the number of actions applied to reach the current state
+     *
+     * @return the number of actions applied to reach the current state, between 0 and the size of the replay
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Returns the current state of the replay
+     *
+     * @return the state after the first position() actions
+     */
+    public GameState state() {
+        return segment[position - segmentStart];
+    }
+
+    /**
+     * Returns the state after all the actions of the replay, without moving to it
+     *
+     * @return the state after all the actions of the replay
+     */
+    public GameState lastState() {
+        return lastState;
+    }
+
+    /**
+     * Moves to the state after the given number of actions, applying at most as many actions
+     * as the interval between two checkpoints
+     *
+     * @param newPosition the number of actions applied to reach the new current state
+     * @return the new current state
+     * @throws IndexOutOfBoundsException if the position is negative or greater than the size of the replay
+     */
+    public GameState seek(int newPosition) {
+        Objects.checkIndex(newPosition, actions.size() + 1);
+        int newSegmentStart = newPosition - newPosition % checkpointInterval;
+        if (newSegmentStart != segmentStart) {
+            // the states of the former segment are dropped, the new one starts at its checkpoint
+            Arrays.fill(segment, null);
+            segmentStart = newSegmentStart;
+            segment[0] = checkpoints.get(newSegmentStart / checkpointInterval);
+            decodedCount = 1;
+        }
+        for (; decodedCount <= newPosition - segmentStart; decodedCount++) {
+            GameState state = segment[decodedCount - 1];
+            segment[decodedCount] = ActionEncoder.decodeAndApply(state, actions.get(segmentStart + decodedCount - 1))
+                    .gameState();
+        }
+        position = newPosition;
+        return state();
+    }
+
+    /**
+     * Moves to the state after the next action
+     *
+     * @return the new current state
+     * @throws IndexOutOfBoundsException if the current state is the last one
+     */
+    public GameState stepForward() {
+        return seek(position + 1);
+    }
+
+    /**
+     * Moves to the state before the last applied action
+     *
+     * @return the new current state
+     * @throws IndexOutOfBoundsException if the current state is the first one
+     */
+    public GameState stepBackward() {
+        return seek(position - 1);
+    }
+}
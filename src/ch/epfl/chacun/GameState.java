@@ -236,8 +236,15 @@ public record GameState(
                 .withTurnFinished();
     }
 
-    private Set<Animal> deersToCancel(Area<Zone.Meadow> meadowArea) {
-        Set<Animal> animals = Area.animals(meadowArea, board.cancelledAnimals());
+    /**
+     * Returns the deers eaten by the tigers of the given meadow, in an arbitrary order
+     *
+     * @param meadowArea       the meadow area
+     * @param cancelledAnimals the animals already cancelled
+     * @return the deers to cancel
+     */
+    static Set<Animal> deersToCancel(Area<Zone.Meadow> meadowArea, Set<Animal> cancelledAnimals) {
+        Set<Animal> animals = Area.animals(meadowArea, cancelledAnimals);
         Set<Animal> deers = animals.stream().filter(animal -> animal.kind() == Animal.Kind.DEER)
                 .collect(Collectors.toSet());
         return deers.stream()
@@ -253,16 +260,20 @@ public record GameState(
                 .collect(Collectors.toSet());
     }
 
-    private Set<Animal> deersToCancelWithPitTrap(Zone.Meadow pitTrapZone) {
-        Area<Zone.Meadow> meadowArea = board.meadowArea(pitTrapZone);
-        Set<Animal> animals = Area.animals(meadowArea, board.cancelledAnimals());
-
-        // we get the position of the tile where the pit trap
-        Pos pitTrapPosition = board.tileWithId(pitTrapZone.tileId()).pos();
-        // we get the meadow area surrounding the pit trap
-        Area<Zone.Meadow> adjacentMeadow = board.adjacentMeadow(pitTrapPosition, pitTrapZone);
+    /**
+     * Returns the deers eaten by the tigers of the given meadow, starting with the ones farthest from the pit trap
+     *
+     * @param meadowArea       the meadow area containing the pit trap
+     * @param adjacentMeadow   the meadow area surrounding the pit trap
+     * @param cancelledAnimals the animals already cancelled
+     * @return the deers to cancel
+     */
+    static Set<Animal> deersToCancelWithPitTrap(
+            Area<Zone.Meadow> meadowArea, Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals
+    ) {
+        Set<Animal> animals = Area.animals(meadowArea, cancelledAnimals);
 
-        Set<Animal> adjacentDeers = Area.animals(adjacentMeadow, board.cancelledAnimals())
+        Set<Animal> adjacentDeers = Area.animals(adjacentMeadow, cancelledAnimals)
                 .stream().filter(animal -> animal.kind() == Animal.Kind.DEER)
                 .collect(Collectors.toSet());
 
@@ -321,7 +332,7 @@ public record GameState(
             }
             case Zone.Meadow meadow when meadow.specialPower() == Zone.SpecialPower.HUNTING_TRAP -> {
                 Area<Zone.Meadow> adjacentMeadow = newBoard.adjacentMeadow(tile.pos(), meadow);
-                Set<Animal> cancelledDeers = deersToCancel(adjacentMeadow);
+                Set<Animal> cancelledDeers = deersToCancel(adjacentMeadow, board.cancelledAnimals());
                 newMessageBoard = newMessageBoard.withScoredHuntingTrap(
                         currentPlayer(), adjacentMeadow, cancelledDeers
                 );
@@ -392,7 +403,7 @@ public record GameState(
         // if there is a forest containing a menhir that has just been closed by a normal tile,
         // the next tile to draw will be a menhir tile
         if (forestClosedMenhir != null && newBoard.lastPlacedTile().kind() == Tile.Kind.NORMAL) {
-            newTileDecks = newTileDecks.withTopTileDrawnUntil(Tile.Kind.MENHIR, newBoard::couldPlaceTile);
+            newTileDecks = newTileDecks.withTopTilesDrawnUntil(Tile.Kind.MENHIR, newBoard::firstPlaceableTileIndex);
             boolean couldPlaceMenhirTile = newTileDecks.deckSize(Tile.Kind.MENHIR) > 0;
             // if the player can place a menhir tile, a message signaling it is added to the message board
             if (couldPlaceMenhirTile) {
@@ -404,7 +415,7 @@ public record GameState(
             }
         }
         // we look for the first normal tile that can be placed on the board
-        newTileDecks = newTileDecks.withTopTileDrawnUntil(Tile.Kind.NORMAL, newBoard::couldPlaceTile);
+        newTileDecks = newTileDecks.withTopTilesDrawnUntil(Tile.Kind.NORMAL, newBoard::firstPlaceableTileIndex);
 
         // if there is a normal tile that can be placed on the board, the player's turn finishes
         // and the next player will place the tile, otherwise the fame will end
@@ -432,7 +443,7 @@ public record GameState(
      *
      * @return the ending game state with the final points counted and the winners determined
      */
-    private GameState withFinalPointsCounted() {
+    GameState withFinalPointsCounted() {
 
         Board newBoard = board;
         MessageBoard newMessageBoard = messageBoard;
@@ -448,16 +459,18 @@ public record GameState(
             if (pitTrapZone != null) {
                 PlacedTile pitTrapTile = newBoard.tileWithId(pitTrapZone.tileId());
                 // removes the deers if there is no fire protecting them
-                if (!hasWildFireZone) newBoard = newBoard.withMoreCancelledAnimals(
-                        deersToCancelWithPitTrap(pitTrapZone)
-                );
+                if (!hasWildFireZone) newBoard = newBoard.withMoreCancelledAnimals(deersToCancelWithPitTrap(
+                        board.meadowArea(pitTrapZone),
+                        board.adjacentMeadow(pitTrapTile.pos(), pitTrapZone),
+                        board.cancelledAnimals()
+                ));
 
                 // the pit trap is scored after some deers have been removed
                 Area<Zone.Meadow> adjacentMeadow = newBoard.adjacentMeadow(pitTrapTile.pos(), pitTrapZone);
                 newMessageBoard = newMessageBoard.withScoredPitTrap(adjacentMeadow, newBoard.cancelledAnimals());
             } else if (!hasWildFireZone) {
                 // if there is no pit trap and no fire, the deers are cancelled following an arbitrary order
-                newBoard = newBoard.withMoreCancelledAnimals(deersToCancel(meadowArea));
+                newBoard = newBoard.withMoreCancelledAnimals(deersToCancel(meadowArea, board.cancelledAnimals()));
             }
             // the meadow is scored independently of the presence of a pit trap
             newMessageBoard = newMessageBoard.withScoredMeadow(meadowArea, newBoard.cancelledAnimals());
@@ -513,4 +526,70 @@ public record GameState(
         return new GameState(players, tileDecks, tileToPlace, board, nextAction, messageBoard.withTextMaker(textMaker));
     }
 
+    /**
+     * Returns the points the players would have if the game ended now: the points they already scored,
+     * and the ones they would get from the meadows and the river systems of the board, which are
+     * projected incrementally by the board so that this can be asked for at every turn.
+     * Once the game ended, these are the final points of the players
+     *
+     * @return an unmodifiable map matching the players to the points they would have if the game ended now,
+     * the players without any point being absent
+     */
+    public Map<PlayerColor, Integer> projectedPoints() {
+        Map<PlayerColor, Integer> points = messageBoard.points();
+        if (nextAction == Action.END_GAME) return points;
+        ScoreProjection projection = board.scoreProjection();
+        Map<PlayerColor, Integer> projectedPoints = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor player : players) {
+            int playerPoints = points.getOrDefault(player, 0) + projection.points(player);
+            if (playerPoints > 0) projectedPoints.put(player, playerPoints);
+        }
+        return Collections.unmodifiableMap(projectedPoints);
+    }
+
+    /**
+     * Returns the Zobrist key of the state, made of the key of its board, of its current player,
+     * of its next action and of its tile to place.
+     * It is computed in constant time and is the same in every process, so that it may be used as the key
+     * of a transposition table or to check that two clients have the same state
+     *
+     * @return the Zobrist key of the state
+     */
+    public long zobristKey() {
+        return board.zobristKey()
+                ^ Zobrist.currentPlayerKey(currentPlayer())
+                ^ Zobrist.nextActionKey(nextAction)
+                ^ Zobrist.tileToPlaceKey(tileToPlace);
+    }
+
+    /**
+     * Returns whether some other object is a game state having the same components as this one,
+     * the Zobrist keys being compared first so that most different states are told apart at once
+     *
+     * @param that the object to compare to
+     * @return whether some other object is a game state equal to this one
+     */
+    @Override
+    public boolean equals(Object that) {
+        if (this == that) return true;
+        return that instanceof GameState thatState
+                && zobristKey() == thatState.zobristKey()
+                && players.equals(thatState.players)
+                && tileDecks.equals(thatState.tileDecks)
+                && Objects.equals(tileToPlace, thatState.tileToPlace)
+                && board.equals(thatState.board)
+                && nextAction == thatState.nextAction
+                && messageBoard.equals(thatState.messageBoard)
+                && nextSound == thatState.nextSound;
+    }
+
+    /**
+     * Returns the hash code of the state, derived from its Zobrist key
+     *
+     * @return the hash code of the state
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey());
+    }
 }
@@ -20,8 +20,9 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @param messages  the ordered messages on the message board, from the oldest to the newest
      */
     public MessageBoard {
-        // the list is copied to ensure immutability
-        messages = List.copyOf(messages);
+        // the list is copied to ensure immutability, unless it already is an immutable log,
+        // which keeps the total points of the players and can be appended to in constant time
+        messages = MessageLog.copyOf(messages);
     }
 
     /**
@@ -37,7 +38,7 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @param animals the animals in the meadow
      * @return a map linking the kinds of animals to their number
      */
-    private Map<Animal.Kind, Integer> forMeadowAnimalCount(Set<Animal> animals) {
+    private static Map<Animal.Kind, Integer> forMeadowAnimalCount(Set<Animal> animals) {
         return animals.stream()
                 .filter(animal -> animal.kind() != Animal.Kind.TIGER)
                 .collect(Collectors.groupingBy(Animal::kind, Collectors.summingInt(a -> 1)));
@@ -47,41 +48,43 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * In the case of a meadow with a hunting trap,
      * the scorer is the player who placed the tile containing it.
      * Otherwise, the scorers are the majority occupants of the meadow.
-     * Returns a new message board with the message of the event added
+     * Returns the message of the event, if it got some player some points
      *
+     * @param textMaker        the text maker generating the text of the message
      * @param messageType      the type of the meadow message
      * @param meadow           the meadow area to score
      * @param cancelledAnimals the animals whose presence has to be ignored
      * @param tilePlacer       the player who placed the tile, if the message is about a hunting trap
-     * @return a new message board with the message of the event added
+     * @return the message of the event, null if nobody got any point
      */
-    private MessageBoard withGenericScoredMeadow(
-            MeadowMessageType messageType, Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals, PlayerColor tilePlacer
+    private static Message genericScoredMeadowMessage(
+            TextMaker textMaker, MeadowMessageType messageType, Area<Zone.Meadow> meadow,
+            Set<Animal> cancelledAnimals, PlayerColor tilePlacer
     ) {
         Set<Animal> animals = Area.animals(meadow, cancelledAnimals);
         int points = forMeadowTotalAnimals(animals);
-        if (points <= 0) return this;
+        if (points <= 0) return null;
         return switch (messageType) {
             case MEADOW -> {
-                if (!meadow.isOccupied()) yield this;
+                if (!meadow.isOccupied()) yield null;
                 Set<PlayerColor> majorityOccupants = meadow.majorityOccupants();
-                yield withNewMessage(
+                yield new Message(
                         textMaker.playersScoredMeadow(majorityOccupants, points, forMeadowAnimalCount(animals)),
                         points,
                         majorityOccupants,
                         meadow.tileIds()
                 );
             }
-            case HUNTING_TRAP -> withNewMessage(
+            case HUNTING_TRAP -> new Message(
                     textMaker.playerScoredHuntingTrap(tilePlacer, points, forMeadowAnimalCount(animals)),
                     points,
                     Set.of(tilePlacer),
                     meadow.tileIds()
             );
             case PIT_TRAP -> {
-                if (!meadow.isOccupied()) yield this;
+                if (!meadow.isOccupied()) yield null;
                 Set<PlayerColor> majorityOccupants = meadow.majorityOccupants();
-                yield withNewMessage(
+                yield new Message(
                         textMaker.playersScoredPitTrap(majorityOccupants, points, forMeadowAnimalCount(animals)),
                         points,
                         majorityOccupants,
@@ -91,28 +94,13 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
         };
     }
 
-    /**
-     * Returns a new message board with the message of the event added.
-     * The scorers are the majority occupants of the meadow.
-     *
-     * @param messageType      the type of the meadow message
-     * @param meadow           the meadow area to score
-     * @param cancelledAnimals the animals whose presence has to be ignored
-     * @return a new message board with the message of the event added
-     */
-    private MessageBoard withGenericScoredMeadow(
-            MeadowMessageType messageType, Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals
-    ) {
-        return withGenericScoredMeadow(messageType, meadow, cancelledAnimals, null);
-    }
-
     /**
      * Returns the points the animals in the meadow give to the player
      *
      * @param animals the animals in the meadow
      * @return the points the animals in the meadow give to the player
      */
-    private int forMeadowTotalAnimals(Set<Animal> animals) {
+    private static int forMeadowTotalAnimals(Set<Animal> animals) {
         Map<Animal.Kind, Integer> points = forMeadowAnimalCount(animals);
         return Points.forMeadow(
                 points.getOrDefault(Animal.Kind.MAMMOTH, 0),
@@ -122,34 +110,26 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
     }
 
     /**
-     * Returns a new message board with the given message added
+     * Returns a new message board with the given message added, or this one if there is no message
      *
-     * @param text    the text of the message
-     * @param count   the points the scorers get from the event triggering this message
-     * @param scorers the players who will get the points
-     * @param tileIds the ids of the tiles involved in the event triggering this message
-     * @return a new message board with the given message added
+     * @param message the message to add, null if the event did not trigger any message
+     * @return a new message board with the given message added, or this one if the message is null
      */
-    private MessageBoard withNewMessage(String text, int count, Set<PlayerColor> scorers, Set<Integer> tileIds) {
-        // we instantiate this as an array list because we will only add messages at the end
-        List<Message> newMessages = new ArrayList<>(messages);
-        newMessages.add(new Message(text, count, scorers, tileIds));
-        return new MessageBoard(textMaker, newMessages);
+    private MessageBoard withMessage(Message message) {
+        if (message == null) return this;
+        // the new log shares its messages with the current one
+        return new MessageBoard(textMaker, ((MessageLog) messages).with(message));
     }
 
     /**
      * Returns a map matching the scorers to the points
      * they got from the messages on the message board
      *
-     * @return a map matching the scorers to the points they got from the messages on the message board
+     * @return an unmodifiable map matching the scorers to the points they got from the messages on the message board
      */
     public Map<PlayerColor, Integer> points() {
-        return messages.stream()
-                // we map every message to a stream of simple entries (scorer, points)
-                .flatMap(message -> message.scorers().stream()
-                        .map(scorer -> new AbstractMap.SimpleEntry<>(scorer, message.points())))
-                // we collect the entries to a map, summing the points of the scorers that appear in more than one message
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Integer::sum));
+        // the points are summed every time a message is added
+        return ((MessageLog) messages).points();
     }
 
     /**
@@ -164,12 +144,23 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * the same message board if the forest isn't occupied
      */
     public MessageBoard withScoredForest(Area<Zone.Forest> forest) {
-        if (!forest.isOccupied()) return this;
-        int tileCount = forest.tileIds().size();
+        return withMessage(scoredForestMessage(textMaker, forest));
+    }
+
+    /**
+     * Returns the message of the closure of the given forest, see {@link #withScoredForest(Area)}
+     *
+     * @param textMaker the text maker generating the text of the message
+     * @param forest    the forest that has been closed
+     * @return the message of the event, null if the forest isn't occupied
+     */
+    static Message scoredForestMessage(TextMaker textMaker, Area<Zone.Forest> forest) {
+        if (!forest.isOccupied()) return null;
+        int tileCount = forest.tileCount();
         int mushroomCount = Area.mushroomGroupCount(forest);
         int points = Points.forClosedForest(tileCount, mushroomCount);
         Set<PlayerColor> majorityOccupants = forest.majorityOccupants();
-        return withNewMessage(
+        return new Message(
                 textMaker.playersScoredForest(majorityOccupants, points, mushroomCount, tileCount),
                 points,
                 majorityOccupants,
@@ -187,7 +178,20 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the message of the event added
      */
     public MessageBoard withClosedForestWithMenhir(PlayerColor player, Area<Zone.Forest> forest) {
-        return withNewMessage(
+        return withMessage(closedForestWithMenhirMessage(textMaker, player, forest));
+    }
+
+    /**
+     * Returns the message signaling that the player can place a menhir tile,
+     * see {@link #withClosedForestWithMenhir(PlayerColor, Area)}
+     *
+     * @param textMaker the text maker generating the text of the message
+     * @param player    the player who placed the tile
+     * @param forest    the forest area that has been closed
+     * @return the message of the event
+     */
+    static Message closedForestWithMenhirMessage(TextMaker textMaker, PlayerColor player, Area<Zone.Forest> forest) {
+        return new Message(
                 textMaker.playerClosedForestWithMenhir(player),
                 0,
                 Set.of(),
@@ -207,12 +211,23 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * the same message board if the river isn't occupied
      */
     public MessageBoard withScoredRiver(Area<Zone.River> river) {
-        if (!river.isOccupied()) return this;
-        int tileCount = river.tileIds().size();
+        return withMessage(scoredRiverMessage(textMaker, river));
+    }
+
+    /**
+     * Returns the message of the closure of the given river, see {@link #withScoredRiver(Area)}
+     *
+     * @param textMaker the text maker generating the text of the message
+     * @param river     the river that has been closed
+     * @return the message of the event, null if the river isn't occupied
+     */
+    static Message scoredRiverMessage(TextMaker textMaker, Area<Zone.River> river) {
+        if (!river.isOccupied()) return null;
+        int tileCount = river.tileCount();
         int fishCount = Area.riverFishCount(river);
         int points = Points.forClosedRiver(tileCount, fishCount);
         Set<PlayerColor> majorityOccupants = river.majorityOccupants();
-        return withNewMessage(
+        return new Message(
                 textMaker.playersScoredRiver(majorityOccupants, points, fishCount, tileCount),
                 points,
                 majorityOccupants,
@@ -230,9 +245,21 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the message of the event added
      */
     public MessageBoard withScoredLogboat(PlayerColor scorer, Area<Zone.Water> riverSystem) {
+        return withMessage(scoredLogboatMessage(textMaker, scorer, riverSystem));
+    }
+
+    /**
+     * Returns the message of the placement of the logboat, see {@link #withScoredLogboat(PlayerColor, Area)}
+     *
+     * @param textMaker   the text maker generating the text of the message
+     * @param scorer      the player who placed the logboat
+     * @param riverSystem the river system the logboat has been placed on
+     * @return the message of the event
+     */
+    static Message scoredLogboatMessage(TextMaker textMaker, PlayerColor scorer, Area<Zone.Water> riverSystem) {
         int lakeCount = Area.lakeCount(riverSystem);
         int points = Points.forLogboat(lakeCount);
-        return withNewMessage(
+        return new Message(
                 textMaker.playerScoredLogboat(scorer, points, lakeCount),
                 points,
                 Set.of(scorer),
@@ -255,7 +282,25 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
             Area<Zone.Meadow> adjacentMeadow,
             Set<Animal> cancelledAnimals
     ) {
-        return withGenericScoredMeadow(MeadowMessageType.HUNTING_TRAP, adjacentMeadow, cancelledAnimals, scorer);
+        return withMessage(scoredHuntingTrapMessage(textMaker, scorer, adjacentMeadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the message of the placement of the hunting trap,
+     * see {@link #withScoredHuntingTrap(PlayerColor, Area, Set)}
+     *
+     * @param textMaker        the text maker generating the text of the message
+     * @param scorer           the player who placed the hunting trap
+     * @param adjacentMeadow   the meadow area adjacent to the hunting trap
+     * @param cancelledAnimals the animals whose presence has to be ignored
+     * @return the message of the event, null if the hunting trap didn't get any point
+     */
+    static Message scoredHuntingTrapMessage(
+            TextMaker textMaker, PlayerColor scorer, Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals
+    ) {
+        return genericScoredMeadowMessage(
+                textMaker, MeadowMessageType.HUNTING_TRAP, adjacentMeadow, cancelledAnimals, scorer
+        );
     }
 
     /**
@@ -267,7 +312,19 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the message of the event added if some player got some points
      */
     public MessageBoard withScoredMeadow(Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
-        return withGenericScoredMeadow(MeadowMessageType.MEADOW, meadow, cancelledAnimals);
+        return withMessage(scoredMeadowMessage(textMaker, meadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the message of the scoring of the given meadow, see {@link #withScoredMeadow(Area, Set)}
+     *
+     * @param textMaker        the text maker generating the text of the message
+     * @param meadow           the meadow area
+     * @param cancelledAnimals the animals whose presence has to be ignored
+     * @return the message of the event, null if nobody got any point
+     */
+    static Message scoredMeadowMessage(TextMaker textMaker, Area<Zone.Meadow> meadow, Set<Animal> cancelledAnimals) {
+        return genericScoredMeadowMessage(textMaker, MeadowMessageType.MEADOW, meadow, cancelledAnimals, null);
     }
 
     /**
@@ -279,7 +336,21 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the message of the event added if some player got some points
      */
     public MessageBoard withScoredPitTrap(Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals) {
-        return withGenericScoredMeadow(MeadowMessageType.PIT_TRAP, adjacentMeadow, cancelledAnimals);
+        return withMessage(scoredPitTrapMessage(textMaker, adjacentMeadow, cancelledAnimals));
+    }
+
+    /**
+     * Returns the message of the scoring of the given pit trap, see {@link #withScoredPitTrap(Area, Set)}
+     *
+     * @param textMaker        the text maker generating the text of the message
+     * @param adjacentMeadow   the meadow area containing the pit trap and the meadows surrounding it
+     * @param cancelledAnimals the animals whose presence has to be ignored
+     * @return the message of the event, null if nobody got any point
+     */
+    static Message scoredPitTrapMessage(
+            TextMaker textMaker, Area<Zone.Meadow> adjacentMeadow, Set<Animal> cancelledAnimals
+    ) {
+        return genericScoredMeadowMessage(textMaker, MeadowMessageType.PIT_TRAP, adjacentMeadow, cancelledAnimals, null);
     }
 
     /**
@@ -290,12 +361,23 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the message of the event added if some player got some points
      */
     public MessageBoard withScoredRiverSystem(Area<Zone.Water> riverSystem) {
-        if (!riverSystem.isOccupied()) return this;
+        return withMessage(scoredRiverSystemMessage(textMaker, riverSystem));
+    }
+
+    /**
+     * Returns the message of the scoring of the given river system, see {@link #withScoredRiverSystem(Area)}
+     *
+     * @param textMaker   the text maker generating the text of the message
+     * @param riverSystem the river system area
+     * @return the message of the event, null if nobody got any point
+     */
+    static Message scoredRiverSystemMessage(TextMaker textMaker, Area<Zone.Water> riverSystem) {
+        if (!riverSystem.isOccupied()) return null;
         int fishCount = Area.riverSystemFishCount(riverSystem);
         int points = Points.forRiverSystem(fishCount);
-        if (points <= 0) return this;
+        if (points <= 0) return null;
         Set<PlayerColor> majorityOccupants = riverSystem.majorityOccupants();
-        return withNewMessage(
+        return new Message(
                 textMaker.playersScoredRiverSystem(majorityOccupants, points, fishCount),
                 points,
                 majorityOccupants,
@@ -311,11 +393,22 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the message of the event added if the river system had some occupant
      */
     public MessageBoard withScoredRaft(Area<Zone.Water> riverSystem) {
-        if (!riverSystem.isOccupied()) return this;
+        return withMessage(scoredRaftMessage(textMaker, riverSystem));
+    }
+
+    /**
+     * Returns the message of the scoring of the given raft, see {@link #withScoredRaft(Area)}
+     *
+     * @param textMaker   the text maker generating the text of the message
+     * @param riverSystem the river system area containing the raft
+     * @return the message of the event, null if the river system isn't occupied
+     */
+    static Message scoredRaftMessage(TextMaker textMaker, Area<Zone.Water> riverSystem) {
+        if (!riverSystem.isOccupied()) return null;
         int lakeCount = Area.lakeCount(riverSystem);
         int points = Points.forRaft(lakeCount);
         Set<PlayerColor> majorityOccupants = riverSystem.majorityOccupants();
-        return withNewMessage(
+        return new Message(
                 textMaker.playersScoredRaft(majorityOccupants, points, lakeCount),
                 points,
                 majorityOccupants,
@@ -334,7 +427,20 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * with the given number of points
      */
     public MessageBoard withWinners(Set<PlayerColor> winners, int points) {
-        return withNewMessage(
+        return withMessage(winnersMessage(textMaker, winners, points));
+    }
+
+    /**
+     * Returns the message stating that the given players have won the game,
+     * see {@link #withWinners(Set, int)}
+     *
+     * @param textMaker the text maker generating the text of the message
+     * @param winners   the players having won the game
+     * @param points    the number of points they had at the end of the game
+     * @return the message of the event
+     */
+    static Message winnersMessage(TextMaker textMaker, Set<PlayerColor> winners, int points) {
+        return new Message(
                 textMaker.playersWon(winners, points),
                 0,
                 Set.of(),
@@ -357,12 +463,12 @@ public record MessageBoard(TextMaker textMaker, List<Message> messages) {
      * @return a new message board with the given message added
      */
     public MessageBoard withGameChatMessage(String message) {
-        return withNewMessage(
+        return withMessage(new Message(
                 message,
                 0,
                 Set.of(),
                 Set.of()
-        );
+        ));
     }
 
     /**
@@ -0,0 +1,157 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents an immutable list of messages, to which a message can be appended in constant (amortized) time,
+ * and which keeps the total points of every player scoring in its messages.
+ * <p>
+ * All the logs obtained by appending messages to each other share the same buffer:
+ * a log only sees the first size messages of it, and appending a message to the longest log
+ * simply writes it after them. Appending a message to a log that is not the longest one
+ * (when the game branches from a former state) first copies its messages to a new buffer.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class MessageLog extends AbstractList<MessageBoard.Message> implements RandomAccess {
+
+    /**
+     * The initial capacity of a buffer
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The empty log
+     */
+    private static final MessageLog EMPTY =
+            new MessageLog(new Buffer(INITIAL_CAPACITY), 0, new int[PlayerColor.ALL.size()], 0);
+
+    /**
+     * Represents a buffer of messages shared by several logs,
+     * whose first claimed messages are written and never modified afterward
+     *
+     * @param messages the messages of the buffer
+     * @param claimed  the number of messages written (or being written) in the buffer
+     */
+    private record Buffer(MessageBoard.Message[] messages, AtomicInteger claimed) {
+        /**
+         * Creates a new empty buffer of the given capacity
+         *
+         * @param capacity the maximum number of messages of the buffer
+         */
+        Buffer(int capacity) {
+            this(new MessageBoard.Message[capacity], new AtomicInteger());
+        }
+    }
+
+    private final Buffer buffer;
+    private final int size;
+    // points[c] is the total number of points of the player color having the ordinal c
+    private final int[] points;
+    // the bit of ordinal c is set if the player color having the ordinal c is a scorer of some message
+    private final int scorersMask;
+    // the map of the points is only built when needed, and then kept
+    private Map<PlayerColor, Integer> pointsMap;
+
+    /**
+     * Creates a new log seeing the first messages of the given buffer
+     *
+     * @param buffer      the buffer containing the messages of the log
+     * @param size        the number of messages of the log
+     * @param points      the total points of every player color, which are never modified afterward
+     * @param scorersMask the mask of the player colors scoring in some message
+     */
+    private MessageLog(Buffer buffer, int size, int[] points, int scorersMask) {
+        this.buffer = buffer;
+        this.size = size;
+        this.points = points;
+        this.scorersMask = scorersMask;
+    }
+
+    /**
+     * Returns an immutable log containing the given messages,
+     * or the given list itself if it already is a log
+     *
+     * @param messages the messages of the log, which must not be null
+     * @return an immutable log containing the given messages
+     * @throws NullPointerException if one of the messages is null
+     */
+    static MessageLog copyOf(List<MessageBoard.Message> messages) {
+        if (messages instanceof MessageLog messageLog) return messageLog;
+        MessageLog messageLog = EMPTY;
+        for (MessageBoard.Message message : messages) messageLog = messageLog.with(message);
+        return messageLog;
+    }
+
+    /**
+     * Returns a new log containing the messages of this one, followed by the given message
+     *
+     * @param message the message to append
+     * @return a new log containing the messages of this one, followed by the given message
+     * @throws NullPointerException if the message is null
+     */
+    MessageLog with(MessageBoard.Message message) {
+        Objects.requireNonNull(message);
+        Buffer newBuffer = buffer;
+        // only one log may write at a given index of a buffer, the other ones have to copy it
+        if (size == newBuffer.messages().length || !newBuffer.claimed().compareAndSet(size, size + 1)) {
+            newBuffer = new Buffer(Math.max(INITIAL_CAPACITY, 2 * size));
+            System.arraycopy(buffer.messages(), 0, newBuffer.messages(), 0, size);
+            newBuffer.claimed().set(size + 1);
+        }
+        newBuffer.messages()[size] = message;
+
+        int[] newPoints = points;
+        int newScorersMask = scorersMask;
+        if (!message.scorers().isEmpty()) {
+            newPoints = points.clone();
+            for (PlayerColor scorer : message.scorers()) {
+                newPoints[scorer.ordinal()] += message.points();
+                newScorersMask |= 1 << scorer.ordinal();
+            }
+        }
+        return new MessageLog(newBuffer, size + 1, newPoints, newScorersMask);
+    }
+
+    /**
+     * Returns the unmodifiable map matching the scorers of the messages to their total points
+     *
+     * @return the unmodifiable map matching the scorers of the messages to their total points
+     */
+    Map<PlayerColor, Integer> points() {
+        if (pointsMap == null) {
+            Map<PlayerColor, Integer> pointsMap = new EnumMap<>(PlayerColor.class);
+            for (PlayerColor color : PlayerColor.ALL) {
+                if ((scorersMask & (1 << color.ordinal())) != 0) pointsMap.put(color, points[color.ordinal()]);
+            }
+            this.pointsMap = Collections.unmodifiableMap(pointsMap);
+        }
+        return pointsMap;
+    }
+
+    @Override
+    public MessageBoard.Message get(int index) {
+        Objects.checkIndex(index, size);
+        return buffer.messages()[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        // two logs sharing a buffer share all their messages
+        if (o instanceof MessageLog that && that.buffer == buffer) return that.size == size;
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with equals, as the hash code of a list only depends on its messages
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,164 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+
+/**
+ * A utility class generating all the legal moves of the current player of a game state,
+ * without allocating anything, so that search and simulation code can enumerate them in a tight loop.
+ * <p>
+ * A move is the integer that {@link ActionEncoder} encodes in Base32 for the same action:
+ * <ul>
+ *     <li>to place a tile, the index of its position in the sorted fringe shifted by 2 bits,
+ *     combined with the ordinal of its rotation;</li>
+ *     <li>to occupy the last placed tile, the ordinal of the kind of the occupant shifted by 4 bits,
+ *     combined with the local id of its zone;</li>
+ *     <li>to retake a pawn, its index in the sorted occupants of the board;</li>
+ * </ul>
+ * not placing or retaking any occupant being the move {@link #NO_OCCUPANT}.
+ * The moves are generated in the order of the actions of {@link ch.epfl.chacun.sim.RandomPolicy}.
+ * <p>
+ * The only allocations happen the first time a board is examined, when it builds
+ * the caches it keeps for all the later calls.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class MoveGenerator {
+
+    /**
+     * The maximum number of legal moves of a game state, a move being encoded on 10 bits at most
+     */
+    public static final int MAX_MOVE_COUNT = 1 << 10;
+
+    /**
+     * The move of not placing or not retaking any occupant
+     */
+    public static final int NO_OCCUPANT = 0b11111;
+
+    /**
+     * The number of bits of the rotation in a move placing a tile
+     */
+    private static final int FRINGE_INDEX_SHIFT = 2;
+    /**
+     * The number of bits of the local id of the zone in a move placing an occupant
+     */
+    private static final int OCCUPANT_KIND_SHIFT = 4;
+
+    /**
+     * This class can not be instantiated.
+     */
+    private MoveGenerator() {
+    }
+
+    /**
+     * Fills the beginning of the given array with all the legal moves of the current player of the given state
+     *
+     * @param state the state, whose next action is to place a tile, to retake a pawn or to occupy a tile
+     * @param moves the array to fill, of length {@link #MAX_MOVE_COUNT} to be large enough for any state
+     * @return the number of legal moves written to the array, which is at least 1
+     * @throws IllegalArgumentException if the next action of the state is not one of a player,
+     *                                  or if the array may be too small for the moves of the state
+     */
+    public static int legalMoves(GameState state, int[] moves) {
+        return switch (state.nextAction()) {
+            case PLACE_TILE -> placements(state, moves);
+            case RETAKE_PAWN -> pawnsToRetake(state, moves);
+            case OCCUPY_TILE -> occupants(state, moves);
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Returns the given move of the given state encoded in Base32, as by {@link ActionEncoder}
+     *
+     * @param state the state the move was generated for
+     * @param move  the move
+     * @return the Base32-encoded action of the move
+     * @throws IllegalArgumentException if the move does not fit in the encoding of the next action of the state
+     */
+    public static String encoded(GameState state, int move) {
+        return state.nextAction() == GameState.Action.PLACE_TILE
+                ? Base32.encodeBits10(move)
+                : Base32.encodeBits5(move);
+    }
+
+    /**
+     * Fills the given array with the ways the current player can place the tile to place,
+     * sorted by position and rotation
+     *
+     * @param state the state, whose next action is to place a tile
+     * @param moves the array to fill
+     * @return the number of moves
+     */
+    private static int placements(GameState state, int[] moves) {
+        PlacementChecker placementChecker = state.board().placementChecker();
+        int fringeSize = placementChecker.fringeSize();
+        Preconditions.checkArgument(moves.length >= fringeSize * Rotation.COUNT);
+        int[] signatures = PlacementChecker.signatures(state.tileToPlace());
+        int count = 0;
+        for (int i = 0; i < fringeSize; i++) {
+            for (int rotation = 0; rotation < Rotation.COUNT; rotation++) {
+                if (placementChecker.fits(i, signatures[rotation]))
+                    moves[count++] = (i << FRINGE_INDEX_SHIFT) | rotation;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fills the given array with the pawns the current player can retake, preceded by the move of retaking none
+     *
+     * @param state the state, whose next action is to retake a pawn
+     * @param moves the array to fill
+     * @return the number of moves
+     */
+    private static int pawnsToRetake(GameState state, int[] moves) {
+        Board board = state.board();
+        List<Occupant> occupants = board.sortedOccupants();
+        Preconditions.checkArgument(moves.length > occupants.size());
+        PlayerColor player = state.currentPlayer();
+        int count = 0;
+        moves[count++] = NO_OCCUPANT;
+        for (int i = 0; i < occupants.size(); i++) {
+            Occupant occupant = occupants.get(i);
+            if (occupant.kind() == Occupant.Kind.PAWN
+                    && board.tileWithId(Zone.tileId(occupant.zoneId())).placer() == player)
+                moves[count++] = i;
+        }
+        return count;
+    }
+
+    /**
+     * Fills the given array with the occupants the current player can place on the last placed tile,
+     * sorted by zone id and kind, preceded by the move of placing none
+     *
+     * @param state the state, whose next action is to occupy a tile
+     * @param moves the array to fill
+     * @return the number of moves
+     */
+    private static int occupants(GameState state, int[] moves) {
+        Board board = state.board();
+        PlacedTile tile = board.lastPlacedTile();
+        Preconditions.checkArgument(tile != null);
+        Occupant[] potentialOccupants = TileMetadata.of(tile.tile()).sortedPotentialOccupants();
+        Preconditions.checkArgument(moves.length > potentialOccupants.length);
+        PlayerColor player = state.currentPlayer();
+        int count = 0;
+        moves[count++] = NO_OCCUPANT;
+        // a tile placed by no one can not be occupied
+        if (tile.placer() == null) return count;
+        for (Occupant occupant : potentialOccupants) {
+            if (state.freeOccupantsCount(player, occupant.kind()) == 0) continue;
+            boolean isOccupied = switch (tile.zoneWithId(occupant.zoneId())) {
+                case Zone.Forest forestZone -> board.forestArea(forestZone).isOccupied();
+                case Zone.Meadow meadowZone -> board.meadowArea(meadowZone).isOccupied();
+                case Zone.River riverZone when occupant.kind() == Occupant.Kind.PAWN ->
+                        board.riverArea(riverZone).isOccupied();
+                case Zone.Water waterZone -> board.riverSystemArea(waterZone).isOccupied();
+            };
+            if (!isOccupied)
+                moves[count++] = (occupant.kind().ordinal() << OCCUPANT_KIND_SHIFT) | Zone.localId(occupant.zoneId());
+        }
+        return count;
+    }
+}
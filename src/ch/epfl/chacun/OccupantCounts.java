@@ -0,0 +1,222 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents an immutable sorted list of the colors of the occupants of an area,
+ * stored as the number of occupants of each player color, so that adding the occupants
+ * of two areas or finding the majority occupants only works on one small array of counts.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class OccupantCounts extends AbstractList<PlayerColor> implements RandomAccess {
+
+    /**
+     * The list without any occupant
+     */
+    private static final OccupantCounts EMPTY = new OccupantCounts(new int[PlayerColor.ALL.size()]);
+
+    /**
+     * The lists containing only one occupant, indexed by the ordinal of its color
+     */
+    private static final OccupantCounts[] SINGLETONS = PlayerColor.ALL.stream()
+            .map(color -> {
+                int[] counts = new int[PlayerColor.ALL.size()];
+                counts[color.ordinal()] = 1;
+                return new OccupantCounts(counts);
+            })
+            .toArray(OccupantCounts[]::new);
+
+    /**
+     * The unmodifiable sets of colors, indexed by their bitmask, the bit of a color being 1 << ordinal
+     */
+    private static final List<Set<PlayerColor>> COLOR_SETS = colorSets();
+
+    // counts[c] is the number of occupants of the player color having the ordinal c
+    private final int[] counts;
+    private final int size;
+
+    /**
+     * Creates a new list of occupants from the given counts, which are never modified afterward
+     *
+     * @param counts the number of occupants of each player color, indexed by ordinal
+     */
+    private OccupantCounts(int[] counts) {
+        this.counts = counts;
+        int size = 0;
+        for (int count : counts) size += count;
+        this.size = size;
+    }
+
+    /**
+     * Returns the list without any occupant
+     *
+     * @return the list without any occupant
+     */
+    static OccupantCounts of() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the list containing only an occupant of the given color
+     *
+     * @param color the color of the occupant
+     * @return the list containing only an occupant of the given color
+     */
+    static OccupantCounts of(PlayerColor color) {
+        return SINGLETONS[color.ordinal()];
+    }
+
+    /**
+     * Returns an immutable sorted list containing the given occupants,
+     * or the given list itself if it already is a list of occupant counts
+     *
+     * @param occupants the colors of the occupants, which must not be null
+     * @return an immutable sorted list containing the given occupants
+     * @throws NullPointerException if one of the occupants is null
+     */
+    static OccupantCounts copyOf(List<PlayerColor> occupants) {
+        if (occupants instanceof OccupantCounts occupantCounts) return occupantCounts;
+        if (occupants.isEmpty()) return EMPTY;
+        if (occupants.size() == 1) return of(occupants.getFirst());
+        int[] counts = new int[PlayerColor.ALL.size()];
+        for (PlayerColor occupant : occupants) counts[occupant.ordinal()] += 1;
+        return new OccupantCounts(counts);
+    }
+
+    /**
+     * Returns the number of occupants of the given color
+     *
+     * @param color the color of the occupants to count
+     * @return the number of occupants of the given color
+     */
+    int count(PlayerColor color) {
+        return counts[color.ordinal()];
+    }
+
+    /**
+     * Returns a new list containing the occupants of this list and of the given one
+     *
+     * @param that the other list of occupants
+     * @return a new list containing the occupants of both lists
+     */
+    OccupantCounts plus(OccupantCounts that) {
+        if (that.size == 0) return this;
+        if (size == 0) return that;
+        int[] newCounts = counts.clone();
+        for (int i = 0; i < newCounts.length; i++) newCounts[i] += that.counts[i];
+        return new OccupantCounts(newCounts);
+    }
+
+    /**
+     * Returns a new list containing the occupants of this list, except one occupant of the given color
+     *
+     * @param color the color of the occupant to remove
+     * @return a new list containing the occupants of this list, except one occupant of the given color
+     * @throws IllegalArgumentException if there is no occupant of the given color
+     */
+    OccupantCounts minus(PlayerColor color) {
+        Preconditions.checkArgument(counts[color.ordinal()] > 0);
+        if (size == 1) return EMPTY;
+        int[] newCounts = counts.clone();
+        newCounts[color.ordinal()] -= 1;
+        return new OccupantCounts(newCounts);
+    }
+
+    /**
+     * Computes the unmodifiable sets of all the combinations of colors, indexed by their bitmask
+     *
+     * @return the sets of colors, indexed by their bitmask
+     */
+    private static List<Set<PlayerColor>> colorSets() {
+        List<Set<PlayerColor>> colorSets = new ArrayList<>(1 << PlayerColor.ALL.size());
+        for (int mask = 0; mask < 1 << PlayerColor.ALL.size(); mask++) {
+            Set<PlayerColor> colors = EnumSet.noneOf(PlayerColor.class);
+            for (PlayerColor color : PlayerColor.ALL) {
+                if ((mask & (1 << color.ordinal())) != 0) colors.add(color);
+            }
+            colorSets.add(Collections.unmodifiableSet(colors));
+        }
+        return List.copyOf(colorSets);
+    }
+
+    /**
+     * Returns the unmodifiable set of the colors of the given bitmask, the bit of a color being 1 << ordinal
+     *
+     * @param mask the bitmask of the colors
+     * @return the unmodifiable set of the colors of the given bitmask, which is shared
+     * @throws IndexOutOfBoundsException if the bitmask has bits that are not the ones of a color
+     */
+    static Set<PlayerColor> colorsOf(int mask) {
+        return COLOR_SETS.get(mask);
+    }
+
+    /**
+     * Returns the bitmask of the colors having the most occupants, the bit of a color being 1 << ordinal,
+     * 0 if there are no occupants
+     *
+     * @return the bitmask of the colors having the most occupants
+     */
+    int majorityMask() {
+        // a single pass over the counts, restarting the bitmask every time a bigger count is found
+        int maxCount = 0;
+        int mask = 0;
+        for (int i = 0; i < counts.length; i++) {
+            int count = counts[i];
+            if (count == 0 || count < maxCount) continue;
+            if (count > maxCount) {
+                maxCount = count;
+                mask = 0;
+            }
+            mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the set of the colors having the most occupants, empty if there are no occupants
+     *
+     * @return the unmodifiable set of the colors having the most occupants, which is shared
+     */
+    Set<PlayerColor> majority() {
+        return colorsOf(majorityMask());
+    }
+
+    @Override
+    public PlayerColor get(int index) {
+        Objects.checkIndex(index, size);
+        // the occupants are sorted by color, so that the index is found by going through the counts
+        for (PlayerColor color : PlayerColor.ALL) {
+            index -= counts[color.ordinal()];
+            if (index < 0) return color;
+        }
+        throw new AssertionError();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof PlayerColor color && counts[color.ordinal()] > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof OccupantCounts that) return Arrays.equals(counts, that.counts);
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // same as the hash code of any list, computed without going through an iterator
+        int hashCode = 1;
+        for (PlayerColor color : PlayerColor.ALL) {
+            for (int i = 0; i < counts[color.ordinal()]; i++) hashCode = 31 * hashCode + color.hashCode();
+        }
+        return hashCode;
+    }
+}
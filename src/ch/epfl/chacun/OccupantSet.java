@@ -0,0 +1,109 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents an immutable set of occupants, stored as an array sorted by zone id
+ * (and then by kind), so that the occupants are always iterated in increasing zone id order.
+ * As a board holds at most a few dozen occupants, adding or removing one only copies a small array.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class OccupantSet extends AbstractSet<Occupant> {
+
+    /**
+     * The order of the occupants of the set
+     */
+    private static final Comparator<Occupant> ORDER = Comparator
+            .comparingInt(Occupant::zoneId)
+            .thenComparing(Occupant::kind);
+
+    /**
+     * The empty set of occupants
+     */
+    static final OccupantSet EMPTY = new OccupantSet(new Occupant[0]);
+
+    private final Occupant[] occupants;
+    // the list view is only built when needed, and then kept
+    private List<Occupant> sortedOccupants;
+
+    /**
+     * Creates a new set of occupants from the given sorted array, which is never modified afterward
+     *
+     * @param occupants the occupants of the set, sorted by zone id and then by kind
+     */
+    private OccupantSet(Occupant[] occupants) {
+        this.occupants = occupants;
+    }
+
+    /**
+     * Returns the index of the given occupant in the array if it belongs to the set,
+     * or (-(insertion point) - 1) otherwise, as Arrays.binarySearch
+     *
+     * @param occupant the occupant to search for
+     * @return the index of the given occupant, or (-(insertion point) - 1) if it is not in the set
+     */
+    private int indexOf(Occupant occupant) {
+        return Arrays.binarySearch(occupants, occupant, ORDER);
+    }
+
+    /**
+     * Returns a new set containing the occupants of this one and the given occupant
+     *
+     * @param occupant the occupant to add
+     * @return a new set containing the occupants of this one and the given occupant,
+     * or this one if it already contains it
+     */
+    OccupantSet with(Occupant occupant) {
+        int index = indexOf(occupant);
+        if (index >= 0) return this;
+        int insertionPoint = -index - 1;
+        Occupant[] newOccupants = new Occupant[occupants.length + 1];
+        System.arraycopy(occupants, 0, newOccupants, 0, insertionPoint);
+        newOccupants[insertionPoint] = occupant;
+        System.arraycopy(occupants, insertionPoint, newOccupants, insertionPoint + 1, occupants.length - insertionPoint);
+        return new OccupantSet(newOccupants);
+    }
+
+    /**
+     * Returns a new set containing the occupants of this one, except the given occupant
+     *
+     * @param occupant the occupant to remove
+     * @return a new set containing the occupants of this one except the given occupant,
+     * or this one if it does not contain it
+     */
+    OccupantSet without(Occupant occupant) {
+        int index = indexOf(occupant);
+        if (index < 0) return this;
+        Occupant[] newOccupants = new Occupant[occupants.length - 1];
+        System.arraycopy(occupants, 0, newOccupants, 0, index);
+        System.arraycopy(occupants, index + 1, newOccupants, index, occupants.length - index - 1);
+        return new OccupantSet(newOccupants);
+    }
+
+    /**
+     * Returns the unmodifiable list of the occupants of this set, sorted by zone id
+     *
+     * @return the unmodifiable list of the occupants of this set, sorted by zone id
+     */
+    List<Occupant> sortedList() {
+        if (sortedOccupants == null) sortedOccupants = List.of(occupants);
+        return sortedOccupants;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Occupant occupant && indexOf(occupant) >= 0;
+    }
+
+    @Override
+    public Iterator<Occupant> iterator() {
+        return sortedList().iterator();
+    }
+
+    @Override
+    public int size() {
+        return occupants.length;
+    }
+}
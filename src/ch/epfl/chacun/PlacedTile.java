@@ -1,10 +1,7 @@
 package ch.epfl.chacun;
 
-import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 
 /**
@@ -65,7 +62,7 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
      * @return the side of the tile in the given direction
      */
     public TileSide side(Direction direction) {
-        return tile.sides().get(direction.rotated(rotation.negated()).ordinal());
+        return TileMetadata.of(tile).sides(rotation).get(direction.ordinal());
     }
 
     /**
@@ -76,12 +73,7 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
      * @throws IllegalArgumentException if there is no zone with the given id
      */
     public Zone zoneWithId(int id) {
-        return tile.zones().stream()
-                // we use a drop while rather than a filter because there is only one zone with the given id,
-                // and we want to avoid iterating over the whole list
-                .dropWhile(zone -> zone.id() != id)
-                .findFirst()
-                .orElseThrow(IllegalArgumentException::new);
+        return TileMetadata.of(tile).zoneWithId(id);
     }
 
     /**
@@ -91,83 +83,45 @@ public record PlacedTile(Tile tile, PlayerColor placer, Rotation rotation, Pos p
      * @return the zone of the placed tile having a special power if present, null otherwise
      */
     public Zone specialPowerZone() {
-        return tile.zones().stream()
-                // we use a drop while rather than a filter because there is only one zone with a special power,
-                // and we want to avoid iterating over the whole list
-                .dropWhile(zone -> zone.specialPower() == null)
-                .findFirst()
-                .orElse(null);
+        return TileMetadata.of(tile).specialPowerZone();
     }
 
     /**
      * Gets the set of forest zones of the placed tile, returning an empty set if there are none
      *
-     * @return the set of forest zones of the placed tile (empty if there are none)
+     * @return the unmodifiable set of forest zones of the placed tile (empty if there are none)
      */
     public Set<Zone.Forest> forestZones() {
-        Set<Zone.Forest> forestZones = new HashSet<>();
-        for (Zone zone : tile.zones()) {
-            if (zone instanceof Zone.Forest forest) {
-                forestZones.add(forest);
-            }
-        }
-        return forestZones;
+        return TileMetadata.of(tile).forestZones();
     }
 
     /**
      * Gets the set of river zones of the placed tile, returning an empty set if there are none
      *
-     * @return the set of river zones of the placed tile (empty if there are none)
+     * @return the unmodifiable set of river zones of the placed tile (empty if there are none)
      */
     public Set<Zone.River> riverZones() {
-        Set<Zone.River> riverZones = new HashSet<>();
-        for (Zone zone : tile.zones()) {
-            if (zone instanceof Zone.River river) {
-                riverZones.add(river);
-            }
-        }
-        return riverZones;
+        return TileMetadata.of(tile).riverZones();
     }
 
     /**
      * Gets the set of meadow zones of the placed tile, returning an empty set if there are none
      *
-     * @return the set of meadow zones of the placed tile (empty if there are none)
+     * @return the unmodifiable set of meadow zones of the placed tile (empty if there are none)
      */
     public Set<Zone.Meadow> meadowZones() {
-        Set<Zone.Meadow> meadowZones = new HashSet<>();
-        for (Zone zone : tile.zones()) {
-            if (zone instanceof Zone.Meadow meadow) {
-                meadowZones.add(meadow);
-            }
-        }
-        return meadowZones;
+        return TileMetadata.of(tile).meadowZones();
     }
 
     /**
      * Gets the set of the potential occupants that the player can place on the tile
      * depending on the zones of the tile
      *
-     * @return the set of potential occupants that the player can place on the tile
+     * @return the unmodifiable set of potential occupants that the player can place on the tile
      */
     public Set<Occupant> potentialOccupants() {
         if (placer == null) return Set.of();
-        return Stream.concat(
-                        tile.sideZones().stream()
-                                .flatMap(zone -> {
-                                    // each side zone can have a pawn
-                                    Occupant pawn = new Occupant(Occupant.Kind.PAWN, zone.id());
-                                    // and if it's a river, a hut (if there is no lake)
-                                    return zone instanceof Zone.River river && !river.hasLake()
-                                            ? Stream.of(pawn, new Occupant(Occupant.Kind.HUT, zone.id()))
-                                            : Stream.of(pawn);
-                                }),
-                        // each lake can have a hut
-                        tile.zones().stream()
-                                .filter(zone -> zone instanceof Zone.Lake)
-                                .map(lake -> new Occupant(Occupant.Kind.HUT, lake.id()))
-                )
-                .collect(Collectors.toSet());
+        return TileMetadata.of(tile).potentialOccupants();
     }
 
     /**
@@ -0,0 +1,173 @@
+package ch.epfl.chacun;
+
+import java.util.List;
+
+/**
+ * Checks whether tiles can be placed on the fringe of a given board.
+ * <p>
+ * The kind of a tile side is encoded on 2 bits, and the sides of a rotated tile form a signature
+ * of 8 bits, the 2 bits at position 2 * d being the kind of the side facing the direction of ordinal d.
+ * Each position of the fringe has a constraint made of a mask, selecting the directions having
+ * a neighbouring tile, and of the kinds of the sides of these neighbours facing the position,
+ * so that checking a tile at a position only takes a few bitwise operations.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class PlacementChecker {
+
+    /**
+     * The number of bits used to encode the kind of a tile side
+     */
+    private static final int KIND_BITS = 2;
+    /**
+     * The mask selecting the kind of a side in a signature
+     */
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+    /**
+     * The codes of the kinds of tile sides (0 meaning that there is no side)
+     */
+    private static final int FOREST = 1;
+    private static final int MEADOW = 2;
+    private static final int RIVER = 3;
+
+    // the constraints of the positions of the fringe, in the order of the sorted insertion positions
+    private final int[] masks;
+    private final int[] kinds;
+
+    /**
+     * Creates a new placement checker for the fringe of the given board
+     *
+     * @param board the board whose fringe is to be checked
+     */
+    PlacementChecker(Board board) {
+        List<Pos> insertionPositions = board.sortedInsertionPositions();
+        masks = new int[insertionPositions.size()];
+        kinds = new int[insertionPositions.size()];
+        for (int i = 0; i < insertionPositions.size(); i++) {
+            Pos pos = insertionPositions.get(i);
+            for (Direction direction : Direction.ALL) {
+                PlacedTile neighbouringTile = board.tileAt(pos.neighbor(direction));
+                if (neighbouringTile != null) {
+                    masks[i] |= maskOf(direction);
+                    kinds[i] |= kindOf(neighbouringTile.side(direction.opposite()), direction);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new placement checker for the fringe having the given constraints,
+     * see {@link #maskOf(Direction)} and {@link #kindOf(TileSide, Direction)}
+     *
+     * @param masks the masks of the positions of the fringe, which are not copied
+     * @param kinds the kinds of the neighbouring sides of the positions of the fringe, which are not copied
+     */
+    PlacementChecker(int[] masks, int[] kinds) {
+        this.masks = masks;
+        this.kinds = kinds;
+    }
+
+    /**
+     * Returns the mask selecting the side of a signature facing the given direction
+     *
+     * @param direction the direction
+     * @return the mask selecting the side facing the given direction
+     */
+    static int maskOf(Direction direction) {
+        return KIND_MASK << (direction.ordinal() * KIND_BITS);
+    }
+
+    /**
+     * Returns the constraint that a neighbouring tile side puts on the side of a signature facing it
+     *
+     * @param side      the side of the neighbouring tile
+     * @param direction the direction of the neighbouring tile
+     * @return the kind of the side, at the bits of the given direction
+     */
+    static int kindOf(TileSide side, Direction direction) {
+        return kindOf(side) << (direction.ordinal() * KIND_BITS);
+    }
+
+    /**
+     * Returns the code of the kind of the given tile side
+     *
+     * @param side the tile side
+     * @return the code of the kind of the given tile side
+     */
+    private static int kindOf(TileSide side) {
+        return switch (side) {
+            case TileSide.Forest forest -> FOREST;
+            case TileSide.Meadow meadow -> MEADOW;
+            case TileSide.River river -> RIVER;
+        };
+    }
+
+    /**
+     * Computes the signatures of a tile, for each rotation
+     *
+     * @param rotatedSides the sides of the tile for each rotation, ordered N, E, S, W
+     * @return the signatures of the tile, indexed by rotation
+     */
+    static int[] computeSignatures(List<List<TileSide>> rotatedSides) {
+        int[] signatures = new int[Rotation.COUNT];
+        for (Rotation rotation : Rotation.ALL) {
+            List<TileSide> sides = rotatedSides.get(rotation.ordinal());
+            for (Direction direction : Direction.ALL) {
+                int kind = kindOf(sides.get(direction.ordinal()));
+                signatures[rotation.ordinal()] |= kind << (direction.ordinal() * KIND_BITS);
+            }
+        }
+        return signatures;
+    }
+
+    /**
+     * Returns the signatures of the given tile, for each rotation,
+     * which are precomputed for the tiles of the game
+     *
+     * @param tile the tile
+     * @return the signatures of the given tile, indexed by rotation
+     */
+    static int[] signatures(Tile tile) {
+        return TileMetadata.of(tile).placementSignatures();
+    }
+
+    /**
+     * Returns the number of positions of the fringe
+     *
+     * @return the number of positions of the fringe
+     */
+    int fringeSize() {
+        return masks.length;
+    }
+
+    /**
+     * Returns whether a tile having the given signature can be placed
+     * at the position of the fringe having the given index
+     *
+     * @param fringeIndex the index of the position in the sorted insertion positions
+     * @param signature   the signature of the rotated tile
+     * @return whether the tile can be placed at the given position of the fringe
+     */
+    boolean fits(int fringeIndex, int signature) {
+        return (signature & masks[fringeIndex]) == kinds[fringeIndex];
+    }
+
+    /**
+     * Returns whether the given tile can be placed somewhere on the fringe, with any rotation
+     *
+     * @param tile the tile to test
+     * @return whether the given tile can be placed somewhere on the fringe
+     */
+    boolean couldPlace(Tile tile) {
+        int[] signatures = signatures(tile);
+        for (int i = 0; i < masks.length; i++) {
+            int mask = masks[i];
+            int kind = kinds[i];
+            for (int signature : signatures) {
+                if ((signature & mask) == kind) return true;
+            }
+        }
+        return false;
+    }
+}
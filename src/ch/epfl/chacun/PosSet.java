@@ -0,0 +1,152 @@
+package ch.epfl.chacun;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Represents an immutable set of positions of the board, stored as a bitset over its cells.
+ * The cells are numbered column by column, so that the positions are always
+ * iterated in increasing x order, and then in increasing y order.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class PosSet extends AbstractSet<Pos> {
+
+    /**
+     * The width (and height) of the board
+     */
+    private static final int WIDTH = 2 * Board.REACH + 1;
+    /**
+     * The number of cells of the board
+     */
+    private static final int CELL_COUNT = WIDTH * WIDTH;
+
+    /**
+     * The empty set of positions
+     */
+    static final PosSet EMPTY = new PosSet(new long[(CELL_COUNT + Long.SIZE - 1) / Long.SIZE]);
+
+    private final long[] bits;
+    private final int size;
+    // the sorted list of the positions is only built when needed, and then kept
+    private List<Pos> sortedPositions;
+
+    /**
+     * Creates a new set of positions from the given bits, which are never modified afterward
+     *
+     * @param bits the bits of the cells of the board, set if the cell belongs to the set
+     */
+    private PosSet(long[] bits) {
+        this.bits = bits;
+        int size = 0;
+        for (long word : bits) size += Long.bitCount(word);
+        this.size = size;
+    }
+
+    /**
+     * Returns the index of the cell of the given position, or -1 if it is out of the board
+     *
+     * @param pos the position to get the cell of
+     * @return the index of the cell of the given position, or -1 if it is out of the board
+     */
+    private static int cellOf(Pos pos) {
+        boolean isPosInBoard = Math.abs(pos.x()) <= Board.REACH && Math.abs(pos.y()) <= Board.REACH;
+        return isPosInBoard ? (pos.x() + Board.REACH) * WIDTH + (pos.y() + Board.REACH) : -1;
+    }
+
+    /**
+     * Returns the position of the cell having the given index
+     *
+     * @param cell the index of the cell
+     * @return the position of the cell having the given index
+     */
+    private static Pos posOf(int cell) {
+        return new Pos(cell / WIDTH - Board.REACH, cell % WIDTH - Board.REACH);
+    }
+
+    /**
+     * Returns a new set identical to this one, but where the bit of the given cell has the given value
+     *
+     * @param pos   the position of the cell to update, which must be on the board if it is to be added
+     * @param isSet whether the position should belong to the new set
+     * @return a new set where the bit of the cell has the given value, or this one if it already had it
+     * @throws IllegalArgumentException if the position to add is out of the board
+     */
+    private PosSet withBit(Pos pos, boolean isSet) {
+        int cell = cellOf(pos);
+        if (cell < 0) {
+            // a position out of the board never belongs to the set
+            Preconditions.checkArgument(!isSet);
+            return this;
+        }
+        long mask = 1L << cell;
+        long word = bits[cell / Long.SIZE];
+        long newWord = isSet ? word | mask : word & ~mask;
+        if (newWord == word) return this;
+        long[] newBits = bits.clone();
+        newBits[cell / Long.SIZE] = newWord;
+        return new PosSet(newBits);
+    }
+
+    /**
+     * Returns a new set containing the positions of this one and the given position
+     *
+     * @param pos the position to add, which must be on the board
+     * @return a new set containing the positions of this one and the given position
+     * @throws IllegalArgumentException if the position is out of the board
+     */
+    PosSet with(Pos pos) {
+        return withBit(pos, true);
+    }
+
+    /**
+     * Returns a new set containing the positions of this one, except the given position
+     *
+     * @param pos the position to remove
+     * @return a new set containing the positions of this one, except the given position
+     */
+    PosSet without(Pos pos) {
+        return withBit(pos, false);
+    }
+
+    /**
+     * Returns the unmodifiable list of the positions of this set, sorted by x and then by y
+     *
+     * @return the unmodifiable list of the positions of this set, sorted by x and then by y
+     */
+    List<Pos> sortedList() {
+        if (sortedPositions == null) {
+            List<Pos> positions = new ArrayList<>(size);
+            for (int i = 0; i < bits.length; i++) {
+                long word = bits[i];
+                while (word != 0) {
+                    positions.add(posOf(i * Long.SIZE + Long.numberOfTrailingZeros(word)));
+                    // clears the lowest set bit
+                    word &= word - 1;
+                }
+            }
+            sortedPositions = List.copyOf(positions);
+        }
+        return sortedPositions;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Pos pos)) return false;
+        int cell = cellOf(pos);
+        return cell >= 0 && (bits[cell / Long.SIZE] & (1L << cell)) != 0;
+    }
+
+    @Override
+    public Iterator<Pos> iterator() {
+        return sortedList().iterator();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,252 @@
+package ch.epfl.chacun;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the immutable projection of the points the players would get from the meadows and the river systems
+ * of a board if the game ended now: the animals of the meadows (once the tigers ate the deers), the pit trap,
+ * the fishes of the river systems and the raft, scored as when the game ends.
+ * <p>
+ * The points are kept per area, and a projection is updated to a new board by only evaluating
+ * the areas that are not in the former one: as an area is immutable and the zone partitions keep
+ * the areas a move did not change, the others are found by identity, so that an update only costs
+ * the evaluation of the areas touched by the last move.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class ScoreProjection {
+
+    /**
+     * The projection of the empty board, in which nobody gets any point
+     */
+    public static final ScoreProjection EMPTY = new ScoreProjection(
+            new IdentityHashMap<>(), Set.of(), new int[PlayerColor.ALL.size()], 0);
+
+    // the points of every meadow and river system of the board, packed by pack(points, scorersMask)
+    private final IdentityHashMap<Area<?>, Long> areaPoints;
+    // the cancelled animals of the board, on which the points of the meadows depend
+    private final Set<Animal> cancelledAnimals;
+    // points[i] is the number of points the player of the color of ordinal i would get
+    private final int[] points;
+    // the number of areas evaluated when this projection was computed, the others being reused
+    private final int evaluatedAreaCount;
+
+    /**
+     * Creates a new projection from the given values, which are never modified afterward
+     *
+     * @param areaPoints         the packed points of the areas
+     * @param cancelledAnimals   the cancelled animals of the board
+     * @param points             the points of the players, indexed by ordinal
+     * @param evaluatedAreaCount the number of areas evaluated to compute the projection
+     */
+    private ScoreProjection(IdentityHashMap<Area<?>, Long> areaPoints, Set<Animal> cancelledAnimals,
+                            int[] points, int evaluatedAreaCount) {
+        this.areaPoints = areaPoints;
+        this.cancelledAnimals = cancelledAnimals;
+        this.points = points;
+        this.evaluatedAreaCount = evaluatedAreaCount;
+    }
+
+    /**
+     * Returns the projection of the given board, computed from this one,
+     * the areas of the board which are also areas of the board of this projection being not evaluated again
+     *
+     * @param board the board to project the points of
+     * @return the projection of the given board
+     */
+    public ScoreProjection withBoard(Board board) {
+        Set<Animal> newCancelledAnimals = board.cancelledAnimals();
+        // the meadows having an animal cancelled since this projection are evaluated again
+        Set<Animal> newlyCancelledAnimals = newCancelledAnimals.equals(cancelledAnimals)
+                ? Set.of()
+                : newlyCancelledAnimals(newCancelledAnimals);
+
+        IdentityHashMap<Area<?>, Long> newAreaPoints = new IdentityHashMap<>();
+        int[] newPoints = new int[PlayerColor.ALL.size()];
+        int evaluatedAreaCount = 0;
+        for (Area<Zone.Meadow> meadow : board.meadowAreas()) {
+            Long packed = areaPoints.get(meadow);
+            if (packed == null || hasAnyAnimal(meadow, newlyCancelledAnimals)) {
+                packed = pack(meadowPoints(board, meadow), meadow.majorityOccupantsMask());
+                evaluatedAreaCount++;
+            }
+            newAreaPoints.put(meadow, packed);
+            addPoints(newPoints, packed);
+        }
+        for (Area<Zone.Water> riverSystem : board.riverSystemAreas()) {
+            Long packed = areaPoints.get(riverSystem);
+            if (packed == null) {
+                packed = pack(riverSystemPoints(riverSystem), riverSystem.majorityOccupantsMask());
+                evaluatedAreaCount++;
+            }
+            newAreaPoints.put(riverSystem, packed);
+            addPoints(newPoints, packed);
+        }
+        return new ScoreProjection(newAreaPoints, newCancelledAnimals, newPoints, evaluatedAreaCount);
+    }
+
+    /**
+     * Returns the number of points the given player would get from the meadows and the river systems
+     * if the game ended now
+     *
+     * @param player the player
+     * @return the number of points the given player would get if the game ended now
+     */
+    public int points(PlayerColor player) {
+        return points[player.ordinal()];
+    }
+
+    /**
+     * Returns the points the players would get from the meadows and the river systems if the game ended now,
+     * the players getting no point being absent, as in {@link MessageBoard#points()}
+     *
+     * @return an unmodifiable map matching the players to the points they would get if the game ended now
+     */
+    public Map<PlayerColor, Integer> points() {
+        Map<PlayerColor, Integer> points = new EnumMap<>(PlayerColor.class);
+        for (PlayerColor player : PlayerColor.ALL) {
+            if (this.points[player.ordinal()] > 0) points.put(player, this.points[player.ordinal()]);
+        }
+        return Map.copyOf(points);
+    }
+
+    /**
+     * Returns the number of areas that were evaluated when this projection was computed,
+     * the areas of the former projection being reused
+     *
+     * @return the number of areas evaluated to compute this projection
+     */
+    int evaluatedAreaCount() {
+        return evaluatedAreaCount;
+    }
+
+    /**
+     * Returns the animals of the given set that are not cancelled in this projection
+     *
+     * @param newCancelledAnimals the cancelled animals of a new board
+     * @return the animals cancelled since this projection
+     */
+    private Set<Animal> newlyCancelledAnimals(Set<Animal> newCancelledAnimals) {
+        Set<Animal> newlyCancelledAnimals = new HashSet<>(newCancelledAnimals);
+        newlyCancelledAnimals.removeAll(cancelledAnimals);
+        return newlyCancelledAnimals;
+    }
+
+    /**
+     * Returns whether the given meadow has one of the given animals
+     *
+     * @param meadow  the meadow area
+     * @param animals the animals to look for
+     * @return whether one of the zones of the meadow has one of the given animals
+     */
+    private static boolean hasAnyAnimal(Area<Zone.Meadow> meadow, Set<Animal> animals) {
+        if (animals.isEmpty()) return false;
+        for (Zone.Meadow zone : meadow.zones()) {
+            for (Animal animal : zone.animals()) {
+                if (animals.contains(animal)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the points the majority occupants of the given meadow would get at the end of the game,
+     * as {@link GameState} scores it: the tigers eat as many deers as they can unless the meadow has a wild fire,
+     * the deers far from the pit trap first, then the meadow and its pit trap are scored
+     *
+     * @param board  the board of the meadow
+     * @param meadow the meadow area
+     * @return the points of the meadow and of its pit trap, 0 if the meadow is not occupied
+     */
+    private static int meadowPoints(Board board, Area<Zone.Meadow> meadow) {
+        if (!meadow.isOccupied()) return 0;
+        Set<Animal> cancelledAnimals = board.cancelledAnimals();
+        int[] counts = animalCounts(meadow.zones(), cancelledAnimals);
+        int deerCount = counts[Animal.Kind.DEER.ordinal()];
+        boolean hasWildFire = meadow.zoneWithSpecialPower(Zone.SpecialPower.WILD_FIRE) != null;
+        int eatenDeerCount = hasWildFire ? 0 : Math.min(deerCount, counts[Animal.Kind.TIGER.ordinal()]);
+
+        int points = Points.forMeadow(
+                counts[Animal.Kind.MAMMOTH.ordinal()],
+                counts[Animal.Kind.AUROCHS.ordinal()],
+                deerCount - eatenDeerCount
+        );
+
+        Zone.Meadow pitTrapZone = (Zone.Meadow) meadow.zoneWithSpecialPower(Zone.SpecialPower.PIT_TRAP);
+        if (pitTrapZone != null) {
+            Pos pitTrapPos = board.tileWithId(pitTrapZone.tileId()).pos();
+            int[] adjacentCounts = animalCounts(board.adjacentMeadow(pitTrapPos, pitTrapZone).zones(), cancelledAnimals);
+            int adjacentDeerCount = adjacentCounts[Animal.Kind.DEER.ordinal()];
+            // the deers outside of the surroundings of the pit trap are eaten first
+            int eatenAdjacentDeerCount = Math.max(0, eatenDeerCount - (deerCount - adjacentDeerCount));
+            points += Points.forMeadow(
+                    adjacentCounts[Animal.Kind.MAMMOTH.ordinal()],
+                    adjacentCounts[Animal.Kind.AUROCHS.ordinal()],
+                    adjacentDeerCount - eatenAdjacentDeerCount
+            );
+        }
+        return points;
+    }
+
+    /**
+     * Counts the animals of each kind of the given meadow zones, without the cancelled ones
+     *
+     * @param zones            the meadow zones
+     * @param cancelledAnimals the animals to ignore
+     * @return the number of animals of each kind, indexed by ordinal
+     */
+    private static int[] animalCounts(Set<Zone.Meadow> zones, Set<Animal> cancelledAnimals) {
+        int[] counts = new int[Animal.Kind.values().length];
+        for (Zone.Meadow zone : zones) {
+            for (Animal animal : zone.animals()) {
+                if (!cancelledAnimals.contains(animal)) counts[animal.kind().ordinal()]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Computes the points the majority occupants of the given river system would get at the end of the game,
+     * for its fishes and for its raft
+     *
+     * @param riverSystem the river system area
+     * @return the points of the river system and of its raft, 0 if it is not occupied
+     */
+    private static int riverSystemPoints(Area<Zone.Water> riverSystem) {
+        if (!riverSystem.isOccupied()) return 0;
+        int points = Points.forRiverSystem(Area.riverSystemFishCount(riverSystem));
+        if (riverSystem.zoneWithSpecialPower(Zone.SpecialPower.RAFT) != null)
+            points += Points.forRaft(Area.lakeCount(riverSystem));
+        return points;
+    }
+
+    /**
+     * Packs the points of an area with the bitmask of its scorers
+     *
+     * @param points      the points of the area
+     * @param scorersMask the bitmask of the majority occupants of the area
+     * @return the packed points of the area
+     */
+    private static long pack(int points, int scorersMask) {
+        return ((long) points << Integer.SIZE) | (scorersMask & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds the given packed points of an area to the points of its scorers
+     *
+     * @param points the points of the players, indexed by ordinal
+     * @param packed the packed points of an area
+     */
+    private static void addPoints(int[] points, long packed) {
+        int areaPoints = (int) (packed >>> Integer.SIZE);
+        int scorersMask = (int) packed;
+        for (int i = 0; i < points.length; i++) {
+            if ((scorersMask & (1 << i)) != 0) points[i] += areaPoints;
+        }
+    }
+}
@@ -178,10 +178,25 @@ public interface TextMaker {
      */
     String gameLeaveReset();
 
+    /**
+     * Retourne un texte annonçant qu'un joueur a quitté la partie commencée, qui reprendra à son retour.
+     *
+     * @param playerName le nom du joueur ayant quitté la partie
+     * @return le texte en question
+     */
+    String playerAway(String playerName);
+
     /**
      * Retourne un texte annonçant que la partie s'est terminée.
      *
      * @return le texte en question
      */
     String gameEnded();
+
+    /**
+     * Retourne un texte annonçant que l'état de la partie n'a pas pu être synchronisé avec celui du serveur.
+     *
+     * @return le texte en question
+     */
+    String gameDesynchronized();
 }
\ No newline at end of file
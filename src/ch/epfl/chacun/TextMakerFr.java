@@ -313,6 +313,11 @@ public final class TextMakerFr implements TextMaker {
         return "Un joueur a quitté la partie. Le plateau a été réinitialisé.";
     }
 
+    @Override
+    public String playerAway(String playerName) {
+        return STR."\{playerName} a quitté la partie. Elle reprendra à son retour.";
+    }
+
     @Override
     public String playerJoined(String playerName) {
         return STR."\{playerName} a rejoint la partie.";
@@ -327,4 +332,9 @@ public final class TextMakerFr implements TextMaker {
     public String gameEnded() {
         return "La partie est terminée. Relancez le jeu pour rejouer !";
     }
+
+    @Override
+    public String gameDesynchronized() {
+        return "La partie n'a pas pu être synchronisée avec le serveur. Relancez le jeu pour la rejoindre à nouveau.";
+    }
 }
@@ -1,9 +1,7 @@
 package ch.epfl.chacun;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Represents a tile in the game
@@ -22,38 +20,29 @@ public record Tile(int id, Kind kind, TileSide n, TileSide e, TileSide s, TileSi
     /**
      * Returns the sides of the tile, ordered N, E, S, W
      *
-     * @return the sides of the tile, ordered N, E, S, W
+     * @return the unmodifiable list of the sides of the tile, ordered N, E, S, W
      */
     public List<TileSide> sides() {
-        return List.of(n, e, s, w);
+        return TileMetadata.of(this).sides(Rotation.NONE);
     }
 
     /**
      * Returns all the side zones of the tile
      * (because one tile side can have several side zones)
      *
-     * @return all the side zones of the tile
+     * @return the unmodifiable set of all the side zones of the tile
      */
     public Set<Zone> sideZones() {
-        return sides().stream()
-                .flatMap(side -> side.zones().stream())
-                .collect(Collectors.toSet());
+        return TileMetadata.of(this).sideZones();
     }
 
     /**
      * Returns all the zones of the tile
      *
-     * @return all the zones of the tile
+     * @return the unmodifiable set of all the zones of the tile
      */
     public Set<Zone> zones() {
-        Set<Zone> sideZones = sideZones();
-        Set<Zone> zones = new HashSet<>(sideZones);
-        for (Zone sideZone : sideZones) {
-            if (sideZone instanceof Zone.River river && river.hasLake()) {
-                zones.add(river.lake());
-            }
-        }
-        return zones;
+        return TileMetadata.of(this).zones();
     }
 
     /**
@@ -1,8 +1,11 @@
 package ch.epfl.chacun;
 
-
-import java.util.List;
+import java.util.*;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
 
 /**
  * Represents the decks of tiles in the game
@@ -16,55 +19,73 @@ import java.util.function.Predicate;
 public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile> menhirTiles) {
 
     /**
-     * Constructor for TileDecks
+     * Constructor for TileDecks, copying the decks unless they already are immutable decks,
+     * so that the decks obtained by drawing tiles share the tiles of the former ones
      *
      * @param startTiles  the start tiles deck (the first card of the game)
      * @param normalTiles the normal tiles deck
      * @param menhirTiles the menhir tiles deck
      */
     public TileDecks {
-        startTiles = List.copyOf(startTiles);
-        normalTiles = List.copyOf(normalTiles);
-        menhirTiles = List.copyOf(menhirTiles);
+        startTiles = Deck.copyOf(startTiles);
+        normalTiles = Deck.copyOf(normalTiles);
+        menhirTiles = Deck.copyOf(menhirTiles);
     }
 
     /**
-     * returns the size of the deck of the given kind
+     * Returns the decks of all the tiles of the game, shuffled with the given random generator
      *
-     * @param kind the kind of deck whose size is to be returned
-     * @return the size of the deck of the given kind
+     * @param generator the random generator used to shuffle the tiles
+     * @return the shuffled decks of all the tiles of the game
      */
-    public int deckSize(Tile.Kind kind) {
-        return switch (kind) {
-            case START -> startTiles.size();
-            case NORMAL -> normalTiles.size();
-            case MENHIR -> menhirTiles.size();
-        };
+    public static TileDecks shuffled(RandomGenerator generator) {
+        List<Tile> tiles = new ArrayList<>(Tiles.TILES);
+        Collections.shuffle(tiles, generator);
+        Map<Tile.Kind, List<Tile>> groupedTiles = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
+        // we make it possible to play without menhir tiles. On the other hand,
+        // playing without normal tiles is not permitted
+        List<Tile> menhirTiles = groupedTiles.getOrDefault(Tile.Kind.MENHIR, List.of());
+
+        return new TileDecks(
+                groupedTiles.get(Tile.Kind.START),
+                groupedTiles.get(Tile.Kind.NORMAL),
+                menhirTiles
+        );
     }
 
     /**
-     * Gets the first card of a deck or null if the latter is empty
+     * Returns the decks of all the tiles of the game, shuffled with the default random generator
+     * created from the given seed, so that the same seed always produces the same decks
      *
-     * @param deck the deck to get the first card from
-     * @return the first card of a deck or null if the latter is empty
+     * @param seed the seed of the random generator used to shuffle the tiles
+     * @return the shuffled decks of all the tiles of the game
      */
-    private Tile getFirstCard(List<Tile> deck) {
-        return deck.isEmpty() ? null : deck.getFirst();
+    public static TileDecks shuffled(long seed) {
+        return shuffled(RandomGeneratorFactory.getDefault().create(seed));
+    }
+
+    /**
+     * Returns the deck of the given kind
+     *
+     * @param kind the kind of the deck
+     * @return the deck of the given kind
+     */
+    private Deck deck(Tile.Kind kind) {
+        return (Deck) switch (kind) {
+            case START -> startTiles;
+            case NORMAL -> normalTiles;
+            case MENHIR -> menhirTiles;
+        };
     }
 
     /**
-     * Draws a card from a deck if the latter is not empty, throws an exception otherwise
+     * returns the size of the deck of the given kind
      *
-     * @param deck the deck to draw the card from
-     * @return the deck without the first card
-     * @throws IllegalArgumentException if the deck is empty
+     * @param kind the kind of deck whose size is to be returned
+     * @return the size of the deck of the given kind
      */
-    private List<Tile> drawCardFromDeck(List<Tile> deck) {
-        Preconditions.checkArgument(!deck.isEmpty());
-        // size() returns the index of the last element +1
-        // subList() takes the index of the first element (inclusive)
-        // and the index of the last element (exclusive)
-        return deck.subList(1, deck.size()); // returns a new list without the first card
+    public int deckSize(Tile.Kind kind) {
+        return deck(kind).size();
     }
 
     /**
@@ -75,10 +96,25 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
      * @return the first card of the deck of the given kind, null if there isn't any
      */
     public Tile topTile(Tile.Kind kind) {
+        Deck deck = deck(kind);
+        return deck.isEmpty() ? null : deck.getFirst();
+    }
+
+    /**
+     * Draws the given number of tiles from the top of the deck of the given kind
+     *
+     * @param kind  the kind of deck to draw the tiles from
+     * @param count the number of tiles to draw
+     * @return the decks with the tiles drawn from the given deck, or these decks if the count is zero
+     * @throws IllegalArgumentException if the deck has less tiles than the given count
+     */
+    private TileDecks withTopTilesDrawn(Tile.Kind kind, int count) {
+        if (count == 0) return this;
+        Deck deck = deck(kind).withTopTilesDrawn(count);
         return switch (kind) {
-            case START -> getFirstCard(startTiles);
-            case NORMAL -> getFirstCard(normalTiles);
-            case MENHIR -> getFirstCard(menhirTiles);
+            case START -> new TileDecks(deck, normalTiles, menhirTiles);
+            case NORMAL -> new TileDecks(startTiles, deck, menhirTiles);
+            case MENHIR -> new TileDecks(startTiles, normalTiles, deck);
         };
     }
 
@@ -89,11 +125,7 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
      * @return the decks with the top tile drawn from the given deck
      */
     public TileDecks withTopTileDrawn(Tile.Kind kind) {
-        return switch (kind) {
-            case START -> new TileDecks(drawCardFromDeck(startTiles), normalTiles, menhirTiles);
-            case NORMAL -> new TileDecks(startTiles, drawCardFromDeck(normalTiles), menhirTiles);
-            case MENHIR -> new TileDecks(startTiles, normalTiles, drawCardFromDeck(menhirTiles));
-        };
+        return withTopTilesDrawn(kind, 1);
     }
 
     /**
@@ -104,10 +136,24 @@ public record TileDecks(List<Tile> startTiles, List<Tile> normalTiles, List<Tile
      * @return the tile decks, with the necessary tiles drawn
      */
     public TileDecks withTopTileDrawnUntil(Tile.Kind kind, Predicate<Tile> predicate) {
-        boolean deckIsEmpty = this.deckSize(kind) == 0;
-        if (deckIsEmpty) return this;
-        boolean predicateIsVerified = predicate.test(this.topTile(kind));
-        return predicateIsVerified ? this : withTopTileDrawn(kind).withTopTileDrawnUntil(kind, predicate);
+        Deck deck = deck(kind);
+        int drawnCount = 0;
+        while (drawnCount < deck.size() && !predicate.test(deck.get(drawnCount))) drawnCount++;
+        return withTopTilesDrawn(kind, drawnCount);
+    }
+
+    /**
+     * Draws the top tiles of the deck of the given kind until the tile having the index
+     * given by the bulk predicate, which tests all the tiles of the deck at once
+     *
+     * @param kind           the kind of deck to draw the top tiles from
+     * @param firstKeptIndex the function returning the index of the first tile of the given deck
+     *                       satisfying the predicate, or the size of the deck if there is none
+     * @return the tile decks, with the tiles before the one having the given index drawn
+     * @throws IllegalArgumentException if the index is negative or greater than the size of the deck
+     */
+    public TileDecks withTopTilesDrawnUntil(Tile.Kind kind, ToIntFunction<List<Tile>> firstKeptIndex) {
+        return withTopTilesDrawn(kind, firstKeptIndex.applyAsInt(deck(kind)));
     }
 
 }
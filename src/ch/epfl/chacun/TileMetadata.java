@@ -0,0 +1,233 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents the data derived from the content of a tile, which never changes,
+ * so that it is computed once per tile of the game instead of at every call.
+ * All the collections are immutable, and are iterated in the same order as the
+ * hash sets that were previously built at every call.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class TileMetadata {
+
+    /**
+     * The maximum number of zones of a tile, local ids ranging from 0 to 9
+     */
+    private static final int MAX_ZONE_COUNT = 10;
+
+    /**
+     * The metadata of the tiles of the game, indexed by tile id
+     */
+    private static final TileMetadata[] GAME_TILES_METADATA = Tiles.TILES.stream()
+            .map(TileMetadata::new)
+            .toArray(TileMetadata[]::new);
+
+    private final Tile tile;
+    // rotatedSides.get(r).get(d) is the side facing the direction of ordinal d when rotated by rotation of ordinal r
+    private final List<List<TileSide>> rotatedSides;
+    private final Set<Zone> sideZones;
+    private final Set<Zone> zones;
+    private final Set<Zone.Forest> forestZones;
+    private final Set<Zone.River> riverZones;
+    private final Set<Zone.Meadow> meadowZones;
+    // zonesByLocalId[localId] is the zone of the tile having this local id, or null if there is none
+    private final Zone[] zonesByLocalId;
+    private final Zone specialPowerZone;
+    private final Set<Occupant> potentialOccupants;
+    // the potential occupants sorted by zone id and then kind, for the callers that must not allocate
+    private final Occupant[] sortedPotentialOccupants;
+    private final int[] placementSignatures;
+
+    /**
+     * Computes the metadata of the given tile
+     *
+     * @param tile the tile to compute the metadata of
+     */
+    private TileMetadata(Tile tile) {
+        this.tile = tile;
+
+        List<TileSide> sides = List.of(tile.n(), tile.e(), tile.s(), tile.w());
+        List<List<TileSide>> rotatedSides = new ArrayList<>(Rotation.COUNT);
+        for (Rotation rotation : Rotation.ALL) {
+            List<TileSide> sidesOfRotation = new ArrayList<>(Direction.COUNT);
+            for (Direction direction : Direction.ALL)
+                sidesOfRotation.add(sides.get(direction.rotated(rotation.negated()).ordinal()));
+            rotatedSides.add(List.copyOf(sidesOfRotation));
+        }
+        this.rotatedSides = List.copyOf(rotatedSides);
+
+        Set<Zone> sideZones = new HashSet<>();
+        for (TileSide side : sides) sideZones.addAll(side.zones());
+        Set<Zone> zones = new HashSet<>(sideZones);
+        for (Zone sideZone : sideZones) {
+            if (sideZone instanceof Zone.River river && river.hasLake()) zones.add(river.lake());
+        }
+        this.sideZones = Collections.unmodifiableSet(sideZones);
+        this.zones = Collections.unmodifiableSet(zones);
+
+        Set<Zone.Forest> forestZones = new HashSet<>();
+        Set<Zone.River> riverZones = new HashSet<>();
+        Set<Zone.Meadow> meadowZones = new HashSet<>();
+        zonesByLocalId = new Zone[MAX_ZONE_COUNT];
+        Zone specialPowerZone = null;
+        for (Zone zone : zones) {
+            switch (zone) {
+                case Zone.Forest forest -> forestZones.add(forest);
+                case Zone.River river -> riverZones.add(river);
+                case Zone.Meadow meadow -> meadowZones.add(meadow);
+                case Zone.Lake lake -> {
+                }
+            }
+            int localId = zone.localId();
+            if (localId >= 0 && localId < MAX_ZONE_COUNT) zonesByLocalId[localId] = zone;
+            // there is at most one zone with a special power
+            if (specialPowerZone == null && zone.specialPower() != null) specialPowerZone = zone;
+        }
+        this.forestZones = Collections.unmodifiableSet(forestZones);
+        this.riverZones = Collections.unmodifiableSet(riverZones);
+        this.meadowZones = Collections.unmodifiableSet(meadowZones);
+        this.specialPowerZone = specialPowerZone;
+
+        Set<Occupant> potentialOccupants = new HashSet<>();
+        for (Zone zone : sideZones) {
+            // each side zone can have a pawn, and if it's a river, a hut (if there is no lake)
+            potentialOccupants.add(new Occupant(Occupant.Kind.PAWN, zone.id()));
+            if (zone instanceof Zone.River river && !river.hasLake())
+                potentialOccupants.add(new Occupant(Occupant.Kind.HUT, zone.id()));
+        }
+        // each lake can have a hut
+        for (Zone zone : zones) {
+            if (zone instanceof Zone.Lake lake) potentialOccupants.add(new Occupant(Occupant.Kind.HUT, lake.id()));
+        }
+        this.potentialOccupants = Collections.unmodifiableSet(potentialOccupants);
+        this.sortedPotentialOccupants = potentialOccupants.stream()
+                .sorted(Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind))
+                .toArray(Occupant[]::new);
+
+        this.placementSignatures = PlacementChecker.computeSignatures(this.rotatedSides);
+    }
+
+    /**
+     * Returns the metadata of the given tile, which is precomputed for the tiles of the game
+     * (or for tiles equal to them), and computed at every call for the other tiles
+     *
+     * @param tile the tile to get the metadata of
+     * @return the metadata of the given tile
+     */
+    static TileMetadata of(Tile tile) {
+        int id = tile.id();
+        if (id >= 0 && id < GAME_TILES_METADATA.length) {
+            TileMetadata metadata = GAME_TILES_METADATA[id];
+            if (metadata.tile == tile || metadata.tile.equals(tile)) return metadata;
+        }
+        return new TileMetadata(tile);
+    }
+
+    /**
+     * Returns the sides of the tile once rotated by the given rotation, ordered N, E, S, W
+     *
+     * @param rotation the rotation of the tile
+     * @return the unmodifiable list of the sides of the rotated tile, ordered N, E, S, W
+     */
+    List<TileSide> sides(Rotation rotation) {
+        return rotatedSides.get(rotation.ordinal());
+    }
+
+    /**
+     * Returns the side zones of the tile
+     *
+     * @return the unmodifiable set of the side zones of the tile
+     */
+    Set<Zone> sideZones() {
+        return sideZones;
+    }
+
+    /**
+     * Returns all the zones of the tile
+     *
+     * @return the unmodifiable set of all the zones of the tile
+     */
+    Set<Zone> zones() {
+        return zones;
+    }
+
+    /**
+     * Returns the forest zones of the tile
+     *
+     * @return the unmodifiable set of the forest zones of the tile
+     */
+    Set<Zone.Forest> forestZones() {
+        return forestZones;
+    }
+
+    /**
+     * Returns the river zones of the tile
+     *
+     * @return the unmodifiable set of the river zones of the tile
+     */
+    Set<Zone.River> riverZones() {
+        return riverZones;
+    }
+
+    /**
+     * Returns the meadow zones of the tile
+     *
+     * @return the unmodifiable set of the meadow zones of the tile
+     */
+    Set<Zone.Meadow> meadowZones() {
+        return meadowZones;
+    }
+
+    /**
+     * Returns the zone of the tile having the given id
+     *
+     * @param id the id of the zone
+     * @return the zone of the tile having the given id
+     * @throws IllegalArgumentException if the tile has no zone with the given id
+     */
+    Zone zoneWithId(int id) {
+        int localId = Zone.localId(id);
+        Zone zone = localId >= 0 ? zonesByLocalId[localId] : null;
+        Preconditions.checkArgument(zone != null && zone.id() == id);
+        return zone;
+    }
+
+    /**
+     * Returns the zone of the tile having a special power, null if there is none
+     *
+     * @return the zone of the tile having a special power, null if there is none
+     */
+    Zone specialPowerZone() {
+        return specialPowerZone;
+    }
+
+    /**
+     * Returns the occupants that can be placed on the tile
+     *
+     * @return the unmodifiable set of the occupants that can be placed on the tile
+     */
+    Set<Occupant> potentialOccupants() {
+        return potentialOccupants;
+    }
+
+    /**
+     * Returns the occupants that can be placed on the tile, sorted by zone id and then by kind
+     *
+     * @return the sorted occupants that can be placed on the tile, which must not be modified
+     */
+    Occupant[] sortedPotentialOccupants() {
+        return sortedPotentialOccupants;
+    }
+
+    /**
+     * Returns the placement signatures of the tile, indexed by rotation, as defined by PlacementChecker
+     *
+     * @return the placement signatures of the tile, which must not be modified
+     */
+    int[] placementSignatures() {
+        return placementSignatures;
+    }
+}
@@ -0,0 +1,113 @@
+package ch.epfl.chacun;
+
+/**
+ * A utility class giving the 64-bit Zobrist keys of the parts of a game state.
+ * <p>
+ * The key of a state is the exclusive or of the keys of its parts, so that it is updated
+ * in constant time when a part is added or removed, whatever the order of the updates.
+ * The keys are derived from the identifiers and ordinals of the parts with a mixing function
+ * (the finalizer of SplitMix64) instead of being drawn at random and stored in tables,
+ * so that they are the same in every process and for tiles and zones of any identifier.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class Zobrist {
+
+    /**
+     * The seeds of the kinds of parts, so that two parts of different kinds have unrelated keys
+     */
+    private static final long TILE_SEED = 0x7A1E5C0FFEE15L;
+    private static final long OCCUPANT_SEED = 0x0CC0FA27L;
+    private static final long CANCELLED_ANIMAL_SEED = 0xA2112A15L;
+    private static final long PLAYER_SEED = 0x91A7E2L;
+    private static final long ACTION_SEED = 0xAC7102L;
+    private static final long TILE_TO_PLACE_SEED = 0x711E70L;
+
+    /**
+     * The number of values a coordinate of a position of the board is encoded on
+     */
+    private static final int COORDINATE_RANGE = 2 * Board.REACH + 1;
+
+    /**
+     * This class can not be instantiated.
+     */
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of the given tile, placed with its rotation at its position by its placer,
+     * without its occupant
+     *
+     * @param tile the placed tile
+     * @return the key of the placed tile
+     */
+    static long tileKey(PlacedTile tile) {
+        long position = (long) (tile.pos().x() + Board.REACH) * COORDINATE_RANGE + tile.pos().y() + Board.REACH;
+        long placement = (position * Rotation.COUNT + tile.rotation().ordinal()) * (PlayerColor.ALL.size() + 1)
+                + (tile.placer() == null ? 0 : tile.placer().ordinal() + 1);
+        return mix(mix(TILE_SEED ^ tile.id()) ^ placement);
+    }
+
+    /**
+     * Returns the key of the given occupant, placed in its zone
+     *
+     * @param occupant the occupant
+     * @return the key of the occupant
+     */
+    static long occupantKey(Occupant occupant) {
+        return mix(mix(OCCUPANT_SEED ^ occupant.zoneId()) ^ occupant.kind().ordinal());
+    }
+
+    /**
+     * Returns the key of the given animal, once cancelled
+     *
+     * @param animal the cancelled animal
+     * @return the key of the cancelled animal
+     */
+    static long cancelledAnimalKey(Animal animal) {
+        return mix(CANCELLED_ANIMAL_SEED ^ animal.id());
+    }
+
+    /**
+     * Returns the key of the given current player, 0 if there is none
+     *
+     * @param player the current player, or null
+     * @return the key of the current player
+     */
+    static long currentPlayerKey(PlayerColor player) {
+        return player == null ? 0 : mix(PLAYER_SEED ^ player.ordinal());
+    }
+
+    /**
+     * Returns the key of the given next action
+     *
+     * @param action the next action
+     * @return the key of the next action
+     */
+    static long nextActionKey(GameState.Action action) {
+        return mix(ACTION_SEED ^ action.ordinal());
+    }
+
+    /**
+     * Returns the key of the given tile to place, 0 if there is none
+     *
+     * @param tile the tile to place, or null
+     * @return the key of the tile to place
+     */
+    static long tileToPlaceKey(Tile tile) {
+        return tile == null ? 0 : mix(TILE_TO_PLACE_SEED ^ tile.id());
+    }
+
+    /**
+     * Mixes the bits of the given value, as the finalizer of SplitMix64
+     *
+     * @param value the value to mix
+     * @return the mixed value, every bit of which depends on all the bits of the given one
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -1,18 +1,35 @@
 package ch.epfl.chacun;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Represents a zone partition
+ * <p>
+ * Internally, the partition is a disjoint-set forest indexed by zone id (tileId * 10 + localId),
+ * where each root zone knows the area it represents. The forest is always flat, every zone pointing
+ * directly to the root of its area, so that finding the area containing a zone takes constant time.
+ * The forest is stored in persistent chunked arrays, a builder only copying the chunks it modifies.
  *
- * @param areas the areas in the zone partition
- * @param <Z>   the type of the areas
+ * @param <Z> the type of the areas
  * @author Valerio De Santis (373247)
  * @author Simon Lefort (371918)
  */
-public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
+public final class ZonePartition<Z extends Zone> {
+
+    /**
+     * The value of the parent of a zone that is not in the partition
+     */
+    private static final int NO_PARENT = -1;
+
+    // parents.get(id) is the id of the root of the area of the zone having this id, or NO_PARENT
+    // if there is no such zone in the partition, a zone is a root if it is its own parent
+    private final ChunkedIntArray parents;
+    // rootAreas.get(id) is the area represented by the root zone having this id, null if the zone is not a root
+    private final ChunkedArray<Area<Z>> rootAreas;
+    // the set of areas is only computed when asked for, as the hot paths only need areaContaining
+    private Set<Area<Z>> areas;
 
     /**
      * Creates a new zone partition and does a defensive copy
@@ -20,8 +37,26 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
      *
      * @param areas the areas in the zone partition
      */
-    public ZonePartition {
-        areas = Set.copyOf(areas);
+    public ZonePartition(Set<Area<Z>> areas) {
+        this.areas = Set.copyOf(areas);
+        int maxZoneId = this.areas.stream()
+                .flatMap(area -> area.zones().stream())
+                .mapToInt(Zone::id)
+                .max()
+                .orElse(NO_PARENT);
+        ChunkedIntArray.Builder parentsBuilder = new ChunkedIntArray.Builder(ChunkedIntArray.filled(maxZoneId + 1, NO_PARENT));
+        ChunkedArray.Builder<Area<Z>> rootAreasBuilder = new ChunkedArray.Builder<>(ChunkedArray.ofLength(maxZoneId + 1));
+        for (Area<Z> area : this.areas) {
+            // the first zone of the area is chosen to be its root
+            int root = NO_PARENT;
+            for (Z zone : area.zones()) {
+                if (root == NO_PARENT) root = zone.id();
+                parentsBuilder.set(zone.id(), root);
+            }
+            if (root != NO_PARENT) rootAreasBuilder.set(root, area);
+        }
+        parents = parentsBuilder.build();
+        rootAreas = rootAreasBuilder.build();
     }
 
     /**
@@ -32,21 +67,53 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
     }
 
     /**
-     * Returns the area that contains the specified zone, or throws an exception
-     * if the zone is not in any area
+     * Creates a zone partition from an already flat disjoint-set forest
      *
-     * @param zone  the zone we are looking for
-     * @param areas the set of areas to search in
-     * @return the area that contains the specified zone
-     * @throws IllegalArgumentException if the zone is not in any area
+     * @param parents   the roots of the zones, indexed by zone id
+     * @param rootAreas the areas of the root zones, indexed by zone id
      */
-    private static <Z extends Zone> Area<Z> areaContaining(Z zone, Set<Area<Z>> areas) {
-        return areas.stream()
-                // we use a drop while rather than a filter because there is only one area containing the given zone,
-                // and we want to avoid iterating over the whole list
-                .dropWhile(area -> !area.zones().contains(zone))
-                .findFirst()
-                .orElseThrow(IllegalArgumentException::new);
+    private ZonePartition(ChunkedIntArray parents, ChunkedArray<Area<Z>> rootAreas) {
+        this.parents = parents;
+        this.rootAreas = rootAreas;
+    }
+
+    /**
+     * Creates a zone partition from the given flat disjoint-set forest, which is copied
+     *
+     * @param parents   the roots of the zones, indexed by zone id, -1 for the zones that are not in the partition
+     * @param rootAreas the areas of the root zones, indexed by zone id, null for the zones that are not roots
+     * @param <Z>       the type of the zones forming the areas
+     * @return the zone partition having the given forest
+     */
+    static <Z extends Zone> ZonePartition<Z> ofFlatForest(int[] parents, Area<Z>[] rootAreas) {
+        ChunkedIntArray.Builder parentsBuilder =
+                new ChunkedIntArray.Builder(ChunkedIntArray.filled(parents.length, NO_PARENT));
+        ChunkedArray.Builder<Area<Z>> rootAreasBuilder =
+                new ChunkedArray.Builder<>(ChunkedArray.ofLength(rootAreas.length));
+        for (int id = 0; id < parents.length; id++) {
+            if (parents[id] != NO_PARENT) parentsBuilder.set(id, parents[id]);
+        }
+        for (int id = 0; id < rootAreas.length; id++) {
+            if (rootAreas[id] != null) rootAreasBuilder.set(id, rootAreas[id]);
+        }
+        return new ZonePartition<>(parentsBuilder.build(), rootAreasBuilder.build());
+    }
+
+    /**
+     * Returns the set of areas forming the partition
+     *
+     * @return the unmodifiable set of areas forming the partition
+     */
+    public Set<Area<Z>> areas() {
+        if (areas == null) {
+            List<Area<Z>> rootAreasList = new ArrayList<>();
+            for (int id = 0; id < rootAreas.length(); id++) {
+                Area<Z> area = rootAreas.get(id);
+                if (area != null) rootAreasList.add(area);
+            }
+            areas = Set.copyOf(rootAreasList);
+        }
+        return areas;
     }
 
     /**
@@ -57,7 +124,43 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
      * @throws IllegalArgumentException if the zone is not in any area
      */
     public Area<Z> areaContaining(Z zone) {
-        return ZonePartition.areaContaining(zone, areas);
+        int id = zone.id();
+        Preconditions.checkArgument(id >= 0 && id < parents.length() && parents.get(id) != NO_PARENT);
+        // the forest is flat, the parent of every zone is the root of its area
+        return rootAreas.get(parents.get(id));
+    }
+
+    /**
+     * Returns whether some other object is equal to this,
+     * two zone partitions being equal if they have the same areas
+     *
+     * @param that the object to compare to
+     * @return whether some other object is a zone partition having the same areas
+     */
+    @Override
+    public boolean equals(Object that) {
+        if (this == that) return true;
+        return that instanceof ZonePartition<?> thatPartition && areas().equals(thatPartition.areas());
+    }
+
+    /**
+     * Returns the hash code of the zone partition
+     *
+     * @return the hash code of the zone partition
+     */
+    @Override
+    public int hashCode() {
+        return areas().hashCode();
+    }
+
+    /**
+     * Returns a textual representation of the zone partition
+     *
+     * @return a textual representation of the zone partition
+     */
+    @Override
+    public String toString() {
+        return STR."ZonePartition[areas=\{areas()}]";
     }
 
     /**
@@ -67,7 +170,11 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
      */
     public static final class Builder<Z extends Zone> {
 
-        private final Set<Area<Z>> areas;
+        private final ChunkedIntArray.Builder parents;
+        private final ChunkedArray.Builder<Area<Z>> rootAreas;
+        // the last partition built (or the initial one), returned again if the builder was not modified since,
+        // null if it was
+        private ZonePartition<Z> built;
 
         /**
          * Creates a new builder for a zone partition with the same areas as the given one
@@ -75,11 +182,37 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @param partition the zone partition to copy
          */
         public Builder(ZonePartition<Z> partition) {
-            // ZonePartition is immutable, so we do not need to
-            // call Set.copyOf() here as the areas of partitions will never change
-            // we don't use the areas = partition.areas() syntax because we
-            // want 'areas' to refer to a modifiable object
-            areas = new HashSet<>(partition.areas());
+            // ZonePartition is immutable, so we share its chunks
+            // and only copy the ones the builder modifies
+            parents = new ChunkedIntArray.Builder(partition.parents);
+            rootAreas = new ChunkedArray.Builder<>(partition.rootAreas);
+            built = partition;
+        }
+
+        /**
+         * Returns the id of the root of the area containing the given zone,
+         * or throws an exception if the zone is not in any area
+         *
+         * @param zone the zone we are looking for
+         * @return the id of the root of the area containing the zone
+         * @throws IllegalArgumentException if the zone is not in any area
+         */
+        private int rootOf(Z zone) {
+            int id = zone.id();
+            Preconditions.checkArgument(id >= 0 && id < parents.length() && parents.get(id) != NO_PARENT);
+            // the forest is kept flat, the parent of every zone is the root of its area
+            return parents.get(id);
+        }
+
+        /**
+         * Replaces the area represented by the given root
+         *
+         * @param root the id of the root zone
+         * @param area the new area represented by the root, or null if the zone is no longer a root
+         */
+        private void setRootArea(int root, Area<Z> area) {
+            rootAreas.set(root, area);
+            built = null;
         }
 
         /**
@@ -89,7 +222,13 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @param openConnections the number of open connections of the area to add
          */
         public void addSingleton(Z zone, int openConnections) {
-            areas.add(new Area<>(Set.of(zone), List.of(), openConnections));
+            int id = zone.id();
+            // the arrays are grown to fit all the zones of the tile at once
+            int length = (Zone.tileId(id) + 1) * 10;
+            parents.grow(length);
+            rootAreas.grow(length);
+            parents.set(id, id);
+            setRootArea(id, new Area<>(ZoneSet.of(zone), OccupantCounts.of(), openConnections));
         }
 
         /**
@@ -100,9 +239,8 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @param color the color of the initial occupant of the area
          */
         public void addInitialOccupant(Z zone, PlayerColor color) {
-            Area<Z> area = ZonePartition.areaContaining(zone, areas);
-            areas.add(area.withInitialOccupant(color));
-            areas.remove(area);
+            int root = rootOf(zone);
+            setRootArea(root, rootAreas.get(root).withInitialOccupant(color));
         }
 
         /**
@@ -116,10 +254,9 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          */
         public void removeOccupant(Z zone, PlayerColor color) {
             // throws an exception if the zone does not belong to the partition
-            Area<Z> area = ZonePartition.areaContaining(zone, areas);
+            int root = rootOf(zone);
             // throws an exception if the area does not contain an occupant of the given colour
-            areas.add(area.withoutOccupant(color));
-            areas.remove(area);
+            setRootArea(root, rootAreas.get(root).withoutOccupant(color));
         }
 
         /**
@@ -130,16 +267,18 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @throws IllegalArgumentException if the area is not in the partition
          */
         public void removeAllOccupantsOf(Area<Z> area) {
-            boolean areaIsFound = areas.remove(area);
-            Preconditions.checkArgument(areaIsFound);
-            areas.add(area.withoutOccupants());
+            Preconditions.checkArgument(!area.zones().isEmpty());
+            int root = rootOf(area.zones().iterator().next());
+            Preconditions.checkArgument(area.equals(rootAreas.get(root)));
+            setRootArea(root, area.withoutOccupants());
         }
 
         /**
          * Unites the areas containing the given zones, throwing an exception
-         * if one of the zones is not in any area (areaContaining() will throw an exception)
-         * Finally, removes the two areas from the partition builder and adds a
-         * new bigger area resulting from their union
+         * if one of the zones is not in any area
+         * The zones of the smaller area are attached to the root of the bigger one (union by size),
+         * which then represents the new bigger area resulting from their union,
+         * so that the forest stays flat and only the zones of the smaller area are touched
          *
          * @param zone1 the first zone whose area we want to unite
          * @param zone2 the second zone whose area we want to unite
@@ -147,15 +286,24 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          */
         public void union(Z zone1, Z zone2) {
             // throws an exception if one of the zones does not belong to the partition
-            Area<Z> area1 = ZonePartition.areaContaining(zone1, areas);
-            Area<Z> area2 = ZonePartition.areaContaining(zone2, areas);
+            int root1 = rootOf(zone1);
+            int root2 = rootOf(zone2);
+            Area<Z> area1 = rootAreas.get(root1);
+            Area<Z> area2 = rootAreas.get(root2);
             Area<Z> newBiggerArea = area1.connectTo(area2);
-            areas.remove(area1);
-            // here we do not need to check whether
-            // area1 == area2, because .remove will just return false
-            // if that's the case
-            areas.remove(area2);
-            areas.add(newBiggerArea);
+            // here we do not need to attach anything if the two zones
+            // already are in the same area, only the open connections change
+            if (root1 != root2) {
+                if (area1.zones().size() < area2.zones().size()) {
+                    int smallerRoot = root1;
+                    root1 = root2;
+                    root2 = smallerRoot;
+                    area2 = area1;
+                }
+                for (Z zone : area2.zones()) parents.set(zone.id(), root1);
+                setRootArea(root2, null);
+            }
+            setRootArea(root1, newBiggerArea);
         }
 
         /**
@@ -164,10 +312,12 @@ public record ZonePartition<Z extends Zone>(Set<Area<Z>> areas) {
          * @return the zone partition built
          */
         public ZonePartition<Z> build() {
-            return new ZonePartition<>(areas);
+            // the forest is always flat, so the arrays are only frozen
+            if (built == null) built = new ZonePartition<>(parents.build(), rootAreas.build());
+            return built;
         }
 
     }
 
 
-}
+}
\ No newline at end of file
@@ -0,0 +1,268 @@
+package ch.epfl.chacun;
+
+import java.util.*;
+
+/**
+ * Represents an immutable set of zones, stored as an array of zones sorted by id
+ * and as a bitset over the ids of the zones, so that uniting two sets and comparing them
+ * mostly work on whole words of 64 zones at once.
+ * <p>
+ * The ids of the zones of the game being dense (tileId * 10 + localId), the bitset is small.
+ * If a set contains a zone whose id is too big (or negative), or two different zones having the same id,
+ * it has no bitset and all its operations are done on its array of zones.
+ * <p>
+ * Every set also carries the summary of its zones used by the scoring, which is merged when two sets are united.
+ *
+ * @param <Z> the type of the zones of the set
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class ZoneSet<Z extends Zone> extends AbstractSet<Z> {
+
+    /**
+     * The number of ids that may be stored in the bitset,
+     * which is much more than the number of zones of the game
+     */
+    private static final int MAX_BITSET_ID_COUNT = 64 * Long.SIZE;
+
+    /**
+     * The empty set of zones
+     */
+    private static final ZoneSet<?> EMPTY = new ZoneSet<>(new Zone[0], new long[0], ZoneSummary.EMPTY);
+
+    // the zones of the set, sorted by id
+    private final Z[] zones;
+    // the bits of the ids of the zones, trimmed after the word of the biggest id, or null if there is no bitset
+    private final long[] bits;
+    private final ZoneSummary summary;
+    // the hash code is only computed when needed, as it has to go through all the zones, and then kept,
+    // 0 meaning that it was not computed yet (a single field, so that threads never see a partial state)
+    private int hashCode;
+
+    /**
+     * Creates a new set of zones from the given array and bitset, which are never modified afterward
+     *
+     * @param zones   the zones of the set, sorted by id and without duplicates
+     * @param bits    the bitset of the ids of the zones, or null if the zones can not be stored in a bitset
+     * @param summary the summary of the zones
+     */
+    private ZoneSet(Z[] zones, long[] bits, ZoneSummary summary) {
+        this.zones = zones;
+        this.bits = bits;
+        this.summary = summary;
+    }
+
+    /**
+     * Returns the empty set of zones
+     *
+     * @param <Z> the type of the zones of the set
+     * @return the empty set of zones
+     */
+    @SuppressWarnings("unchecked")
+    static <Z extends Zone> ZoneSet<Z> of() {
+        return (ZoneSet<Z>) EMPTY;
+    }
+
+    /**
+     * Returns the set containing only the given zone
+     *
+     * @param zone the zone of the set
+     * @param <Z>  the type of the zones of the set
+     * @return the set containing only the given zone
+     */
+    static <Z extends Zone> ZoneSet<Z> of(Z zone) {
+        Z[] zones = newArray(1);
+        zones[0] = Objects.requireNonNull(zone);
+        return new ZoneSet<>(zones, bitsOf(zones), ZoneSummary.of(zones));
+    }
+
+    /**
+     * Returns an immutable set containing the given zones, or the given collection itself
+     * if it already is a set of zones
+     *
+     * @param zones the zones of the set, which must not be null
+     * @param <Z>   the type of the zones of the set
+     * @return an immutable set containing the given zones
+     * @throws NullPointerException if one of the zones is null
+     */
+    @SuppressWarnings("unchecked")
+    static <Z extends Zone> ZoneSet<Z> copyOf(Collection<? extends Z> zones) {
+        if (zones instanceof ZoneSet<?> zoneSet) return (ZoneSet<Z>) zoneSet;
+        if (zones.isEmpty()) return of();
+        // the duplicates are removed as in a hash set, before sorting the zones by id
+        Z[] sortedZones = zones instanceof Set<?>
+                ? zones.toArray(newArray(0))
+                : new LinkedHashSet<Z>(zones).toArray(newArray(0));
+        for (Z zone : sortedZones) Objects.requireNonNull(zone);
+        Arrays.sort(sortedZones, Comparator.comparingInt(Zone::id));
+        return new ZoneSet<>(sortedZones, bitsOf(sortedZones), ZoneSummary.of(sortedZones));
+    }
+
+    /**
+     * Creates a new array of zones of the given length
+     *
+     * @param length the length of the array
+     * @param <Z>    the type of the zones of the array
+     * @return a new array of zones of the given length
+     */
+    @SuppressWarnings("unchecked")
+    private static <Z extends Zone> Z[] newArray(int length) {
+        return (Z[]) new Zone[length];
+    }
+
+    /**
+     * Computes the bitset of the ids of the given zones, sorted by id
+     *
+     * @param sortedZones the zones, sorted by id
+     * @return the bitset of the ids of the given zones, or null if they can not be stored in a bitset
+     */
+    private static long[] bitsOf(Zone[] sortedZones) {
+        if (sortedZones.length == 0) return new long[0];
+        int minId = sortedZones[0].id();
+        int maxId = sortedZones[sortedZones.length - 1].id();
+        if (minId < 0 || maxId >= MAX_BITSET_ID_COUNT) return null;
+        long[] bits = new long[maxId / Long.SIZE + 1];
+        for (int i = 0; i < sortedZones.length; i++) {
+            int id = sortedZones[i].id();
+            // two different zones having the same id can not be told apart by the bitset
+            if (i > 0 && sortedZones[i - 1].id() == id) return null;
+            bits[id / Long.SIZE] |= 1L << id;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns a new set containing the zones of this set and of the given one
+     *
+     * @param that the other set of zones
+     * @return a new set containing the zones of both sets, or this one if both sets are the same
+     */
+    ZoneSet<Z> union(ZoneSet<Z> that) {
+        if (this == that) return this;
+        Z[] merged = mergedZones(that);
+        // the summaries can only be added up if no zone is in both sets, which is the case of two different areas
+        ZoneSummary mergedSummary = merged.length == zones.length + that.zones.length
+                ? summary.plus(that.summary)
+                : ZoneSummary.of(merged);
+        if (bits != null && that.bits != null) {
+            long[] unitedBits = bits.length >= that.bits.length ? bits.clone() : that.bits.clone();
+            long[] otherBits = unitedBits.length == bits.length ? that.bits : bits;
+            int idCount = 0;
+            for (int i = 0; i < unitedBits.length; i++) {
+                if (i < otherBits.length) unitedBits[i] |= otherBits[i];
+                idCount += Long.bitCount(unitedBits[i]);
+            }
+            // if there are more zones than ids, two different zones have the same id
+            if (idCount == merged.length) return new ZoneSet<>(merged, unitedBits, mergedSummary);
+        }
+        return new ZoneSet<>(merged, bitsOf(merged), mergedSummary);
+    }
+
+    /**
+     * Merges the sorted zones of this set and of the given one, the zones of the given set
+     * that are equal to a zone of this one being skipped
+     *
+     * @param that the other set of zones
+     * @return the sorted zones of both sets, without duplicates
+     */
+    private Z[] mergedZones(ZoneSet<Z> that) {
+        Z[] merged = newArray(zones.length + that.zones.length);
+        int i = 0, j = 0, size = 0;
+        while (i < zones.length || j < that.zones.length) {
+            if (j == that.zones.length || i < zones.length && zones[i].id() < that.zones[j].id()) {
+                merged[size++] = zones[i++];
+            } else if (i == zones.length || that.zones[j].id() < zones[i].id()) {
+                merged[size++] = that.zones[j++];
+            } else {
+                // both zones have the same id, they are usually the same zone
+                Z zone = that.zones[j++];
+                merged[size++] = zones[i++];
+                if (zone != merged[size - 1] && !zone.equals(merged[size - 1]) && !contains(zone))
+                    merged[size++] = zone;
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+     * Returns the summary of the zones of the set
+     *
+     * @return the summary of the zones of the set
+     */
+    ZoneSummary summary() {
+        return summary;
+    }
+
+    /**
+     * Returns the index in the array of a zone having the given id, or a negative number if there is none
+     *
+     * @param id the id of the zone to search for
+     * @return the index of a zone having the given id, or a negative number if there is none
+     */
+    private int indexOfId(int id) {
+        if (bits != null) {
+            if (id < 0 || id / Long.SIZE >= bits.length || (bits[id / Long.SIZE] & (1L << id)) == 0) return -1;
+        }
+        int low = 0, high = zones.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = zones[middle].id();
+            if (middleId < id) low = middle + 1;
+            else if (middleId > id) high = middle - 1;
+            else return middle;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Zone zone)) return false;
+        int index = indexOfId(zone.id());
+        if (index < 0) return false;
+        if (zones[index] == zone || zones[index].equals(zone)) return true;
+        if (bits != null) return false;
+        // without a bitset, several zones may have the same id
+        for (int i = index - 1; i >= 0 && zones[i].id() == zone.id(); i--) {
+            if (zones[i].equals(zone)) return true;
+        }
+        for (int i = index + 1; i < zones.length && zones[i].id() == zone.id(); i++) {
+            if (zones[i].equals(zone)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<Z> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(zones)).iterator();
+    }
+
+    @Override
+    public int size() {
+        return zones.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (o instanceof ZoneSet<?> that && bits != null && that.bits != null) {
+            // the bitsets are compared word by word first, the zones only if they have the same ids
+            if (!Arrays.equals(bits, that.bits)) return false;
+            for (int i = 0; i < zones.length; i++) {
+                if (zones[i] != that.zones[i] && !zones[i].equals(that.zones[i])) return false;
+            }
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // the field is read once, as String.hashCode does, so that a racing thread at worst computes it again
+        int hash = hashCode;
+        if (hash == 0) {
+            hash = super.hashCode();
+            hashCode = hash;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,254 @@
+package ch.epfl.chacun;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Represents the immutable summary of a set of zones, holding everything the scoring needs to know about them,
+ * so that it is read in constant time instead of going through all the zones.
+ * <p>
+ * The summaries of two disjoint sets of zones are merged into the summary of their union,
+ * the values that must be counted once (the tiles, and the lakes of the rivers) being kept
+ * as small sorted arrays merged without duplicates.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class ZoneSummary {
+
+    /**
+     * The summary of the empty set of zones
+     */
+    static final ZoneSummary EMPTY = new ZoneSummary(0, false, 0, 0, 0,
+            new int[0], new Zone.Lake[0], new int[Animal.Kind.values().length]);
+
+    private final int mushroomGroupCount;
+    private final boolean hasMenhir;
+    // the number of fishes of the river zones, without the ones of their lakes
+    private final int riverFishCount;
+    // the number of fishes of all the water zones, lakes included
+    private final int waterFishCount;
+    private final int lakeCount;
+    // the ids of the tiles of the zones, sorted and without duplicates
+    private final int[] tileIds;
+    // the lakes of the river zones, sorted by id and without duplicates
+    private final Zone.Lake[] riverLakes;
+    // the number of fishes of the lakes of the river zones
+    private final int riverLakesFishCount;
+    // animalCounts[k] is the number of animals of the kind of ordinal k in the meadow zones
+    private final int[] animalCounts;
+
+    /**
+     * Creates a new summary from the given values, the arrays being never modified afterward
+     *
+     * @param mushroomGroupCount the number of forest zones with mushroom groups
+     * @param hasMenhir          whether one of the forest zones has a menhir
+     * @param riverFishCount     the number of fishes of the river zones, without their lakes
+     * @param waterFishCount     the number of fishes of all the water zones
+     * @param lakeCount          the number of lake zones
+     * @param tileIds            the sorted ids of the tiles of the zones, without duplicates
+     * @param riverLakes         the lakes of the river zones, sorted by id and without duplicates
+     * @param animalCounts       the number of animals of each kind in the meadow zones, indexed by ordinal
+     */
+    private ZoneSummary(int mushroomGroupCount, boolean hasMenhir, int riverFishCount, int waterFishCount,
+                        int lakeCount, int[] tileIds, Zone.Lake[] riverLakes, int[] animalCounts) {
+        this.mushroomGroupCount = mushroomGroupCount;
+        this.hasMenhir = hasMenhir;
+        this.riverFishCount = riverFishCount;
+        this.waterFishCount = waterFishCount;
+        this.lakeCount = lakeCount;
+        this.tileIds = tileIds;
+        this.riverLakes = riverLakes;
+        int riverLakesFishCount = 0;
+        for (Zone.Lake lake : riverLakes) riverLakesFishCount += lake.fishCount();
+        this.riverLakesFishCount = riverLakesFishCount;
+        this.animalCounts = animalCounts;
+    }
+
+    /**
+     * Computes the summary of the given zones, which must all be different
+     *
+     * @param zones the zones to summarize
+     * @return the summary of the given zones
+     */
+    static ZoneSummary of(Zone[] zones) {
+        if (zones.length == 0) return EMPTY;
+        int mushroomGroupCount = 0;
+        boolean hasMenhir = false;
+        int riverFishCount = 0;
+        int waterFishCount = 0;
+        int lakeCount = 0;
+        int[] tileIds = new int[zones.length];
+        Zone.Lake[] riverLakes = new Zone.Lake[zones.length];
+        int riverLakeCount = 0;
+        int[] animalCounts = new int[Animal.Kind.values().length];
+        for (int i = 0; i < zones.length; i++) {
+            tileIds[i] = zones[i].tileId();
+            switch (zones[i]) {
+                case Zone.Forest forest -> {
+                    if (forest.kind() == Zone.Forest.Kind.WITH_MUSHROOMS) mushroomGroupCount++;
+                    if (forest.kind() == Zone.Forest.Kind.WITH_MENHIR) hasMenhir = true;
+                }
+                case Zone.Meadow meadow -> {
+                    for (Animal animal : meadow.animals()) animalCounts[animal.kind().ordinal()]++;
+                }
+                case Zone.River river -> {
+                    riverFishCount += river.fishCount();
+                    waterFishCount += river.fishCount();
+                    if (river.hasLake()) riverLakes[riverLakeCount++] = river.lake();
+                }
+                case Zone.Lake lake -> {
+                    waterFishCount += lake.fishCount();
+                    lakeCount++;
+                }
+            }
+        }
+        Arrays.sort(tileIds);
+        Arrays.sort(riverLakes, 0, riverLakeCount, Comparator.comparingInt(Zone::id));
+        return new ZoneSummary(mushroomGroupCount, hasMenhir, riverFishCount, waterFishCount, lakeCount,
+                distinctTileIds(tileIds, tileIds.length), distinctLakes(riverLakes, riverLakeCount), animalCounts);
+    }
+
+    /**
+     * Returns the summary of the union of the zones summarized by this summary and by the given one,
+     * which must have no zone in common
+     *
+     * @param that the summary of the other zones
+     * @return the summary of the union of both sets of zones
+     */
+    ZoneSummary plus(ZoneSummary that) {
+        if (that == EMPTY) return this;
+        if (this == EMPTY) return that;
+
+        int[] mergedTileIds = new int[tileIds.length + that.tileIds.length];
+        System.arraycopy(tileIds, 0, mergedTileIds, 0, tileIds.length);
+        System.arraycopy(that.tileIds, 0, mergedTileIds, tileIds.length, that.tileIds.length);
+        Arrays.sort(mergedTileIds);
+
+        Zone.Lake[] mergedLakes = Arrays.copyOf(riverLakes, riverLakes.length + that.riverLakes.length);
+        System.arraycopy(that.riverLakes, 0, mergedLakes, riverLakes.length, that.riverLakes.length);
+        Arrays.sort(mergedLakes, Comparator.comparingInt(Zone::id));
+
+        int[] mergedAnimalCounts = animalCounts.clone();
+        for (int i = 0; i < mergedAnimalCounts.length; i++) mergedAnimalCounts[i] += that.animalCounts[i];
+
+        return new ZoneSummary(
+                mushroomGroupCount + that.mushroomGroupCount,
+                hasMenhir || that.hasMenhir,
+                riverFishCount + that.riverFishCount,
+                waterFishCount + that.waterFishCount,
+                lakeCount + that.lakeCount,
+                distinctTileIds(mergedTileIds, mergedTileIds.length),
+                distinctLakes(mergedLakes, mergedLakes.length),
+                mergedAnimalCounts);
+    }
+
+    /**
+     * Returns the given sorted tile ids without duplicates, in a new array if some were removed
+     *
+     * @param sortedTileIds the sorted tile ids
+     * @param length        the number of tile ids of the array to keep
+     * @return the sorted tile ids without duplicates
+     */
+    private static int[] distinctTileIds(int[] sortedTileIds, int length) {
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            if (size == 0 || sortedTileIds[size - 1] != sortedTileIds[i]) sortedTileIds[size++] = sortedTileIds[i];
+        }
+        return size == sortedTileIds.length ? sortedTileIds : Arrays.copyOf(sortedTileIds, size);
+    }
+
+    /**
+     * Returns the given lakes sorted by id without duplicates, in a new array if some were removed
+     *
+     * @param sortedLakes the lakes sorted by id
+     * @param length      the number of lakes of the array to keep
+     * @return the lakes sorted by id without duplicates
+     */
+    private static Zone.Lake[] distinctLakes(Zone.Lake[] sortedLakes, int length) {
+        int size = 0;
+        for (int i = 0; i < length; i++) {
+            // lakes having the same id are usually the same lake, only equal lakes are counted once
+            boolean isDuplicate = false;
+            for (int j = size - 1; j >= 0 && sortedLakes[j].id() == sortedLakes[i].id(); j--) {
+                if (sortedLakes[j].equals(sortedLakes[i])) isDuplicate = true;
+            }
+            if (!isDuplicate) sortedLakes[size++] = sortedLakes[i];
+        }
+        return size == sortedLakes.length ? sortedLakes : Arrays.copyOf(sortedLakes, size);
+    }
+
+    /**
+     * Returns the number of forest zones with mushroom groups
+     *
+     * @return the number of forest zones with mushroom groups
+     */
+    int mushroomGroupCount() {
+        return mushroomGroupCount;
+    }
+
+    /**
+     * Returns whether one of the forest zones has a menhir
+     *
+     * @return whether one of the forest zones has a menhir
+     */
+    boolean hasMenhir() {
+        return hasMenhir;
+    }
+
+    /**
+     * Returns the number of fishes of the river zones and of their lakes, each lake being counted once
+     *
+     * @return the number of fishes of the river zones and of their lakes
+     */
+    int riverFishCount() {
+        return riverFishCount + riverLakesFishCount;
+    }
+
+    /**
+     * Returns the number of fishes of the water zones
+     *
+     * @return the number of fishes of the water zones
+     */
+    int waterFishCount() {
+        return waterFishCount;
+    }
+
+    /**
+     * Returns the number of lake zones
+     *
+     * @return the number of lake zones
+     */
+    int lakeCount() {
+        return lakeCount;
+    }
+
+    /**
+     * Returns the number of different tiles of the zones
+     *
+     * @return the number of different tiles of the zones
+     */
+    int tileCount() {
+        return tileIds.length;
+    }
+
+    /**
+     * Returns the id of the tile of the given index, the tile ids being sorted
+     *
+     * @param index the index of the tile id, between 0 (included) and the tile count (excluded)
+     * @return the tile id of the given index
+     */
+    int tileId(int index) {
+        return tileIds[index];
+    }
+
+    /**
+     * Returns the number of animals of the given kind in the meadow zones
+     *
+     * @param kind the kind of the animals
+     * @return the number of animals of the given kind in the meadow zones
+     */
+    int animalCount(Animal.Kind kind) {
+        return animalCounts[kind.ordinal()];
+    }
+}
@@ -0,0 +1,212 @@
+package ch.epfl.chacun.ai;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.archive.GameSnapshot;
+import ch.epfl.chacun.net.WSClient;
+import ch.epfl.chacun.sim.Policy;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Represents a computer player, joining a multiplayer game through a {@link WSClient} as a human player would,
+ * and playing its actions with a policy when it is its turn.
+ * <p>
+ * All the messages of the server are handled by a single thread of the bot, the state of the game
+ * being only accessed by it, so that the policy may take its time without the messages being reordered.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class Bot {
+
+    /**
+     * The default time spent by the bot searching every action
+     */
+    private static final Duration DEFAULT_BUDGET = Duration.ofSeconds(1);
+
+    private final String gameName;
+    private final String username;
+    private final Policy policy;
+    private final RandomGenerator generator;
+    private final WSClient client;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "bot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final CompletableFuture<GameState> gameEnd = new CompletableFuture<>();
+
+    private List<String> playerNames = List.of();
+    private TextMaker textMaker;
+    private GameState state;
+    private List<String> actions = new ArrayList<>();
+    // whether the bot sent an action the server has not accepted or denied yet
+    private boolean isActionPending;
+
+    /**
+     * Creates a new bot, which does not connect to the server until it is started
+     *
+     * @param endpoint the WebSocket endpoint of the server
+     * @param gameName the name of the game to join
+     * @param username the name of the bot in the game
+     * @param policy   the policy choosing the actions of the bot
+     * @param seed     the seed of the random generator given to the policy
+     */
+    public Bot(URI endpoint, String gameName, String username, Policy policy, long seed) {
+        this.gameName = gameName;
+        this.username = username;
+        this.policy = policy;
+        this.generator = RandomGeneratorFactory.getDefault().create(seed);
+        this.client = new WSClient(endpoint, gameName, username, executor);
+
+        client.setOnGamePlayersUpdate(this::onPlayersUpdate);
+        client.setOnPlayerAction(this::onPlayerAction);
+        client.setOnLocalPlayerActionReject(reason -> isActionPending = false);
+        client.setOnGameSnapshot(this::onSnapshot);
+        client.setOnGameDesync(data -> fail(new IllegalStateException(STR."Invalid snapshot: \{data}")));
+        client.setOnConnectionClose(reason -> fail(new IllegalStateException(STR."Connection closed: \{reason}")));
+    }
+
+    /**
+     * Connects the bot to the server and makes it join its game
+     *
+     * @return this bot
+     */
+    public Bot start() {
+        client.connect();
+        client.joinGame();
+        return this;
+    }
+
+    /**
+     * Returns the future completed with the state of the game when it ends
+     *
+     * @return the future completed with the state of the game when it ends
+     */
+    public CompletableFuture<GameState> gameEnd() {
+        return gameEnd;
+    }
+
+    /**
+     * Restarts the game with the given players, as the other clients do when a player joins or leaves it,
+     * the state of the game being kept if the players did not change
+     *
+     * @param names the names of the players, separated by commas, in the order they play
+     */
+    private void onPlayersUpdate(String names) {
+        List<String> newPlayerNames = List.of(names.split(","));
+        // the game goes on when the players did not change, as when the bot returns to it
+        if (newPlayerNames.equals(playerNames)) {
+            playIfNeeded();
+            return;
+        }
+        playerNames = newPlayerNames;
+        SortedMap<PlayerColor, String> namesByColor = new TreeMap<>();
+        for (int i = 0; i < playerNames.size(); i++) namesByColor.put(PlayerColor.ALL.get(i), playerNames.get(i));
+        textMaker = new TextMakerFr(namesByColor);
+        TileDecks tileDecks = TileDecks.shuffled(gameName.hashCode());
+        state = GameState.initial(List.copyOf(namesByColor.keySet()), tileDecks, textMaker).withStartingTilePlaced();
+        actions = new ArrayList<>();
+        isActionPending = false;
+        playIfNeeded();
+    }
+
+    /**
+     * Applies the given action accepted by the server, which may be one of the bot
+     *
+     * @param action the Base32-encoded action
+     */
+    private void onPlayerAction(String action) {
+        if (gameEnd.isDone()) return;
+        ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(state, action);
+        if (stateAction == null) {
+            fail(new IllegalStateException(STR."Invalid action: \{action}"));
+            return;
+        }
+        state = stateAction.gameState();
+        actions.add(action);
+        isActionPending = false;
+        if (state.nextAction() == GameState.Action.END_GAME) gameEnd.complete(state);
+        else playIfNeeded();
+    }
+
+    /**
+     * Restores the state of the game from the given snapshot, received when the bot returns to the game,
+     * the whole game being replayed if the known state of the bot differs from the one of the server
+     *
+     * @param snapshot the snapshot of the game
+     */
+    private void onSnapshot(GameSnapshot snapshot) {
+        if (gameEnd.isDone()) return;
+        try {
+            state = snapshot.restore(textMaker, state, actions);
+        } catch (IllegalArgumentException e) {
+            try {
+                state = snapshot.restore(textMaker, null, List.of());
+            } catch (IllegalArgumentException replayException) {
+                fail(replayException);
+                return;
+            }
+        }
+        actions = new ArrayList<>(snapshot.actions());
+        playIfNeeded();
+    }
+
+    /**
+     * Stops the bot when its state of the game can not follow the one of the server,
+     * the future of the end of the game being completed with the given failure
+     *
+     * @param failure the cause of the failure
+     */
+    private void fail(Throwable failure) {
+        gameEnd.completeExceptionally(failure);
+        client.close();
+    }
+
+    /**
+     * Chooses and sends the next action of the bot if it is its turn, unless it already sent it
+     */
+    private void playIfNeeded() {
+        if (gameEnd.isDone() || isActionPending || playerNames.size() < 2 || state.nextAction() == GameState.Action.END_GAME) return;
+        int playerIndex = playerNames.indexOf(username);
+        // the bot may not be part of the players announced by the server
+        if (playerIndex == -1 || state.currentPlayer() != PlayerColor.ALL.get(playerIndex)) return;
+        isActionPending = true;
+        client.sendAction(policy.play(state, generator).action());
+    }
+
+    /**
+     * Makes a bot using the Monte Carlo tree search join a game, until it ends.
+     * The parameters are --game=name and --player=name, and optionally --server=endpoint
+     * and --budget=milliseconds, the time spent searching every action
+     *
+     * @param args the parameters of the bot
+     * @throws IllegalArgumentException if the name of the game or of the player is missing
+     */
+    public static void main(String[] args) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) parameters.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        Preconditions.checkArgument(parameters.containsKey("game") && parameters.containsKey("player"));
+        URI endpoint = parameters.containsKey("server")
+                ? URI.create(parameters.get("server"))
+                : WSClient.DEFAULT_ENDPOINT;
+        Duration budget = parameters.containsKey("budget")
+                ? Duration.ofMillis(Long.parseLong(parameters.get("budget")))
+                : DEFAULT_BUDGET;
+
+        Bot bot = new Bot(endpoint, parameters.get("game"), parameters.get("player"),
+                new MctsPolicy(budget), System.nanoTime()).start();
+        GameState finalState = bot.gameEnd().join();
+        System.out.println(finalState.messageBoard().points());
+    }
+}
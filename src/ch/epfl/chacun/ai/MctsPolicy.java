@@ -0,0 +1,412 @@
+package ch.epfl.chacun.ai;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.sim.Policy;
+import ch.epfl.chacun.sim.RandomPolicy;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Represents a policy choosing the actions of a player with a Monte Carlo tree search.
+ * <p>
+ * The player does not know the order of the tiles still in the decks, so every iteration of the search
+ * plays in a determinization of the game, where these tiles are shuffled again. A tile drawn in the tree
+ * therefore leads to a chance node, whose children are the tiles that were drawn in the iterations going
+ * through it, each of them being visited as often as it was drawn.
+ * <p>
+ * The search is parallelized at the root: every thread builds its own tree during the time budget
+ * of the move, the visits of the actions of all the roots being then added up to choose the action.
+ * The trees may share a transposition table, in which the mean reward of every state reached by an action
+ * is kept, so that a node of a state already met by another tree, by another move order or during
+ * a former action starts with some of its visits.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class MctsPolicy implements Policy {
+
+    /**
+     * The default exploration constant of the UCT formula, the rewards being between 0 and 1
+     */
+    private static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    /**
+     * The weight of winning in the reward of a player, the rest of it being his share of the points of the winner
+     */
+    private static final double WIN_WEIGHT = 0.5;
+
+    /**
+     * The number of entries of the transposition table of the policies having their own one
+     */
+    private static final int DEFAULT_TABLE_CAPACITY = 1 << 18;
+
+    /**
+     * The maximum number of visits a node gets from the transposition table when it is created,
+     * so that the visits of the tree quickly outweigh them
+     */
+    private static final int MAX_PRIOR_VISITS = 8;
+
+    /**
+     * The odd multipliers of the parts of the key of a node which are not in the Zobrist key of its board
+     */
+    private static final long PLAYER_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final long CURRENT_PLAYER_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+    private static final long NEXT_ACTION_MULTIPLIER = 0x165667B19E3779F9L;
+
+    /**
+     * The threads of the searches, shared by all the policies and created as needed
+     */
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mcts-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long budgetNanos;
+    private final int threadCount;
+    private final int maxIterations;
+    private final double exploration;
+    private final TranspositionTable table;
+
+    /**
+     * Creates a new policy
+     *
+     * @param budget        the time spent searching every action
+     * @param threadCount   the number of trees searched in parallel
+     * @param maxIterations the maximum number of iterations of every tree, even if time is left
+     * @param exploration   the exploration constant of the UCT formula
+     * @param table         the transposition table shared by the trees, or null if they share nothing
+     * @throws IllegalArgumentException if the budget is negative, or if the thread count,
+     *                                  the maximum number of iterations or the exploration is not positive
+     */
+    MctsPolicy(Duration budget, int threadCount, int maxIterations, double exploration, TranspositionTable table) {
+        Preconditions.checkArgument(!budget.isNegative());
+        Preconditions.checkArgument(threadCount > 0 && maxIterations > 0 && exploration > 0);
+        this.budgetNanos = budget.toNanos();
+        this.threadCount = threadCount;
+        this.maxIterations = maxIterations;
+        this.exploration = exploration;
+        this.table = table;
+    }
+
+    /**
+     * Creates a new policy whose trees share nothing
+     *
+     * @param budget        the time spent searching every action
+     * @param threadCount   the number of trees searched in parallel
+     * @param maxIterations the maximum number of iterations of every tree, even if time is left
+     * @param exploration   the exploration constant of the UCT formula
+     * @throws IllegalArgumentException if the budget is negative, or if the thread count,
+     *                                  the maximum number of iterations or the exploration is not positive
+     */
+    MctsPolicy(Duration budget, int threadCount, int maxIterations, double exploration) {
+        this(budget, threadCount, maxIterations, exploration, null);
+    }
+
+    /**
+     * Creates a new policy searching every action during the given time, on all the cores of the machine,
+     * with the given transposition table, which may be shared with other policies
+     *
+     * @param budget the time spent searching every action
+     * @param table  the transposition table of the policy
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public MctsPolicy(Duration budget, TranspositionTable table) {
+        this(budget, Runtime.getRuntime().availableProcessors(), Integer.MAX_VALUE, DEFAULT_EXPLORATION,
+                Objects.requireNonNull(table));
+    }
+
+    /**
+     * Creates a new policy searching every action during the given time, on all the cores of the machine,
+     * with its own transposition table
+     *
+     * @param budget the time spent searching every action
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public MctsPolicy(Duration budget) {
+        this(budget, new TranspositionTable(DEFAULT_TABLE_CAPACITY));
+    }
+
+    @Override
+    public ActionEncoder.StateAction play(GameState state, RandomGenerator generator) {
+        List<String> actions = legalActions(state);
+        if (actions.size() == 1) return ActionEncoder.decodeAndApply(state, actions.getFirst());
+
+        long deadline = System.nanoTime() + budgetNanos;
+        List<Callable<Node>> searches = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            // every search has its own generator, derived from the one of the game to be reproducible
+            RandomGenerator searchGenerator = RandomGeneratorFactory.getDefault().create(generator.nextLong());
+            searches.add(() -> search(state, searchGenerator, deadline));
+        }
+
+        Map<String, Integer> visitCounts = new HashMap<>();
+        Map<String, Double> totalRewards = new HashMap<>();
+        try {
+            for (Future<Node> root : SEARCH_EXECUTOR.invokeAll(searches)) {
+                root.get().children.forEach((action, child) -> {
+                    visitCounts.merge(action, child.visitCount, Integer::sum);
+                    totalRewards.merge(action, child.totalReward, Double::sum);
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        // the most visited action is the most robust choice, the mean reward only breaking ties
+        String bestAction = actions.stream()
+                .max(Comparator.<String>comparingInt(action -> visitCounts.getOrDefault(action, 0))
+                        .thenComparingDouble(action -> visitCounts.getOrDefault(action, 0) == 0 ? 0
+                                : totalRewards.get(action) / visitCounts.get(action)))
+                .orElseThrow();
+        return ActionEncoder.decodeAndApply(state, bestAction);
+    }
+
+    /**
+     * Represents a node of a search tree
+     */
+    private static final class Node {
+        // the player who chose the action leading to this node, null for the root and the tiles drawn
+        private final PlayerColor player;
+        // the key of the node in the transposition table, only used if the player is not null
+        private final long key;
+        // whether the next event from this node is the drawing of a tile
+        private final boolean isChance;
+        // the children, by Base32-encoded action, or by identifier of the drawn tile for a chance node
+        private final Map<String, Node> children = new HashMap<>();
+        // the actions not tried yet, in random order, null until the node is first visited
+        private List<String> untriedActions;
+        private int visitCount;
+        private double totalReward;
+        // the visits and their reward given by the transposition table, only used to select the node
+        private int priorVisitCount;
+        private double priorReward;
+
+        private Node(PlayerColor player, boolean isChance, long key) {
+            this.player = player;
+            this.isChance = isChance;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Searches the tree of the given state until the given deadline or the maximum number of iterations
+     *
+     * @param state     the state to search from
+     * @param generator the random generator of the search
+     * @param deadline  the time at which the search must end, as given by {@link System#nanoTime()}
+     * @return the root of the searched tree
+     */
+    private Node search(GameState state, RandomGenerator generator, long deadline) {
+        Node root = new Node(null, false, 0);
+        int iterations = 0;
+        // at least one iteration is done, so that the tree is never empty
+        do {
+            iterate(root, determinized(state, generator), generator);
+            iterations++;
+        } while (iterations < maxIterations && System.nanoTime() < deadline);
+        return root;
+    }
+
+    /**
+     * Does one iteration of the search: selects a path in the tree, adds a node at its end,
+     * plays the rest of the game randomly and adds the rewards of the players along the path
+     *
+     * @param root      the root of the tree
+     * @param state     the determinized state of the root
+     * @param generator the random generator of the search
+     */
+    private void iterate(Node root, GameState state, RandomGenerator generator) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        boolean isExpanded = false;
+        while (!isExpanded && state.nextAction() != GameState.Action.END_GAME) {
+            if (node.isChance) {
+                // the tile drawn is the one of the determinization
+                node = node.children.computeIfAbsent(Integer.toString(state.tileToPlace().id()),
+                        _ -> new Node(null, false, 0));
+                path.add(node);
+                continue;
+            }
+            if (node.untriedActions == null) {
+                node.untriedActions = legalActions(state);
+                Collections.shuffle(node.untriedActions, generator);
+            }
+            String action;
+            if (!node.untriedActions.isEmpty()) {
+                action = node.untriedActions.removeLast();
+                isExpanded = true;
+            } else {
+                action = selectedAction(node);
+            }
+            PlayerColor player = state.currentPlayer();
+            state = ActionEncoder.decodeAndApply(state, action).gameState();
+            GameState childState = state;
+            node = node.children.computeIfAbsent(action, _ -> newChild(childState, player));
+            path.add(node);
+        }
+
+        double[] rewards = rewards(playout(state, generator));
+        for (Node visited : path) {
+            visited.visitCount++;
+            if (visited.player == null) continue;
+            double reward = rewards[visited.player.ordinal()];
+            visited.totalReward += reward;
+            if (table != null) {
+                // concurrent updates of the same entry may be lost, which only loses some visits
+                long data = table.entry(visited.key);
+                int count = TranspositionTable.count(data) + 1;
+                double meanReward = TranspositionTable.value(data);
+                table.store(visited.key, meanReward + (reward - meanReward) / count, count,
+                        TranspositionTable.NO_MOVE);
+            }
+        }
+    }
+
+    /**
+     * Creates the node of the given state, reached by an action of the given player,
+     * starting with the visits the transposition table has for it
+     *
+     * @param state  the state of the node
+     * @param player the player who chose the action leading to the node
+     * @return the new node
+     */
+    private Node newChild(GameState state, PlayerColor player) {
+        boolean isChance = state.nextAction() == GameState.Action.PLACE_TILE;
+        Node child = new Node(player, isChance, key(state, player));
+        if (table != null) {
+            long data = table.probe(child.key);
+            if (data != TranspositionTable.NO_ENTRY) {
+                child.priorVisitCount = Math.min(TranspositionTable.count(data), MAX_PRIOR_VISITS);
+                child.priorReward = TranspositionTable.value(data) * child.priorVisitCount;
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Returns the key in the transposition table of the given state, reached by an action of the given player.
+     * The tile to place is not part of it, as it is drawn after the node of a chance node
+     *
+     * @param state  the state
+     * @param player the player who chose the action leading to the state
+     * @return the key of the state
+     */
+    static long key(GameState state, PlayerColor player) {
+        PlayerColor currentPlayer = state.currentPlayer();
+        return state.board().zobristKey()
+                ^ PLAYER_MULTIPLIER * (player.ordinal() + 1)
+                ^ CURRENT_PLAYER_MULTIPLIER * (currentPlayer == null ? 0 : currentPlayer.ordinal() + 1)
+                ^ NEXT_ACTION_MULTIPLIER * (state.nextAction().ordinal() + 1);
+    }
+
+    /**
+     * Returns the action of the child of the given node maximizing the UCT formula
+     * for the player choosing it
+     *
+     * @param node a node all of whose actions have been tried
+     * @return the selected action
+     */
+    private String selectedAction(Node node) {
+        double logVisitCount = Math.log(node.visitCount);
+        String bestAction = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+            Node child = entry.getValue();
+            double value = (child.totalReward + child.priorReward) / (child.visitCount + child.priorVisitCount)
+                    + exploration * Math.sqrt(logVisitCount / child.visitCount);
+            if (value > bestValue) {
+                bestValue = value;
+                bestAction = entry.getKey();
+            }
+        }
+        return bestAction;
+    }
+
+    /**
+     * Returns the given state where the tiles still in the decks are shuffled again,
+     * as their order is unknown to the players
+     *
+     * @param state     the state
+     * @param generator the random generator used to shuffle the tiles
+     * @return the determinized state
+     */
+    private static GameState determinized(GameState state, RandomGenerator generator) {
+        TileDecks decks = state.tileDecks();
+        List<Tile> normalTiles = new ArrayList<>(decks.normalTiles());
+        List<Tile> menhirTiles = new ArrayList<>(decks.menhirTiles());
+        Collections.shuffle(normalTiles, generator);
+        Collections.shuffle(menhirTiles, generator);
+        return new GameState(state.players(), new TileDecks(decks.startTiles(), normalTiles, menhirTiles),
+                state.tileToPlace(), state.board(), state.nextAction(), state.messageBoard(), state.nextSound());
+    }
+
+    /**
+     * Plays the given game until its end with the random policy
+     *
+     * @param state     the state to play from
+     * @param generator the random generator of the search
+     * @return the state of the ended game
+     */
+    private static GameState playout(GameState state, RandomGenerator generator) {
+        RandomPolicy policy = new RandomPolicy();
+        while (state.nextAction() != GameState.Action.END_GAME) state = policy.play(state, generator).gameState();
+        return state;
+    }
+
+    /**
+     * Returns the rewards of the players of the given ended game, by ordinal of their color:
+     * the winners share the reward of winning, and every player gets his share of the points of the winners
+     *
+     * @param state the state of the ended game
+     * @return the rewards of the players, between 0 and 1
+     */
+    static double[] rewards(GameState state) {
+        Map<PlayerColor, Integer> points = state.messageBoard().points();
+        int maxPoints = 0;
+        int winnerCount = 0;
+        for (PlayerColor player : state.players()) {
+            int playerPoints = points.getOrDefault(player, 0);
+            if (playerPoints > maxPoints) {
+                maxPoints = playerPoints;
+                winnerCount = 0;
+            }
+            if (playerPoints == maxPoints) winnerCount++;
+        }
+        double[] rewards = new double[PlayerColor.ALL.size()];
+        for (PlayerColor player : state.players()) {
+            int playerPoints = points.getOrDefault(player, 0);
+            double win = playerPoints == maxPoints ? 1.0 / winnerCount : 0;
+            double share = maxPoints == 0 ? 1 : (double) playerPoints / maxPoints;
+            rewards[player.ordinal()] = WIN_WEIGHT * win + (1 - WIN_WEIGHT) * share;
+        }
+        return rewards;
+    }
+
+    /**
+     * Returns all the legal actions of the current player of the given state, Base32-encoded,
+     * in the order of the moves given by {@link RandomPolicy}
+     *
+     * @param state the state, whose next action is to place a tile, to retake a pawn or to occupy a tile
+     * @return the legal actions of the current player
+     */
+    static List<String> legalActions(GameState state) {
+        int[] moves = new int[MoveGenerator.MAX_MOVE_COUNT];
+        int moveCount = MoveGenerator.legalMoves(state, moves);
+        List<String> actions = new ArrayList<>(moveCount);
+        for (int i = 0; i < moveCount; i++) actions.add(MoveGenerator.encoded(state, moves[i]));
+        return actions;
+    }
+}
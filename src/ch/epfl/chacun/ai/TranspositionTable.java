@@ -0,0 +1,200 @@
+package ch.epfl.chacun.ai;
+
+import ch.epfl.chacun.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a fixed-size transposition table, keeping what a search learned about the states it met,
+ * indexed by a 64-bit hash of the states such as their Zobrist key.
+ * <p>
+ * Every entry is made of two longs: the data of the entry, packing its value, its count (a depth
+ * or a number of visits) and its best move, and the exclusive or of the key with the data.
+ * The table can therefore be shared by several threads without any lock: an entry written
+ * by two threads at once has a key and a data which do not match anymore, and is then seen as missing,
+ * as if it had been replaced, instead of giving the data of one state for another one.
+ * <p>
+ * An entry is replaced by the one of another state if its count is not bigger than the new one,
+ * so that the entries of the states on which the search spent the most time are kept.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class TranspositionTable {
+
+    /**
+     * The data of a missing entry, which no entry has as its count is never 0
+     */
+    public static final long NO_ENTRY = 0;
+    /**
+     * The best move of an entry which has none
+     */
+    public static final int NO_MOVE = -1;
+    /**
+     * The biggest count of an entry, bigger counts being stored as it
+     */
+    public static final int MAX_COUNT = (1 << 21) - 1;
+    /**
+     * The biggest best move of an entry, a move of MoveGenerator being encoded on 10 bits
+     */
+    public static final int MAX_MOVE = (1 << 10) - 1;
+
+    // format of the data: M-M-M-M-M-M-M-M-M-M-M (best move + 1) C-...-C (21 bits of count) V-...-V (32 bits of value)
+    private static final int COUNT_SHIFT = Integer.SIZE;
+    private static final int MOVE_SHIFT = COUNT_SHIFT + 21;
+    private static final long VALUE_MASK = (1L << Integer.SIZE) - 1;
+
+    // entries[2 * i] is the key of the entry i xor its data, entries[2 * i + 1] is its data
+    private final AtomicLongArray entries;
+    private final int indexMask;
+    private final LongAdder probeCount = new LongAdder();
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Creates a new empty table
+     *
+     * @param capacity the number of entries of the table, a power of two
+     * @throws IllegalArgumentException if the capacity is not a positive power of two
+     */
+    public TranspositionTable(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1 && capacity <= 1 << 29);
+        this.entries = new AtomicLongArray(2 * capacity);
+        this.indexMask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of entries of the table
+     *
+     * @return the number of entries of the table
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * Returns the index of the entry of the given key
+     *
+     * @param key the key
+     * @return the index of the entry of the given key
+     */
+    private int indexOf(long key) {
+        // the keys are well mixed, the high bits are folded in case the low ones are not
+        return (int) (key ^ (key >>> 32)) & indexMask;
+    }
+
+    /**
+     * Returns the data of the entry of the given key, to be unpacked with {@link #value(long)},
+     * {@link #count(long)} and {@link #bestMove(long)}, counting the probe in the hit rate of the table
+     *
+     * @param key the key of the state
+     * @return the data of the entry of the given key, or {@link #NO_ENTRY} if the table has none
+     */
+    public long probe(long key) {
+        long data = entry(key);
+        probeCount.increment();
+        if (data != NO_ENTRY) hitCount.increment();
+        return data;
+    }
+
+    /**
+     * Returns the data of the entry of the given key, as {@link #probe(long)} but without counting it
+     * in the hit rate of the table, to update an entry with its former data
+     *
+     * @param key the key of the state
+     * @return the data of the entry of the given key, or {@link #NO_ENTRY} if the table has none
+     */
+    public long entry(long key) {
+        int index = indexOf(key);
+        long data = entries.getOpaque(2 * index + 1);
+        long checkedKey = entries.getOpaque(2 * index) ^ data;
+        return checkedKey == key ? data : NO_ENTRY;
+    }
+
+    /**
+     * Stores the given entry, unless the table has an entry of another state with a bigger count
+     * at the same place
+     *
+     * @param key      the key of the state
+     * @param value    the value of the state
+     * @param count    the count of the entry, a depth or a number of visits, bigger counts being
+     *                 stored as {@link #MAX_COUNT}
+     * @param bestMove the best move of the state, or {@link #NO_MOVE}
+     * @return whether the entry was stored
+     * @throws IllegalArgumentException if the count is not positive or if the best move is not valid
+     */
+    public boolean store(long key, double value, int count, int bestMove) {
+        Preconditions.checkArgument(count > 0 && bestMove >= NO_MOVE && bestMove <= MAX_MOVE);
+        int index = indexOf(key);
+        long storedData = entries.getOpaque(2 * index + 1);
+        long storedKey = entries.getOpaque(2 * index) ^ storedData;
+        int storedCount = count(storedData);
+        if (storedData != NO_ENTRY && storedKey != key && storedCount > count) return false;
+
+        long data = ((long) (bestMove + 1) << MOVE_SHIFT)
+                | ((long) Math.min(count, MAX_COUNT) << COUNT_SHIFT)
+                | (Float.floatToRawIntBits((float) value) & VALUE_MASK);
+        entries.setOpaque(2 * index + 1, data);
+        entries.setOpaque(2 * index, key ^ data);
+        return true;
+    }
+
+    /**
+     * Removes all the entries of the table and resets its statistics
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) entries.setOpaque(i, 0);
+        probeCount.reset();
+        hitCount.reset();
+    }
+
+    /**
+     * Returns the value of the given entry
+     *
+     * @param data the data of an entry, as returned by {@link #probe(long)}
+     * @return the value of the entry
+     */
+    public static double value(long data) {
+        return Float.intBitsToFloat((int) (data & VALUE_MASK));
+    }
+
+    /**
+     * Returns the count of the given entry
+     *
+     * @param data the data of an entry, as returned by {@link #probe(long)}
+     * @return the count of the entry, 0 if it is {@link #NO_ENTRY}
+     */
+    public static int count(long data) {
+        return (int) (data >>> COUNT_SHIFT) & MAX_COUNT;
+    }
+
+    /**
+     * Returns the best move of the given entry
+     *
+     * @param data the data of an entry, as returned by {@link #probe(long)}
+     * @return the best move of the entry, or {@link #NO_MOVE} if it has none
+     */
+    public static int bestMove(long data) {
+        return (int) (data >>> MOVE_SHIFT) - 1;
+    }
+
+    /**
+     * Returns the number of probes of the table since it was created or cleared
+     *
+     * @return the number of probes of the table
+     */
+    public long probeCount() {
+        return probeCount.sum();
+    }
+
+    /**
+     * Returns the fraction of the probes of the table which found the entry of their state,
+     * 0 if there was no probe
+     *
+     * @return the hit rate of the table, between 0 and 1
+     */
+    public double hitRate() {
+        long probes = probeCount.sum();
+        return probes == 0 ? 0 : (double) hitCount.sum() / probes;
+    }
+}
@@ -0,0 +1,203 @@
+package ch.epfl.chacun.archive;
+
+import ch.epfl.chacun.PlayerColor;
+import ch.epfl.chacun.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Represents an append-only archive of finished games, stored in the packed binary format of {@link PackedGame}.
+ * <p>
+ * The games are written one after the other in a data file, and the index of the first byte of each game
+ * is written in an index file next to it, on 8 bytes. Both files are read through memory mappings,
+ * so that reading a game only makes a packed game view the mapped bytes, without allocating anything.
+ * <p>
+ * As a mapping can not exceed 2 GiB, the data file is mapped in chunks, each chunk also mapping
+ * the bytes of the biggest game possible after it, so that every game starting in a chunk is entirely in it.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class ActionArchive implements Closeable {
+
+    /**
+     * The extension added to the path of the data file to get the path of the index file
+     */
+    private static final String INDEX_EXTENSION = ".idx";
+
+    /**
+     * The number of bytes of the data file at which a new chunk starts
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    private final FileChannel data;
+    private final FileChannel index;
+    private final int chunkSize;
+    private long dataSize;
+    private int gameCount;
+
+    // the mappings of the chunks of the data file, null if a chunk has not been mapped yet
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    // the mapping of the index file, which may only contain the first games
+    private MappedByteBuffer mappedIndex;
+
+    /**
+     * Opens the archive whose data file has the given path, creating it if it does not exist
+     *
+     * @param path      the path of the data file
+     * @param chunkSize the number of bytes of the data file at which a new chunk starts
+     * @throws IOException if the files can not be opened
+     */
+    ActionArchive(Path path, int chunkSize) throws IOException {
+        Preconditions.checkArgument(chunkSize > 0 && chunkSize <= Integer.MAX_VALUE - PackedGame.MAX_BYTE_SIZE);
+        this.chunkSize = chunkSize;
+        this.data = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = FileChannel.open(path.resolveSibling(path.getFileName() + INDEX_EXTENSION),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.dataSize = data.size();
+        this.gameCount = Math.toIntExact(index.size() / Long.BYTES);
+    }
+
+    /**
+     * Opens the archive whose data file has the given path, creating it if it does not exist,
+     * its index file having the same path followed by ".idx"
+     *
+     * @param path the path of the data file
+     * @return the opened archive
+     * @throws IOException if the files can not be opened
+     */
+    public static ActionArchive open(Path path) throws IOException {
+        return new ActionArchive(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the number of games of the archive
+     *
+     * @return the number of games of the archive
+     */
+    public int gameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Appends the given game at the end of the archive
+     *
+     * @param seed    the seed of the tile decks of the game
+     * @param players the players of the game, in the order they play
+     * @param actions the Base32-encoded actions of the game, in the order they were played
+     * @return the index of the game in the archive
+     * @throws IOException              if the game can not be written
+     * @throws IllegalArgumentException if the game can not be packed, see {@link PackedGame#pack(long, List, List)}
+     */
+    public int append(long seed, List<PlayerColor> players, List<String> actions) throws IOException {
+        byte[] bytes = PackedGame.pack(seed, players, actions);
+        writeFully(data, ByteBuffer.wrap(bytes), dataSize);
+        // the index is written after the game, so that it never refers to a game not entirely written
+        writeFully(index, ByteBuffer.allocate(Long.BYTES).putLong(0, dataSize), (long) gameCount * Long.BYTES);
+        dataSize += bytes.length;
+        return gameCount++;
+    }
+
+    /**
+     * Writes all the remaining bytes of the given buffer in the given channel, from the given position
+     *
+     * @param channel  the channel to write to
+     * @param buffer   the bytes to write
+     * @param position the position of the first byte to write in the channel
+     * @throws IOException if the bytes can not be written
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+
+    /**
+     * Makes the given packed game view the game of the given index, without allocating anything
+     * unless the part of the archive containing the game has to be mapped
+     *
+     * @param gameIndex the index of the game
+     * @param game      the packed game to use as a view
+     * @return the given packed game, viewing the game of the given index
+     * @throws IOException               if the archive can not be mapped
+     * @throws IndexOutOfBoundsException if the index is negative or not smaller than the number of games
+     */
+    public PackedGame game(int gameIndex, PackedGame game) throws IOException {
+        Objects.checkIndex(gameIndex, gameCount);
+        long offset = gameOffset(gameIndex);
+        long end = gameIndex + 1 < gameCount ? gameOffset(gameIndex + 1) : dataSize;
+        int chunkIndex = Math.toIntExact(offset / chunkSize);
+        long chunkStart = (long) chunkIndex * chunkSize;
+        return game.wrap(chunk(chunkIndex, end - chunkStart), (int) (offset - chunkStart));
+    }
+
+    /**
+     * Returns the index of the first byte of the game of the given index in the data file
+     *
+     * @param gameIndex the index of the game, which must be smaller than the number of games
+     * @return the index of the first byte of the game
+     * @throws IOException if the index file can not be mapped
+     */
+    private long gameOffset(int gameIndex) throws IOException {
+        long indexSize = (long) gameCount * Long.BYTES;
+        if (mappedIndex == null || mappedIndex.capacity() <= (long) gameIndex * Long.BYTES) {
+            mappedIndex = index.map(FileChannel.MapMode.READ_ONLY, 0, indexSize);
+        }
+        return mappedIndex.getLong(gameIndex * Long.BYTES);
+    }
+
+    /**
+     * Returns the mapping of the chunk of the given index, mapping it if it does not contain
+     * at least the given number of bytes
+     *
+     * @param chunkIndex the index of the chunk
+     * @param minSize    the number of bytes the mapping must contain
+     * @return the mapping of the chunk of the given index
+     * @throws IOException if the data file can not be mapped
+     */
+    private ByteBuffer chunk(int chunkIndex, long minSize) throws IOException {
+        while (chunks.size() <= chunkIndex) chunks.add(null);
+        MappedByteBuffer chunk = chunks.get(chunkIndex);
+        if (chunk == null || chunk.capacity() < minSize) {
+            long chunkStart = (long) chunkIndex * chunkSize;
+            long size = Math.min(dataSize - chunkStart, (long) chunkSize + PackedGame.MAX_BYTE_SIZE);
+            chunk = data.map(FileChannel.MapMode.READ_ONLY, chunkStart, size);
+            chunks.set(chunkIndex, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Gives every game of the archive, in order, to the given action, through a single packed game
+     * viewing each game in turn, which must therefore not be kept by the action
+     *
+     * @param action the action to perform on each game
+     * @throws IOException if the archive can not be mapped
+     */
+    public void forEach(Consumer<PackedGame> action) throws IOException {
+        PackedGame game = new PackedGame();
+        for (int i = 0; i < gameCount; i++) action.accept(game(i, game));
+    }
+
+    /**
+     * Closes the files of the archive
+     *
+     * @throws IOException if the files can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try (data; index) {
+            chunks.clear();
+            mappedIndex = null;
+        }
+    }
+}
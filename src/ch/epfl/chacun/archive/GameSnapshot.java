@@ -0,0 +1,148 @@
+package ch.epfl.chacun.archive;
+
+import ch.epfl.chacun.*;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Represents a snapshot of a game, made of all it takes to rebuild its state: the seed of its tile decks,
+ * its players and the actions played so far, along with a hash of its state used to check the rebuilt one.
+ * <p>
+ * A snapshot is encoded as the Base64url form of the game in the packed binary format of {@link PackedGame},
+ * followed by the hash on 8 bytes, so that it can be sent as the data of a message of the server.
+ *
+ * @param seed      the seed of the tile decks of the game
+ * @param players   the players of the game, in the order they play
+ * @param actions   the Base32-encoded actions of the game, in the order they were played
+ * @param stateHash the hash of the state of the game after its actions, see {@link #stateHash(GameState)}
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public record GameSnapshot(long seed, List<PlayerColor> players, List<String> actions, long stateHash) {
+
+    /**
+     * The multiplier of the hash of the states, the prime of the 64-bit FNV hash
+     */
+    private static final long HASH_PRIME = 0x100000001B3L;
+
+    /**
+     * Creates a new snapshot, copying the given lists
+     *
+     * @param seed      the seed of the tile decks of the game
+     * @param players   the players of the game, in the order they play
+     * @param actions   the Base32-encoded actions of the game, in the order they were played
+     * @param stateHash the hash of the state of the game after its actions
+     */
+    public GameSnapshot {
+        players = List.copyOf(players);
+        actions = List.copyOf(actions);
+    }
+
+    /**
+     * Returns the snapshot of the given game
+     *
+     * @param seed    the seed of the tile decks of the game
+     * @param players the players of the game, in the order they play from its start,
+     *                which may differ from the order of the players of its current state
+     * @param state   the current state of the game
+     * @param actions the Base32-encoded actions which led to the given state
+     * @return the snapshot of the game
+     */
+    public static GameSnapshot of(long seed, List<PlayerColor> players, GameState state, List<String> actions) {
+        return new GameSnapshot(seed, players, actions, stateHash(state));
+    }
+
+    /**
+     * Returns a hash of the given state, which only depends on its Zobrist key, on the points of the players
+     * and on the sizes of the tile decks, and is therefore the same in every process
+     *
+     * @param state the state
+     * @return the hash of the state
+     */
+    public static long stateHash(GameState state) {
+        long hash = mix(0, state.zobristKey());
+        for (PlayerColor player : state.players()) {
+            hash = mix(hash, player.ordinal());
+            hash = mix(hash, state.messageBoard().points().getOrDefault(player, 0));
+        }
+        hash = mix(hash, state.tileDecks().normalTiles().size());
+        return mix(hash, state.tileDecks().menhirTiles().size());
+    }
+
+    /**
+     * Mixes the given value into the given hash, as the 64-bit FNV-1a hash does with a byte
+     *
+     * @param hash  the hash
+     * @param value the value to mix
+     * @return the new hash
+     */
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * HASH_PRIME;
+    }
+
+    /**
+     * Encodes this snapshot in the Base64url alphabet, without padding
+     *
+     * @return the encoded snapshot
+     * @throws IllegalArgumentException if the game can not be packed, see {@link PackedGame#pack(long, List, List)}
+     */
+    public String encode() {
+        byte[] packedGame = PackedGame.pack(seed, players, actions);
+        ByteBuffer bytes = ByteBuffer.allocate(packedGame.length + Long.BYTES)
+                .put(packedGame)
+                .putLong(stateHash);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    /**
+     * Decodes the given encoded snapshot
+     *
+     * @param encoded the snapshot, as encoded by {@link #encode()}
+     * @return the decoded snapshot
+     * @throws IllegalArgumentException if the given string is not a valid encoded snapshot
+     */
+    public static GameSnapshot decode(String encoded) {
+        ByteBuffer bytes = ByteBuffer.wrap(Base64.getUrlDecoder().decode(encoded));
+        Preconditions.checkArgument(bytes.capacity() > Long.BYTES);
+        long stateHash = bytes.getLong(bytes.capacity() - Long.BYTES);
+        try {
+            PackedGame game = new PackedGame().wrap(bytes.limit(bytes.capacity() - Long.BYTES), 0);
+            Preconditions.checkArgument(game.byteSize() == bytes.limit());
+            return new GameSnapshot(game.seed(), game.players(), game.actions(), stateHash);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Rebuilds the state of the game, from the given known state if the actions which led to it
+     * are the first actions of the snapshot, only the following ones being then applied,
+     * or from the initial state otherwise
+     *
+     * @param textMaker    the text maker of the messages of the game
+     * @param knownState   a known state of the game, or null if there is none
+     * @param knownActions the actions which led to the known state
+     * @return the state of the game after all the actions of the snapshot
+     * @throws IllegalArgumentException if an action is invalid, or if the rebuilt state does not have
+     *                                  the hash of the snapshot
+     */
+    public GameState restore(TextMaker textMaker, GameState knownState, List<String> knownActions) {
+        boolean isKnownStateUsable = knownState != null
+                && Set.copyOf(knownState.players()).equals(Set.copyOf(players))
+                && knownActions.size() <= actions.size()
+                && actions.subList(0, knownActions.size()).equals(knownActions);
+        GameState state = isKnownStateUsable
+                ? knownState.withTextMaker(textMaker)
+                : GameState.initial(players, TileDecks.shuffled(seed), textMaker).withStartingTilePlaced();
+        for (String action : actions.subList(isKnownStateUsable ? knownActions.size() : 0, actions.size())) {
+            ActionEncoder.StateAction stateAction = ActionEncoder.decodeAndApply(state, action);
+            Preconditions.checkArgument(stateAction != null);
+            state = stateAction.gameState();
+        }
+        Preconditions.checkArgument(stateHash(state) == stateHash);
+        return state;
+    }
+}
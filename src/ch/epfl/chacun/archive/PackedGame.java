@@ -0,0 +1,315 @@
+package ch.epfl.chacun.archive;
+
+import ch.epfl.chacun.Base32;
+import ch.epfl.chacun.PlayerColor;
+import ch.epfl.chacun.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents a finished game stored in the packed binary format, read in place from a byte buffer.
+ * <p>
+ * A packed game is made of:
+ * <ul>
+ *     <li>the seed of its tile decks, on 8 bytes,</li>
+ *     <li>its players on 4 bytes, the 3 least significant bits being their number,
+ *     followed by the ordinal of each player color on 3 bits,</li>
+ *     <li>its number of actions, on 2 bytes,</li>
+ *     <li>its actions, as a stream of bits: each action is a bit telling whether it is made of
+ *     two Base32 symbols (a tile placement) or one (an occupant placed or retaken), followed by
+ *     the 10 or 5 bits of the symbols, as encoded by {@code ActionEncoder}.</li>
+ * </ul>
+ * All the numbers are big-endian, and the bits are written from the most significant bit of each byte.
+ * <p>
+ * A packed game does not copy its bytes: it is a view of a buffer, which can be moved to another game
+ * with {@link #wrap(ByteBuffer, int)}, so that going through many games allocates nothing.
+ * Its actions are read in order with {@link #nextAction()}, each one being returned as an integer
+ * containing its bits, and {@link #TILE_PLACEMENT_FLAG} if it is made of two symbols.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class PackedGame {
+
+    /**
+     * The maximum number of actions of a packed game
+     */
+    public static final int MAX_ACTION_COUNT = 0xFFFF;
+
+    /**
+     * The flag set in the actions made of two Base32 symbols, which are the tile placements
+     */
+    public static final int TILE_PLACEMENT_FLAG = 1 << 10;
+
+    /**
+     * The number of bits of a Base32 symbol
+     */
+    private static final int SYMBOL_BITS = 5;
+
+    /**
+     * The number of bits used to store the number of players, and the ordinal of each player color
+     */
+    private static final int PLAYER_BITS = 3;
+
+    /**
+     * The mask extracting the number of players, or the ordinal of a player color
+     */
+    private static final int PLAYER_MASK = (1 << PLAYER_BITS) - 1;
+
+    /**
+     * The offsets of the parts of a packed game
+     */
+    private static final int PLAYERS_OFFSET = Long.BYTES;
+    private static final int ACTION_COUNT_OFFSET = PLAYERS_OFFSET + Integer.BYTES;
+    private static final int ACTIONS_OFFSET = ACTION_COUNT_OFFSET + Short.BYTES;
+
+    /**
+     * The maximum number of bytes of a packed game, all its actions being tile placements
+     */
+    static final int MAX_BYTE_SIZE = ACTIONS_OFFSET + (MAX_ACTION_COUNT * (1 + 2 * SYMBOL_BITS) + 7) / 8;
+
+    private ByteBuffer buffer;
+    private int offset;
+    // the index of the next bit to read in the actions, and the number of actions already read
+    private int bitIndex;
+    private int readActionCount;
+
+    /**
+     * Creates a new packed game viewing no game, which must be wrapped around one before being read
+     */
+    public PackedGame() {
+    }
+
+    /**
+     * Returns the packed game viewing the given bytes
+     *
+     * @param bytes the bytes of the game, as returned by {@link #pack(long, List, List)}
+     * @return the packed game viewing the given bytes
+     */
+    public static PackedGame of(byte[] bytes) {
+        return new PackedGame().wrap(ByteBuffer.wrap(bytes), 0);
+    }
+
+    /**
+     * Packs the given game in the packed binary format
+     *
+     * @param seed    the seed of the tile decks of the game
+     * @param players the players of the game, in the order they play
+     * @param actions the Base32-encoded actions of the game, in the order they were played
+     * @return the bytes of the packed game
+     * @throws IllegalArgumentException if there are no or too many players, too many actions,
+     *                                  or if an action is not made of one or two Base32 symbols
+     */
+    public static byte[] pack(long seed, List<PlayerColor> players, List<String> actions) {
+        Preconditions.checkArgument(!players.isEmpty() && players.size() <= PlayerColor.ALL.size());
+        Preconditions.checkArgument(actions.size() <= MAX_ACTION_COUNT);
+        int packedPlayers = players.size();
+        for (int i = 0; i < players.size(); i++) {
+            packedPlayers |= players.get(i).ordinal() << (PLAYER_BITS * (i + 1));
+        }
+        int bitCount = 0;
+        for (String action : actions) {
+            Preconditions.checkArgument((action.length() == 1 || action.length() == 2) && Base32.isValid(action));
+            bitCount += 1 + SYMBOL_BITS * action.length();
+        }
+
+        byte[] bytes = new byte[ACTIONS_OFFSET + (bitCount + 7) / 8];
+        ByteBuffer.wrap(bytes)
+                .putLong(seed)
+                .putInt(packedPlayers)
+                .putShort((short) actions.size());
+        int bitIndex = 0;
+        for (String action : actions) {
+            // the flag telling whether the action is a tile placement is followed by the bits of its symbols
+            bitIndex = writeBits(bytes, bitIndex, action.length() == 2 ? 1 : 0, 1);
+            bitIndex = writeBits(bytes, bitIndex, Base32.decode(action), SYMBOL_BITS * action.length());
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the given number of least significant bits of the given integer in the actions of the given bytes
+     *
+     * @param bytes    the bytes of a packed game
+     * @param bitIndex the index of the first bit to write in the actions
+     * @param bits     the bits to write, the first one being the most significant
+     * @param count    the number of bits to write
+     * @return the index of the bit following the written ones
+     */
+    private static int writeBits(byte[] bytes, int bitIndex, int bits, int count) {
+        for (int i = count - 1; i >= 0; i--, bitIndex++) {
+            bytes[ACTIONS_OFFSET + bitIndex / 8] |= (byte) (((bits >>> i) & 1) << (7 - bitIndex % 8));
+        }
+        return bitIndex;
+    }
+
+    /**
+     * Makes this packed game view the game starting at the given index of the given buffer,
+     * the next action to read being its first one
+     *
+     * @param buffer the buffer containing the game, which is only read with absolute indexes
+     * @param offset the index of the first byte of the game in the buffer
+     * @return this packed game
+     */
+    public PackedGame wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        rewind();
+        return this;
+    }
+
+    /**
+     * Returns the seed of the tile decks of the game
+     *
+     * @return the seed of the tile decks of the game
+     */
+    public long seed() {
+        return buffer.getLong(offset);
+    }
+
+    /**
+     * Returns the number of players of the game
+     *
+     * @return the number of players of the game
+     */
+    public int playerCount() {
+        return buffer.getInt(offset + PLAYERS_OFFSET) & PLAYER_MASK;
+    }
+
+    /**
+     * Returns the player of the given index, in the order they play
+     *
+     * @param index the index of the player
+     * @return the player of the given index
+     * @throws IndexOutOfBoundsException if the index is negative or not smaller than the number of players
+     */
+    public PlayerColor player(int index) {
+        Objects.checkIndex(index, playerCount());
+        int packedPlayers = buffer.getInt(offset + PLAYERS_OFFSET);
+        return PlayerColor.ALL.get(packedPlayers >>> (PLAYER_BITS * (index + 1)) & PLAYER_MASK);
+    }
+
+    /**
+     * Returns the list of the players of the game, in the order they play
+     *
+     * @return the list of the players of the game
+     */
+    public List<PlayerColor> players() {
+        List<PlayerColor> players = new ArrayList<>(playerCount());
+        for (int i = 0; i < playerCount(); i++) players.add(player(i));
+        return List.copyOf(players);
+    }
+
+    /**
+     * Returns the number of actions of the game
+     *
+     * @return the number of actions of the game
+     */
+    public int actionCount() {
+        return Short.toUnsignedInt(buffer.getShort(offset + ACTION_COUNT_OFFSET));
+    }
+
+    /**
+     * Moves back to the first action of the game
+     */
+    public void rewind() {
+        bitIndex = 0;
+        readActionCount = 0;
+    }
+
+    /**
+     * Returns whether there are actions left to read
+     *
+     * @return true if there are actions left to read, false otherwise
+     */
+    public boolean hasNextAction() {
+        return readActionCount < actionCount();
+    }
+
+    /**
+     * Reads the next action of the game
+     *
+     * @return the bits of the next action, with {@link #TILE_PLACEMENT_FLAG} set if it is a tile placement
+     * @throws IllegalArgumentException if all the actions have been read
+     */
+    public int nextAction() {
+        Preconditions.checkArgument(hasNextAction());
+        readActionCount++;
+        boolean isTilePlacement = readBits(1) == 1;
+        return isTilePlacement
+                ? TILE_PLACEMENT_FLAG | readBits(2 * SYMBOL_BITS)
+                : readBits(SYMBOL_BITS);
+    }
+
+    /**
+     * Reads the given number of bits of the actions
+     *
+     * @param count the number of bits to read, at most 31
+     * @return the bits read, the first one being the most significant
+     */
+    private int readBits(int count) {
+        int bits = 0;
+        for (int i = 0; i < count; i++, bitIndex++) {
+            int currentByte = buffer.get(offset + ACTIONS_OFFSET + bitIndex / 8);
+            bits = bits << 1 | (currentByte >>> (7 - bitIndex % 8)) & 1;
+        }
+        return bits;
+    }
+
+    /**
+     * Returns the number of bytes of the game, going through its actions without reading them
+     *
+     * @return the number of bytes of the game
+     */
+    public int byteSize() {
+        int savedBitIndex = bitIndex;
+        int savedReadActionCount = readActionCount;
+        rewind();
+        while (hasNextAction()) nextAction();
+        int byteSize = ACTIONS_OFFSET + (bitIndex + 7) / 8;
+        bitIndex = savedBitIndex;
+        readActionCount = savedReadActionCount;
+        return byteSize;
+    }
+
+    /**
+     * Returns whether the given action, as read by {@link #nextAction()}, is a tile placement
+     *
+     * @param action the action
+     * @return true if the action is made of two Base32 symbols, false otherwise
+     */
+    public static boolean isTilePlacement(int action) {
+        return (action & TILE_PLACEMENT_FLAG) != 0;
+    }
+
+    /**
+     * Returns the Base32 encoding of the given action, as read by {@link #nextAction()}
+     *
+     * @param action the action
+     * @return the Base32-encoded action
+     */
+    public static String toBase32(int action) {
+        return isTilePlacement(action)
+                ? Base32.encodeBits10(action & ~TILE_PLACEMENT_FLAG)
+                : Base32.encodeBits5(action);
+    }
+
+    /**
+     * Returns the list of the Base32-encoded actions of the game, without moving the next action to read
+     *
+     * @return the list of the Base32-encoded actions of the game
+     */
+    public List<String> actions() {
+        int savedBitIndex = bitIndex;
+        int savedReadActionCount = readActionCount;
+        rewind();
+        List<String> actions = new ArrayList<>(actionCount());
+        while (hasNextAction()) actions.add(toBase32(nextAction()));
+        bitIndex = savedBitIndex;
+        readActionCount = savedReadActionCount;
+        return List.copyOf(actions);
+    }
+}
@@ -13,10 +13,9 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
+import java.net.URI;
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.random.RandomGenerator;
-import java.util.random.RandomGeneratorFactory;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -94,22 +93,7 @@ public final class Main extends Application {
      * @return the shuffled tile decks
      */
     private TileDecks getShuffledTileDecks(Long seed) {
-        List<Tile> tiles = new ArrayList<>(Tiles.TILES);
-        if (seed != null) {
-            RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.getDefault();
-            RandomGenerator generator = factory.create(seed);
-            Collections.shuffle(tiles, generator);
-        } else Collections.shuffle(tiles);
-        Map<Tile.Kind, List<Tile>> groupedTiles = tiles.stream().collect(Collectors.groupingBy(Tile::kind));
-        // we make it possible to play without menhir tiles. On the other hand,
-        // playing without normal tiles is not permitted
-        List<Tile> menhirTiles = groupedTiles.getOrDefault(Tile.Kind.MENHIR, List.of());
-
-        return new TileDecks(
-                groupedTiles.get(Tile.Kind.START),
-                groupedTiles.get(Tile.Kind.NORMAL),
-                menhirTiles
-        );
+        return seed != null ? TileDecks.shuffled(seed) : TileDecks.shuffled(new Random());
     }
 
     private SortedMap<PlayerColor, String> getPlayersMap(String playerNames) {
@@ -144,7 +128,11 @@ public final class Main extends Application {
                 : parameters.getNamed().get("player");
         String gameName = parameters.getNamed().get("game");
 
-        WSClient wsClient = new WSClient(gameName, localPlayerName);
+        // the server can be chosen with --server=ws://host:port/, the default one being used otherwise
+        String server = parameters.getNamed().get("server");
+        WSClient wsClient = server == null
+                ? new WSClient(gameName, localPlayerName)
+                : new WSClient(URI.create(server), gameName, localPlayerName);
         TileDecks tileDecks = getShuffledTileDecks((long) gameName.hashCode());
 
         ObjectProperty<SortedMap<PlayerColor, String>> playerNamesO = new SimpleObjectProperty<>(new TreeMap<>());
@@ -238,6 +226,32 @@ public final class Main extends Application {
             actionsO.setValue(List.of());
             gameStateO.setValue(newGameState.withStartingTilePlaced());
         });
+        wsClient.setOnGamePlayerAway(awayPlayerName -> {
+            gameStateO.setValue(gameStateO.getValue().withGameChatMessage(textMakerO.getValue().playerAway(awayPlayerName)));
+        });
+        wsClient.setOnGamePlayerReturn(returnedPlayerName -> {
+            gameStateO.setValue(gameStateO.getValue().withGameChatMessage(textMakerO.getValue().playerJoined(returnedPlayerName)));
+        });
+        wsClient.setOnGameSnapshot(snapshot -> {
+            GameState restoredGameState;
+            try {
+                // the actions we already applied are not decoded again, only the ones we missed are
+                restoredGameState = snapshot.restore(textMakerO.getValue(), gameStateO.getValue(), actionsO.getValue());
+            } catch (IllegalArgumentException e) {
+                try {
+                    // our state may differ from the one of the server, so the whole game is replayed
+                    restoredGameState = snapshot.restore(textMakerO.getValue(), null, List.of());
+                } catch (IllegalArgumentException replayException) {
+                    gameStateO.setValue(gameStateO.getValue().withGameChatMessage(textMakerO.getValue().gameDesynchronized()));
+                    return;
+                }
+            }
+            gameStateO.setValue(restoredGameState);
+            actionsO.setValue(snapshot.actions());
+        });
+        wsClient.setOnGameDesync(_ -> {
+            gameStateO.setValue(gameStateO.getValue().withGameChatMessage(textMakerO.getValue().gameDesynchronized()));
+        });
         wsClient.setOnGameEnd(_ -> {
             gameStateO.setValue(gameStateO.getValue().withGameChatMessage(textMakerO.getValue().gameEnded()));
         });
@@ -101,9 +101,14 @@ public final class PlayersUI {
 
             Circle circle = new Circle(PLAYER_CIRCLE_RADIUS, ColorMap.fillColor(playerColor));
 
-            ObservableValue<String> pointsTextO = pointsO.map(points ->
-                    STR." \{name} : \{textMaker.points(points.getOrDefault(playerColor, 0))}\n"
-            );
+            // the points the player would have if the game ended now are shown when they differ
+            ObservableValue<Integer> projectedPointsO = gameStateO.map(gState ->
+                    gState.projectedPoints().getOrDefault(playerColor, 0));
+            ObservableValue<String> pointsTextO = pointsO.flatMap(points -> projectedPointsO.map(projectedPoints -> {
+                int playerPoints = points.getOrDefault(playerColor, 0);
+                String projection = projectedPoints == playerPoints ? "" : STR." (→ \{projectedPoints})";
+                return STR." \{name} : \{textMaker.points(playerPoints)}\{projection}\n";
+            }));
 
             Text pointsText = new Text();
             pointsText.textProperty().bind(pointsTextO);
@@ -1,13 +1,16 @@
 package ch.epfl.chacun.net;
 
 import ch.epfl.chacun.Preconditions;
+import ch.epfl.chacun.archive.GameSnapshot;
 import javafx.application.Platform;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
@@ -19,23 +22,30 @@ import java.util.function.Consumer;
  */
 public final class WSClient implements WebSocket.Listener {
 
-    private enum WSAction {
-        GAMEJOIN_ACCEPT,
-        GAMELEAVE,
-        GAMEACTION_ACCEPT,
-        GAMEACTION_DENY,
-        GAMEMSG,
-        GAMEEND,
-        PING
-    }
+    /**
+     * The number of received events waiting for the user interface above which the next messages
+     * are only requested from the server once the user interface has handled them
+     */
+    private static final int PIPELINE_CAPACITY = 256;
 
-    private static final String SERVER_CONNECT_ENDPOINT = "wss://cs108-chacun-multiplayer-v2.sys.polysource.ch/";
+    /**
+     * The endpoint of the default server of the game
+     */
+    public static final URI DEFAULT_ENDPOINT = URI.create("wss://cs108-chacun-multiplayer-v2.sys.polysource.ch/");
 
+    private final URI endpoint;
     private final String gameName;
     private final String username;
 
-    private WebSocket ws;
-    private boolean connected = false;
+    private final WSEventPipeline pipeline;
+    // the beginning of the message being received, when it is split in several frames
+    private final StringBuilder partialMessage = new StringBuilder();
+
+    private volatile WebSocket ws;
+    private volatile boolean connected = false;
+    // the last message sent, as the pings are acknowledged off the JavaFX thread
+    // and a message can only be sent once the previous one was
+    private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
 
     private Consumer<String> onGamePlayersUpdate;
     private Consumer<String> onGamePlayerLeave;
@@ -43,14 +53,44 @@ public final class WSClient implements WebSocket.Listener {
     private Consumer<String> onLocalPlayerActionReject;
     private BiConsumer<String, String> onGameChatMessage;
     private Consumer<String> onGameEnd;
+    private Consumer<String> onGamePlayerAway;
+    private Consumer<String> onGamePlayerReturn;
+    private Consumer<GameSnapshot> onGameSnapshot;
+    private Consumer<String> onGameDesync;
+    private Consumer<String> onConnectionClose;
 
     /**
-     * Creates a new WebSocket client for the given game and player
+     * Creates a new WebSocket client for the given game and player, connecting to the default server
      *
      * @param gameName the name of the game
      * @param username the username of the player
      */
     public WSClient(String gameName, String username) {
+        this(DEFAULT_ENDPOINT, gameName, username);
+    }
+
+    /**
+     * Creates a new WebSocket client for the given game and player, connecting to the server of the given endpoint
+     *
+     * @param endpoint the WebSocket endpoint of the server, such as ws://localhost:8080/
+     * @param gameName the name of the game
+     * @param username the username of the player
+     */
+    public WSClient(URI endpoint, String gameName, String username) {
+        this(endpoint, gameName, username, Platform::runLater);
+    }
+
+    /**
+     * Creates a new WebSocket client for the given game and player, connecting to the server of the given endpoint,
+     * whose consumers are called by the given executor instead of the JavaFX thread
+     *
+     * @param endpoint         the WebSocket endpoint of the server, such as ws://localhost:8080/
+     * @param gameName         the name of the game
+     * @param username         the username of the player
+     * @param callbackExecutor the executor calling the consumers, which must run its tasks one at a time, in order
+     */
+    public WSClient(URI endpoint, String gameName, String username, Executor callbackExecutor) {
+        this.endpoint = endpoint;
         this.gameName = gameName;
         this.username = username;
 
@@ -60,37 +100,52 @@ public final class WSClient implements WebSocket.Listener {
         this.onGameChatMessage = (msgUsername, msgContent) -> {};
         this.onGameEnd = (data) -> {};
         this.onGamePlayerLeave = (data) -> {};
+        this.onGamePlayerAway = (data) -> {};
+        this.onGamePlayerReturn = (data) -> {};
+        this.onGameSnapshot = (snapshot) -> {};
+        this.onGameDesync = (data) -> {};
+        this.onConnectionClose = (reason) -> {};
+        this.pipeline = new WSEventPipeline(callbackExecutor, this::handleEvent, () -> ws.request(1), PIPELINE_CAPACITY);
     }
 
     private void acknowledgePing() {
         Preconditions.checkArgument(connected);
-        ws.sendText("PONG", true);
+        send("PONG");
     }
 
-    private void handleMessage(String message) {
-        System.out.println(STR."⬇\uFE0F \{message}");
-        String[] messageParts = message.split("\\.");
-        String action = messageParts[0];
-        String data = messageParts[1];
-        WSAction wsAction = WSAction.valueOf(action);
-        switch (wsAction) {
-            case GAMEJOIN_ACCEPT -> this.onGamePlayersUpdate.accept(data);
-            case GAMELEAVE -> {
-                onGamePlayersUpdate.accept(data);
-                onGamePlayerLeave.accept(data);
-            }
-            case GAMEACTION_ACCEPT -> onPlayerAction.accept(data);
-            case GAMEACTION_DENY -> onLocalPlayerActionReject.accept(data);
-            case GAMEMSG -> {
-                // data = {username=content}
-                // data is encoded with encodeURI
-                String content = java.net.URLDecoder.decode(data, StandardCharsets.UTF_8);
-                String username = content.split("=")[0];
-                String chatMessage = java.net.URLDecoder.decode(content.split("=")[1], StandardCharsets.UTF_8);
-                onGameChatMessage.accept(username, chatMessage);
+    /**
+     * Sends the given message once the previous ones were sent
+     *
+     * @param text the message to send
+     */
+    private synchronized void send(String text) {
+        lastSend = lastSend.thenCompose(_ -> ws.sendText(text, true));
+    }
+
+    /**
+     * Handles the given event received from the server, on the JavaFX thread
+     *
+     * @param event the event to handle
+     */
+    private void handleEvent(WSEvent event) {
+        switch (event) {
+            case WSEvent.PlayersUpdate(String players) -> onGamePlayersUpdate.accept(players);
+            case WSEvent.PlayerLeave(String players) -> {
+                onGamePlayersUpdate.accept(players);
+                onGamePlayerLeave.accept(players);
             }
-            case GAMEEND -> onGameEnd.accept(data);
-            case PING -> acknowledgePing();
+            case WSEvent.PlayerAway(String awayUsername) -> onGamePlayerAway.accept(awayUsername);
+            case WSEvent.PlayerReturn(String returnUsername) -> onGamePlayerReturn.accept(returnUsername);
+            case WSEvent.Snapshot(GameSnapshot snapshot) -> onGameSnapshot.accept(snapshot);
+            case WSEvent.InvalidSnapshot(String data) -> onGameDesync.accept(data);
+            case WSEvent.PlayerAction(String action) -> onPlayerAction.accept(action);
+            case WSEvent.ActionReject(String reason) -> onLocalPlayerActionReject.accept(reason);
+            case WSEvent.ChatMessage(String msgUsername, String content) ->
+                    onGameChatMessage.accept(msgUsername, content);
+            case WSEvent.GameEnd(String data) -> onGameEnd.accept(data);
+            case WSEvent.ConnectionClose(String reason) -> onConnectionClose.accept(reason);
+            // pings are acknowledged as soon as they are received
+            case WSEvent.Ping() -> {}
         }
     }
 
@@ -143,10 +198,58 @@ public final class WSClient implements WebSocket.Listener {
         this.onGamePlayerLeave = onGamePlayerLeave;
     }
 
+    /**
+     * Sets the consumer to be called when a player leaves the started game, which waits for his return
+     *
+     * @param onGamePlayerAway the consumer to be called, with the name of the player
+     */
+    public void setOnGamePlayerAway(Consumer<String> onGamePlayerAway) {
+        this.onGamePlayerAway = onGamePlayerAway;
+    }
+
+    /**
+     * Sets the consumer to be called when a player returns to the started game he left
+     *
+     * @param onGamePlayerReturn the consumer to be called, with the name of the player
+     */
+    public void setOnGamePlayerReturn(Consumer<String> onGamePlayerReturn) {
+        this.onGamePlayerReturn = onGamePlayerReturn;
+    }
+
+    /**
+     * Sets the consumer to be called when the snapshot of the started game is received,
+     * after the local player returned to it
+     *
+     * @param onGameSnapshot the consumer to be called
+     */
+    public void setOnGameSnapshot(Consumer<GameSnapshot> onGameSnapshot) {
+        this.onGameSnapshot = onGameSnapshot;
+    }
+
+    /**
+     * Sets the consumer to be called when the snapshot of the started game could not be decoded,
+     * the local player being then out of sync with the server
+     *
+     * @param onGameDesync the consumer to be called, with the data of the snapshot
+     */
+    public void setOnGameDesync(Consumer<String> onGameDesync) {
+        this.onGameDesync = onGameDesync;
+    }
+
+    /**
+     * Sets the consumer to be called when the connection is closed by the server or lost,
+     * after the messages received before
+     *
+     * @param onConnectionClose the consumer to be called, with the reason of the closing
+     */
+    public void setOnConnectionClose(Consumer<String> onConnectionClose) {
+        this.onConnectionClose = onConnectionClose;
+    }
+
     private void sendText(String text) {
         Preconditions.checkArgument(connected);
         System.out.println(STR."\uD83D\uDD3A \{text}");
-        ws.sendText(text, true);
+        send(text);
     }
 
     /**
@@ -157,10 +260,20 @@ public final class WSClient implements WebSocket.Listener {
         ws = HttpClient
                 .newHttpClient()
                 .newWebSocketBuilder()
-                .buildAsync(URI.create(SERVER_CONNECT_ENDPOINT), this)
+                .buildAsync(endpoint, this)
                 .join();
     }
 
+    /**
+     * Closes the connection to the server, once the messages already sent were,
+     * the client receiving no more messages
+     */
+    public synchronized void close() {
+        if (!connected) return;
+        connected = false;
+        lastSend = lastSend.thenCompose(_ -> ws.sendClose(WebSocket.NORMAL_CLOSURE, ""));
+    }
+
     /**
      * Joins the game
      */
@@ -185,22 +298,61 @@ public final class WSClient implements WebSocket.Listener {
         sendText(STR."GAMEMSG.\{java.net.URLEncoder.encode(message, StandardCharsets.UTF_8)}");
     }
 
+    /**
+     * Assembles the frames of the messages of the server and decodes them, off the JavaFX thread,
+     * the decoded events being handed to the pipeline, which requests the next frame,
+     * and the messages which can not be decoded being dropped
+     */
     @Override
     public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-        Platform.runLater(() -> handleMessage(data.toString()));
-        return WebSocket.Listener.super.onText(webSocket, data, last);
+        if (!last) {
+            partialMessage.append(data);
+            webSocket.request(1);
+            return null;
+        }
+        String message = partialMessage.isEmpty() ? data.toString() : partialMessage.append(data).toString();
+        partialMessage.setLength(0);
+        System.out.println(STR."⬇\uFE0F \{message}");
+
+        WSEvent event;
+        try {
+            event = WSEvent.parse(message);
+        } catch (IllegalArgumentException e) {
+            // an unknown or malformed message is dropped, the connection must keep receiving the next ones
+            System.out.println(STR."Ignored invalid message: \{message}");
+            webSocket.request(1);
+            return null;
+        }
+        if (event instanceof WSEvent.Ping) {
+            acknowledgePing();
+            webSocket.request(1);
+        } else {
+            pipeline.push(event);
+        }
+        return null;
     }
 
     @Override
     public void onOpen(WebSocket webSocket) {
+        ws = webSocket;
         connected = true;
         WebSocket.Listener.super.onOpen(webSocket);
     }
 
     @Override
     public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        // the connection was closed by the client itself
+        if (!connected) return null;
+        connected = false;
+        pipeline.push(new WSEvent.ConnectionClose(STR."\{statusCode} \{reason}"));
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        if (!connected) return;
         connected = false;
-        throw new IllegalStateException("Unexpected WS connection closed");
+        pipeline.push(new WSEvent.ConnectionClose(error.toString()));
     }
 
 }
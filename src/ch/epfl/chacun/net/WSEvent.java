@@ -0,0 +1,174 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.Preconditions;
+import ch.epfl.chacun.archive.GameSnapshot;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Represents a message received from the server, decoded into the event it describes,
+ * so that the JavaFX thread only has to dispatch it
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+sealed interface WSEvent {
+
+    /**
+     * Represents an update of the list of players, after a player joined the game
+     *
+     * @param players the names of the players, separated by commas
+     */
+    record PlayersUpdate(String players) implements WSEvent {
+    }
+
+    /**
+     * Represents the departure of a player, the game being reset
+     *
+     * @param players the names of the remaining players, separated by commas
+     */
+    record PlayerLeave(String players) implements WSEvent {
+    }
+
+    /**
+     * Represents the departure of a player from the started game, which is resumed when he returns
+     *
+     * @param username the name of the player who left
+     */
+    record PlayerAway(String username) implements WSEvent {
+    }
+
+    /**
+     * Represents the return of a player who left the started game
+     *
+     * @param username the name of the player who returned
+     */
+    record PlayerReturn(String username) implements WSEvent {
+    }
+
+    /**
+     * Represents the snapshot of the started game, sent to the local player when he returns to it
+     *
+     * @param snapshot the decoded snapshot of the game
+     */
+    record Snapshot(GameSnapshot snapshot) implements WSEvent {
+    }
+
+    /**
+     * Represents a snapshot of the started game which could not be decoded,
+     * the local player being then out of sync with the server
+     *
+     * @param data the data of the snapshot, as sent by the server
+     */
+    record InvalidSnapshot(String data) implements WSEvent {
+    }
+
+    /**
+     * Represents an action played by any player, including the local one
+     *
+     * @param action the Base32-encoded action
+     */
+    record PlayerAction(String action) implements WSEvent {
+    }
+
+    /**
+     * Represents the rejection of an action of the local player
+     *
+     * @param reason the reason of the rejection
+     */
+    record ActionReject(String reason) implements WSEvent {
+    }
+
+    /**
+     * Represents a chat message sent by a player
+     *
+     * @param username the name of the player who sent the message
+     * @param content  the decoded content of the message
+     */
+    record ChatMessage(String username, String content) implements WSEvent {
+    }
+
+    /**
+     * Represents the end of the game
+     *
+     * @param data the data sent by the server with the end of the game
+     */
+    record GameEnd(String data) implements WSEvent {
+    }
+
+    /**
+     * Represents a ping of the server, which must be acknowledged
+     */
+    record Ping() implements WSEvent {
+    }
+
+    /**
+     * Represents the closing of the connection by the server, or its loss, which is not sent
+     * as a message but reported by the WebSocket
+     *
+     * @param reason the reason of the closing
+     */
+    record ConnectionClose(String reason) implements WSEvent {
+    }
+
+    /**
+     * Decodes the given message of the server, of the form ACTION.data, into the event it describes
+     *
+     * @param message the message of the server
+     * @return the event described by the message
+     * @throws IllegalArgumentException if the message is not of the form ACTION.data,
+     *                                  or if its action is unknown
+     */
+    static WSEvent parse(String message) {
+        int dot = message.indexOf('.');
+        Preconditions.checkArgument(dot > 0);
+        String data = message.substring(dot + 1);
+        return switch (message.substring(0, dot)) {
+            case "GAMEJOIN_ACCEPT" -> new PlayersUpdate(data);
+            case "GAMELEAVE" -> new PlayerLeave(data);
+            case "GAMEAWAY" -> new PlayerAway(data);
+            case "GAMERETURN" -> new PlayerReturn(data);
+            case "GAMESNAPSHOT" -> parseSnapshot(data);
+            case "GAMEACTION_ACCEPT" -> new PlayerAction(data);
+            case "GAMEACTION_DENY" -> new ActionReject(data);
+            case "GAMEMSG" -> parseChatMessage(data);
+            case "GAMEEND" -> new GameEnd(data);
+            case "PING" -> new Ping();
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Decodes the data of a snapshot, which is kept as an invalid snapshot if it can not be decoded,
+     * so that the client knows it missed the state of the game
+     *
+     * @param data the data of the snapshot
+     * @return the decoded snapshot, or an invalid snapshot if the data is not a valid encoded snapshot
+     */
+    private static WSEvent parseSnapshot(String data) {
+        try {
+            return new Snapshot(GameSnapshot.decode(data));
+        } catch (IllegalArgumentException e) {
+            return new InvalidSnapshot(data);
+        }
+    }
+
+    /**
+     * Decodes the data of a chat message, which is the URL-encoded form of username=content,
+     * the content being itself URL-encoded
+     *
+     * @param data the data of the chat message
+     * @return the decoded chat message
+     * @throws IllegalArgumentException if the data does not contain the name of its sender
+     */
+    private static ChatMessage parseChatMessage(String data) {
+        String decoded = URLDecoder.decode(data, StandardCharsets.UTF_8);
+        int equals = decoded.indexOf('=');
+        Preconditions.checkArgument(equals >= 0);
+        return new ChatMessage(
+                decoded.substring(0, equals),
+                URLDecoder.decode(decoded.substring(equals + 1), StandardCharsets.UTF_8)
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package ch.epfl.chacun.net;
+
+import ch.epfl.chacun.Preconditions;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Represents the queue of the events received from the server, waiting to be handled by the user interface.
+ * <p>
+ * The events are pushed by the thread of the WebSocket, and handled in batches on the thread of the user
+ * interface, a single batch being scheduled at a time however fast the events arrive, so that a burst
+ * of messages only costs one task of the user interface instead of one per message.
+ * <p>
+ * When too many events are waiting, the next message is not requested from the WebSocket until
+ * the user interface has caught up, so that the server slows down instead of the queue growing without bound.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class WSEventPipeline {
+
+    private final Executor uiExecutor;
+    private final Consumer<WSEvent> handler;
+    private final Runnable requestNext;
+    private final int capacity;
+
+    private final Queue<WSEvent> events = new ConcurrentLinkedQueue<>();
+    // the size of the queue, as ConcurrentLinkedQueue.size is not constant-time
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean isDrainScheduled = new AtomicBoolean();
+    private final AtomicBoolean isSuspended = new AtomicBoolean();
+
+    /**
+     * Creates a new pipeline
+     *
+     * @param uiExecutor  the executor of the thread of the user interface, such as Platform::runLater
+     * @param handler     the handler of the events, called on the thread of the user interface
+     * @param requestNext the request of the next message from the WebSocket
+     * @param capacity    the number of waiting events above which no message is requested anymore
+     * @throws IllegalArgumentException if the capacity is not strictly positive
+     */
+    WSEventPipeline(Executor uiExecutor, Consumer<WSEvent> handler, Runnable requestNext, int capacity) {
+        Preconditions.checkArgument(capacity > 0);
+        this.uiExecutor = uiExecutor;
+        this.handler = handler;
+        this.requestNext = requestNext;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds the given event to the queue, schedules a batch on the thread of the user interface
+     * if none is scheduled yet, and requests the next message unless the queue is full
+     *
+     * @param event the event received from the server
+     */
+    void push(WSEvent event) {
+        events.add(event);
+        int newSize = size.incrementAndGet();
+        if (isDrainScheduled.compareAndSet(false, true)) uiExecutor.execute(this::drain);
+        if (newSize < capacity) {
+            requestNext.run();
+        } else {
+            isSuspended.set(true);
+            // the batch may have emptied the queue before the pipeline was suspended
+            if (size.get() < capacity) resume();
+        }
+    }
+
+    /**
+     * Handles all the events waiting in the queue, on the thread of the user interface,
+     * and requests the next message if the pipeline was suspended
+     */
+    private void drain() {
+        // the events pushed from now on need a new batch
+        isDrainScheduled.set(false);
+        try {
+            for (int i = size.get(); i > 0; i--) {
+                WSEvent event = events.poll();
+                size.decrementAndGet();
+                handler.accept(event);
+            }
+        } finally {
+            resume();
+        }
+    }
+
+    /**
+     * Requests the next message if the pipeline was suspended, only once however many threads resume it
+     */
+    private void resume() {
+        if (isSuspended.compareAndSet(true, false)) requestNext.run();
+    }
+}
@@ -0,0 +1,282 @@
+package ch.epfl.chacun.server;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.archive.GameSnapshot;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Represents a game hosted by the server, which keeps its authoritative state
+ * and relays the actions and messages of its players to all of them.
+ * <p>
+ * All the operations of a game are done while holding its lock, so that all the players
+ * receive the messages of the game in the same order as the server applies them.
+ * <p>
+ * Once the game has started, a player who leaves keeps his seat, the game being resumed when he joins
+ * it again with the same name, the server then sending him a snapshot of the game to restore it.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class GameRoom {
+
+    /**
+     * The reasons for which a player may not join a game
+     */
+    enum JoinResult {
+        JOINED,
+        // the game was closed as its last player left, a new one must be created
+        CLOSED,
+        GAME_STARTED,
+        GAME_FULL,
+        USERNAME_TAKEN
+    }
+
+    /**
+     * Represents a player of the game
+     *
+     * @param name       the name of the player, unique in the game
+     * @param connection the connection of the player, or null if he left the started game
+     */
+    record Player(String name, WSConnection connection) {
+
+        /**
+         * Returns whether the player left the started game, his seat being kept for his return
+         *
+         * @return true if the player left the started game, false otherwise
+         */
+        boolean isAway() {
+            return connection == null;
+        }
+    }
+
+    private final String name;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Player> players = new ArrayList<>();
+    private final List<String> actions = new ArrayList<>();
+    private GameState state;
+    private boolean isClosed;
+
+    /**
+     * Creates a new game without players
+     *
+     * @param name the name of the game, whose hash code is the seed of its tile decks, as for the client
+     */
+    GameRoom(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Adds the given player to the game and sends the new list of players to all the players,
+     * unless the game has already started, is full, or has a player with the same name,
+     * or gives him back his seat if he left the started game
+     *
+     * @param player the player joining the game
+     * @return JOINED if the player joined the game, or the reason why he could not
+     */
+    JoinResult join(Player player) {
+        lock.lock();
+        try {
+            if (isClosed) return JoinResult.CLOSED;
+            int seat = seatOf(player.name());
+            if (!actions.isEmpty()) {
+                if (seat < 0) return JoinResult.GAME_STARTED;
+                if (!players.get(seat).isAway()) return JoinResult.USERNAME_TAKEN;
+                players.set(seat, player);
+                send(player, STR."GAMEJOIN_ACCEPT.\{playerNames()}");
+                GameSnapshot snapshot = GameSnapshot.of(
+                        name.hashCode(), PlayerColor.ALL.subList(0, players.size()), state, actions);
+                send(player, STR."GAMESNAPSHOT.\{snapshot.encode()}");
+                broadcastToOthers(player, STR."GAMERETURN.\{player.name()}");
+                return JoinResult.JOINED;
+            }
+            if (players.size() == PlayerColor.ALL.size()) return JoinResult.GAME_FULL;
+            if (seat >= 0) return JoinResult.USERNAME_TAKEN;
+            players.add(player);
+            restart();
+            broadcast(STR."GAMEJOIN_ACCEPT.\{playerNames()}");
+            return JoinResult.JOINED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the given player from the game, and restarts it for the other players, as the client does,
+     * unless it has started, the seat of the player being then kept for his return,
+     * the game being closed if it has no players left
+     *
+     * @param player the player leaving the game
+     * @return true if the game has no players left and was closed, false otherwise
+     */
+    boolean leave(Player player) {
+        lock.lock();
+        try {
+            int seat = players.indexOf(player);
+            if (seat < 0) return isClosed;
+            if (actions.isEmpty()) {
+                players.remove(seat);
+            } else {
+                players.set(seat, new Player(player.name(), null));
+            }
+            if (players.stream().allMatch(Player::isAway)) {
+                isClosed = true;
+                return true;
+            }
+            if (actions.isEmpty()) {
+                restart();
+                broadcast(STR."GAMELEAVE.\{playerNames()}");
+            } else {
+                broadcast(STR."GAMEAWAY.\{player.name()}");
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the index of the seat of the player of the given name, or -1 if there is none
+     *
+     * @param playerName the name of the player
+     * @return the index of the seat of the player, or -1 if there is none
+     */
+    private int seatOf(String playerName) {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).name().equals(playerName)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Handles the given message sent by the given player
+     *
+     * @param player  the player who sent the message
+     * @param message the message, without the action preceding its data
+     * @param data    the data of the message
+     */
+    void handle(Player player, String message, String data) {
+        lock.lock();
+        try {
+            switch (message) {
+                case "GAMEACTION" -> handleAction(player, data);
+                // the client decodes the data, splits it at the first "=" and decodes the message again,
+                // the dots being encoded as well since the client splits the messages at the dots
+                case "GAMEMSG" -> broadcast(STR."GAMEMSG.\{
+                        URLEncoder.encode(STR."\{player.name()}=\{data}", StandardCharsets.UTF_8)
+                                .replace(".", "%2E")}");
+                default -> {
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies the given action of the given player if it is valid, and sends it to all the players,
+     * or sends the reason why it is invalid to the player
+     *
+     * @param player the player who sent the action
+     * @param action the Base32-encoded action
+     */
+    private void handleAction(Player player, String action) {
+        String denyReason = null;
+        ActionEncoder.StateAction stateAction = null;
+        if (players.size() < 2) denyReason = "NOT_ENOUGH_PLAYERS";
+        else if (state.nextAction() == GameState.Action.END_GAME) denyReason = "GAME_ENDED";
+        else if (state.currentPlayer() != colorOf(player)) denyReason = "NOT_YOUR_TURN";
+        else if ((stateAction = ActionEncoder.decodeAndApply(state, action)) == null) denyReason = "INVALID_ACTION";
+
+        if (denyReason != null) {
+            send(player, STR."GAMEACTION_DENY.\{denyReason}");
+            return;
+        }
+        state = stateAction.gameState();
+        actions.add(stateAction.action());
+        broadcast(STR."GAMEACTION_ACCEPT.\{stateAction.action()}");
+        if (state.nextAction() == GameState.Action.END_GAME) broadcast(STR."GAMEEND.\{actions.size()}");
+    }
+
+    /**
+     * Returns the color of the given player, the players having the colors in the order they joined the game
+     *
+     * @param player the player
+     * @return the color of the player
+     */
+    private PlayerColor colorOf(Player player) {
+        return PlayerColor.ALL.get(players.indexOf(player));
+    }
+
+    /**
+     * Returns the names of the players, separated by commas, in the order they joined the game
+     *
+     * @return the names of the players
+     */
+    private String playerNames() {
+        return players.stream().map(Player::name).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Restarts the game with the current players, from the state where the starting tile is placed
+     */
+    private void restart() {
+        Map<PlayerColor, String> names = new TreeMap<>();
+        for (int i = 0; i < players.size(); i++) names.put(PlayerColor.ALL.get(i), players.get(i).name());
+        state = GameState.initial(List.copyOf(names.keySet()), TileDecks.shuffled(name.hashCode()),
+                new TextMakerFr(names)).withStartingTilePlaced();
+        actions.clear();
+    }
+
+    /**
+     * Sends the given message to all the players
+     *
+     * @param message the message to send
+     */
+    private void broadcast(String message) {
+        for (Player player : players) {
+            if (!player.isAway()) send(player, message);
+        }
+    }
+
+    /**
+     * Sends the given message to all the players except the given one
+     *
+     * @param player  the player who does not receive the message
+     * @param message the message to send
+     */
+    private void broadcastToOthers(Player player, String message) {
+        for (Player other : players) {
+            if (!other.isAway() && !other.equals(player)) send(other, message);
+        }
+    }
+
+    /**
+     * Sends the given message to the given player, without blocking as the message is only queued,
+     * the thread of the connection making the player leave the game if it is lost or dropped
+     *
+     * @param player  the player
+     * @param message the message to send
+     */
+    private void send(Player player, String message) {
+        player.connection().sendText(message);
+    }
+
+    /**
+     * Returns the current state of the game
+     *
+     * @return the current state of the game
+     */
+    GameState state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package ch.epfl.chacun.server;
+
+import ch.epfl.chacun.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A multiplayer server for ChaCuN, speaking the protocol of {@code WSClient} over WebSocket.
+ * <p>
+ * Every connection is handled by its own virtual thread, which blocks while reading the messages
+ * of its player, so that a single server can host thousands of games. The server keeps the
+ * authoritative state of every game, and only relays the actions that are valid in it.
+ * <p>
+ * The protocol is made of text messages of the form ACTION.data: the client sends GAMEJOIN.game,username
+ * first, then GAMEACTION.action, GAMEMSG.message and PONG; the server sends GAMEJOIN_ACCEPT.players
+ * and GAMELEAVE.players with the names of the players, GAMEACTION_ACCEPT.action to all the players,
+ * GAMEACTION_DENY.reason to the player whose action is invalid, GAMEMSG.message, GAMEEND.actionCount and PING.
+ * Once a game has started, a player leaving it is announced with GAMEAWAY.username and his return
+ * with GAMERETURN.username, the returning player receiving GAMESNAPSHOT.snapshot to restore the game.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class GameServer implements Closeable {
+
+    /**
+     * The default port of the server
+     */
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The default interval between two pings sent to every client, in milliseconds
+     */
+    private static final int DEFAULT_PING_INTERVAL = 15_000;
+
+    /**
+     * The number of ping intervals after which a client that sent nothing is considered lost
+     */
+    private static final int PING_INTERVALS_BEFORE_TIMEOUT = 3;
+
+    private final ServerSocket serverSocket;
+    private final int pingInterval;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentMap<String, GameRoom> rooms = new ConcurrentHashMap<>();
+    private final Set<WSConnection> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean isClosed;
+
+    /**
+     * Creates a new server listening on the given port of the loopback address, or of all the addresses
+     *
+     * @param port         the port of the server, 0 to use any free port
+     * @param loopbackOnly true to only accept connections from the local machine
+     * @param pingInterval the interval between two pings sent to every client, in milliseconds
+     * @throws IOException if the port can not be used
+     */
+    GameServer(int port, boolean loopbackOnly, int pingInterval) throws IOException {
+        Preconditions.checkArgument(pingInterval > 0);
+        this.serverSocket = loopbackOnly
+                ? new ServerSocket(port, 0, InetAddress.getLoopbackAddress())
+                : new ServerSocket(port);
+        this.pingInterval = pingInterval;
+    }
+
+    /**
+     * Creates a new server listening on the given port of all the addresses of the machine
+     *
+     * @param port the port of the server, 0 to use any free port
+     * @throws IOException if the port can not be used
+     */
+    public GameServer(int port) throws IOException {
+        this(port, false, DEFAULT_PING_INTERVAL);
+    }
+
+    /**
+     * Returns the port the server listens on
+     *
+     * @return the port the server listens on
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of games hosted by the server, which have at least one player
+     *
+     * @return the number of games hosted by the server
+     */
+    public int gameCount() {
+        return rooms.size();
+    }
+
+    /**
+     * Returns the game of the given name, or null if there is none
+     *
+     * @param gameName the name of the game
+     * @return the game of the given name, or null if there is none
+     */
+    GameRoom room(String gameName) {
+        return rooms.get(gameName);
+    }
+
+    /**
+     * Starts accepting connections and sending pings, in virtual threads
+     *
+     * @return this server
+     */
+    public GameServer start() {
+        executor.submit(this::acceptConnections);
+        executor.submit(this::sendPings);
+        return this;
+    }
+
+    /**
+     * Accepts the connections of the clients until the server is closed
+     */
+    private void acceptConnections() {
+        while (!isClosed) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.submit(() -> handleConnection(socket));
+            } catch (IOException e) {
+                // the server socket was closed, or the connection failed before being accepted
+            }
+        }
+    }
+
+    /**
+     * Sends a ping to every client at a regular interval until the server is closed,
+     * the clients answering it so that the connections are kept alive
+     */
+    private void sendPings() {
+        long pingCount = 0;
+        while (!isClosed) {
+            try {
+                Thread.sleep(pingInterval);
+            } catch (InterruptedException e) {
+                return;
+            }
+            pingCount++;
+            // the pings are only queued, a client too slow to receive them can not delay the others
+            for (WSConnection connection : connections) connection.sendText(STR."PING.\{pingCount}");
+        }
+    }
+
+    /**
+     * Handles the connection of a client, from its handshake to its closing
+     *
+     * @param socket the socket of the connection
+     */
+    private void handleConnection(Socket socket) {
+        try (WSConnection connection = WSConnection.accept(socket, PING_INTERVALS_BEFORE_TIMEOUT * pingInterval)) {
+            connections.add(connection);
+            try {
+                String join = connection.readMessage();
+                if (join != null) play(join, connection);
+            } finally {
+                connections.remove(connection);
+            }
+        } catch (IOException e) {
+            // the connection was lost, the player has left its game
+        }
+    }
+
+    /**
+     * Makes the player of the given connection join the game of the given join message, and handles
+     * his messages until the connection ends, the player then leaving the game
+     *
+     * @param join       the first message sent by the client, of the form GAMEJOIN.game,username
+     * @param connection the connection of the client
+     * @throws IOException if the connection was lost
+     */
+    private void play(String join, WSConnection connection) throws IOException {
+        String prefix = "GAMEJOIN.";
+        int comma = join.lastIndexOf(',');
+        boolean isValid = join.startsWith(prefix) && comma > prefix.length();
+        String gameName = isValid ? join.substring(prefix.length(), comma) : "";
+        String username = isValid ? join.substring(comma + 1) : "";
+        // the client splits the messages at the dots and the lists of players at the commas
+        if (username.isEmpty() || username.contains(".")) {
+            connection.sendClose(WSConnection.CLOSE_POLICY_VIOLATION, "INVALID_JOIN");
+            return;
+        }
+
+        GameRoom.Player player = new GameRoom.Player(username, connection);
+        GameRoom room = joinGame(gameName, player);
+        if (room == null) return;
+        try {
+            String message;
+            while ((message = connection.readMessage()) != null) {
+                int dot = message.indexOf('.');
+                String action = dot < 0 ? message : message.substring(0, dot);
+                String data = dot < 0 ? "" : message.substring(dot + 1);
+                if (!action.equals("PONG")) room.handle(player, action, data);
+            }
+        } finally {
+            if (room.leave(player)) rooms.remove(gameName, room);
+        }
+    }
+
+    /**
+     * Makes the given player join the game of the given name, creating it if needed,
+     * the connection of the player being closed if he can not join it
+     *
+     * @param gameName the name of the game
+     * @param player   the player joining the game
+     * @return the game joined by the player, or null if he could not join it
+     */
+    private GameRoom joinGame(String gameName, GameRoom.Player player) {
+        while (true) {
+            GameRoom room = rooms.computeIfAbsent(gameName, GameRoom::new);
+            GameRoom.JoinResult result = room.join(player);
+            switch (result) {
+                case JOINED -> {
+                    return room;
+                }
+                // the game was closed by its last player, it is replaced by a new one
+                case CLOSED -> rooms.remove(gameName, room);
+                default -> {
+                    player.connection().sendClose(WSConnection.CLOSE_POLICY_VIOLATION, result.name());
+                    return null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes all the connections of the clients
+     *
+     * @throws IOException if the server socket can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+        serverSocket.close();
+        for (WSConnection connection : connections) connection.close();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a server on the given port (8080 by default), until the process is stopped
+     *
+     * @param args the port of the server, optionally
+     * @throws IOException if the port can not be used
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port).start();
+        System.out.println(STR."ChaCuN server listening on port \{server.port()}");
+    }
+}
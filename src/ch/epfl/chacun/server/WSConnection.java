@@ -0,0 +1,422 @@
+package ch.epfl.chacun.server;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Represents the server side of a WebSocket connection (RFC 6455) exchanging text messages,
+ * read by blocking calls made by the thread of the connection, which is meant to be a virtual thread.
+ * <p>
+ * The messages fragmented by the client are assembled, the pings of the protocol are answered,
+ * and the messages are sent in a single frame, from any thread.
+ * <p>
+ * The frames sent are queued and written by a virtual thread of their own, so that sending a message never
+ * blocks, a client too slow to receive them being dropped once its queue is full.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+final class WSConnection implements Closeable {
+
+    /**
+     * The string appended to the key of the client to compute the accept key of the handshake
+     */
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    /**
+     * The maximum number of bytes of the handshake request of the client
+     */
+    private static final int MAX_HANDSHAKE_SIZE = 8 * 1024;
+
+    /**
+     * The maximum number of bytes of a message, once its fragments are assembled
+     */
+    private static final int MAX_MESSAGE_SIZE = 64 * 1024;
+
+    /**
+     * The maximum number of bytes of the payload of a control frame
+     */
+    private static final int MAX_CONTROL_PAYLOAD_SIZE = 125;
+
+    /**
+     * The maximum number of frames waiting to be sent, beyond which the client is dropped
+     */
+    private static final int MAX_QUEUED_FRAMES = 256;
+
+    /**
+     * The time given to the queued frames to be sent when the connection is closed, in milliseconds
+     */
+    private static final int CLOSE_TIMEOUT = 1_000;
+
+    /**
+     * The opcodes of the frames
+     */
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+
+    /**
+     * The status codes used to close a connection
+     */
+    static final int CLOSE_NORMAL = 1000;
+    static final int CLOSE_PROTOCOL_ERROR = 1002;
+    static final int CLOSE_UNSUPPORTED_DATA = 1003;
+    static final int CLOSE_INVALID_DATA = 1007;
+    static final int CLOSE_POLICY_VIOLATION = 1008;
+    static final int CLOSE_MESSAGE_TOO_BIG = 1009;
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final BlockingQueue<byte[]> queuedFrames = new ArrayBlockingQueue<>(MAX_QUEUED_FRAMES);
+    private final Thread writer;
+    // the frames are queued by several threads (the one of the connection and the ones of the other players)
+    private final ReentrantLock queueLock = new ReentrantLock();
+    private boolean isCloseQueued;
+
+    /**
+     * Creates a new connection over the given socket, whose handshake is done
+     *
+     * @param socket the socket of the connection
+     * @param in     the input stream of the socket, after the handshake request
+     * @param out    the output stream of the socket
+     */
+    private WSConnection(Socket socket, InputStream in, OutputStream out) {
+        this.socket = socket;
+        this.in = in;
+        this.out = out;
+        this.writer = Thread.ofVirtual().start(this::writeFrames);
+    }
+
+    /**
+     * Reads the handshake request of the client on the given socket and accepts it
+     *
+     * @param socket      the socket of the connection
+     * @param readTimeout the time after which the connection is considered lost if nothing is received,
+     *                    in milliseconds
+     * @return the connection, ready to exchange messages
+     * @throws IOException if the handshake is invalid or if the socket fails
+     */
+    static WSConnection accept(Socket socket, int readTimeout) throws IOException {
+        socket.setSoTimeout(readTimeout);
+        socket.setTcpNoDelay(true);
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+
+        String[] lines = readHandshakeRequest(in).split("\r\n");
+        Map<String, String> headers = new HashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        lines[i].substring(colon + 1).trim());
+            }
+        }
+        String key = headers.get("sec-websocket-key");
+        if (!lines[0].startsWith("GET ")
+                || !"websocket".equalsIgnoreCase(headers.get("upgrade"))
+                || !headers.getOrDefault("connection", "").toLowerCase(Locale.ROOT).contains("upgrade")
+                || !"13".equals(headers.get("sec-websocket-version"))
+                || key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            throw new IOException("Invalid WebSocket handshake");
+        }
+
+        String response = STR."""
+                HTTP/1.1 101 Switching Protocols\r
+                Upgrade: websocket\r
+                Connection: Upgrade\r
+                Sec-WebSocket-Accept: \{acceptKey(key)}\r
+                \r
+                """;
+        out.write(response.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return new WSConnection(socket, in, out);
+    }
+
+    /**
+     * Reads the handshake request of the client, up to the empty line ending its headers
+     *
+     * @param in the input stream of the socket
+     * @return the request, without the empty line ending it
+     * @throws IOException if the request is too long or if the socket fails
+     */
+    private static String readHandshakeRequest(InputStream in) throws IOException {
+        ByteArrayOutputStream request = new ByteArrayOutputStream();
+        // the last four bytes read, to find the end of the request
+        int lastBytes = 0;
+        while (lastBytes != 0x0D0A0D0A) {
+            int b = in.read();
+            if (b == -1 || request.size() == MAX_HANDSHAKE_SIZE) throw new IOException("Invalid WebSocket handshake");
+            request.write(b);
+            lastBytes = lastBytes << 8 | b;
+        }
+        return request.toString(StandardCharsets.ISO_8859_1).stripTrailing();
+    }
+
+    /**
+     * Computes the accept key of the handshake from the key of the client
+     *
+     * @param key the key of the client
+     * @return the accept key of the handshake
+     */
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + HANDSHAKE_GUID).getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implements SHA-1
+            throw new Error(e);
+        }
+    }
+
+    /**
+     * Reads the next text message sent by the client, answering its pings
+     *
+     * @return the next message, or null if the client closed the connection
+     * @throws IOException if the connection was lost, or closed because of an error of the client
+     */
+    String readMessage() throws IOException {
+        ByteArrayOutputStream message = null;
+        try {
+            while (true) {
+                int first = readByte();
+                int second = readByte();
+                boolean isFinal = (first & 0x80) != 0;
+                int opcode = first & 0x0F;
+                if ((first & 0x70) != 0 || (second & 0x80) == 0) {
+                    // the frames of the client must be masked, and no extension was negotiated
+                    return closeWithError(CLOSE_PROTOCOL_ERROR, "Invalid frame");
+                }
+                long length = second & 0x7F;
+                if (length == 126) length = readByte() << 8 | readByte();
+                else if (length == 127) length = new DataInputStream(in).readLong();
+                boolean isControl = (opcode & 0x8) != 0;
+                if (isControl && (!isFinal || length > MAX_CONTROL_PAYLOAD_SIZE)) {
+                    return closeWithError(CLOSE_PROTOCOL_ERROR, "Invalid control frame");
+                }
+                int currentSize = message == null ? 0 : message.size();
+                if (length < 0 || currentSize + length > MAX_MESSAGE_SIZE) {
+                    return closeWithError(CLOSE_MESSAGE_TOO_BIG, "Message too big");
+                }
+                byte[] payload = readPayload((int) length);
+
+                switch (opcode) {
+                    case OPCODE_TEXT, OPCODE_CONTINUATION -> {
+                        if ((opcode == OPCODE_TEXT) != (message == null)) {
+                            return closeWithError(CLOSE_PROTOCOL_ERROR, "Unexpected fragment");
+                        }
+                        if (message == null) message = new ByteArrayOutputStream();
+                        message.write(payload);
+                        if (isFinal) return decodeText(message.toByteArray());
+                    }
+                    case OPCODE_PING -> queueFrame(OPCODE_PONG, payload);
+                    case OPCODE_PONG -> {
+                    }
+                    case OPCODE_CLOSE -> {
+                        // the close frame is echoed, with the status code of the client if there is one
+                        sendClose(payload.length >= 2 ? (payload[0] & 0xFF) << 8 | payload[1] & 0xFF : CLOSE_NORMAL,
+                                "");
+                        return null;
+                    }
+                    case OPCODE_BINARY -> {
+                        return closeWithError(CLOSE_UNSUPPORTED_DATA, "Binary messages are not supported");
+                    }
+                    default -> {
+                        return closeWithError(CLOSE_PROTOCOL_ERROR, "Unknown opcode");
+                    }
+                }
+            }
+        } catch (SocketTimeoutException e) {
+            closeWithError(CLOSE_POLICY_VIOLATION, "Timeout");
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a byte of the socket
+     *
+     * @return the byte read, between 0 and 255
+     * @throws IOException if the connection was lost
+     */
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b == -1) throw new EOFException();
+        return b;
+    }
+
+    /**
+     * Reads the masking key and the payload of a frame, and unmasks the payload
+     *
+     * @param length the number of bytes of the payload
+     * @return the unmasked payload
+     * @throws IOException if the connection was lost
+     */
+    private byte[] readPayload(int length) throws IOException {
+        byte[] mask = in.readNBytes(4);
+        byte[] payload = in.readNBytes(length);
+        if (mask.length < 4 || payload.length < length) throw new EOFException();
+        for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+        return payload;
+    }
+
+    /**
+     * Decodes the given bytes of a text message, which must be valid UTF-8
+     *
+     * @param bytes the bytes of the message
+     * @return the text of the message, or null if it is not valid UTF-8 and the connection was closed
+     * @throws IOException if the connection was lost
+     */
+    private String decodeText(byte[] bytes) throws IOException {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return closeWithError(CLOSE_INVALID_DATA, "Invalid UTF-8");
+        }
+    }
+
+    /**
+     * Closes the connection because of an error of the client
+     *
+     * @param statusCode the status code of the error
+     * @param reason     the reason of the closing
+     * @return null, as no message can be read anymore
+     * @throws IOException if the connection was lost
+     */
+    private String closeWithError(int statusCode, String reason) throws IOException {
+        sendClose(statusCode, reason);
+        throw new IOException(reason);
+    }
+
+    /**
+     * Queues the given text message, to be sent in a single frame; the message is dropped
+     * if the connection is closed
+     *
+     * @param text the message to send
+     */
+    void sendText(String text) {
+        queueFrame(OPCODE_TEXT, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Queues a close frame with the given status code and reason, unless one has already been queued,
+     * the socket being closed once it is sent
+     *
+     * @param statusCode the status code of the closing
+     * @param reason     the reason of the closing, of at most 123 bytes in UTF-8
+     */
+    void sendClose(int statusCode, String reason) {
+        byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[2 + reasonBytes.length];
+        payload[0] = (byte) (statusCode >> 8);
+        payload[1] = (byte) statusCode;
+        System.arraycopy(reasonBytes, 0, payload, 2, reasonBytes.length);
+        queueFrame(OPCODE_CLOSE, payload);
+    }
+
+    /**
+     * Queues a final frame of the given opcode, unmasked as it is sent by the server, unless a close frame
+     * has already been queued; the client is dropped if too many frames are waiting to be sent
+     *
+     * @param opcode  the opcode of the frame
+     * @param payload the payload of the frame
+     */
+    private void queueFrame(int opcode, byte[] payload) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(payload.length + 10);
+        frame.write(0x80 | opcode);
+        if (payload.length < 126) {
+            frame.write(payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            frame.write(126);
+            frame.write(payload.length >> 8);
+            frame.write(payload.length);
+        } else {
+            frame.write(127);
+            for (int shift = 56; shift >= 0; shift -= 8) frame.write((int) ((long) payload.length >> shift));
+        }
+        frame.writeBytes(payload);
+
+        queueLock.lock();
+        try {
+            if (isCloseQueued) return;
+            isCloseQueued = opcode == OPCODE_CLOSE;
+            // the client does not read the frames sent to it, it would block the threads sending them
+            if (!queuedFrames.offer(frame.toByteArray())) {
+                isCloseQueued = true;
+                closeSocket();
+            }
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued frames to the socket until the close frame is written or the connection is lost,
+     * and then closes the socket
+     */
+    private void writeFrames() {
+        try {
+            while (true) {
+                byte[] frame = queuedFrames.take();
+                out.write(frame);
+                // the frames queued meanwhile are sent together
+                if (queuedFrames.isEmpty()) out.flush();
+                if ((frame[0] & 0x0F) == OPCODE_CLOSE) break;
+            }
+            out.flush();
+        } catch (IOException | InterruptedException e) {
+            // the connection is lost or closed
+        } finally {
+            closeSocket();
+        }
+    }
+
+    /**
+     * Closes the socket of the connection, making the blocked reads and writes fail
+     */
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing more can be done with the socket
+        }
+    }
+
+    /**
+     * Closes the connection, after sending the queued frames and a close frame if none was sent,
+     * the socket being closed anyway if they could not be sent in time
+     */
+    @Override
+    public void close() {
+        sendClose(CLOSE_NORMAL, "");
+        try {
+            writer.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeSocket();
+    }
+}
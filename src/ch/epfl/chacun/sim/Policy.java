@@ -0,0 +1,29 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.ActionEncoder;
+import ch.epfl.chacun.GameState;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents the way a player chooses their actions in a simulated game
+ * <p>
+ * A policy is shared by all the games simulated at the same time, it must therefore be thread-safe,
+ * the randomness it needs being given by the random generator of the game.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+@FunctionalInterface
+public interface Policy {
+
+    /**
+     * Chooses and applies the next action of the current player of the given game state,
+     * whose next action is to place a tile, to retake a pawn, or to occupy a tile
+     *
+     * @param state     the current state of the game
+     * @param generator the random generator of the game
+     * @return the game state resulting from the chosen action, and the Base32-encoded action
+     */
+    ActionEncoder.StateAction play(GameState state, RandomGenerator generator);
+}
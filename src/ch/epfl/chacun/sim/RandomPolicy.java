@@ -0,0 +1,90 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Represents a policy choosing uniformly at random among all the legal actions of the current player,
+ * not placing or retaking any occupant being one of them
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class RandomPolicy implements Policy {
+
+    /**
+     * The order of the occupants that may be placed, which must not depend on the order of a set
+     * so that a game is always the same for a given seed
+     */
+    private static final Comparator<Occupant> OCCUPANT_COMPARATOR =
+            Comparator.comparingInt(Occupant::zoneId).thenComparing(Occupant::kind);
+
+    @Override
+    public ActionEncoder.StateAction play(GameState state, RandomGenerator generator) {
+        return switch (state.nextAction()) {
+            case PLACE_TILE -> {
+                List<PlacedTile> placements = possiblePlacements(state);
+                yield ActionEncoder.withPlacedTile(state, placements.get(generator.nextInt(placements.size())));
+            }
+            case RETAKE_PAWN -> {
+                List<Occupant> pawns = possiblePawnsToRetake(state);
+                yield ActionEncoder.withOccupantRemoved(state, pawns.get(generator.nextInt(pawns.size())));
+            }
+            case OCCUPY_TILE -> {
+                List<Occupant> occupants = possibleOccupants(state);
+                yield ActionEncoder.withNewOccupant(state, occupants.get(generator.nextInt(occupants.size())));
+            }
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Returns all the ways the current player can place the tile to place, sorted by position and rotation
+     *
+     * @param state the current state of the game, whose next action is to place a tile
+     * @return all the placed tiles that can be added to the board
+     */
+    public static List<PlacedTile> possiblePlacements(GameState state) {
+        List<PlacedTile> placements = new ArrayList<>();
+        for (Pos pos : state.board().sortedInsertionPositions()) {
+            for (Rotation rotation : Rotation.ALL) {
+                PlacedTile tile = new PlacedTile(state.tileToPlace(), state.currentPlayer(), rotation, pos);
+                if (state.board().canAddTile(tile)) placements.add(tile);
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Returns the pawns the current player can retake, preceded by null to retake none
+     *
+     * @param state the current state of the game, whose next action is to retake a pawn
+     * @return the pawns of the current player, preceded by null
+     */
+    public static List<Occupant> possiblePawnsToRetake(GameState state) {
+        List<Occupant> pawns = new ArrayList<>();
+        pawns.add(null);
+        for (Occupant occupant : state.board().sortedOccupants()) {
+            PlacedTile tile = state.board().tileWithId(Zone.tileId(occupant.zoneId()));
+            if (occupant.kind() == Occupant.Kind.PAWN && tile.placer() == state.currentPlayer()) pawns.add(occupant);
+        }
+        return pawns;
+    }
+
+    /**
+     * Returns the occupants the current player can place on the last placed tile, preceded by null to place none
+     *
+     * @param state the current state of the game, whose next action is to occupy a tile
+     * @return the occupants that may be placed on the last placed tile, preceded by null
+     */
+    public static List<Occupant> possibleOccupants(GameState state) {
+        List<Occupant> occupants = new ArrayList<>();
+        occupants.add(null);
+        state.lastTilePotentialOccupants().stream().sorted(OCCUPANT_COMPARATOR).forEach(occupants::add);
+        return occupants;
+    }
+}
@@ -0,0 +1,219 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * A headless simulator playing seeded games of ChaCuN from start to end,
+ * with a policy for each player, on all the cores of the machine.
+ * <p>
+ * The game of a given seed uses the tile decks shuffled by the same seed as in {@code Main},
+ * and the same random generator then drives the policies, so that it is always played the same way.
+ *
+ * @author Valerio De Santis (373247)
+ * @author Simon Lefort (371918)
+ */
+public final class Simulator {
+
+    /**
+     * The number of nanoseconds in a second
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * The percentiles of the latency of the moves reported by the simulator
+     */
+    private static final List<Double> REPORTED_PERCENTILES = List.of(50d, 90d, 99d, 99.9d, 100d);
+
+    private final SortedMap<PlayerColor, Policy> policies;
+    private final int parallelism;
+
+    /**
+     * Creates a new simulator
+     *
+     * @param policies    the policy of each player of the games, the players playing in the order of their colors
+     * @param parallelism the number of games played at the same time
+     * @throws IllegalArgumentException if there are less than two players or if the parallelism is not positive
+     */
+    public Simulator(Map<PlayerColor, Policy> policies, int parallelism) {
+        Preconditions.checkArgument(policies.size() >= 2 && parallelism > 0);
+        this.policies = Collections.unmodifiableSortedMap(new TreeMap<>(policies));
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Represents the result of a simulated game
+     *
+     * @param seed       the seed of the game
+     * @param finalState the final state of the game, whose final points have been counted
+     * @param actions    the Base32-encoded actions of the players, in the order they were played
+     * @param moveNanos  the time taken to choose and apply each action, in nanoseconds
+     */
+    public record GameResult(long seed, GameState finalState, List<String> actions, long[] moveNanos) {
+        /**
+         * Returns the number of actions played in the game
+         *
+         * @return the number of actions played in the game
+         */
+        public int moveCount() {
+            return moveNanos.length;
+        }
+    }
+
+    /**
+     * Represents the performance of the simulator over a batch of games
+     *
+     * @param gameCount    the number of games played
+     * @param moveCount    the total number of actions played
+     * @param elapsedNanos the time taken to play all the games, in nanoseconds
+     * @param sortedNanos  the time taken by each action, sorted in increasing order
+     */
+    public record Report(int gameCount, long moveCount, long elapsedNanos, long[] sortedNanos) {
+        /**
+         * Returns the number of games played per second
+         *
+         * @return the number of games played per second
+         */
+        public double gamesPerSecond() {
+            return gameCount * NANOS_PER_SECOND / elapsedNanos;
+        }
+
+        /**
+         * Returns the number of actions played per second, over all the cores
+         *
+         * @return the number of actions played per second
+         */
+        public double movesPerSecond() {
+            return moveCount * NANOS_PER_SECOND / elapsedNanos;
+        }
+
+        /**
+         * Returns the given percentile of the time taken by an action, using the nearest-rank method
+         *
+         * @param percentile the percentile, between 0 (excluded) and 100
+         * @return the time within which the given percentage of the actions were played, in nanoseconds
+         * @throws IllegalArgumentException if the percentile is not between 0 (excluded) and 100,
+         *                                  or if no action was played
+         */
+        public long latencyPercentile(double percentile) {
+            Preconditions.checkArgument(percentile > 0 && percentile <= 100 && sortedNanos.length > 0);
+            int rank = (int) Math.ceil(percentile / 100 * sortedNanos.length);
+            return sortedNanos[Math.max(rank, 1) - 1];
+        }
+    }
+
+    /**
+     * Plays the game of the given seed from start to end
+     *
+     * @param seed the seed of the game
+     * @return the result of the game
+     */
+    public GameResult play(long seed) {
+        RandomGenerator generator = RandomGeneratorFactory.getDefault().create(seed);
+        TileDecks tileDecks = TileDecks.shuffled(generator);
+        Map<PlayerColor, String> names = policies.keySet().stream()
+                .collect(Collectors.toMap(color -> color, PlayerColor::toString));
+        GameState state = GameState.initial(List.copyOf(policies.keySet()), tileDecks, new TextMakerFr(names))
+                .withStartingTilePlaced();
+
+        List<String> actions = new ArrayList<>();
+        long[] moveNanos = new long[Tiles.TILES.size()];
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            long start = System.nanoTime();
+            ActionEncoder.StateAction stateAction = policies.get(state.currentPlayer()).play(state, generator);
+            long end = System.nanoTime();
+            if (actions.size() == moveNanos.length) moveNanos = Arrays.copyOf(moveNanos, 2 * moveNanos.length);
+            moveNanos[actions.size()] = end - start;
+            actions.add(stateAction.action());
+            state = stateAction.gameState();
+        }
+        return new GameResult(seed, state, List.copyOf(actions), Arrays.copyOf(moveNanos, actions.size()));
+    }
+
+    /**
+     * Plays the games of the given number of consecutive seeds, spread over the cores of the machine
+     *
+     * @param firstSeed the seed of the first game
+     * @param gameCount the number of games to play
+     * @return the results of the games, in the order of their seeds
+     * @throws IllegalArgumentException if the number of games is negative
+     */
+    public List<GameResult> playAll(long firstSeed, int gameCount) {
+        Preconditions.checkArgument(gameCount >= 0);
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            return pool.submit(() -> LongStream.range(firstSeed, firstSeed + gameCount)
+                    .parallel()
+                    .mapToObj(this::play)
+                    .toList()
+            ).join();
+        }
+    }
+
+    /**
+     * Plays the games of the given number of consecutive seeds and measures the performance of the simulator
+     *
+     * @param firstSeed the seed of the first game
+     * @param gameCount the number of games to play
+     * @return the performance of the simulator over the games
+     * @throws IllegalArgumentException if the number of games is negative
+     */
+    public Report benchmark(long firstSeed, int gameCount) {
+        long start = System.nanoTime();
+        List<GameResult> results = playAll(firstSeed, gameCount);
+        long elapsedNanos = System.nanoTime() - start;
+        long[] sortedNanos = results.stream()
+                .flatMapToLong(result -> Arrays.stream(result.moveNanos()))
+                .sorted()
+                .toArray();
+        return new Report(gameCount, sortedNanos.length, elapsedNanos, sortedNanos);
+    }
+
+    /**
+     * Plays a batch of random games and prints the performance of the simulator, the arguments being
+     * --games=N (1000 by default), --seed=S (0 by default), --players=P (between 2 and 5, 4 by default),
+     * --threads=T (the number of processors by default), --warmup=W (the number of games played beforehand
+     * to warm up the virtual machine, 100 by default)
+     *
+     * @param args the arguments of the simulator
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            Preconditions.checkArgument(option.length == 2);
+            options.put(option[0], option[1]);
+        }
+        int gameCount = Integer.parseInt(options.getOrDefault("games", "1000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "0"));
+        int playerCount = Integer.parseInt(options.getOrDefault("players", "4"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        int warmupCount = Integer.parseInt(options.getOrDefault("warmup", "100"));
+        Preconditions.checkArgument(playerCount >= 2 && playerCount <= PlayerColor.ALL.size());
+
+        Policy policy = new RandomPolicy();
+        Map<PlayerColor, Policy> policies = PlayerColor.ALL.subList(0, playerCount).stream()
+                .collect(Collectors.toMap(color -> color, color -> policy));
+        Simulator simulator = new Simulator(policies, threads);
+
+        simulator.playAll(seed - warmupCount, warmupCount);
+        Report report = simulator.benchmark(seed, gameCount);
+
+        System.out.printf("%d games, %d moves, %d players, %d threads, %.3f s%n",
+                report.gameCount(), report.moveCount(), playerCount, threads,
+                report.elapsedNanos() / NANOS_PER_SECOND);
+        System.out.printf("%.1f games/s, %.1f moves/s%n", report.gamesPerSecond(), report.movesPerSecond());
+        if (report.moveCount() == 0) return;
+        for (double percentile : REPORTED_PERCENTILES) {
+            System.out.printf("p%s move latency: %.1f us%n",
+                    percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile),
+                    report.latencyPercentile(percentile) / 1e3);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the memory allocated by the transitions of the board when its tiles are stored
+ * in a flat array (copied at every transition) and in a chunked array (only partially copied).
+ * <p>
+ * This class is not run with the other tests (its name does not end with Test),
+ * it can be run explicitly with the --select-class option of the JUnit console.
+ */
+class BoardMemoryBenchmark {
+
+    private static final int WIDTH = 2 * Board.REACH + 1;
+    private static final int ROUNDS = 200;
+
+    private static long allocatedBytes() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    /**
+     * Places every normal tile of the game at the first position and rotation where it fits,
+     * the resulting list of placed tiles is the same at every run
+     */
+    private static List<PlacedTile> recordedGame() {
+        var board = Board.EMPTY.withNewTile(new PlacedTile(Tiles.TILES.get(56), null, Rotation.NONE, Pos.ORIGIN));
+        var placedTiles = new ArrayList<PlacedTile>();
+        placedTiles.add(board.lastPlacedTile());
+        for (var tile : Tiles.TILES) {
+            if (tile.kind() != Tile.Kind.NORMAL) continue;
+            PlacedTile placedTile = board.insertionPositions().stream()
+                    .flatMap(pos -> Rotation.ALL.stream()
+                            .map(rotation -> new PlacedTile(tile, PlayerColor.RED, rotation, pos)))
+                    .filter(board::canAddTile)
+                    .findFirst()
+                    .orElse(null);
+            if (placedTile == null) continue;
+            board = board.withNewTile(placedTile);
+            placedTiles.add(placedTile);
+        }
+        return placedTiles;
+    }
+
+    private static int indexOf(Pos pos) {
+        return (pos.y() + Board.REACH) * WIDTH + (pos.x() + Board.REACH);
+    }
+
+    @Test
+    void chunkedArrayAllocatesLessThanFlatArray() {
+        var game = recordedGame();
+        var transitions = (long) ROUNDS * game.size();
+
+        long flatBefore = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round += 1) {
+            var placedTiles = new PlacedTile[WIDTH * WIDTH];
+            var orderedTileIndexes = new int[0];
+            for (var tile : game) {
+                // what the board used to do at every transition
+                placedTiles = placedTiles.clone();
+                placedTiles[indexOf(tile.pos())] = tile;
+                orderedTileIndexes = Arrays.copyOf(orderedTileIndexes, orderedTileIndexes.length + 1);
+                orderedTileIndexes[orderedTileIndexes.length - 1] = indexOf(tile.pos());
+            }
+        }
+        long flatBytes = (allocatedBytes() - flatBefore) / transitions;
+
+        long chunkedBefore = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round += 1) {
+            var placedTiles = ChunkedArray.<PlacedTile>ofLength(WIDTH * WIDTH);
+            var orderedTileIndexes = ChunkedIntArray.filled(WIDTH * WIDTH, -1);
+            for (int i = 0; i < game.size(); i += 1) {
+                var tile = game.get(i);
+                placedTiles = placedTiles.with(indexOf(tile.pos()), tile);
+                orderedTileIndexes = orderedTileIndexes.with(i, indexOf(tile.pos()));
+            }
+        }
+        long chunkedBytes = (allocatedBytes() - chunkedBefore) / transitions;
+
+        long boardBefore = allocatedBytes();
+        for (int round = 0; round < ROUNDS; round += 1) {
+            var board = Board.EMPTY;
+            for (var tile : game) board = board.withNewTile(tile);
+        }
+        long boardBytes = (allocatedBytes() - boardBefore) / transitions;
+
+        System.out.printf("%d tiles per game, allocated bytes per transition:%n", game.size());
+        System.out.printf("  flat tile array:      %6d%n", flatBytes);
+        System.out.printf("  chunked tile array:   %6d%n", chunkedBytes);
+        System.out.printf("  Board.withNewTile:    %6d (including the zone partitions)%n", boardBytes);
+        assertTrue(chunkedBytes < flatBytes);
+    }
+}
@@ -65,6 +65,32 @@ class BoardTest {
             var tileId = i;
             assertThrows(IllegalArgumentException.class, () -> board.tileWithId(tileId));
         }
+        assertThrows(IllegalArgumentException.class, () -> board.tileWithId(-1));
+        assertThrows(IllegalArgumentException.class, () -> board.tileWithId(95));
+    }
+
+    @Test
+    void boardTileWithIdWorksWithManyTiles() {
+        var allTiles = allTiles();
+        var board = Board.EMPTY.withNewTile(new PlacedTile(allTiles.get(56), null, Rotation.NONE, Pos.ORIGIN));
+        var placedPositions = new ArrayList<Pos>(List.of(Pos.ORIGIN));
+        for (var tile : allTiles) {
+            if (tile.kind() != Tile.Kind.NORMAL) continue;
+            var currentBoard = board;
+            var placedTile = board.insertionPositions().stream()
+                    .flatMap(pos -> Rotation.ALL.stream()
+                            .map(rotation -> new PlacedTile(tile, PlayerColor.RED, rotation, pos)))
+                    .filter(currentBoard::canAddTile)
+                    .findFirst();
+            if (placedTile.isEmpty()) continue;
+            board = board.withNewTile(placedTile.get());
+            placedPositions.add(placedTile.get().pos());
+            assertSame(placedTile.get(), board.tileWithId(tile.id()));
+        }
+        for (var pos : placedPositions) {
+            var placedTile = board.tileAt(pos);
+            assertSame(placedTile, board.tileWithId(placedTile.id()));
+        }
     }
 
     @Test
@@ -97,6 +123,66 @@ class BoardTest {
         assertEquals(cancelledAnimals, board.cancelledAnimals());
     }
 
+    private static boolean isAreaOfOccupantFree(Board board, PlacedTile tile, Occupant occupant) {
+        return switch (tile.zoneWithId(occupant.zoneId())) {
+            case Zone.Forest forest -> !board.forestArea(forest).isOccupied();
+            case Zone.Meadow meadow -> !board.meadowArea(meadow).isOccupied();
+            case Zone.River river when occupant.kind() == Occupant.Kind.PAWN -> !board.riverArea(river).isOccupied();
+            case Zone.Water water -> !board.riverSystemArea(water).isOccupied();
+        };
+    }
+
+    @Test
+    void boardOccupantCountsAndSortedOccupantsAreConsistentWithTiles() {
+        var rng = new Random(2024);
+        var allTiles = allTiles();
+        var board = Board.EMPTY.withNewTile(new PlacedTile(allTiles.get(56), null, Rotation.NONE, Pos.ORIGIN));
+        var placedPositions = new ArrayList<Pos>(List.of(Pos.ORIGIN));
+        for (var tile : allTiles) {
+            if (tile.kind() != Tile.Kind.NORMAL) continue;
+            var player = PlayerColor.ALL.get(rng.nextInt(PlayerColor.ALL.size()));
+            var currentBoard = board;
+            var placedTile = board.insertionPositions().stream()
+                    .flatMap(pos -> Rotation.ALL.stream()
+                            .map(rotation -> new PlacedTile(tile, player, rotation, pos)))
+                    .filter(currentBoard::canAddTile)
+                    .findFirst();
+            if (placedTile.isEmpty()) continue;
+            board = board.withNewTile(placedTile.get());
+            placedPositions.add(placedTile.get().pos());
+
+            var finalBoard = board;
+            var occupant = placedTile.get().potentialOccupants().stream()
+                    .filter(o -> isAreaOfOccupantFree(finalBoard, placedTile.get(), o))
+                    .findFirst();
+            if (occupant.isPresent()) board = board.withOccupant(occupant.get());
+            var pawns = board.sortedOccupants().stream().filter(o -> o.kind() == Occupant.Kind.PAWN).toList();
+            if (rng.nextInt(4) == 0 && !pawns.isEmpty())
+                board = board.withoutOccupant(pawns.get(rng.nextInt(pawns.size())));
+            if (rng.nextInt(8) == 0) {
+                board = board.withoutGatherersOrFishersIn(
+                        board.forestsClosedByLastTile(), board.riversClosedByLastTile());
+            }
+
+            var tiles = placedPositions.stream().map(board::tileAt).toList();
+            var expectedOccupants = tiles.stream()
+                    .map(PlacedTile::occupant)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingInt(Occupant::zoneId))
+                    .toList();
+            assertEquals(expectedOccupants, board.sortedOccupants());
+            assertEquals(Set.copyOf(expectedOccupants), board.occupants());
+            for (var color : PlayerColor.ALL) {
+                for (var kind : Occupant.Kind.ALL) {
+                    var expectedCount = tiles.stream()
+                            .filter(t -> t.placer() == color && t.occupant() != null && t.occupant().kind() == kind)
+                            .count();
+                    assertEquals(expectedCount, board.occupantCount(color, kind));
+                }
+            }
+        }
+    }
+
     @Test
     void boardOccupantsWorksOnSmallExample() {
         var allTiles = allTiles();
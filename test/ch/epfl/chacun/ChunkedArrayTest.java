@@ -0,0 +1,82 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedArrayTest {
+    @Test
+    void chunkedArrayOfLengthOnlyContainsNull() {
+        var array = ChunkedArray.<String>ofLength(625);
+        assertEquals(625, array.length());
+        for (int i = 0; i < array.length(); i += 1) assertNull(array.get(i));
+    }
+
+    @Test
+    void chunkedArrayOfLengthThrowsOnNegativeLength() {
+        assertThrows(IllegalArgumentException.class, () -> ChunkedArray.ofLength(-1));
+    }
+
+    @Test
+    void chunkedArrayGetAndWithThrowOnInvalidIndex() {
+        var array = ChunkedArray.<String>ofLength(40);
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(40));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.with(40, "a"));
+    }
+
+    @Test
+    void chunkedArrayWithBehavesLikeAnArrayCopy() {
+        var rng = new Random(2024);
+        var expected = new Integer[625];
+        var array = ChunkedArray.<Integer>ofLength(expected.length);
+        for (int i = 0; i < 2000; i += 1) {
+            var index = rng.nextInt(expected.length);
+            var value = rng.nextInt();
+            var previousExpected = expected.clone();
+            var previousArray = array;
+
+            expected[index] = value;
+            array = array.with(index, value);
+
+            for (int j = 0; j < expected.length; j += 1) {
+                assertEquals(expected[j], array.get(j));
+                assertEquals(previousExpected[j], previousArray.get(j));
+            }
+        }
+    }
+
+    @Test
+    void chunkedArrayBuilderNeverModifiesTheArraysItBuilt() {
+        var rng = new Random(2024);
+        var expected = new String[100];
+        var initial = ChunkedArray.<String>ofLength(expected.length);
+        var builder = new ChunkedArray.Builder<>(initial);
+        var built = new ArrayList<ChunkedArray<String>>();
+        var builtExpected = new ArrayList<String[]>();
+        for (int i = 0; i < 500; i += 1) {
+            if (i % 50 == 49) {
+                expected = Arrays.copyOf(expected, expected.length + 40);
+                builder.grow(expected.length);
+            }
+            var index = rng.nextInt(expected.length);
+            expected[index] = Integer.toString(i);
+            builder.set(index, expected[index]);
+            assertEquals(expected[index], builder.get(index));
+            if (i % 7 == 0) {
+                built.add(builder.build());
+                builtExpected.add(expected.clone());
+            }
+        }
+        for (int i = 0; i < built.size(); i += 1) {
+            assertEquals(builtExpected.get(i).length, built.get(i).length());
+            for (int j = 0; j < builtExpected.get(i).length; j += 1)
+                assertEquals(builtExpected.get(i)[j], built.get(i).get(j));
+        }
+        for (int j = 0; j < initial.length(); j += 1) assertNull(initial.get(j));
+    }
+}
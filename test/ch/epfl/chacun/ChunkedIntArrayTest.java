@@ -0,0 +1,86 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedIntArrayTest {
+    @Test
+    void chunkedIntArrayFilledOnlyContainsDefaultValue() {
+        var array = ChunkedIntArray.filled(95, -1);
+        assertEquals(95, array.length());
+        for (int i = 0; i < array.length(); i += 1) assertEquals(-1, array.get(i));
+    }
+
+    @Test
+    void chunkedIntArrayFilledThrowsOnNegativeLength() {
+        assertThrows(IllegalArgumentException.class, () -> ChunkedIntArray.filled(-1, 0));
+    }
+
+    @Test
+    void chunkedIntArrayGetAndWithThrowOnInvalidIndex() {
+        var array = ChunkedIntArray.filled(40, 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(40));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.with(40, 1));
+    }
+
+    @Test
+    void chunkedIntArrayWithBehavesLikeAnArrayCopy() {
+        var rng = new Random(2024);
+        var expected = new int[625];
+        Arrays.fill(expected, 7);
+        var array = ChunkedIntArray.filled(expected.length, 7);
+        for (int i = 0; i < 2000; i += 1) {
+            var index = rng.nextInt(expected.length);
+            var value = rng.nextInt();
+            var previousExpected = expected.clone();
+            var previousArray = array;
+
+            expected[index] = value;
+            array = array.with(index, value);
+
+            for (int j = 0; j < expected.length; j += 1) {
+                assertEquals(expected[j], array.get(j));
+                assertEquals(previousExpected[j], previousArray.get(j));
+            }
+        }
+    }
+
+    @Test
+    void chunkedIntArrayBuilderNeverModifiesTheArraysItBuilt() {
+        var rng = new Random(2024);
+        var expected = new int[100];
+        Arrays.fill(expected, -1);
+        var initial = ChunkedIntArray.filled(expected.length, -1);
+        var builder = new ChunkedIntArray.Builder(initial);
+        var built = new ArrayList<ChunkedIntArray>();
+        var builtExpected = new ArrayList<int[]>();
+        for (int i = 0; i < 500; i += 1) {
+            if (i % 50 == 49) {
+                expected = Arrays.copyOf(expected, expected.length + 40);
+                Arrays.fill(expected, expected.length - 40, expected.length, -1);
+                builder.grow(expected.length);
+            }
+            var index = rng.nextInt(expected.length);
+            expected[index] = rng.nextInt();
+            builder.set(index, expected[index]);
+            assertEquals(expected[index], builder.get(index));
+            if (i % 7 == 0) {
+                built.add(builder.build());
+                builtExpected.add(expected.clone());
+            }
+        }
+        for (int i = 0; i < built.size(); i += 1) {
+            assertEquals(builtExpected.get(i).length, built.get(i).length());
+            for (int j = 0; j < builtExpected.get(i).length; j += 1)
+                assertEquals(builtExpected.get(i)[j], built.get(i).get(j));
+        }
+        for (int j = 0; j < initial.length(); j += 1) assertEquals(-1, initial.get(j));
+        assertThrows(IndexOutOfBoundsException.class, () -> builder.set(-1, 0));
+    }
+}
@@ -0,0 +1,37 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckTest {
+    @Test
+    void deckWithTopTilesDrawnBehavesLikeSubList() {
+        var tiles = Tiles.TILES;
+        var deck = Deck.copyOf(tiles);
+        assertEquals(tiles, deck);
+        for (int i = 0; i <= tiles.size(); i += 1) {
+            var drawn = deck.withTopTilesDrawn(i);
+            assertEquals(tiles.subList(i, tiles.size()), drawn);
+            assertEquals(tiles.subList(i, tiles.size()).hashCode(), drawn.hashCode());
+        }
+        assertSame(deck, deck.withTopTilesDrawn(0));
+        assertThrows(IllegalArgumentException.class, () -> deck.withTopTilesDrawn(tiles.size() + 1));
+        assertThrows(IllegalArgumentException.class, () -> deck.withTopTilesDrawn(-1));
+    }
+
+    @Test
+    void deckIsImmutable() {
+        var tiles = new ArrayList<>(Tiles.TILES.subList(0, 3));
+        var deck = Deck.copyOf(tiles);
+        tiles.clear();
+        assertEquals(Tiles.TILES.subList(0, 3), deck);
+        assertSame(deck, Deck.copyOf(deck));
+        assertThrows(UnsupportedOperationException.class, () -> deck.add(Tiles.TILES.getFirst()));
+        assertThrows(UnsupportedOperationException.class, () -> deck.removeFirst());
+        assertThrows(IndexOutOfBoundsException.class, () -> deck.get(3));
+        assertThrows(NullPointerException.class, () -> Deck.copyOf(Arrays.asList((Tile) null)));
+    }
+}
@@ -0,0 +1,122 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+    /**
+     * Returns the states of the seeded game, starting with the one before the starting tile is placed
+     */
+    private static List<GameState> statesOf(SeededGame game) {
+        var initialState = GameState.initial(game.players(), TileDecks.shuffled(game.seed()), SeededGame.TEXT_MAKER);
+        var states = new ArrayList<>(List.of(initialState));
+        states.addAll(game.states());
+        return states;
+    }
+
+    private static GameEngine newEngine(long seed, int playerCount) {
+        return new GameEngine(SeededGame.players(playerCount), TileDecks.shuffled(seed), SeededGame.TEXT_MAKER);
+    }
+
+    @Test
+    void gameEngineAgreesWithGameStateOnSeededGames() {
+        for (int playerCount = 2; playerCount <= 5; playerCount += 1) {
+            for (long seed = 0; seed < 8; seed += 1) {
+                var game = SeededGame.play(seed, playerCount);
+                var actions = game.actions();
+                var states = statesOf(game);
+                var engine = newEngine(seed, playerCount);
+                assertEquals(states.getFirst(), engine.state());
+
+                engine.startGame();
+                assertEquals(states.get(1), engine.state());
+                for (int i = 0; i < actions.size(); i += 1) {
+                    assertTrue(engine.apply(actions.get(i)));
+                    var state = states.get(i + 2);
+                    assertEquals(state, engine.state());
+                    assertEquals(state.nextAction(), engine.nextAction());
+                    assertEquals(state.currentPlayer(), engine.currentPlayer());
+                    assertEquals(state.tileToPlace(), engine.tileToPlace());
+                }
+                assertEquals(GameState.Action.END_GAME, engine.nextAction());
+                assertEquals(actions.size() + 1, engine.historySize());
+
+                // the game is played again without building the states,
+                // so that undoing it has to revert the engine and not only to restore the states
+                engine.undo(actions.size());
+                for (var action : actions) assertTrue(engine.apply(action));
+                for (int i = states.size() - 2; i >= 0; i -= 1) {
+                    engine.undo();
+                    assertEquals(states.get(i), engine.state());
+                }
+                assertFalse(engine.canUndo());
+            }
+        }
+    }
+
+    @Test
+    void gameEngineReplaysTheGameAfterUndoingIt() {
+        var game = SeededGame.play(5, 3);
+        var actions = game.actions();
+        var states = statesOf(game);
+        var engine = newEngine(5, 3);
+        engine.startGame();
+        for (var action : actions) assertTrue(engine.apply(action));
+
+        var rng = new Random(5);
+        for (int i = 0; i < 20; i += 1) {
+            int position = 1 + rng.nextInt(engine.historySize());
+            engine.undo(engine.historySize() - position);
+            assertEquals(states.get(position), engine.state());
+            for (var action : actions.subList(position - 1, actions.size())) assertTrue(engine.apply(action));
+            assertEquals(states.getLast(), engine.state());
+        }
+    }
+
+    @Test
+    void gameEngineRejectsTheActionsRejectedByActionEncoder() {
+        var game = SeededGame.play(7, 4);
+        var actions = game.actions();
+        var states = statesOf(game);
+        var engine = newEngine(7, 4);
+        engine.startGame();
+        var candidates = new ArrayList<String>(List.of("", "!", "AAA"));
+        for (int i = 0; i < 32; i += 1) candidates.add(Base32.encodeBits5(i));
+        for (int i = 0; i < 1024; i += 1) candidates.add(Base32.encodeBits10(i));
+
+        for (int i = 0; i < actions.size(); i += 7) {
+            engine.undo(engine.historySize() - 1);
+            for (var action : actions.subList(0, i)) engine.apply(action);
+            var state = states.get(i + 1);
+            for (var candidate : candidates) {
+                var stateAction = ActionEncoder.decodeAndApply(state, candidate);
+                assertEquals(stateAction != null, engine.apply(candidate));
+                if (stateAction != null) {
+                    assertEquals(stateAction.gameState(), engine.state());
+                    engine.undo();
+                }
+                assertEquals(state, engine.state());
+            }
+        }
+    }
+
+    @Test
+    void gameEngineIsLeftUnchangedByAFailedAction() {
+        var engine = newEngine(1, 2);
+        assertThrows(IllegalArgumentException.class, () -> engine.placeTile(null));
+        engine.startGame();
+        var state = engine.state();
+        var tile = new PlacedTile(engine.tileToPlace(), PlayerColor.RED, Rotation.NONE, new Pos(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> engine.placeTile(tile));
+        assertThrows(IllegalArgumentException.class, () -> engine.placeOccupant(null));
+        assertThrows(IllegalArgumentException.class, engine::startGame);
+        assertEquals(1, engine.historySize());
+        assertEquals(state, engine.state());
+        assertThrows(IllegalArgumentException.class, () -> engine.undo(2));
+        engine.undo();
+        assertThrows(IllegalArgumentException.class, engine::undo);
+    }
+}
@@ -0,0 +1,90 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameReplayTest {
+    private static final List<PlayerColor> PLAYERS = SeededGame.players(3);
+    private static final TextMaker TEXT_MAKER = SeededGame.TEXT_MAKER;
+
+    @Test
+    void gameReplaySeeksToEveryState() {
+        var game = SeededGame.play(3, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var replay = GameReplay.of(3, PLAYERS, TEXT_MAKER, actions, 16);
+        assertEquals(actions, replay.actions());
+        assertEquals(states.getLast(), replay.lastState());
+        assertEquals(0, replay.position());
+        assertEquals(states.getFirst(), replay.state());
+
+        var rng = new Random(3);
+        for (int i = 0; i < 200; i += 1) {
+            int position = rng.nextInt(actions.size() + 1);
+            assertEquals(states.get(position), replay.seek(position));
+            assertEquals(position, replay.position());
+        }
+    }
+
+    @Test
+    void gameReplaySeekAppliesAtMostTheCheckpointInterval() {
+        var actions = SeededGame.play(4, PLAYERS.size()).actions();
+        var replay = GameReplay.of(4, PLAYERS, TEXT_MAKER, List.of(), 10);
+        // the checkpoints are the states reached while the actions are appended
+        var checkpoints = new ArrayList<>(List.of(replay.lastState()));
+        for (var action : actions) {
+            assertTrue(replay.append(action));
+            if (replay.size() % 10 == 0) checkpoints.add(replay.lastState());
+        }
+        for (int position = actions.size(); position >= 0; position -= 7) {
+            replay.seek(position);
+            // the state is reached from the checkpoint preceding it, by less than 10 actions
+            for (int i = 0; i < position % 10; i += 1) replay.stepBackward();
+            assertSame(checkpoints.get(position / 10), replay.state());
+        }
+    }
+
+    @Test
+    void gameReplayStepsForwardAndBackward() {
+        var game = SeededGame.play(5, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var replay = GameReplay.of(5, PLAYERS, TEXT_MAKER, actions, 8);
+        for (int i = 1; i <= actions.size(); i += 1) assertEquals(states.get(i), replay.stepForward());
+        assertThrows(IndexOutOfBoundsException.class, replay::stepForward);
+
+        // stepping backward inside a segment reuses its states
+        var segmentStates = new ArrayList<GameState>();
+        for (int i = 16; i <= 20; i += 1) segmentStates.add(replay.seek(i));
+        for (int i = 19; i >= 16; i -= 1) assertSame(segmentStates.get(i - 16), replay.stepBackward());
+        for (int i = 15; i >= 0; i -= 1) assertEquals(states.get(i), replay.stepBackward());
+        assertThrows(IndexOutOfBoundsException.class, replay::stepBackward);
+    }
+
+    @Test
+    void gameReplayAppendsActionsOfALiveGame() {
+        var game = SeededGame.play(6, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var replay = GameReplay.of(6, PLAYERS, TEXT_MAKER, List.of(), 4);
+        for (int i = 0; i < actions.size(); i += 1) {
+            assertTrue(replay.append(actions.get(i)));
+            assertEquals(0, replay.position());
+            assertEquals(states.get(i + 1), replay.lastState());
+        }
+        assertFalse(replay.append("!!"));
+        assertEquals(actions.size(), replay.size());
+        assertEquals(states.get(actions.size() / 2), replay.seek(actions.size() / 2));
+    }
+
+    @Test
+    void gameReplayConstructorThrowsOnInvalidArguments() {
+        var actions = new ArrayList<>(SeededGame.play(7, PLAYERS.size()).actions());
+        assertThrows(IllegalArgumentException.class, () -> GameReplay.of(7, PLAYERS, TEXT_MAKER, actions, 0));
+        actions.add(1, actions.get(0));
+        assertThrows(IllegalArgumentException.class, () -> GameReplay.of(7, PLAYERS, TEXT_MAKER, actions, 4));
+    }
+}
@@ -0,0 +1,73 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageLogTest {
+    private static MessageBoard.Message randomMessage(Random rng, int i) {
+        var scorers = new HashSet<PlayerColor>();
+        for (var color : PlayerColor.ALL) if (rng.nextInt(4) == 0) scorers.add(color);
+        return new MessageBoard.Message(STR."message \{i}", rng.nextInt(10), scorers, Set.of(i));
+    }
+
+    private static Map<PlayerColor, Integer> naivePoints(List<MessageBoard.Message> messages) {
+        var points = new HashMap<PlayerColor, Integer>();
+        for (var message : messages) {
+            for (var scorer : message.scorers()) points.merge(scorer, message.points(), Integer::sum);
+        }
+        return points;
+    }
+
+    @Test
+    void messageLogBehavesLikeAnArrayListWhenBranching() {
+        var rng = new Random(2024);
+        var logs = new ArrayList<MessageLog>(List.of(MessageLog.copyOf(List.of())));
+        var expectedLogs = new ArrayList<List<MessageBoard.Message>>(List.of(List.of()));
+        for (int i = 0; i < 2000; i += 1) {
+            // appends to a random former log most of the time to the last one
+            int index = rng.nextInt(4) == 0 ? rng.nextInt(logs.size()) : logs.size() - 1;
+            var message = randomMessage(rng, i);
+            var expected = new ArrayList<>(expectedLogs.get(index));
+            expected.add(message);
+            logs.add(logs.get(index).with(message));
+            expectedLogs.add(expected);
+        }
+        for (int i = 0; i < logs.size(); i += 1) {
+            assertEquals(expectedLogs.get(i), logs.get(i));
+            assertEquals(expectedLogs.get(i).hashCode(), logs.get(i).hashCode());
+            assertEquals(naivePoints(expectedLogs.get(i)), logs.get(i).points());
+        }
+    }
+
+    @Test
+    void messageLogCopyOfWorks() {
+        var rng = new Random(2024);
+        var messages = IntStream.range(0, 100).mapToObj(i -> randomMessage(rng, i)).toList();
+        var log = MessageLog.copyOf(messages);
+        assertEquals(messages, log);
+        assertEquals(naivePoints(messages), log.points());
+        assertSame(log, MessageLog.copyOf(log));
+        assertThrows(UnsupportedOperationException.class, () -> log.add(messages.getFirst()));
+        assertThrows(UnsupportedOperationException.class, () -> log.points().clear());
+        assertThrows(IndexOutOfBoundsException.class, () -> log.get(100));
+    }
+
+    @Test
+    void messageLogWorksWhenAppendingConcurrently() {
+        var rng = new Random(2024);
+        var base = MessageLog.copyOf(IntStream.range(0, 10).mapToObj(i -> randomMessage(rng, i)).toList());
+        var messages = IntStream.range(0, 1000).mapToObj(i -> randomMessage(rng, i)).toList();
+        var results = new ConcurrentHashMap<Integer, MessageLog>();
+        IntStream.range(0, messages.size()).parallel().forEach(i -> results.put(i, base.with(messages.get(i))));
+        for (int i = 0; i < messages.size(); i += 1) {
+            var expected = new ArrayList<>(base);
+            expected.add(messages.get(i));
+            assertEquals(expected, results.get(i));
+        }
+    }
+}
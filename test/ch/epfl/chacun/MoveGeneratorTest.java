@@ -0,0 +1,105 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+    private static final List<PlayerColor> PLAYERS = SeededGame.players(3);
+
+    private static GameState initialState(long seed) {
+        return SeededGame.initialState(seed, PLAYERS.size());
+    }
+
+    /**
+     * Returns the legal actions of the given state, computed with the placed tiles and occupants of the random policy
+     */
+    private static List<String> expectedActions(GameState state) {
+        var actions = new ArrayList<String>();
+        switch (state.nextAction()) {
+            case PLACE_TILE -> RandomPolicy.possiblePlacements(state)
+                    .forEach(tile -> actions.add(ActionEncoder.withPlacedTile(state, tile).action()));
+            case RETAKE_PAWN -> RandomPolicy.possiblePawnsToRetake(state)
+                    .forEach(pawn -> actions.add(ActionEncoder.withOccupantRemoved(state, pawn).action()));
+            case OCCUPY_TILE -> RandomPolicy.possibleOccupants(state)
+                    .forEach(occupant -> actions.add(ActionEncoder.withNewOccupant(state, occupant).action()));
+            default -> fail();
+        }
+        return actions;
+    }
+
+    @Test
+    void moveGeneratorGeneratesTheActionsOfTheRandomPolicy() {
+        var moves = new int[MoveGenerator.MAX_MOVE_COUNT];
+        for (long seed = 0; seed < 5; seed += 1) {
+            var generator = RandomGeneratorFactory.getDefault().create(seed);
+            var policy = new RandomPolicy();
+            var state = initialState(seed);
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                int moveCount = MoveGenerator.legalMoves(state, moves);
+                var actions = new ArrayList<String>();
+                for (int i = 0; i < moveCount; i++) actions.add(MoveGenerator.encoded(state, moves[i]));
+                assertEquals(expectedActions(state), actions);
+                state = policy.play(state, generator).gameState();
+            }
+        }
+    }
+
+    @Test
+    void moveGeneratorMovesCanBeAppliedByTheActionEncoder() {
+        var moves = new int[MoveGenerator.MAX_MOVE_COUNT];
+        var generator = RandomGeneratorFactory.getDefault().create(1);
+        var state = initialState(1);
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            int moveCount = MoveGenerator.legalMoves(state, moves);
+            assertTrue(moveCount > 0);
+            for (int i = 0; i < moveCount; i++)
+                assertNotNull(ActionEncoder.decodeAndApply(state, MoveGenerator.encoded(state, moves[i])));
+            state = ActionEncoder.decodeAndApply(state,
+                    MoveGenerator.encoded(state, moves[generator.nextInt(moveCount)])).gameState();
+        }
+    }
+
+    @Test
+    void moveGeneratorDoesNotAllocate() {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var generator = RandomGeneratorFactory.getDefault().create(2);
+        var policy = new RandomPolicy();
+        var states = new ArrayList<GameState>();
+        var state = initialState(2);
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            states.add(state);
+            state = policy.play(state, generator).gameState();
+        }
+
+        var moves = new int[MoveGenerator.MAX_MOVE_COUNT];
+        int totalMoveCount = 0;
+        // the first round fills the caches of the boards, and lets the JIT compile the generator
+        for (int round = 0; round < 20; round++) {
+            for (var s : states) totalMoveCount += MoveGenerator.legalMoves(s, moves);
+        }
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        for (var s : states) totalMoveCount += MoveGenerator.legalMoves(s, moves);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        assertTrue(totalMoveCount > 0);
+        // the measure itself may allocate a few bytes
+        assertTrue(allocated < 1024, STR."\{allocated} bytes allocated");
+    }
+
+    @Test
+    void moveGeneratorThrowsOnTooSmallArrays() {
+        var state = initialState(3);
+        assertThrows(IllegalArgumentException.class, () -> MoveGenerator.legalMoves(state, new int[3]));
+        assertThrows(IllegalArgumentException.class, () -> MoveGenerator.legalMoves(
+                GameState.initial(PLAYERS, TileDecks.shuffled(3), new TextMakerFr(Map.of())),
+                new int[MoveGenerator.MAX_MOVE_COUNT]));
+    }
+}
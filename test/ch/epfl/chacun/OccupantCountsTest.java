@@ -0,0 +1,85 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupantCountsTest {
+    private static List<PlayerColor> randomOccupants(Random rng) {
+        var occupants = new ArrayList<PlayerColor>();
+        for (int i = rng.nextInt(8); i > 0; i -= 1) occupants.add(PlayerColor.ALL.get(rng.nextInt(5)));
+        return occupants;
+    }
+
+    @Test
+    void occupantCountsBehavesLikeASortedList() {
+        var rng = new Random(2024);
+        for (int i = 0; i < 500; i += 1) {
+            var occupants1 = randomOccupants(rng);
+            var occupants2 = randomOccupants(rng);
+            var counts1 = OccupantCounts.copyOf(occupants1);
+            var counts2 = OccupantCounts.copyOf(occupants2);
+
+            var sorted1 = occupants1.stream().sorted().toList();
+            assertEquals(sorted1, counts1);
+            assertEquals(counts1, sorted1);
+            assertEquals(sorted1.hashCode(), counts1.hashCode());
+
+            var sum = new ArrayList<>(occupants1);
+            sum.addAll(occupants2);
+            assertEquals(sum.stream().sorted().toList(), counts1.plus(counts2));
+
+            for (var color : PlayerColor.ALL) {
+                assertEquals(Collections.frequency(occupants1, color), counts1.count(color));
+                if (occupants1.contains(color)) {
+                    var expected = new ArrayList<>(sorted1);
+                    expected.remove(color);
+                    assertEquals(expected, counts1.minus(color));
+                } else {
+                    assertThrows(IllegalArgumentException.class, () -> counts1.minus(color));
+                }
+            }
+        }
+    }
+
+    @Test
+    void occupantCountsMajorityWorks() {
+        var rng = new Random(2024);
+        for (int i = 0; i < 500; i += 1) {
+            var occupants = randomOccupants(rng);
+            var max = PlayerColor.ALL.stream().mapToInt(c -> Collections.frequency(occupants, c)).max().orElse(0);
+            var expected = new HashSet<PlayerColor>();
+            for (var color : PlayerColor.ALL) {
+                if (max > 0 && Collections.frequency(occupants, color) == max) expected.add(color);
+            }
+            assertEquals(expected, OccupantCounts.copyOf(occupants).majority());
+
+            int expectedMask = 0;
+            for (var color : expected) expectedMask |= 1 << color.ordinal();
+            assertEquals(expectedMask, OccupantCounts.copyOf(occupants).majorityMask());
+        }
+    }
+
+    @Test
+    void occupantCountsMajoritySetsAreSharedAndImmutable() {
+        var counts1 = OccupantCounts.copyOf(List.of(PlayerColor.RED, PlayerColor.GREEN, PlayerColor.GREEN));
+        var counts2 = OccupantCounts.copyOf(List.of(PlayerColor.GREEN));
+        assertSame(counts1.majority(), counts2.majority());
+        assertEquals(List.of(PlayerColor.GREEN), List.copyOf(counts1.majority()));
+        assertThrows(UnsupportedOperationException.class, () -> counts1.majority().add(PlayerColor.RED));
+        assertSame(OccupantCounts.of().majority(), OccupantCounts.colorsOf(0));
+        assertEquals(Set.of(), OccupantCounts.of().majority());
+    }
+
+    @Test
+    void occupantCountsIsImmutable() {
+        var counts = OccupantCounts.copyOf(List.of(PlayerColor.RED, PlayerColor.BLUE));
+        assertThrows(UnsupportedOperationException.class, () -> counts.add(PlayerColor.RED));
+        assertThrows(UnsupportedOperationException.class, () -> counts.set(0, PlayerColor.RED));
+        assertThrows(IndexOutOfBoundsException.class, () -> counts.get(2));
+        assertSame(counts, OccupantCounts.copyOf(counts));
+        assertTrue(OccupantCounts.of().isEmpty());
+    }
+}
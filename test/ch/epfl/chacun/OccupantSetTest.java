@@ -0,0 +1,57 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupantSetTest {
+    @Test
+    void occupantSetEmptyIsEmpty() {
+        assertTrue(OccupantSet.EMPTY.isEmpty());
+        assertEquals(List.of(), OccupantSet.EMPTY.sortedList());
+        assertFalse(OccupantSet.EMPTY.contains(new Occupant(Occupant.Kind.PAWN, 0)));
+        assertFalse(OccupantSet.EMPTY.contains("not an occupant"));
+    }
+
+    @Test
+    void occupantSetWithAndWithoutBehaveLikeAHashSet() {
+        var rng = new Random(2024);
+        var expected = new HashSet<Occupant>();
+        var set = OccupantSet.EMPTY;
+        for (int i = 0; i < 1000; i += 1) {
+            var kind = Occupant.Kind.ALL.get(rng.nextInt(Occupant.Kind.ALL.size()));
+            var occupant = new Occupant(kind, rng.nextInt(50));
+            var previous = set;
+            var previousExpected = Set.copyOf(expected);
+            if (rng.nextBoolean()) {
+                expected.add(occupant);
+                set = set.with(occupant);
+            } else {
+                expected.remove(occupant);
+                set = set.without(occupant);
+            }
+            assertEquals(expected, set);
+            assertEquals(previousExpected, previous);
+        }
+    }
+
+    @Test
+    void occupantSetSortedListIsSortedByZoneId() {
+        var rng = new Random(2024);
+        var set = OccupantSet.EMPTY;
+        for (int i = 0; i < 30; i += 1) set = set.with(new Occupant(Occupant.Kind.PAWN, rng.nextInt(1000)));
+        var expected = set.stream().sorted(Comparator.comparingInt(Occupant::zoneId)).toList();
+        assertEquals(expected, set.sortedList());
+        assertThrows(UnsupportedOperationException.class, () -> OccupantSet.EMPTY.sortedList().clear());
+    }
+
+    @Test
+    void occupantSetWithExistingOccupantReturnsSameSet() {
+        var occupant = new Occupant(Occupant.Kind.HUT, 42);
+        var set = OccupantSet.EMPTY.with(occupant);
+        assertSame(set, set.with(occupant));
+        assertSame(set, set.without(new Occupant(Occupant.Kind.PAWN, 42)));
+    }
+}
@@ -0,0 +1,59 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementCheckerTest {
+    private static boolean couldPlaceTileNaively(Board board, Tile tile) {
+        return board.insertionPositions().stream()
+                .anyMatch(pos -> Rotation.ALL.stream()
+                        .anyMatch(rotation -> board.canAddTile(new PlacedTile(tile, null, rotation, pos))));
+    }
+
+    @Test
+    void placementCheckerFitsAgreesWithCanAddTile() {
+        var rng = new Random(2024);
+        var tiles = new ArrayList<>(Tiles.TILES.stream().filter(t -> t.kind() == Tile.Kind.NORMAL).toList());
+        Collections.shuffle(tiles, rng);
+        var board = Board.EMPTY.withNewTile(new PlacedTile(Tiles.TILES.get(56), null, Rotation.NONE, Pos.ORIGIN));
+        for (var tile : tiles) {
+            var checker = board.placementChecker();
+            var fringe = board.sortedInsertionPositions();
+            assertEquals(fringe.size(), checker.fringeSize());
+            var signatures = PlacementChecker.signatures(tile);
+            var candidates = new ArrayList<PlacedTile>();
+            for (int i = 0; i < fringe.size(); i += 1) {
+                for (var rotation : Rotation.ALL) {
+                    var placedTile = new PlacedTile(tile, PlayerColor.RED, rotation, fringe.get(i));
+                    assertEquals(board.canAddTile(placedTile), checker.fits(i, signatures[rotation.ordinal()]));
+                    if (board.canAddTile(placedTile)) candidates.add(placedTile);
+                }
+            }
+            assertEquals(couldPlaceTileNaively(board, tile), board.couldPlaceTile(tile));
+            var currentBoard = board;
+            var expectedIndex = IntStream.range(0, tiles.size())
+                    .filter(i -> couldPlaceTileNaively(currentBoard, tiles.get(i)))
+                    .findFirst()
+                    .orElse(tiles.size());
+            assertEquals(expectedIndex, board.firstPlaceableTileIndex(tiles));
+            if (!candidates.isEmpty()) board = board.withNewTile(candidates.get(rng.nextInt(candidates.size())));
+        }
+    }
+
+    @Test
+    void placementCheckerSignaturesOfCopiedTilesAreTheSame() {
+        for (var tile : Tiles.TILES) {
+            var copy = new Tile(tile.id(), tile.kind(), tile.n(), tile.e(), tile.s(), tile.w());
+            assertArrayEquals(PlacementChecker.signatures(tile), PlacementChecker.signatures(copy));
+        }
+    }
+
+    @Test
+    void couldPlaceTileIsFalseOnEmptyBoard() {
+        assertFalse(Board.EMPTY.couldPlaceTile(Tiles.TILES.get(0)));
+    }
+}
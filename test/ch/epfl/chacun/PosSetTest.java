@@ -0,0 +1,66 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PosSetTest {
+    @Test
+    void posSetEmptyIsEmpty() {
+        assertTrue(PosSet.EMPTY.isEmpty());
+        assertEquals(List.of(), PosSet.EMPTY.sortedList());
+        assertFalse(PosSet.EMPTY.contains(Pos.ORIGIN));
+    }
+
+    @Test
+    void posSetWithAndWithoutBehaveLikeAHashSet() {
+        var rng = new Random(2024);
+        var expected = new HashSet<Pos>();
+        var set = PosSet.EMPTY;
+        for (int i = 0; i < 1000; i += 1) {
+            var pos = new Pos(rng.nextInt(-Board.REACH, Board.REACH + 1), rng.nextInt(-Board.REACH, Board.REACH + 1));
+            var previous = set;
+            var previousExpected = Set.copyOf(expected);
+            if (rng.nextBoolean()) {
+                expected.add(pos);
+                set = set.with(pos);
+            } else {
+                expected.remove(pos);
+                set = set.without(pos);
+            }
+            assertEquals(expected, set);
+            assertEquals(previousExpected, previous);
+        }
+    }
+
+    @Test
+    void posSetSortedListIsSortedByXThenY() {
+        var rng = new Random(2024);
+        var set = PosSet.EMPTY;
+        for (int i = 0; i < 100; i += 1) {
+            set = set.with(new Pos(rng.nextInt(-Board.REACH, Board.REACH + 1), rng.nextInt(-Board.REACH, Board.REACH + 1)));
+        }
+        var expected = set.stream().sorted(Comparator.comparing(Pos::x).thenComparing(Pos::y)).toList();
+        assertEquals(expected, set.sortedList());
+        assertEquals(expected, new ArrayList<>(set));
+    }
+
+    @Test
+    void posSetHandlesPositionsOutOfTheBoard() {
+        var outOfBoard = new Pos(Board.REACH + 1, 0);
+        var set = PosSet.EMPTY.with(Pos.ORIGIN);
+        assertFalse(set.contains(outOfBoard));
+        assertSame(set, set.without(outOfBoard));
+        assertThrows(IllegalArgumentException.class, () -> set.with(outOfBoard));
+    }
+
+    @Test
+    void posSetIsUnmodifiable() {
+        var set = PosSet.EMPTY.with(Pos.ORIGIN);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(new Pos(1, 1)));
+        assertThrows(UnsupportedOperationException.class, set::clear);
+        assertEquals(Set.of(Pos.ORIGIN), set);
+    }
+}
@@ -0,0 +1,89 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreProjectionTest {
+    private static final List<PlayerColor> PLAYERS = SeededGame.players(3);
+
+    private static GameState initialState(long seed) {
+        return SeededGame.initialState(seed, PLAYERS.size());
+    }
+
+    /**
+     * Counts the meadow and water zones of the last placed tile of the given board,
+     * which are the only areas a move can touch
+     */
+    private static int touchableAreaCount(Board board) {
+        return (int) board.lastPlacedTile().tile().zones().stream()
+                .filter(zone -> zone instanceof Zone.Meadow || zone instanceof Zone.Water)
+                .count();
+    }
+
+    @Test
+    void projectedPointsAreTheFinalPointsIfTheGameEndedNow() {
+        for (long seed = 0; seed < 20; seed += 1) {
+            var generator = RandomGeneratorFactory.getDefault().create(seed);
+            var policy = new RandomPolicy();
+            var state = initialState(seed);
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                assertEquals(state.withFinalPointsCounted().messageBoard().points(), state.projectedPoints());
+                state = policy.play(state, generator).gameState();
+            }
+            assertEquals(state.messageBoard().points(), state.projectedPoints());
+        }
+    }
+
+    @Test
+    void scoreProjectionOnlyEvaluatesTheAreasTouchedByTheLastMove() {
+        for (long seed = 0; seed < 10; seed += 1) {
+            var generator = RandomGeneratorFactory.getDefault().create(seed);
+            var policy = new RandomPolicy();
+            var state = initialState(seed);
+            state.board().scoreProjection();
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                state = policy.play(state, generator).gameState();
+                var board = state.board();
+                var projection = board.scoreProjection();
+                // the deers eaten when the game ends are in meadows the last move may not have touched
+                if (state.nextAction() != GameState.Action.END_GAME)
+                    assertTrue(projection.evaluatedAreaCount() <= touchableAreaCount(board));
+
+                var fullProjection = ScoreProjection.EMPTY.withBoard(board);
+                assertEquals(board.meadowAreas().size() + board.riverSystemAreas().size(),
+                        fullProjection.evaluatedAreaCount());
+                assertEquals(fullProjection.points(), projection.points());
+                for (var player : PLAYERS) assertEquals(fullProjection.points(player), projection.points(player));
+            }
+        }
+    }
+
+    @Test
+    void scoreProjectionIsComputedOncePerBoard() {
+        var board = initialState(0).board();
+        assertSame(board.scoreProjection(), board.scoreProjection());
+        assertEquals(Map.of(), Board.EMPTY.scoreProjection().points());
+    }
+
+    @Test
+    void scoreProjectionScoresOccupiedMeadows() {
+        // the starting tile has a meadow with an aurochs, worth 2 points
+        var tile = new PlacedTile(Tiles.TILES.get(56), PlayerColor.RED, Rotation.NONE, new Pos(0, 0));
+        var board = Board.EMPTY.withNewTile(tile);
+        assertEquals(0, board.scoreProjection().points(PlayerColor.RED));
+        int meadowPoints = 0;
+        for (var zone : tile.meadowZones()) {
+            var occupied = board.withOccupant(new Occupant(Occupant.Kind.PAWN, zone.id()));
+            meadowPoints = Math.max(meadowPoints, occupied.scoreProjection().points(PlayerColor.RED));
+            assertEquals(0, occupied.scoreProjection().points(PlayerColor.BLUE));
+            assertTrue(occupied.scoreProjection().evaluatedAreaCount() <= 1);
+        }
+        assertTrue(meadowPoints > 0);
+    }
+}
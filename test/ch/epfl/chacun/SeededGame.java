@@ -0,0 +1,92 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.Policy;
+import ch.epfl.chacun.sim.RandomPolicy;
+import ch.epfl.chacun.sim.Simulator;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A game played by random players from a seed, replayed to keep all its states, shared by the tests
+ * which need real games (it is public as the tests of the other packages use it too)
+ */
+public final class SeededGame {
+    public static final TextMaker TEXT_MAKER = new TextMakerFr(Map.of(
+            PlayerColor.RED, "Alice", PlayerColor.BLUE, "Bob", PlayerColor.GREEN, "Carol",
+            PlayerColor.YELLOW, "Dalia", PlayerColor.PURPLE, "Eve"));
+
+    private final long seed;
+    private final List<PlayerColor> players;
+    private final List<String> actions;
+    // states.get(i + 1) is the state resulting from the action actions.get(i) applied to states.get(i)
+    private final List<GameState> states;
+
+    private SeededGame(long seed, List<PlayerColor> players, List<String> actions, List<GameState> states) {
+        this.seed = seed;
+        this.players = players;
+        this.actions = actions;
+        this.states = states;
+    }
+
+    /**
+     * Returns the first players of PlayerColor.ALL, in order
+     */
+    public static List<PlayerColor> players(int playerCount) {
+        return PlayerColor.ALL.subList(0, playerCount);
+    }
+
+    /**
+     * Returns the state of the game of the given seed once its starting tile is placed
+     */
+    public static GameState initialState(long seed, int playerCount) {
+        return GameState.initial(players(playerCount), TileDecks.shuffled(seed), TEXT_MAKER).withStartingTilePlaced();
+    }
+
+    /**
+     * Returns a simulator of games played by the given random players, on a single thread
+     */
+    public static Simulator randomSimulator(List<PlayerColor> players) {
+        var policies = new EnumMap<PlayerColor, Policy>(PlayerColor.class);
+        for (var player : players) policies.put(player, new RandomPolicy());
+        return new Simulator(policies, 1);
+    }
+
+    /**
+     * Plays the game of the given seed with random players
+     */
+    public static SeededGame play(long seed, int playerCount) {
+        var actions = randomSimulator(players(playerCount)).play(seed).actions();
+        var state = initialState(seed, playerCount);
+        var states = new ArrayList<>(List.of(state));
+        for (var action : actions) {
+            state = ActionEncoder.decodeAndApply(state, action).gameState();
+            states.add(state);
+        }
+        return new SeededGame(seed, players(playerCount), actions, List.copyOf(states));
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    public List<PlayerColor> players() {
+        return players;
+    }
+
+    /**
+     * Returns the Base32-encoded actions of the game
+     */
+    public List<String> actions() {
+        return actions;
+    }
+
+    /**
+     * Returns the states of the game, from the one where the starting tile is placed to the final one
+     */
+    public List<GameState> states() {
+        return states;
+    }
+}
@@ -3,6 +3,8 @@ package ch.epfl.chacun;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -192,6 +194,57 @@ class TileDecksTest {
                 decks.withTopTileDrawnUntil(Tile.Kind.MENHIR, falsePredicate).menhirTiles());
     }
 
+    @Test
+    void tileDecksWithTopTileDrawnUntilWorksWithLongDecks() {
+        var normalTile = getTile(0, Tile.Kind.NORMAL);
+        var lastTile = getTile(1, Tile.Kind.NORMAL);
+        var dN = new ArrayList<Tile>(Collections.nCopies(100_000, normalTile));
+        dN.add(lastTile);
+        var decks = new TileDecks(List.of(), dN, List.of());
+
+        var drawnDecks = decks.withTopTileDrawnUntil(Tile.Kind.NORMAL, t -> t == lastTile);
+        assertEquals(List.of(lastTile), drawnDecks.normalTiles());
+        var bulkDrawnDecks = decks.withTopTilesDrawnUntil(Tile.Kind.NORMAL, tiles -> tiles.indexOf(lastTile));
+        assertEquals(drawnDecks, bulkDrawnDecks);
+        assertEquals(decks.normalTiles().subList(100_000, 100_001), bulkDrawnDecks.normalTiles());
+    }
+
+    @Test
+    void tileDecksWithTopTilesDrawnUntilWorksLikeWithTopTileDrawnUntil() {
+        var dN = List.of(
+                getTile(0, Tile.Kind.NORMAL),
+                getTile(1, Tile.Kind.NORMAL),
+                getTile(2, Tile.Kind.NORMAL));
+        var decks = new TileDecks(List.of(), dN, List.of());
+        for (int i = 0; i <= dN.size(); i += 1) {
+            var index = i;
+            var expected = decks.withTopTileDrawnUntil(Tile.Kind.NORMAL, t -> t.id() == index);
+            assertEquals(expected, decks.withTopTilesDrawnUntil(Tile.Kind.NORMAL, tiles -> tiles.size() - 3 + index));
+            assertEquals(dN.size() - i, expected.deckSize(Tile.Kind.NORMAL));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> decks.withTopTilesDrawnUntil(Tile.Kind.NORMAL, tiles -> tiles.size() + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> decks.withTopTilesDrawnUntil(Tile.Kind.NORMAL, tiles -> -1));
+    }
+
+    @Test
+    void tileDecksShuffledDependsOnlyOnTheSeed() {
+        var decks = TileDecks.shuffled(2024);
+        assertEquals(decks, TileDecks.shuffled(2024));
+        assertNotEquals(decks, TileDecks.shuffled(2025));
+        var allTiles = new ArrayList<Tile>();
+        for (var kind : Tile.Kind.values()) {
+            while (decks.topTile(kind) != null) {
+                assertEquals(kind, decks.topTile(kind).kind());
+                allTiles.add(decks.topTile(kind));
+                decks = decks.withTopTileDrawn(kind);
+            }
+        }
+        allTiles.sort(Comparator.comparingInt(Tile::id));
+        assertEquals(Tiles.TILES, allTiles);
+    }
+
     record ConstantPredicate(boolean b) implements Predicate<Tile> {
         @Override
         public boolean test(Tile tile) {
@@ -0,0 +1,98 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileMetadataTest {
+    private static Set<Zone> naiveZones(Tile tile) {
+        var zones = new HashSet<Zone>();
+        for (var side : List.of(tile.n(), tile.e(), tile.s(), tile.w())) {
+            for (var zone : side.zones()) {
+                zones.add(zone);
+                if (zone instanceof Zone.River river && river.hasLake()) zones.add(river.lake());
+            }
+        }
+        return zones;
+    }
+
+    private static Set<Occupant> naivePotentialOccupants(Tile tile) {
+        var occupants = new HashSet<Occupant>();
+        for (var zone : naiveZones(tile)) {
+            switch (zone) {
+                case Zone.Lake lake -> occupants.add(new Occupant(Occupant.Kind.HUT, lake.id()));
+                case Zone.River river -> {
+                    occupants.add(new Occupant(Occupant.Kind.PAWN, river.id()));
+                    if (!river.hasLake()) occupants.add(new Occupant(Occupant.Kind.HUT, river.id()));
+                }
+                default -> occupants.add(new Occupant(Occupant.Kind.PAWN, zone.id()));
+            }
+        }
+        return occupants;
+    }
+
+    @Test
+    void tileMetadataIsConsistentWithTileContent() {
+        for (var tile : Tiles.TILES) {
+            var zones = naiveZones(tile);
+            assertEquals(zones, tile.zones());
+            assertEquals(List.of(tile.n(), tile.e(), tile.s(), tile.w()), tile.sides());
+
+            for (var rotation : Rotation.ALL) {
+                var placedTile = new PlacedTile(tile, PlayerColor.RED, rotation, Pos.ORIGIN);
+                for (var direction : Direction.ALL) {
+                    var expected = tile.sides().get(direction.rotated(rotation.negated()).ordinal());
+                    assertEquals(expected, placedTile.side(direction));
+                }
+            }
+
+            var placedTile = new PlacedTile(tile, PlayerColor.RED, Rotation.NONE, Pos.ORIGIN);
+            assertEquals(zones.stream().filter(z -> z instanceof Zone.Forest).collect(Collectors.toSet()),
+                    placedTile.forestZones());
+            assertEquals(zones.stream().filter(z -> z instanceof Zone.River).collect(Collectors.toSet()),
+                    placedTile.riverZones());
+            assertEquals(zones.stream().filter(z -> z instanceof Zone.Meadow).collect(Collectors.toSet()),
+                    placedTile.meadowZones());
+            assertEquals(zones.stream().filter(z -> z.specialPower() != null).findFirst().orElse(null),
+                    placedTile.specialPowerZone());
+            assertEquals(naivePotentialOccupants(tile), placedTile.potentialOccupants());
+            for (var zone : zones) assertEquals(zone, placedTile.zoneWithId(zone.id()));
+        }
+    }
+
+    @Test
+    void tileMetadataZoneWithIdThrowsOnUnknownZone() {
+        var placedTile = new PlacedTile(Tiles.TILES.get(56), null, Rotation.NONE, Pos.ORIGIN);
+        assertThrows(IllegalArgumentException.class, () -> placedTile.zoneWithId(9));
+        assertThrows(IllegalArgumentException.class, () -> placedTile.zoneWithId(569));
+        assertThrows(IllegalArgumentException.class, () -> placedTile.zoneWithId(-1));
+    }
+
+    @Test
+    void tileMetadataIsSharedAndImmutable() {
+        for (var tile : Tiles.TILES) {
+            var copy = new Tile(tile.id(), tile.kind(), tile.n(), tile.e(), tile.s(), tile.w());
+            assertSame(TileMetadata.of(tile), TileMetadata.of(copy));
+            assertSame(tile.zones(), tile.zones());
+            assertThrows(UnsupportedOperationException.class, () -> tile.zones().clear());
+            assertThrows(UnsupportedOperationException.class, () -> tile.sides().set(0, null));
+            var placedTile = new PlacedTile(tile, PlayerColor.RED, Rotation.NONE, Pos.ORIGIN);
+            assertThrows(UnsupportedOperationException.class, () -> placedTile.potentialOccupants().clear());
+        }
+    }
+
+    @Test
+    void tileMetadataWorksWithTilesOutsideOfTheGame() {
+        var forest = new Zone.Forest(1_000, Zone.Forest.Kind.PLAIN);
+        var meadow = new Zone.Meadow(1_001, List.of(), null);
+        var tile = new Tile(100, Tile.Kind.NORMAL, new TileSide.Forest(forest), new TileSide.Meadow(meadow),
+                new TileSide.Forest(forest), new TileSide.Meadow(meadow));
+        assertEquals(Set.of(forest, meadow), tile.zones());
+        var placedTile = new PlacedTile(tile, PlayerColor.RED, Rotation.RIGHT, Pos.ORIGIN);
+        assertEquals(new TileSide.Forest(forest), placedTile.side(Direction.E));
+        assertEquals(meadow, placedTile.zoneWithId(1_001));
+    }
+}
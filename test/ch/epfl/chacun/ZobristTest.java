@@ -0,0 +1,122 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTest {
+    private static final List<PlayerColor> PLAYERS = SeededGame.players(3);
+
+    private static GameState initialState(long seed) {
+        return SeededGame.initialState(seed, PLAYERS.size());
+    }
+
+    /**
+     * Computes the Zobrist key of the given board from scratch
+     */
+    private static long boardKey(Board board) {
+        long key = 0;
+        for (int x = -Board.REACH; x <= Board.REACH; x++) {
+            for (int y = -Board.REACH; y <= Board.REACH; y++) {
+                var tile = board.tileAt(new Pos(x, y));
+                if (tile == null) continue;
+                key ^= Zobrist.tileKey(tile);
+                if (tile.occupant() != null) key ^= Zobrist.occupantKey(tile.occupant());
+            }
+        }
+        for (var animal : board.cancelledAnimals()) key ^= Zobrist.cancelledAnimalKey(animal);
+        return key;
+    }
+
+    @Test
+    void zobristKeyIsUpdatedByEveryTransition() {
+        for (long seed = 0; seed < 5; seed += 1) {
+            var generator = RandomGeneratorFactory.getDefault().create(seed);
+            var policy = new RandomPolicy();
+            var state = initialState(seed);
+            var keys = new HashSet<Long>();
+            int stateCount = 0;
+            while (state.nextAction() != GameState.Action.END_GAME) {
+                assertEquals(boardKey(state.board()), state.board().zobristKey());
+                assertEquals(Long.hashCode(state.board().zobristKey()), state.board().hashCode());
+                keys.add(state.zobristKey());
+                stateCount += 1;
+                state = policy.play(state, generator).gameState();
+            }
+            assertEquals(boardKey(state.board()), state.board().zobristKey());
+            // the states of a game are all different
+            assertEquals(stateCount, keys.size());
+        }
+    }
+
+    @Test
+    void zobristKeyIsTheSameForBoardsReachedInDifferentOrders() {
+        var generator = RandomGeneratorFactory.getDefault().create(1);
+        var policy = new RandomPolicy();
+        var state = initialState(1);
+        var placedTiles = new ArrayList<PlacedTile>();
+        placedTiles.add(state.board().lastPlacedTile());
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            boolean isPlacement = state.nextAction() == GameState.Action.PLACE_TILE;
+            state = policy.play(state, generator).gameState();
+            if (isPlacement) placedTiles.add(state.board().lastPlacedTile().withNoOccupant());
+        }
+
+        // two consecutive tiles which could have been placed the other way round lead to the same key
+        var board = Board.EMPTY.withNewTile(placedTiles.getFirst());
+        boolean isTranspositionFound = false;
+        for (int i = 1; i + 1 < placedTiles.size() && !isTranspositionFound; i++) {
+            var first = placedTiles.get(i);
+            var second = placedTiles.get(i + 1);
+            if (board.canAddTile(second) && board.withNewTile(second).canAddTile(first)) {
+                var inOrder = board.withNewTile(first).withNewTile(second);
+                var swapped = board.withNewTile(second).withNewTile(first);
+                assertEquals(inOrder.zobristKey(), swapped.zobristKey());
+                // the boards are not equal, as their tiles were not placed in the same order
+                assertNotEquals(inOrder, swapped);
+                isTranspositionFound = true;
+            }
+            board = board.withNewTile(first);
+        }
+        assertTrue(isTranspositionFound);
+    }
+
+    @Test
+    void zobristKeyIsRestoredWhenAnOccupantIsRemoved() {
+        var tile1 = new PlacedTile(Tiles.TILES.get(56), PlayerColor.RED, Rotation.NONE, new Pos(0, 0));
+        var board = Board.EMPTY.withNewTile(tile1);
+        var occupant = new Occupant(Occupant.Kind.PAWN, 56_0);
+        var occupied = board.withOccupant(occupant);
+        assertNotEquals(board.zobristKey(), occupied.zobristKey());
+        assertEquals(board.zobristKey(), occupied.withoutOccupant(occupant).zobristKey());
+        assertEquals(board, occupied.withoutOccupant(occupant));
+    }
+
+    @Test
+    void zobristKeyCountsCancelledAnimalsOnce() {
+        var animal = new Animal(56_100, Animal.Kind.DEER);
+        var board = Board.EMPTY.withMoreCancelledAnimals(Set.of(animal));
+        assertEquals(Zobrist.cancelledAnimalKey(animal), board.zobristKey());
+        assertEquals(board.zobristKey(), board.withMoreCancelledAnimals(Set.of(animal)).zobristKey());
+        assertEquals(board, board.withMoreCancelledAnimals(Set.of(animal)));
+    }
+
+    @Test
+    void zobristKeyOfGameStateDependsOnItsCurrentPlayerAndNextAction() {
+        var state = initialState(1);
+        var otherPlayers = state.withPlayers(List.of(PlayerColor.BLUE, PlayerColor.GREEN, PlayerColor.RED));
+        assertNotEquals(state.zobristKey(), otherPlayers.zobristKey());
+        assertNotEquals(state, otherPlayers);
+        var sameState = state.withPlayers(PLAYERS);
+        assertEquals(state.zobristKey(), sameState.zobristKey());
+        assertEquals(state, sameState);
+        assertEquals(state.hashCode(), sameState.hashCode());
+    }
+}
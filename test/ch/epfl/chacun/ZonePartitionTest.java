@@ -2,6 +2,7 @@ package ch.epfl.chacun;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -313,4 +314,44 @@ class ZonePartitionTest {
         var expectedArea1 = new Area<>(a1.zones(), a1.occupants(), a1.openConnections() - 2);
         assertEquals(Set.of(a0, expectedArea1), partitionBuilder.build().areas());
     }
-}
\ No newline at end of file
+
+    @Test
+    void zonePartitionBuilderUnionWorksWithLongChains() {
+        var forests = new ArrayList<Zone.Forest>();
+        for (int i = 0; i < 100; i += 1) forests.add(new Zone.Forest(i * 10 + i % 10, Zone.Forest.Kind.PLAIN));
+        var partitionBuilder = new ZonePartition.Builder<>(new ZonePartition<Zone.Forest>());
+        for (var forest : forests) partitionBuilder.addSingleton(forest, 2);
+        for (int i = 1; i < forests.size(); i += 1) partitionBuilder.union(forests.get(i), forests.get(i / 2));
+        var partition = partitionBuilder.build();
+        var expectedArea = new Area<>(new HashSet<>(forests), List.of(), 2);
+        assertEquals(Set.of(expectedArea), partition.areas());
+        for (var forest : forests) assertEquals(expectedArea, partition.areaContaining(forest));
+    }
+
+    @Test
+    void zonePartitionBuilderDoesNotModifyBuiltPartitions() {
+        var f0 = new Zone.Forest(0, Zone.Forest.Kind.PLAIN);
+        var f1 = new Zone.Forest(1, Zone.Forest.Kind.PLAIN);
+        var f2 = new Zone.Forest(12, Zone.Forest.Kind.PLAIN);
+        var a0 = new Area<>(Set.of(f0), List.of(), 1);
+        var a1 = new Area<>(Set.of(f1), List.of(), 1);
+        var partition = new ZonePartition<>(Set.of(a0, a1));
+        var partitionBuilder = new ZonePartition.Builder<>(partition);
+        assertSame(partition, partitionBuilder.build());
+
+        partitionBuilder.union(f0, f1);
+        var unitedPartition = partitionBuilder.build();
+        partitionBuilder.addSingleton(f2, 0);
+        partitionBuilder.addInitialOccupant(f0, PlayerColor.RED);
+        var lastPartition = partitionBuilder.build();
+
+        assertEquals(Set.of(a0, a1), partition.areas());
+        assertEquals(a0, partition.areaContaining(f0));
+        var unitedArea = new Area<>(Set.of(f0, f1), List.of(), 0);
+        assertEquals(Set.of(unitedArea), unitedPartition.areas());
+        assertThrows(IllegalArgumentException.class, () -> unitedPartition.areaContaining(f2));
+        var occupiedArea = new Area<>(Set.of(f0, f1), List.of(PlayerColor.RED), 0);
+        assertEquals(occupiedArea, lastPartition.areaContaining(f1));
+        assertEquals(new Area<>(Set.of(f2), List.of(), 0), lastPartition.areaContaining(f2));
+    }
+}
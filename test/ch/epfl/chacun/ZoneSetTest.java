@@ -0,0 +1,81 @@
+package ch.epfl.chacun;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZoneSetTest {
+    private static List<Zone> allZones() {
+        return Tiles.TILES.stream().flatMap(tile -> tile.zones().stream()).toList();
+    }
+
+    private static Set<Zone> randomSubset(Random rng, List<Zone> zones, int size) {
+        var subset = new HashSet<Zone>();
+        for (int i = 0; i < size; i += 1) subset.add(zones.get(rng.nextInt(zones.size())));
+        return subset;
+    }
+
+    @Test
+    void zoneSetBehavesLikeAHashSet() {
+        var rng = new Random(2024);
+        var zones = allZones();
+        for (int i = 0; i < 200; i += 1) {
+            var expected1 = randomSubset(rng, zones, rng.nextInt(20));
+            var expected2 = randomSubset(rng, zones, rng.nextInt(20));
+            var set1 = ZoneSet.copyOf(expected1);
+            var set2 = ZoneSet.copyOf(expected2);
+            assertEquals(expected1, set1);
+            assertEquals(set1, expected1);
+            assertEquals(expected1.hashCode(), set1.hashCode());
+
+            var expectedUnion = new HashSet<>(expected1);
+            expectedUnion.addAll(expected2);
+            var union = set1.union(set2);
+            assertEquals(expectedUnion, union);
+            assertEquals(ZoneSet.copyOf(expectedUnion), union);
+            assertEquals(expectedUnion.hashCode(), union.hashCode());
+            assertEquals(expected1.equals(expected2), set1.equals(set2));
+            for (var zone : zones) assertEquals(expectedUnion.contains(zone), union.contains(zone));
+        }
+    }
+
+    @Test
+    void zoneSetIsSortedById() {
+        var set = ZoneSet.copyOf(randomSubset(new Random(2024), allZones(), 50));
+        var ids = set.stream().mapToInt(Zone::id).toArray();
+        var sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        assertArrayEquals(sortedIds, ids);
+    }
+
+    @Test
+    void zoneSetWorksWithZonesThatDoNotFitInTheBitset() {
+        var bigForest = new Zone.Forest(98_383_893, Zone.Forest.Kind.PLAIN);
+        var forest = new Zone.Forest(10, Zone.Forest.Kind.PLAIN);
+        var sameIdForest = new Zone.Forest(10, Zone.Forest.Kind.WITH_MENHIR);
+        var set = ZoneSet.copyOf(Set.of(bigForest, forest));
+        assertEquals(Set.of(bigForest, forest), set);
+        assertTrue(set.contains(bigForest));
+        assertFalse(set.contains(sameIdForest));
+
+        var union = ZoneSet.of(forest).union(ZoneSet.of(sameIdForest));
+        assertEquals(Set.of(forest, sameIdForest), union);
+        assertEquals(Set.of(forest, sameIdForest, bigForest), union.union(set));
+        assertNotEquals(ZoneSet.of(forest), ZoneSet.of(sameIdForest));
+    }
+
+    @Test
+    void zoneSetIsImmutable() {
+        var forest = new Zone.Forest(10, Zone.Forest.Kind.PLAIN);
+        var zones = new HashSet<Zone>(Set.of(forest));
+        var set = ZoneSet.copyOf(zones);
+        zones.clear();
+        assertEquals(Set.of(forest), set);
+        assertThrows(UnsupportedOperationException.class, () -> set.add(forest));
+        assertThrows(UnsupportedOperationException.class, () -> set.iterator().remove());
+        assertSame(set, ZoneSet.copyOf(set));
+        assertThrows(NullPointerException.class, () -> ZoneSet.copyOf(Arrays.asList(forest, null)));
+    }
+}
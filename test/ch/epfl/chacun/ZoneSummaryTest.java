@@ -0,0 +1,104 @@
+package ch.epfl.chacun;
+
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZoneSummaryTest {
+    private static List<Zone> allZones() {
+        return Tiles.TILES.stream().flatMap(tile -> tile.zones().stream()).toList();
+    }
+
+    private static Set<Zone> randomSubset(Random rng, List<Zone> zones, int size) {
+        var subset = new HashSet<Zone>();
+        for (int i = 0; i < size; i += 1) subset.add(zones.get(rng.nextInt(zones.size())));
+        return subset;
+    }
+
+    /**
+     * Checks the summary of the given zones against values computed by going through all of them
+     */
+    private static void assertSummarizes(Set<Zone> zones, ZoneSummary summary) {
+        assertEquals(zones.stream()
+                .filter(zone -> zone instanceof Zone.Forest forest && forest.kind() == Zone.Forest.Kind.WITH_MUSHROOMS)
+                .count(), summary.mushroomGroupCount());
+        assertEquals(zones.stream()
+                .anyMatch(zone -> zone instanceof Zone.Forest forest && forest.kind() == Zone.Forest.Kind.WITH_MENHIR),
+                summary.hasMenhir());
+        var riverLakes = zones.stream()
+                .filter(zone -> zone instanceof Zone.River river && river.hasLake())
+                .map(zone -> ((Zone.River) zone).lake())
+                .collect(Collectors.toSet());
+        int riverFishCount = zones.stream()
+                .filter(zone -> zone instanceof Zone.River)
+                .mapToInt(zone -> ((Zone.River) zone).fishCount())
+                .sum();
+        assertEquals(riverFishCount + riverLakes.stream().mapToInt(Zone.Lake::fishCount).sum(),
+                summary.riverFishCount());
+        int waterFishCount = zones.stream()
+                .filter(zone -> zone instanceof Zone.Water)
+                .mapToInt(zone -> ((Zone.Water) zone).fishCount())
+                .sum();
+        assertEquals(waterFishCount, summary.waterFishCount());
+        assertEquals(zones.stream().filter(zone -> zone instanceof Zone.Lake).count(), summary.lakeCount());
+        assertEquals(zones.stream().map(Zone::tileId).distinct().count(), summary.tileCount());
+        for (var kind : Animal.Kind.values()) {
+            assertEquals(zones.stream()
+                    .filter(zone -> zone instanceof Zone.Meadow)
+                    .flatMap(zone -> ((Zone.Meadow) zone).animals().stream())
+                    .filter(animal -> animal.kind() == kind)
+                    .count(), summary.animalCount(kind));
+        }
+    }
+
+    @Test
+    void zoneSummaryIsMergedOnUnion() {
+        var rng = new Random(2024);
+        var zones = allZones();
+        for (int i = 0; i < 200; i += 1) {
+            var zones1 = randomSubset(rng, zones, rng.nextInt(20));
+            var zones2 = randomSubset(rng, zones, rng.nextInt(20));
+            // the summaries are added up when the sets are disjoint, and computed again otherwise
+            if (i % 2 == 0) zones2.removeAll(zones1);
+            var set1 = ZoneSet.copyOf(zones1);
+            var set2 = ZoneSet.copyOf(zones2);
+            assertSummarizes(zones1, set1.summary());
+
+            var union = new HashSet<>(zones1);
+            union.addAll(zones2);
+            assertSummarizes(union, set1.union(set2).summary());
+        }
+    }
+
+    @Test
+    void zoneSummaryCountsTheLakesSharedByRiversOnce() {
+        var lake = new Zone.Lake(8, 3, null);
+        var river1 = new Zone.River(2, 1, lake);
+        var river2 = new Zone.River(4, 2, lake);
+        var area1 = new Area<Zone.River>(Set.of(river1), List.of(), 2);
+        var area2 = new Area<Zone.River>(Set.of(river2), List.of(), 2);
+        var connected = area1.connectTo(area2);
+        assertEquals(6, Area.riverFishCount(connected));
+        assertEquals(1, connected.tileCount());
+        assertEquals(Set.of(0), connected.tileIds());
+    }
+
+    @Test
+    void zoneSummaryIsKeptByTheAreasOfAWholeGame() {
+        var state = SeededGame.initialState(1, 2);
+        var generator = RandomGeneratorFactory.getDefault().create(1);
+        var policy = new RandomPolicy();
+        while (state.nextAction() != GameState.Action.END_GAME)
+            state = policy.play(state, generator).gameState();
+
+        for (var meadow : state.board().meadowAreas())
+            assertSummarizes(new HashSet<>(meadow.zones()), ((ZoneSet<?>) meadow.zones()).summary());
+        for (var riverSystem : state.board().riverSystemAreas())
+            assertSummarizes(new HashSet<>(riverSystem.zones()), ((ZoneSet<?>) riverSystem.zones()).summary());
+    }
+}
@@ -0,0 +1,46 @@
+package ch.epfl.chacun.ai;
+
+import ch.epfl.chacun.server.GameServer;
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotTest {
+
+    @Test
+    void botsPlayAWholeGameThroughTheServer() throws Exception {
+        try (var server = new GameServer(0).start()) {
+            var endpoint = URI.create(STR."ws://localhost:\{server.port()}/");
+            var mctsBot = new Bot(endpoint, "bots", "mcts",
+                    new MctsPolicy(Duration.ofMillis(1), 1, 3, Math.sqrt(2)), 1).start();
+            // the second bot joins once the first one is in the game, so that the order of the players is known
+            while (server.gameCount() == 0) Thread.sleep(10);
+            var randomBot = new Bot(endpoint, "bots", "random", new RandomPolicy(), 2).start();
+
+            var mctsState = mctsBot.gameEnd().get(60, TimeUnit.SECONDS);
+            var randomState = randomBot.gameEnd().get(60, TimeUnit.SECONDS);
+            assertEquals(mctsState.board(), randomState.board());
+            assertEquals(mctsState.messageBoard().points(), randomState.messageBoard().points());
+        }
+    }
+
+    @Test
+    void botFailsWhenTheServerRefusesIt() throws Exception {
+        try (var server = new GameServer(0).start()) {
+            var endpoint = URI.create(STR."ws://localhost:\{server.port()}/");
+            new Bot(endpoint, "refused", "bot", new RandomPolicy(), 1).start();
+            while (server.gameCount() == 0) Thread.sleep(10);
+            var refusedBot = new Bot(endpoint, "refused", "bot", new RandomPolicy(), 2).start();
+
+            var exception = assertThrows(ExecutionException.class,
+                    () -> refusedBot.gameEnd().get(10, TimeUnit.SECONDS));
+            assertTrue(exception.getCause().getMessage().contains("USERNAME_TAKEN"));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package ch.epfl.chacun.ai;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.sim.Policy;
+import ch.epfl.chacun.sim.RandomPolicy;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsPolicyTest {
+    private static final List<PlayerColor> PLAYERS = SeededGame.players(2);
+
+    private static GameState initialState(long seed) {
+        return SeededGame.initialState(seed, PLAYERS.size());
+    }
+
+    /**
+     * Returns a policy doing the given number of iterations on a single thread, whatever the time it takes,
+     * which makes it deterministic
+     */
+    private static MctsPolicy deterministicPolicy(int iterations) {
+        return new MctsPolicy(Duration.ofHours(1), 1, iterations, Math.sqrt(2));
+    }
+
+    @Test
+    void mctsPolicyLegalActionsAreAllTheValidOnes() {
+        var generator = RandomGeneratorFactory.getDefault().create(1);
+        var state = initialState(1);
+        var policy = new RandomPolicy();
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var actions = MctsPolicy.legalActions(state);
+            assertEquals(actions.size(), new HashSet<>(actions).size());
+            for (var action : actions) assertNotNull(ActionEncoder.decodeAndApply(state, action));
+            state = policy.play(state, generator).gameState();
+        }
+    }
+
+    @Test
+    void mctsPolicyPlaysLegalActionsUntilTheEndOfTheGame() {
+        var generator = RandomGeneratorFactory.getDefault().create(2);
+        var policy = new MctsPolicy(Duration.ofMillis(1), 2, Integer.MAX_VALUE, Math.sqrt(2));
+        var state = initialState(2);
+        int actionCount = 0;
+        while (state.nextAction() != GameState.Action.END_GAME && actionCount < 20) {
+            var stateAction = policy.play(state, generator);
+            assertTrue(MctsPolicy.legalActions(state).contains(stateAction.action()));
+            assertEquals(stateAction.gameState(), ActionEncoder.decodeAndApply(state, stateAction.action()).gameState());
+            state = stateAction.gameState();
+            actionCount += 1;
+        }
+        assertEquals(20, actionCount);
+    }
+
+    @Test
+    void mctsPolicyIsReproducibleWithASingleThreadAndAFixedNumberOfIterations() {
+        var state = initialState(3);
+        var first = deterministicPolicy(30).play(state, RandomGeneratorFactory.getDefault().create(3));
+        var second = deterministicPolicy(30).play(state, RandomGeneratorFactory.getDefault().create(3));
+        assertEquals(first.action(), second.action());
+    }
+
+    @Test
+    void mctsPolicyReusesItsTranspositionTableAcrossMoves() {
+        var table = new TranspositionTable(1 << 12);
+        var policy = new MctsPolicy(Duration.ofHours(1), 2, 20, Math.sqrt(2), table);
+        var generator = RandomGeneratorFactory.getDefault().create(5);
+        var state = initialState(5);
+        for (int i = 0; i < 6; i += 1) {
+            var stateAction = policy.play(state, generator);
+            assertTrue(MctsPolicy.legalActions(state).contains(stateAction.action()));
+            state = stateAction.gameState();
+        }
+        assertTrue(table.hitRate() > 0);
+
+        // the key of a state does not depend on the tile to place, which is only drawn after the node
+        var drawn = initialState(6);
+        var otherTile = new GameState(drawn.players(), drawn.tileDecks(), drawn.tileDecks().topTile(Tile.Kind.MENHIR),
+                drawn.board(), drawn.nextAction(), drawn.messageBoard());
+        assertEquals(MctsPolicy.key(drawn, PlayerColor.BLUE), MctsPolicy.key(otherTile, PlayerColor.BLUE));
+        assertNotEquals(MctsPolicy.key(drawn, PlayerColor.BLUE), MctsPolicy.key(drawn, PlayerColor.GREEN));
+    }
+
+    @Test
+    void mctsPolicyRewardsTheWinnersAndThePoints() {
+        var generator = RandomGeneratorFactory.getDefault().create(4);
+        var state = initialState(4);
+        var policy = new RandomPolicy();
+        while (state.nextAction() != GameState.Action.END_GAME) state = policy.play(state, generator).gameState();
+
+        var rewards = MctsPolicy.rewards(state);
+        var points = state.messageBoard().points();
+        int red = points.getOrDefault(PlayerColor.RED, 0);
+        int blue = points.getOrDefault(PlayerColor.BLUE, 0);
+        assertEquals(Integer.compare(red, blue), Double.compare(rewards[0], rewards[1]));
+        for (var reward : rewards) assertTrue(reward >= 0 && reward <= 1);
+        assertEquals(1, Math.max(rewards[0], rewards[1]), red == blue ? 0.5 : 1e-9);
+    }
+
+    @Test
+    void mctsPolicyBeatsTheRandomPolicy() {
+        var policies = new TreeMap<PlayerColor, Policy>();
+        policies.put(PlayerColor.RED, deterministicPolicy(10));
+        policies.put(PlayerColor.BLUE, new RandomPolicy());
+        var simulator = new Simulator(policies, 1);
+        int mctsPoints = 0;
+        int randomPoints = 0;
+        for (long seed = 0; seed < 2; seed += 1) {
+            var points = simulator.play(seed).finalState().messageBoard().points();
+            mctsPoints += points.getOrDefault(PlayerColor.RED, 0);
+            randomPoints += points.getOrDefault(PlayerColor.BLUE, 0);
+        }
+        assertTrue(mctsPoints > randomPoints);
+    }
+}
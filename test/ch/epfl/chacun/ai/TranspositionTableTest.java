@@ -0,0 +1,113 @@
+package ch.epfl.chacun.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void transpositionTableReturnsTheStoredEntries() {
+        var table = new TranspositionTable(1 << 10);
+        var rng = new SplittableRandom(1);
+        for (int i = 0; i < 100; i += 1) {
+            long key = rng.nextLong();
+            double value = rng.nextDouble();
+            int count = 1 + rng.nextInt(TranspositionTable.MAX_COUNT);
+            int move = rng.nextInt(TranspositionTable.NO_MOVE, TranspositionTable.MAX_MOVE + 1);
+            table.clear();
+            assertEquals(TranspositionTable.NO_ENTRY, table.probe(key));
+            assertTrue(table.store(key, value, count, move));
+            long data = table.probe(key);
+            assertEquals((float) value, TranspositionTable.value(data));
+            assertEquals(count, TranspositionTable.count(data));
+            assertEquals(move, TranspositionTable.bestMove(data));
+        }
+    }
+
+    @Test
+    void transpositionTableKeepsTheEntriesWithTheBiggestCounts() {
+        var table = new TranspositionTable(1);
+        assertTrue(table.store(1, 0.5, 10, 3));
+        assertFalse(table.store(2, 0.25, 9, 4));
+        assertEquals(10, TranspositionTable.count(table.probe(1)));
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(2));
+        // the entry of the same state is always updated
+        assertTrue(table.store(1, 0.75, 1, TranspositionTable.NO_MOVE));
+        assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.bestMove(table.probe(1)));
+        assertTrue(table.store(2, 0.25, 1, 4));
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(1));
+        assertEquals(4, TranspositionTable.bestMove(table.probe(2)));
+
+        assertTrue(table.store(3, 1, Integer.MAX_VALUE, 5));
+        assertEquals(TranspositionTable.MAX_COUNT, TranspositionTable.count(table.probe(3)));
+    }
+
+    @Test
+    void transpositionTableCountsItsHits() {
+        var table = new TranspositionTable(16);
+        assertEquals(0, table.hitRate());
+        table.store(7, 0, 1, 0);
+        table.probe(7);
+        table.probe(8);
+        table.probe(7);
+        table.probe(9);
+        // reading an entry to update it is not a probe
+        assertEquals(0, TranspositionTable.bestMove(table.entry(7)));
+        assertEquals(4, table.probeCount());
+        assertEquals(0.5, table.hitRate());
+        table.clear();
+        assertEquals(0, table.probeCount());
+    }
+
+    @Test
+    void transpositionTableNeverReturnsTheEntryOfAnotherStateWhenSharedByThreads() throws Exception {
+        // all the keys share the few entries of the table, so that the threads keep overwriting each other
+        var table = new TranspositionTable(4);
+        var isCorrupted = new AtomicBoolean();
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < 4; t += 1) {
+                long seed = t;
+                futures.add(executor.submit(() -> {
+                    var rng = new SplittableRandom(seed);
+                    for (int i = 0; i < 200_000; i += 1) {
+                        // the data of a key is derived from it, so that any mismatch is detected
+                        long key = rng.nextInt(64);
+                        if (rng.nextBoolean()) {
+                            table.store(key, key / 64.0, (int) key + 1, (int) key);
+                        } else {
+                            long data = table.probe(key);
+                            if (data != TranspositionTable.NO_ENTRY && (TranspositionTable.count(data) != key + 1
+                                    || TranspositionTable.bestMove(data) != key
+                                    || TranspositionTable.value(data) != (float) (key / 64.0)))
+                                isCorrupted.set(true);
+                        }
+                    }
+                }));
+            }
+            for (var future : futures) future.get();
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(isCorrupted.get());
+        assertTrue(table.hitRate() > 0);
+    }
+
+    @Test
+    void transpositionTableThrowsOnInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(12));
+        var table = new TranspositionTable(8);
+        assertThrows(IllegalArgumentException.class, () -> table.store(1, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> table.store(1, 0, 1, TranspositionTable.MAX_MOVE + 1));
+        assertThrows(IllegalArgumentException.class, () -> table.store(1, 0, 1, -2));
+    }
+}
@@ -0,0 +1,82 @@
+package ch.epfl.chacun.archive;
+
+import ch.epfl.chacun.GameReplay;
+import ch.epfl.chacun.PlayerColor;
+import ch.epfl.chacun.SeededGame;
+import ch.epfl.chacun.sim.Simulator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActionArchiveTest {
+    private static final List<PlayerColor> PLAYERS = List.of(PlayerColor.RED, PlayerColor.BLUE, PlayerColor.YELLOW);
+
+    private static List<Simulator.GameResult> simulatedGames(int count) {
+        return SeededGame.randomSimulator(PLAYERS).playAll(100, count);
+    }
+
+    @Test
+    void actionArchiveReadsBackAppendedGamesAfterReopening(@TempDir Path directory) throws IOException {
+        var path = directory.resolve("games.bin");
+        var games = simulatedGames(5);
+        try (var archive = ActionArchive.open(path)) {
+            for (int i = 0; i < games.size(); i += 1) {
+                assertEquals(i, archive.append(games.get(i).seed(), PLAYERS, games.get(i).actions()));
+            }
+        }
+        try (var archive = ActionArchive.open(path)) {
+            assertEquals(games.size(), archive.gameCount());
+            var game = new PackedGame();
+            for (int i = games.size() - 1; i >= 0; i -= 1) {
+                assertSame(game, archive.game(i, game));
+                assertEquals(games.get(i).seed(), game.seed());
+                assertEquals(PLAYERS, game.players());
+                assertEquals(games.get(i).actions(), game.actions());
+            }
+            assertThrows(IndexOutOfBoundsException.class, () -> archive.game(games.size(), game));
+        }
+    }
+
+    @Test
+    void actionArchiveGamesReplayToTheirFinalState(@TempDir Path directory) throws IOException {
+        var games = simulatedGames(3);
+        try (var archive = ActionArchive.open(directory.resolve("games.bin"))) {
+            for (var game : games) archive.append(game.seed(), PLAYERS, game.actions());
+            var replayed = new ArrayList<Map<PlayerColor, Integer>>();
+            archive.forEach(game -> replayed.add(GameReplay.of(game.seed(), game.players(),
+                    games.getFirst().finalState().messageBoard().textMaker(), game.actions(), 16)
+                    .lastState().messageBoard().points()));
+            assertEquals(games.stream().map(game -> game.finalState().messageBoard().points()).toList(), replayed);
+        }
+    }
+
+    @Test
+    void actionArchiveReadsGamesSpanningSeveralChunks(@TempDir Path directory) throws IOException {
+        var rng = new Random(1);
+        var expected = new ArrayList<List<String>>();
+        try (var archive = new ActionArchive(directory.resolve("games.bin"), 64)) {
+            for (int i = 0; i < 200; i += 1) {
+                var actions = new ArrayList<String>();
+                for (int j = rng.nextInt(100); j > 0; j -= 1) actions.add(rng.nextBoolean() ? "AB" : "7");
+                expected.add(actions);
+                archive.append(i, PLAYERS, actions);
+                // reading while appending maps the chunks again when they grow
+                if (i % 7 == 0) assertEquals(actions, archive.game(i, new PackedGame()).actions());
+            }
+            var actual = new ArrayList<List<String>>();
+            var seeds = new ArrayList<Long>();
+            archive.forEach(game -> {
+                actual.add(game.actions());
+                seeds.add(game.seed());
+            });
+            assertEquals(expected, actual);
+            assertEquals(200, seeds.size());
+            for (int i = 0; i < 200; i += 1) assertEquals(i, seeds.get(i));
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ch.epfl.chacun.archive;
+
+import ch.epfl.chacun.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+    private static final List<PlayerColor> PLAYERS = SeededGame.players(3);
+    private static final TextMaker TEXT_MAKER = SeededGame.TEXT_MAKER;
+
+    @Test
+    void gameSnapshotIsDecodedAsEncoded() {
+        var game = SeededGame.play(1, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        for (int i = 0; i < states.size(); i += 7) {
+            var snapshot = GameSnapshot.of(1, PLAYERS, states.get(i), actions.subList(0, i));
+            var encoded = snapshot.encode();
+            assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+            assertEquals(snapshot, GameSnapshot.decode(encoded));
+        }
+    }
+
+    @Test
+    void gameSnapshotIsMuchSmallerThanTheActions() {
+        var game = SeededGame.play(2, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var encoded = GameSnapshot.of(2, PLAYERS, states.getLast(), actions).encode();
+        assertTrue(encoded.length() < String.join(",", actions).length());
+    }
+
+    @Test
+    void gameSnapshotStateHashDependsOnTheStateOnly() {
+        var game = SeededGame.play(3, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var hashes = new ArrayList<Long>();
+        for (var state : states) hashes.add(GameSnapshot.stateHash(state));
+        assertEquals(hashes.size(), hashes.stream().distinct().count());
+
+        var replayed = SeededGame.initialState(3, PLAYERS.size());
+        for (var action : actions) replayed = ActionEncoder.decodeAndApply(replayed, action).gameState();
+        assertEquals(hashes.getLast(), GameSnapshot.stateHash(replayed.withGameChatMessage("Bonjour")));
+    }
+
+    @Test
+    void gameSnapshotRestoresTheStateFromScratch() {
+        var game = SeededGame.play(4, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        for (int i = 0; i < states.size(); i += 11) {
+            var snapshot = GameSnapshot.of(4, PLAYERS, states.get(i), actions.subList(0, i));
+            var restored = snapshot.restore(TEXT_MAKER, null, List.of());
+            assertEquals(states.get(i).board(), restored.board());
+            assertEquals(states.get(i).messageBoard().points(), restored.messageBoard().points());
+        }
+    }
+
+    @Test
+    void gameSnapshotRestoresTheStateFromAKnownOne() {
+        var game = SeededGame.play(5, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var snapshot = GameSnapshot.of(5, PLAYERS, states.getLast(), actions);
+        int known = actions.size() - 3;
+        var restored = snapshot.restore(TEXT_MAKER, states.get(known), actions.subList(0, known));
+        assertEquals(states.getLast().board(), restored.board());
+
+        // a known state which is not on the way to the snapshot is ignored
+        var otherGame = SeededGame.play(6, PLAYERS.size());
+        restored = snapshot.restore(TEXT_MAKER, otherGame.states().get(10), otherGame.actions().subList(0, 10));
+        assertEquals(states.getLast().board(), restored.board());
+    }
+
+    @Test
+    void gameSnapshotThrowsOnADesynchronizedState() {
+        var game = SeededGame.play(7, PLAYERS.size());
+        var actions = game.actions();
+        var states = game.states();
+        var snapshot = GameSnapshot.of(7, PLAYERS, states.get(20), actions.subList(0, 20));
+        var wrongHash = new GameSnapshot(7, PLAYERS, actions.subList(0, 20), snapshot.stateHash() + 1);
+        assertThrows(IllegalArgumentException.class, () -> wrongHash.restore(TEXT_MAKER, null, List.of()));
+        var wrongSeed = new GameSnapshot(8, PLAYERS, actions.subList(0, 20), snapshot.stateHash());
+        assertThrows(IllegalArgumentException.class, () -> wrongSeed.restore(TEXT_MAKER, null, List.of()));
+    }
+
+    @Test
+    void gameSnapshotThrowsOnInvalidEncodings() {
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode(""));
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode("a.b"));
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode("AAAAAAAAAAAAAAAAAAAA"));
+        var encoded = GameSnapshot.of(0, PLAYERS, SeededGame.initialState(0, PLAYERS.size()), List.of()).encode();
+        assertThrows(IllegalArgumentException.class, () -> GameSnapshot.decode(encoded.substring(0, encoded.length() - 4)));
+    }
+}
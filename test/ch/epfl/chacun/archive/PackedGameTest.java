@@ -0,0 +1,84 @@
+package ch.epfl.chacun.archive;
+
+import ch.epfl.chacun.Base32;
+import ch.epfl.chacun.PlayerColor;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedGameTest {
+    private static List<String> randomActions(Random rng, int count) {
+        var actions = new ArrayList<String>();
+        for (int i = 0; i < count; i += 1) {
+            actions.add(rng.nextBoolean() ? Base32.encodeBits10(rng.nextInt(1 << 10)) : Base32.encodeBits5(rng.nextInt(32)));
+        }
+        return actions;
+    }
+
+    @Test
+    void packedGameReadsWhatWasPacked() {
+        var rng = new Random(2024);
+        for (int i = 0; i < 100; i += 1) {
+            var players = new ArrayList<>(PlayerColor.ALL);
+            Collections.shuffle(players, rng);
+            players = new ArrayList<>(players.subList(0, 1 + rng.nextInt(players.size())));
+            var actions = randomActions(rng, rng.nextInt(200));
+            var seed = rng.nextLong();
+
+            var bytes = PackedGame.pack(seed, players, actions);
+            var game = PackedGame.of(bytes);
+            assertEquals(seed, game.seed());
+            assertEquals(players, game.players());
+            assertEquals(actions.size(), game.actionCount());
+            assertEquals(actions, game.actions());
+            assertEquals(bytes.length, game.byteSize());
+            for (var action : actions) {
+                assertTrue(game.hasNextAction());
+                var packedAction = game.nextAction();
+                assertEquals(action.length() == 2, PackedGame.isTilePlacement(packedAction));
+                assertEquals(action, PackedGame.toBase32(packedAction));
+            }
+            assertFalse(game.hasNextAction());
+            assertThrows(IllegalArgumentException.class, game::nextAction);
+        }
+    }
+
+    @Test
+    void packedGameUsesFewBitsPerAction() {
+        var actions = List.of("AB", "C", "DE", "F");
+        // 2 * 11 + 2 * 6 bits take 5 bytes after the 14 bytes of the header
+        assertEquals(14 + 5, PackedGame.pack(0, List.of(PlayerColor.RED), actions).length);
+    }
+
+    @Test
+    void packedGameWrapsGamesInsideABuffer() {
+        var first = PackedGame.pack(1, List.of(PlayerColor.RED, PlayerColor.BLUE), List.of("AA", "B"));
+        var second = PackedGame.pack(2, List.of(PlayerColor.PURPLE, PlayerColor.GREEN), List.of("C", "DD"));
+        var buffer = ByteBuffer.allocate(first.length + second.length).put(first).put(second);
+        var game = new PackedGame();
+        assertEquals(List.of("AA", "B"), game.wrap(buffer, 0).actions());
+        assertEquals(List.of(PlayerColor.PURPLE, PlayerColor.GREEN), game.wrap(buffer, first.length).players());
+        assertEquals(2, game.seed());
+        assertEquals(List.of("C", "DD"), game.actions());
+        assertThrows(IndexOutOfBoundsException.class, () -> game.player(2));
+    }
+
+    @Test
+    void packedGamePackThrowsOnInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> PackedGame.pack(0, List.of(), List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedGame.pack(0, List.of(PlayerColor.RED), List.of("ABC")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedGame.pack(0, List.of(PlayerColor.RED), List.of("")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedGame.pack(0, List.of(PlayerColor.RED), List.of("a")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedGame.pack(0, List.of(PlayerColor.RED), Collections.nCopies(PackedGame.MAX_ACTION_COUNT + 1, "A")));
+    }
+}
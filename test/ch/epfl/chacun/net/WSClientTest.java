@@ -0,0 +1,142 @@
+package ch.epfl.chacun.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WSClientTest {
+
+    /**
+     * A WebSocket which only counts the frames requested by its listener
+     */
+    private static final class RequestCountingWebSocket implements WebSocket {
+        private long requestCount;
+
+        @Override
+        public CompletableFuture<WebSocket> sendText(CharSequence data, boolean last) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendBinary(ByteBuffer data, boolean last) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPing(ByteBuffer message) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendPong(ByteBuffer message) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public CompletableFuture<WebSocket> sendClose(int statusCode, String reason) {
+            return CompletableFuture.completedFuture(this);
+        }
+
+        @Override
+        public void request(long n) {
+            requestCount += n;
+        }
+
+        @Override
+        public String getSubprotocol() {
+            return "";
+        }
+
+        @Override
+        public boolean isOutputClosed() {
+            return false;
+        }
+
+        @Override
+        public boolean isInputClosed() {
+            return false;
+        }
+
+        @Override
+        public void abort() {
+        }
+    }
+
+    @Test
+    void wsClientDropsInvalidMessagesAndKeepsReceiving() {
+        var client = new WSClient(URI.create("ws://localhost/"), "game", "alice", Runnable::run);
+        var actions = new ArrayList<String>();
+        client.setOnPlayerAction(actions::add);
+        var webSocket = new RequestCountingWebSocket();
+        client.onOpen(webSocket);
+        long requestCount = webSocket.requestCount;
+
+        assertDoesNotThrow(() -> client.onText(webSocket, "UNKNOWN.data", true));
+        assertDoesNotThrow(() -> client.onText(webSocket, "GAMESNAPSHOT", true));
+        assertEquals(requestCount + 2, webSocket.requestCount);
+
+        client.onText(webSocket, "GAMEACTION_ACCEPT.AB", true);
+        assertEquals(requestCount + 3, webSocket.requestCount);
+        assertEquals(List.of("AB"), actions);
+    }
+
+    @Test
+    void wsClientReportsTheSnapshotsWhichCanNotBeDecoded() {
+        var client = new WSClient(URI.create("ws://localhost/"), "game", "alice", Runnable::run);
+        var invalidSnapshots = new ArrayList<String>();
+        client.setOnGameSnapshot(snapshot -> fail());
+        client.setOnGameDesync(invalidSnapshots::add);
+        var webSocket = new RequestCountingWebSocket();
+        client.onOpen(webSocket);
+
+        client.onText(webSocket, "GAMESNAPSHOT.!!", true);
+        assertEquals(List.of("!!"), invalidSnapshots);
+    }
+
+    @Test
+    void wsClientAcceptsTheClosureItRequested() {
+        var client = new WSClient(URI.create("ws://localhost/"), "game", "alice", Runnable::run);
+        client.setOnConnectionClose(reason -> fail());
+        var webSocket = new RequestCountingWebSocket();
+        client.onOpen(webSocket);
+        client.close();
+        assertDoesNotThrow(() -> client.onClose(webSocket, WebSocket.NORMAL_CLOSURE, ""));
+        assertThrows(IllegalArgumentException.class, () -> client.sendAction("AB"));
+    }
+
+    @Test
+    void wsClientReportsTheClosureOfTheServerAfterTheMessagesReceivedBefore() {
+        var client = new WSClient(URI.create("ws://localhost/"), "game", "alice", Runnable::run);
+        var events = new ArrayList<String>();
+        client.setOnGameEnd(events::add);
+        client.setOnConnectionClose(events::add);
+        var webSocket = new RequestCountingWebSocket();
+        client.onOpen(webSocket);
+
+        client.onText(webSocket, "GAMEEND.12", true);
+        assertDoesNotThrow(() -> client.onClose(webSocket, 1008, "USERNAME_TAKEN"));
+        assertEquals(List.of("12", "1008 USERNAME_TAKEN"), events);
+        assertThrows(IllegalArgumentException.class, () -> client.sendAction("AB"));
+    }
+
+    @Test
+    void wsClientReportsTheLossOfTheConnection() {
+        var client = new WSClient(URI.create("ws://localhost/"), "game", "alice", Runnable::run);
+        var reasons = new ArrayList<String>();
+        client.setOnConnectionClose(reasons::add);
+        var webSocket = new RequestCountingWebSocket();
+        client.onOpen(webSocket);
+
+        client.onError(webSocket, new IOException("lost"));
+        client.onError(webSocket, new IOException("lost again"));
+        assertEquals(List.of("java.io.IOException: lost"), reasons);
+    }
+}
@@ -0,0 +1,84 @@
+package ch.epfl.chacun.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WSEventPipelineTest {
+
+    @Test
+    void wsEventPipelineHandlesABurstOfEventsInASingleBatch() {
+        Queue<Runnable> uiTasks = new ArrayDeque<>();
+        var handled = new ArrayList<WSEvent>();
+        var requests = new AtomicInteger();
+        var pipeline = new WSEventPipeline(uiTasks::add, handled::add, requests::incrementAndGet, 100);
+
+        var events = new ArrayList<WSEvent>();
+        for (int i = 0; i < 50; i += 1) events.add(new WSEvent.PlayerAction(Integer.toString(i)));
+        events.forEach(pipeline::push);
+        assertEquals(1, uiTasks.size());
+        assertEquals(50, requests.get());
+        assertTrue(handled.isEmpty());
+
+        uiTasks.poll().run();
+        assertEquals(events, handled);
+
+        pipeline.push(new WSEvent.GameEnd("50"));
+        assertEquals(1, uiTasks.size());
+    }
+
+    @Test
+    void wsEventPipelineStopsRequestingMessagesWhenFull() {
+        Queue<Runnable> uiTasks = new ArrayDeque<>();
+        var handled = new ArrayList<WSEvent>();
+        var requests = new AtomicInteger();
+        var pipeline = new WSEventPipeline(uiTasks::add, handled::add, requests::incrementAndGet, 4);
+
+        for (int i = 0; i < 4; i += 1) pipeline.push(new WSEvent.PlayerAction(Integer.toString(i)));
+        assertEquals(3, requests.get());
+
+        uiTasks.poll().run();
+        assertEquals(4, handled.size());
+        assertEquals(4, requests.get());
+        assertTrue(uiTasks.isEmpty());
+    }
+
+    @Test
+    void wsEventPipelineHandlesConcurrentEventsInOrderWithoutLosingRequests() throws InterruptedException {
+        int eventCount = 100_000;
+        List<WSEvent> handled = new ArrayList<>();
+        var requests = new AtomicInteger(1);
+        var batchCount = new AtomicInteger();
+        // a single thread plays the role of the JavaFX thread
+        ExecutorService ui = Executors.newSingleThreadExecutor();
+        var pipeline = new WSEventPipeline(task -> {
+            batchCount.incrementAndGet();
+            ui.execute(task);
+        }, handled::add, requests::incrementAndGet, 8);
+
+        // as the WebSocket, only delivers a message when it was requested
+        for (int i = 0; i < eventCount; i += 1) {
+            while (requests.get() == 0) Thread.onSpinWait();
+            requests.decrementAndGet();
+            pipeline.push(new WSEvent.PlayerAction(Integer.toString(i)));
+        }
+        ui.shutdown();
+        assertTrue(ui.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(eventCount, handled.size());
+        for (int i = 0; i < eventCount; i += 1) {
+            assertEquals(new WSEvent.PlayerAction(Integer.toString(i)), handled.get(i));
+        }
+        assertEquals(1, requests.get());
+        assertTrue(batchCount.get() <= eventCount);
+    }
+}
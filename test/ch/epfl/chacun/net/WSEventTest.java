@@ -0,0 +1,43 @@
+package ch.epfl.chacun.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WSEventTest {
+
+    @Test
+    void wsEventParsesEveryMessageOfTheServer() {
+        assertEquals(new WSEvent.PlayersUpdate("alice,bob"), WSEvent.parse("GAMEJOIN_ACCEPT.alice,bob"));
+        assertEquals(new WSEvent.PlayerLeave("alice"), WSEvent.parse("GAMELEAVE.alice"));
+        assertEquals(new WSEvent.PlayerAction("AB"), WSEvent.parse("GAMEACTION_ACCEPT.AB"));
+        assertEquals(new WSEvent.ActionReject("NOT_YOUR_TURN"), WSEvent.parse("GAMEACTION_DENY.NOT_YOUR_TURN"));
+        assertEquals(new WSEvent.GameEnd("73"), WSEvent.parse("GAMEEND.73"));
+        assertEquals(new WSEvent.Ping(), WSEvent.parse("PING.12"));
+    }
+
+    @Test
+    void wsEventDecodesChatMessagesTwice() {
+        var content = "Hello = world. 100% ça va ?";
+        var data = URLEncoder.encode(STR."alice=\{URLEncoder.encode(content, StandardCharsets.UTF_8)}",
+                StandardCharsets.UTF_8).replace(".", "%2E");
+        assertEquals(new WSEvent.ChatMessage("alice", content), WSEvent.parse(STR."GAMEMSG.\{data}"));
+    }
+
+    @Test
+    void wsEventKeepsTheSnapshotsWhichCanNotBeDecoded() {
+        assertEquals(new WSEvent.InvalidSnapshot("!!"), WSEvent.parse("GAMESNAPSHOT.!!"));
+        assertEquals(new WSEvent.InvalidSnapshot(""), WSEvent.parse("GAMESNAPSHOT."));
+    }
+
+    @Test
+    void wsEventThrowsOnInvalidMessages() {
+        assertThrows(IllegalArgumentException.class, () -> WSEvent.parse("PING"));
+        assertThrows(IllegalArgumentException.class, () -> WSEvent.parse(".data"));
+        assertThrows(IllegalArgumentException.class, () -> WSEvent.parse("UNKNOWN.data"));
+        assertThrows(IllegalArgumentException.class, () -> WSEvent.parse("GAMEMSG.alice"));
+    }
+}
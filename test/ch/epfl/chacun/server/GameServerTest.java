@@ -0,0 +1,397 @@
+package ch.epfl.chacun.server;
+
+import ch.epfl.chacun.*;
+import ch.epfl.chacun.archive.GameSnapshot;
+import ch.epfl.chacun.sim.RandomPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    private static final HttpClient HTTP_CLIENT = HttpClient.newHttpClient();
+
+    private GameServer server;
+
+    /**
+     * A client of the server, keeping all the messages it receives except the pings, which it answers
+     */
+    private static final class TestClient implements WebSocket.Listener {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final CompletableFuture<String> closed = new CompletableFuture<>();
+        private final StringBuilder fragments = new StringBuilder();
+        private final boolean answersPings;
+        private volatile WebSocket webSocket;
+        private volatile int pingCount;
+        // the JDK WebSocket refuses a message sent before the previous one is, the sends are thus chained
+        private CompletableFuture<?> lastSend = CompletableFuture.completedFuture(null);
+
+        TestClient(boolean answersPings) {
+            this.answersPings = answersPings;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            this.webSocket = webSocket;
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            fragments.append(data);
+            if (last) {
+                var message = fragments.toString();
+                fragments.setLength(0);
+                if (message.startsWith("PING.")) {
+                    pingCount += 1;
+                    if (answersPings) sendAsync("PONG");
+                } else {
+                    messages.add(message);
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            closed.complete(STR."\{statusCode} \{reason}");
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            closed.complete(error.toString());
+        }
+
+        private synchronized CompletableFuture<?> sendAsync(String message) {
+            lastSend = lastSend.thenCompose(_ -> webSocket.sendText(message, true));
+            return lastSend;
+        }
+
+        void send(String message) {
+            sendAsync(message).join();
+        }
+
+        String next() throws InterruptedException {
+            var message = messages.poll(10, TimeUnit.SECONDS);
+            assertNotNull(message, "no message received");
+            return message;
+        }
+
+        String closeReason() throws Exception {
+            return closed.get(10, TimeUnit.SECONDS);
+        }
+
+        void leave() {
+            lastSend.join();
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "").join();
+        }
+    }
+
+    private TestClient connect(boolean answersPings) {
+        var client = new TestClient(answersPings);
+        HTTP_CLIENT.newWebSocketBuilder()
+                .buildAsync(URI.create(STR."ws://localhost:\{server.port()}/"), client)
+                .join();
+        return client;
+    }
+
+    private TestClient join(String gameName, String username) {
+        var client = connect(true);
+        client.send(STR."GAMEJOIN.\{gameName},\{username}");
+        return client;
+    }
+
+    private static GameState initialState(String gameName, List<String> names) {
+        var namesByColor = new TreeMap<PlayerColor, String>();
+        for (int i = 0; i < names.size(); i += 1) namesByColor.put(PlayerColor.ALL.get(i), names.get(i));
+        return GameState.initial(List.copyOf(namesByColor.keySet()), TileDecks.shuffled(gameName.hashCode()),
+                new TextMakerFr(namesByColor)).withStartingTilePlaced();
+    }
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new GameServer(0, true, 5_000).start();
+    }
+
+    @AfterEach
+    void closeServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void gameServerSendsThePlayersToEveryPlayer() throws InterruptedException {
+        var alice = join("g", "alice");
+        assertEquals("GAMEJOIN_ACCEPT.alice", alice.next());
+        var bob = join("g", "bob");
+        assertEquals("GAMEJOIN_ACCEPT.alice,bob", alice.next());
+        assertEquals("GAMEJOIN_ACCEPT.alice,bob", bob.next());
+        bob.leave();
+        assertEquals("GAMELEAVE.alice", alice.next());
+    }
+
+    @Test
+    void gameServerPlaysAWholeGameAndOnlyRelaysValidActions() throws InterruptedException {
+        var names = List.of("alice", "bob");
+        var clients = List.of(join("whole", "alice"), join("whole", "bob"));
+        clients.getFirst().next();
+        for (var client : clients) client.next();
+
+        RandomGenerator generator = RandomGeneratorFactory.getDefault().create(1);
+        var policy = new RandomPolicy();
+        var state = initialState("whole", names);
+        int actionCount = 0;
+        while (state.nextAction() != GameState.Action.END_GAME) {
+            var current = clients.get(state.currentPlayer().ordinal());
+            var other = clients.get(1 - state.currentPlayer().ordinal());
+            if (actionCount % 10 == 0) {
+                other.send("GAMEACTION.A");
+                assertEquals("GAMEACTION_DENY.NOT_YOUR_TURN", other.next());
+                current.send("GAMEACTION.!!");
+                assertEquals("GAMEACTION_DENY.INVALID_ACTION", current.next());
+            }
+            var stateAction = policy.play(state, generator);
+            current.send(STR."GAMEACTION.\{stateAction.action()}");
+            for (var client : clients) assertEquals(STR."GAMEACTION_ACCEPT.\{stateAction.action()}", client.next());
+            state = stateAction.gameState();
+            actionCount += 1;
+        }
+        for (var client : clients) assertEquals(STR."GAMEEND.\{actionCount}", client.next());
+        var serverState = server.room("whole").state();
+        assertEquals(state.board(), serverState.board());
+        assertEquals(state.messageBoard().points(), serverState.messageBoard().points());
+        clients.getFirst().send("GAMEACTION.A");
+        assertEquals("GAMEACTION_DENY.GAME_ENDED", clients.getFirst().next());
+    }
+
+    @Test
+    void gameServerDeniesActionsWithASinglePlayer() throws InterruptedException {
+        var alice = join("alone", "alice");
+        alice.next();
+        alice.send("GAMEACTION.AA");
+        assertEquals("GAMEACTION_DENY.NOT_ENOUGH_PLAYERS", alice.next());
+    }
+
+    @Test
+    void gameServerRelaysChatMessagesEncodedAsTheClientExpects() throws InterruptedException {
+        var alice = join("chat", "alice");
+        alice.next();
+        var bob = join("chat", "bob");
+        alice.next();
+        bob.next();
+
+        var text = "Hello. a=b & c, ça va ?";
+        alice.send(STR."GAMEMSG.\{URLEncoder.encode(text, StandardCharsets.UTF_8)}");
+        for (var client : List.of(alice, bob)) {
+            var message = client.next();
+            // decoded as WSClient.handleMessage does
+            var parts = message.split("\\.");
+            assertEquals(2, parts.length);
+            assertEquals("GAMEMSG", parts[0]);
+            var content = URLDecoder.decode(parts[1], StandardCharsets.UTF_8);
+            assertEquals("alice", content.split("=")[0]);
+            assertEquals(text, URLDecoder.decode(content.split("=")[1], StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void gameServerAssemblesFragmentedMessages() throws InterruptedException {
+        var alice = connect(true);
+        alice.webSocket.sendText("GAMEJOIN.frag", false).join();
+        alice.webSocket.sendText("ments,ali", false).join();
+        alice.webSocket.sendText("ce", true).join();
+        assertEquals("GAMEJOIN_ACCEPT.alice", alice.next());
+        assertNotNull(server.room("fragments"));
+    }
+
+    @Test
+    void gameServerRefusesInvalidJoins() throws Exception {
+        var alice = join("refused", "alice");
+        alice.next();
+        assertEquals("1008 USERNAME_TAKEN", join("refused", "alice").closeReason());
+        assertEquals("1008 INVALID_JOIN", join("refused", "a.b").closeReason());
+        var invalid = connect(true);
+        invalid.send("HELLO");
+        assertEquals("1008 INVALID_JOIN", invalid.closeReason());
+
+        var bob = join("refused", "bob");
+        alice.next();
+        bob.next();
+        var state = initialState("refused", List.of("alice", "bob"));
+        var action = new RandomPolicy().play(state, RandomGeneratorFactory.getDefault().create(0)).action();
+        alice.send(STR."GAMEACTION.\{action}");
+        alice.next();
+        assertEquals("1008 GAME_STARTED", join("refused", "carol").closeReason());
+
+        for (var name : List.of("c", "d", "e", "f", "g")) join("full", name).next();
+        assertEquals("1008 GAME_FULL", join("full", "h").closeReason());
+    }
+
+    @Test
+    void gameServerRestartsTheGameWhenAPlayerLeavesBeforeItStarted() throws InterruptedException {
+        var alice = join("restart", "alice");
+        alice.next();
+        var bob = join("restart", "bob");
+        alice.next();
+        bob.next();
+        var carol = join("restart", "carol");
+        for (var client : List.of(alice, bob, carol)) client.next();
+
+        bob.leave();
+        assertEquals("GAMELEAVE.alice,carol", alice.next());
+        assertEquals("GAMELEAVE.alice,carol", carol.next());
+        // carol is now the second player
+        var state = initialState("restart", List.of("alice", "carol"));
+        var action = new RandomPolicy().play(state, RandomGeneratorFactory.getDefault().create(0)).action();
+        carol.send(STR."GAMEACTION.\{action}");
+        assertEquals("GAMEACTION_DENY.NOT_YOUR_TURN", carol.next());
+    }
+
+    @Test
+    void gameServerResumesTheStartedGameWhenAPlayerReturns() throws Exception {
+        var alice = join("resume", "alice");
+        alice.next();
+        var bob = join("resume", "bob");
+        alice.next();
+        bob.next();
+
+        var generator = RandomGeneratorFactory.getDefault().create(0);
+        var state = initialState("resume", List.of("alice", "bob"));
+        var actions = new ArrayList<String>();
+        for (int i = 0; i < 10; i += 1) {
+            var stateAction = new RandomPolicy().play(state, generator);
+            (state.currentPlayer() == PlayerColor.RED ? alice : bob).send(STR."GAMEACTION.\{stateAction.action()}");
+            alice.next();
+            bob.next();
+            actions.add(stateAction.action());
+            state = stateAction.gameState();
+        }
+
+        bob.leave();
+        assertEquals("GAMEAWAY.bob", alice.next());
+        assertEquals(state.board(), server.room("resume").state().board());
+        assertEquals("1008 GAME_STARTED", join("resume", "carol").closeReason());
+        assertEquals("1008 USERNAME_TAKEN", join("resume", "alice").closeReason());
+
+        var returningBob = join("resume", "bob");
+        assertEquals("GAMEJOIN_ACCEPT.alice,bob", returningBob.next());
+        var snapshotMessage = returningBob.next();
+        assertTrue(snapshotMessage.startsWith("GAMESNAPSHOT."));
+        assertEquals("GAMERETURN.bob", alice.next());
+
+        var snapshot = GameSnapshot.decode(snapshotMessage.substring("GAMESNAPSHOT.".length()));
+        assertEquals("resume".hashCode(), snapshot.seed());
+        assertEquals(actions, snapshot.actions());
+        var restored = snapshot.restore(new TextMakerFr(Map.of()), null, List.of());
+        assertEquals(state.board(), restored.board());
+
+        // the game goes on where it was left
+        var stateAction = new RandomPolicy().play(restored, generator);
+        (restored.currentPlayer() == PlayerColor.RED ? alice : returningBob)
+                .send(STR."GAMEACTION.\{stateAction.action()}");
+        assertEquals(STR."GAMEACTION_ACCEPT.\{stateAction.action()}", alice.next());
+        assertEquals(STR."GAMEACTION_ACCEPT.\{stateAction.action()}", returningBob.next());
+
+        alice.leave();
+        returningBob.leave();
+        for (int i = 0; i < 100 && server.gameCount() > 0; i += 1) Thread.sleep(50);
+        assertEquals(0, server.gameCount());
+    }
+
+    @Test
+    void gameServerPingsClientsAndDropsTheSilentOnes() throws Exception {
+        server.close();
+        server = new GameServer(0, true, 250).start();
+        var alice = join("ping", "alice");
+        alice.next();
+        var silent = connect(false);
+        silent.send("GAMEJOIN.ping,silent");
+        assertEquals("GAMEJOIN_ACCEPT.alice,silent", silent.next());
+        alice.next();
+        assertTrue(silent.closeReason().startsWith("1008"));
+        assertEquals("GAMELEAVE.alice", alice.next());
+        Thread.sleep(1_500);
+        assertTrue(alice.pingCount >= 4);
+        assertFalse(alice.closed.isDone());
+    }
+
+    @Test
+    void gameServerDropsTheClientsWhichDoNotReadTheirMessages() throws InterruptedException {
+        var alice = join("stalled", "alice");
+        alice.next();
+        // a client which never requests the messages, the server blocking while writing to it
+        var stalled = HTTP_CLIENT.newWebSocketBuilder()
+                .buildAsync(URI.create(STR."ws://localhost:\{server.port()}/"), new WebSocket.Listener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket) {
+                    }
+                })
+                .join();
+        stalled.sendText("GAMEJOIN.stalled,stalled", true).join();
+        assertEquals("GAMEJOIN_ACCEPT.alice,stalled", alice.next());
+
+        // alice keeps receiving her messages while the ones of the stalled client are queued, until it is dropped
+        var chat = STR."GAMEMSG.\{"a".repeat(60_000)}";
+        var message = "";
+        for (int i = 0; i < 1_000 && !message.equals("GAMELEAVE.alice"); i += 1) {
+            alice.send(chat);
+            message = alice.next();
+        }
+        assertEquals("GAMELEAVE.alice", message);
+        stalled.abort();
+    }
+
+    @Test
+    void gameServerHostsManyGamesConcurrently() throws Exception {
+        int gameCount = 100;
+        var clients = new ArrayList<TestClient>();
+        for (int i = 0; i < gameCount; i += 1) {
+            var alice = join(STR."game\{i}", "alice");
+            alice.next();
+            clients.add(alice);
+            clients.add(join(STR."game\{i}", "bob"));
+        }
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<GameState>>();
+            for (int i = 0; i < gameCount; i += 1) {
+                var gameName = STR."game\{i}";
+                var players = List.of(clients.get(2 * i), clients.get(2 * i + 1));
+                futures.add(executor.submit(() -> {
+                    for (var player : players) assertEquals("GAMEJOIN_ACCEPT.alice,bob", player.next());
+                    var generator = RandomGeneratorFactory.getDefault().create(gameName.hashCode());
+                    var state = initialState(gameName, List.of("alice", "bob"));
+                    for (int j = 0; j < 20; j += 1) {
+                        var stateAction = new RandomPolicy().play(state, generator);
+                        players.get(state.currentPlayer().ordinal()).send(STR."GAMEACTION.\{stateAction.action()}");
+                        for (var player : players) {
+                            assertEquals(STR."GAMEACTION_ACCEPT.\{stateAction.action()}", player.next());
+                        }
+                        state = stateAction.gameState();
+                    }
+                    return state;
+                }));
+            }
+            for (int i = 0; i < gameCount; i += 1) {
+                assertEquals(futures.get(i).get().board(), server.room(STR."game\{i}").state().board());
+            }
+        }
+        assertEquals(gameCount, server.gameCount());
+        for (var client : clients) client.leave();
+        for (int i = 0; i < 100 && server.gameCount() > 0; i += 1) Thread.sleep(50);
+        assertEquals(0, server.gameCount());
+    }
+}
@@ -0,0 +1,72 @@
+package ch.epfl.chacun.sim;
+
+import ch.epfl.chacun.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    private static final Map<PlayerColor, Policy> POLICIES = Map.of(
+            PlayerColor.RED, new RandomPolicy(),
+            PlayerColor.BLUE, new RandomPolicy(),
+            PlayerColor.GREEN, new RandomPolicy());
+
+    @Test
+    void simulatorPlaysGamesUntilTheirEnd() {
+        var simulator = new Simulator(POLICIES, 2);
+        for (var result : simulator.playAll(0, 8)) {
+            assertEquals(GameState.Action.END_GAME, result.finalState().nextAction());
+            assertEquals(result.actions().size(), result.moveCount());
+            assertTrue(result.moveCount() > 0);
+        }
+    }
+
+    @Test
+    void simulatorGamesOnlyDependOnTheirSeed() {
+        var sequential = new Simulator(POLICIES, 1).playAll(42, 4);
+        var parallel = new Simulator(POLICIES, 4).playAll(42, 4);
+        for (int i = 0; i < sequential.size(); i += 1) {
+            assertEquals(42 + i, parallel.get(i).seed());
+            assertEquals(sequential.get(i).actions(), parallel.get(i).actions());
+            assertEquals(sequential.get(i).finalState().messageBoard().points(),
+                    parallel.get(i).finalState().messageBoard().points());
+        }
+    }
+
+    @Test
+    void simulatorActionsReplayToTheFinalState() {
+        var result = new Simulator(POLICIES, 1).play(7);
+        var state = GameState.initial(
+                List.of(PlayerColor.RED, PlayerColor.BLUE, PlayerColor.GREEN),
+                TileDecks.shuffled(7),
+                result.finalState().messageBoard().textMaker()
+        ).withStartingTilePlaced();
+        for (var action : result.actions()) {
+            var stateAction = ActionEncoder.decodeAndApply(state, action);
+            assertNotNull(stateAction);
+            state = stateAction.gameState();
+        }
+        assertEquals(result.finalState(), state);
+    }
+
+    @Test
+    void simulatorReportComputesRatesAndPercentiles() {
+        var report = new Simulator.Report(2, 4, 2_000_000_000L, new long[]{10, 20, 30, 40});
+        assertEquals(1, report.gamesPerSecond(), 1e-9);
+        assertEquals(2, report.movesPerSecond(), 1e-9);
+        assertEquals(20, report.latencyPercentile(50));
+        assertEquals(40, report.latencyPercentile(99));
+        assertEquals(40, report.latencyPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> report.latencyPercentile(0));
+    }
+
+    @Test
+    void simulatorConstructorThrowsOnInvalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Simulator(Map.of(PlayerColor.RED, new RandomPolicy()), 1));
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(POLICIES, 0));
+    }
+}